@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+
+import org.apache.mahout.cf.taste.impl.common.FastByIDMap;
+import org.apache.mahout.cf.taste.impl.common.FastIDSet;
+import org.apache.mahout.cf.taste.impl.model.GenericDataModel;
+import org.apache.mahout.cf.taste.impl.model.GenericUserPreferenceArray;
+import org.apache.mahout.cf.taste.model.DataModel;
+import org.apache.mahout.cf.taste.model.PreferenceArray;
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.DenseMatrix;
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.Matrix;
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.math.SequentialAccessSparseVector;
+import org.apache.mahout.math.Vector;
+
+/**
+ * <p>Synthetic datasets for the benchmarks. Every dataset is generated from a fixed seed, so that all runs, on every
+ * release, measure the same inputs.</p>
+ */
+public final class BenchmarkData {
+
+  public static final long SEED = 0xBE4C4L;
+
+  /** the storage types of {@link Vector} */
+  public enum VectorType {
+    DENSE {
+      @Override
+      Vector copyOf(Vector vector) {
+        return new DenseVector(vector);
+      }
+    },
+    RANDOM_ACCESS_SPARSE {
+      @Override
+      Vector copyOf(Vector vector) {
+        return new RandomAccessSparseVector(vector);
+      }
+    },
+    SEQUENTIAL_ACCESS_SPARSE {
+      @Override
+      Vector copyOf(Vector vector) {
+        return new SequentialAccessSparseVector(vector);
+      }
+    };
+
+    abstract Vector copyOf(Vector vector);
+  }
+
+  private BenchmarkData() {}
+
+  public static Random random(long stream) {
+    return RandomUtils.getRandom(SEED + stream);
+  }
+
+  /** vector with numNonZeros gaussian values at uniformly chosen indices */
+  public static Vector vector(Random random, VectorType type, int cardinality, int numNonZeros) {
+    Vector vector = new RandomAccessSparseVector(cardinality, numNonZeros);
+    while (vector.getNumNondefaultElements() < numNonZeros) {
+      vector.setQuick(random.nextInt(cardinality), random.nextGaussian());
+    }
+    return type.copyOf(vector);
+  }
+
+  public static Vector[] vectors(Random random, VectorType type, int numVectors, int cardinality, int numNonZeros) {
+    Vector[] vectors = new Vector[numVectors];
+    for (int n = 0; n < numVectors; n++) {
+      vectors[n] = vector(random, type, cardinality, numNonZeros);
+    }
+    return vectors;
+  }
+
+  /**
+   * document vector of numTerms terms weighted by tf-idf, terms are drawn from a Zipf-like distribution over the
+   * dictionary so that frequent terms have low indices and low weights, like in the output of seq2sparse
+   */
+  public static Vector tfIdfVector(Random random, int dictionarySize, int numTerms) {
+    Vector vector = new RandomAccessSparseVector(dictionarySize, numTerms);
+    while (vector.getNumNondefaultElements() < numTerms) {
+      double u = random.nextDouble();
+      int term = (int) (u * u * u * dictionarySize);
+      int tf = 1 + (int) -Math.log(random.nextDouble());
+      double idf = Math.log((double) dictionarySize / (term + 1)) + 1;
+      vector.setQuick(term, Math.sqrt(tf) * idf);
+    }
+    return vector;
+  }
+
+  /** the ratings from 1 to 5 in steps of 0.5 of one user for numRatings out of numItems items */
+  public static Vector ratingVector(Random random, int numItems, int numRatings) {
+    Vector vector = new RandomAccessSparseVector(numItems, numRatings);
+    while (vector.getNumNondefaultElements() < numRatings) {
+      double u = random.nextDouble();
+      vector.setQuick((int) (u * u * numItems), 1 + random.nextInt(9) / 2.0);
+    }
+    return vector;
+  }
+
+  /** the numInteractions items out of numItems that one user interacted with, as ones */
+  public static Vector binaryVector(Random random, int numItems, int numInteractions) {
+    Vector vector = new RandomAccessSparseVector(numItems, numInteractions);
+    while (vector.getNumNondefaultElements() < numInteractions) {
+      double u = random.nextDouble();
+      vector.setQuick((int) (u * u * numItems), 1.0);
+    }
+    return vector;
+  }
+
+  public static Matrix denseMatrix(Random random, int rows, int columns) {
+    Matrix matrix = new DenseMatrix(rows, columns);
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        matrix.setQuick(row, column, random.nextGaussian());
+      }
+    }
+    return matrix;
+  }
+
+  /** symmetric positive definite matrix a' a + n I */
+  public static Matrix positiveDefiniteMatrix(Random random, int size) {
+    Matrix a = denseMatrix(random, size, size);
+    Matrix spd = a.transpose().times(a);
+    for (int i = 0; i < size; i++) {
+      spd.setQuick(i, i, spd.getQuick(i, i) + size);
+    }
+    return spd;
+  }
+
+  /**
+   * ratings from 1 to 5 of numUsers users for prefsPerUser items each, items are drawn with a skewed distribution so
+   * that some items are far more popular than others, like in real datasets
+   */
+  public static DataModel preferences(Random random, int numUsers, int numItems, int prefsPerUser) {
+    FastByIDMap<PreferenceArray> userData = new FastByIDMap<PreferenceArray>(numUsers);
+    for (long userID = 0; userID < numUsers; userID++) {
+      FastIDSet items = new FastIDSet(prefsPerUser);
+      while (items.size() < prefsPerUser) {
+        double u = random.nextDouble();
+        items.add((long) (u * u * numItems));
+      }
+      PreferenceArray prefs = new GenericUserPreferenceArray(prefsPerUser);
+      prefs.setUserID(0, userID);
+      int n = 0;
+      for (long itemID : items.toArray()) {
+        prefs.setItemID(n, itemID);
+        prefs.setValue(n, 1 + random.nextInt(5));
+        n++;
+      }
+      userData.put(userID, prefs);
+    }
+    return new GenericDataModel(userData);
+  }
+
+}
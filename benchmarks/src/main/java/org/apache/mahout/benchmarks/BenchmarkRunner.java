@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Runs the benchmarks whose names match an optional regular expression and writes one CSV line per benchmark
+ * and parameter combination, so that the results of two releases can be compared with diff or a spreadsheet.</p>
+ *
+ * <pre>java -jar benchmarks.jar [regexp] [result file]</pre>
+ *
+ * <p>Any other command line starting with an option is handed to the JMH command line, e.g. {@code -h}.</p>
+ */
+public final class BenchmarkRunner {
+
+  private static final String DEFAULT_RESULT_FILE = "mahout-benchmarks.csv";
+
+  private BenchmarkRunner() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].startsWith("-")) {
+      org.openjdk.jmh.Main.main(args);
+      return;
+    }
+    String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackage().getName() + ".*";
+    String resultFile = args.length > 1 ? args[1] : DEFAULT_RESULT_FILE;
+    run(include, resultFile);
+  }
+
+  public static void run(String include, String resultFile) throws RunnerException {
+    Options options = new OptionsBuilder()
+        .include(include)
+        .resultFormat(ResultFormatType.CSV)
+        .result(resultFile)
+        .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.Lists;
+import org.apache.mahout.benchmarks.BenchmarkData.VectorType;
+import org.apache.mahout.clustering.Cluster;
+import org.apache.mahout.clustering.classify.ClusterClassifier;
+import org.apache.mahout.clustering.iterator.KMeansClusteringPolicy;
+import org.apache.mahout.clustering.kmeans.Kluster;
+import org.apache.mahout.common.distance.CosineDistanceMeasure;
+import org.apache.mahout.common.distance.DistanceMeasure;
+import org.apache.mahout.common.distance.SquaredEuclideanDistanceMeasure;
+import org.apache.mahout.math.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The inner loop of k-means: assigning points to their closest centroid and updating the centroid statistics.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ClusteringBenchmark {
+
+  private static final int NUM_POINTS = 1000;
+
+  @Param({ "DENSE", "RANDOM_ACCESS_SPARSE", "SEQUENTIAL_ACCESS_SPARSE" })
+  public VectorType type;
+
+  @Param("20")
+  public int numClusters;
+
+  @Param("1000")
+  public int cardinality;
+
+  @Param("50")
+  public int numNonZeros;
+
+  private Vector[] points;
+  private Vector[] centroids;
+  private ClusterClassifier classifier;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = BenchmarkData.random(5);
+    points = BenchmarkData.vectors(random, type, NUM_POINTS, cardinality, numNonZeros);
+    centroids = new Vector[numClusters];
+    List<Cluster> clusters = Lists.newArrayListWithCapacity(numClusters);
+    for (int n = 0; n < numClusters; n++) {
+      centroids[n] = BenchmarkData.vector(random, VectorType.DENSE, cardinality, cardinality);
+      clusters.add(new Kluster(centroids[n], n, new SquaredEuclideanDistanceMeasure()));
+    }
+    classifier = new ClusterClassifier(clusters, new KMeansClusteringPolicy());
+  }
+
+  private Vector nextPoint() {
+    next = (next + 1) % NUM_POINTS;
+    return points[next];
+  }
+
+  private int closestCentroid(Vector point, DistanceMeasure measure) {
+    int closest = -1;
+    double closestDistance = Double.POSITIVE_INFINITY;
+    for (int n = 0; n < centroids.length; n++) {
+      double distance = measure.distance(centroids[n], point);
+      if (distance < closestDistance) {
+        closestDistance = distance;
+        closest = n;
+      }
+    }
+    return closest;
+  }
+
+  @Benchmark
+  public int closestCentroidSquaredEuclidean() {
+    return closestCentroid(nextPoint(), new SquaredEuclideanDistanceMeasure());
+  }
+
+  @Benchmark
+  public int closestCentroidCosine() {
+    return closestCentroid(nextPoint(), new CosineDistanceMeasure());
+  }
+
+  @Benchmark
+  public Vector classify() {
+    return classifier.classify(nextPoint());
+  }
+
+  @Benchmark
+  public ClusterClassifier classifyAndTrain() {
+    Vector point = nextPoint();
+    classifier.train(classifier.classify(point).maxValueIndex(), point);
+    return classifier;
+  }
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.mahout.cf.taste.impl.common.FastByIDMap;
+import org.apache.mahout.math.map.ConcurrentIntDoubleHashMap;
+import org.apache.mahout.math.map.ConcurrentLongDoubleHashMap;
+import org.apache.mahout.math.map.ConcurrentLongObjectHashMap;
+import org.apache.mahout.math.map.OpenIntDoubleHashMap;
+import org.apache.mahout.math.map.OpenLongDoubleHashMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Updating and looking up random keys in maps shared by all threads: the striped concurrent maps of math against the
+ * math and taste maps behind a single lock, as callers like the taste caches use them. Runs on as many threads as
+ * there are cores, {@code -t} sets another thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ConcurrentHashMapBenchmark {
+
+  private static final int KEYS_PER_INVOCATION = 1000;
+
+  @Param({ "1000", "100000" })
+  public int size;
+
+  private ConcurrentIntDoubleHashMap concurrentIntDoubleMap;
+  private OpenIntDoubleHashMap intDoubleMap;
+  private ConcurrentLongDoubleHashMap concurrentLongDoubleMap;
+  private OpenLongDoubleHashMap longDoubleMap;
+  private ConcurrentLongObjectHashMap<Object> concurrentLongObjectMap;
+  private FastByIDMap<Object> fastByIDMap;
+
+  /** the keys of every thread, drawn from the same range so that threads update the same keys */
+  @State(Scope.Thread)
+  public static class ThreadKeys {
+
+    private static final AtomicInteger STREAMS = new AtomicInteger();
+
+    private int[] keys;
+
+    @Setup
+    public void setUp(ConcurrentHashMapBenchmark benchmark) {
+      Random random = BenchmarkData.random(100 + STREAMS.getAndIncrement());
+      keys = new int[KEYS_PER_INVOCATION];
+      for (int n = 0; n < keys.length; n++) {
+        keys[n] = random.nextInt(benchmark.size);
+      }
+    }
+  }
+
+  @Setup
+  public void setUp() {
+    concurrentIntDoubleMap = new ConcurrentIntDoubleHashMap();
+    intDoubleMap = new OpenIntDoubleHashMap();
+    concurrentLongDoubleMap = new ConcurrentLongDoubleHashMap();
+    longDoubleMap = new OpenLongDoubleHashMap();
+    concurrentLongObjectMap = new ConcurrentLongObjectHashMap<Object>();
+    fastByIDMap = new FastByIDMap<Object>();
+    for (int key = 0; key < size; key++) {
+      concurrentIntDoubleMap.put(key, key);
+      intDoubleMap.put(key, key);
+      concurrentLongDoubleMap.put(key, key);
+      longDoubleMap.put(key, key);
+      concurrentLongObjectMap.put(key, this);
+      fastByIDMap.put(key, this);
+    }
+  }
+
+  @Benchmark
+  public double concurrentIntDoubleAdjust(ThreadKeys keys) {
+    double sum = 0;
+    for (int key : keys.keys) {
+      sum += concurrentIntDoubleMap.adjustOrPutValue(key, 1, 1);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double synchronizedIntDoubleAdjust(ThreadKeys keys) {
+    double sum = 0;
+    for (int key : keys.keys) {
+      synchronized (intDoubleMap) {
+        sum += intDoubleMap.adjustOrPutValue(key, 1, 1);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double concurrentLongDoubleGet(ThreadKeys keys) {
+    double sum = 0;
+    for (int key : keys.keys) {
+      sum += concurrentLongDoubleMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double synchronizedLongDoubleGet(ThreadKeys keys) {
+    double sum = 0;
+    for (int key : keys.keys) {
+      synchronized (longDoubleMap) {
+        sum += longDoubleMap.get(key);
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int concurrentLongObjectPutAndGet(ThreadKeys keys) {
+    int found = 0;
+    for (int key : keys.keys) {
+      concurrentLongObjectMap.put(key, keys);
+      found += concurrentLongObjectMap.get(key ^ 1) == null ? 0 : 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int synchronizedFastByIDMapPutAndGet(ThreadKeys keys) {
+    int found = 0;
+    for (int key : keys.keys) {
+      synchronized (fastByIDMap) {
+        fastByIDMap.put(key, keys);
+        found += fastByIDMap.get(key ^ 1) == null ? 0 : 1;
+      }
+    }
+    return found;
+  }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.math.CholeskyDecomposition;
+import org.apache.mahout.math.Matrix;
+import org.apache.mahout.math.QRDecomposition;
+import org.apache.mahout.math.RowMajorDenseMatrix;
+import org.apache.mahout.math.SingularValueDecomposition;
+import org.apache.mahout.math.SparseRowMatrix;
+import org.apache.mahout.math.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Products and decompositions of square matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatrixBenchmark {
+
+  @Param({ "100", "500" })
+  public int size;
+
+  private Matrix a;
+  private Matrix b;
+  private Matrix rowMajorA;
+  private Matrix rowMajorB;
+  private Matrix sparse;
+  private Matrix positiveDefinite;
+  private Vector v;
+
+  @Setup
+  public void setUp() {
+    Random random = BenchmarkData.random(1);
+    a = BenchmarkData.denseMatrix(random, size, size);
+    b = BenchmarkData.denseMatrix(random, size, size);
+    rowMajorA = new RowMajorDenseMatrix(a);
+    rowMajorB = new RowMajorDenseMatrix(b);
+    sparse = new SparseRowMatrix(size, size);
+    for (int row = 0; row < size; row++) {
+      sparse.assignRow(row, BenchmarkData.vector(random, BenchmarkData.VectorType.RANDOM_ACCESS_SPARSE, size,
+          Math.max(1, size / 100)));
+    }
+    positiveDefinite = BenchmarkData.positiveDefiniteMatrix(random, size);
+    v = a.viewRow(0).clone();
+  }
+
+  @Benchmark
+  public Matrix denseTimesDense() {
+    return a.times(b);
+  }
+
+  @Benchmark
+  public Matrix rowMajorTimesRowMajor() {
+    return rowMajorA.times(rowMajorB);
+  }
+
+  @Benchmark
+  public Matrix denseTimesSparse() {
+    return a.times(sparse);
+  }
+
+  @Benchmark
+  public Matrix sparseTimesDense() {
+    return sparse.times(a);
+  }
+
+  @Benchmark
+  public Vector timesVector() {
+    return a.times(v);
+  }
+
+  @Benchmark
+  public Matrix transposeTimes() {
+    return a.transpose().times(a);
+  }
+
+  @Benchmark
+  public Matrix qr() {
+    return new QRDecomposition(a).getR();
+  }
+
+  @Benchmark
+  public Matrix cholesky() {
+    return new CholeskyDecomposition(positiveDefinite).getL();
+  }
+
+  @Benchmark
+  public double[] svd() {
+    return new SingularValueDecomposition(a).getSingularValues();
+  }
+
+}
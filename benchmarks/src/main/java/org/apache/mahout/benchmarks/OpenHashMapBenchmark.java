@@ -0,0 +1,297 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.cf.taste.impl.common.FastByIDMap;
+import org.apache.mahout.cf.taste.impl.common.LongPrimitiveIterator;
+import org.apache.mahout.math.function.IntDoubleProcedure;
+import org.apache.mahout.math.function.LongProcedure;
+import org.apache.mahout.math.map.OpenIntDoubleHashMap;
+import org.apache.mahout.math.map.OpenLongObjectHashMap;
+import org.apache.mahout.math.map.RobinHoodIntDoubleHashMap;
+import org.apache.mahout.math.map.RobinHoodLongObjectHashMap;
+import org.apache.mahout.math.set.AbstractSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Inserting, looking up and iterating over random keys in the open addressing hash maps of math and taste, the double
+ * hashing maps and the Robin Hood maps of math side by side, at the given maximum load factor of all maps.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OpenHashMapBenchmark {
+
+  @Param({ "1000", "100000" })
+  public int size;
+
+  @Param({ "0.5", "0.75", "0.9" })
+  public double maxLoadFactor;
+
+  private int[] keys;
+  private int[] missingKeys;
+  private OpenIntDoubleHashMap intDoubleMap;
+  private RobinHoodIntDoubleHashMap robinHoodIntDoubleMap;
+  private OpenLongObjectHashMap<Object> longObjectMap;
+  private RobinHoodLongObjectHashMap<Object> robinHoodLongObjectMap;
+  private FastByIDMap<Object> fastByIDMap;
+
+  @Setup
+  public void setUp() {
+    Random random = BenchmarkData.random(2);
+    keys = new int[size];
+    missingKeys = new int[size];
+    intDoubleMap = newIntDoubleMap();
+    robinHoodIntDoubleMap = newRobinHoodIntDoubleMap();
+    longObjectMap = newLongObjectMap();
+    robinHoodLongObjectMap = newRobinHoodLongObjectMap();
+    fastByIDMap = newFastByIDMap();
+    for (int n = 0; n < size; n++) {
+      keys[n] = random.nextInt() & Integer.MAX_VALUE;
+      missingKeys[n] = ~(random.nextInt() & Integer.MAX_VALUE);
+      intDoubleMap.put(keys[n], n);
+      robinHoodIntDoubleMap.put(keys[n], n);
+      longObjectMap.put(keys[n], keys);
+      robinHoodLongObjectMap.put(keys[n], keys);
+      fastByIDMap.put(keys[n], keys);
+    }
+  }
+
+  private OpenIntDoubleHashMap newIntDoubleMap() {
+    return new OpenIntDoubleHashMap(AbstractSet.defaultCapacity, AbstractSet.defaultMinLoadFactor, maxLoadFactor);
+  }
+
+  private RobinHoodIntDoubleHashMap newRobinHoodIntDoubleMap() {
+    return new RobinHoodIntDoubleHashMap(AbstractSet.defaultCapacity, AbstractSet.defaultMinLoadFactor, maxLoadFactor);
+  }
+
+  private OpenLongObjectHashMap<Object> newLongObjectMap() {
+    return new OpenLongObjectHashMap<Object>(AbstractSet.defaultCapacity, AbstractSet.defaultMinLoadFactor,
+        maxLoadFactor);
+  }
+
+  private RobinHoodLongObjectHashMap<Object> newRobinHoodLongObjectMap() {
+    return new RobinHoodLongObjectHashMap<Object>(AbstractSet.defaultCapacity, AbstractSet.defaultMinLoadFactor,
+        maxLoadFactor);
+  }
+
+  /** the load factor of FastByIDMap is the ratio of its table size to its size */
+  private FastByIDMap<Object> newFastByIDMap() {
+    return new FastByIDMap<Object>(2, (float) (1.0 / maxLoadFactor));
+  }
+
+  @Benchmark
+  public OpenIntDoubleHashMap intDoublePut() {
+    OpenIntDoubleHashMap map = newIntDoubleMap();
+    for (int n = 0; n < keys.length; n++) {
+      map.put(keys[n], n);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public RobinHoodIntDoubleHashMap robinHoodIntDoublePut() {
+    RobinHoodIntDoubleHashMap map = newRobinHoodIntDoubleMap();
+    for (int n = 0; n < keys.length; n++) {
+      map.put(keys[n], n);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public OpenIntDoubleHashMap intDoubleAdjustOrPut() {
+    OpenIntDoubleHashMap map = newIntDoubleMap();
+    for (int key : keys) {
+      map.adjustOrPutValue(key & 1023, 1, 1);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public RobinHoodIntDoubleHashMap robinHoodIntDoubleAdjustOrPut() {
+    RobinHoodIntDoubleHashMap map = newRobinHoodIntDoubleMap();
+    for (int key : keys) {
+      map.adjustOrPutValue(key & 1023, 1, 1);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public double intDoubleGet() {
+    double sum = 0;
+    for (int key : keys) {
+      sum += intDoubleMap.get(key);
+    }
+    for (int key : missingKeys) {
+      sum += intDoubleMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double robinHoodIntDoubleGet() {
+    double sum = 0;
+    for (int key : keys) {
+      sum += robinHoodIntDoubleMap.get(key);
+    }
+    for (int key : missingKeys) {
+      sum += robinHoodIntDoubleMap.get(key);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double intDoubleIterate() {
+    SumProcedure sum = new SumProcedure();
+    intDoubleMap.forEachPair(sum);
+    return sum.sum;
+  }
+
+  @Benchmark
+  public double robinHoodIntDoubleIterate() {
+    SumProcedure sum = new SumProcedure();
+    robinHoodIntDoubleMap.forEachPair(sum);
+    return sum.sum;
+  }
+
+  @Benchmark
+  public OpenLongObjectHashMap<Object> longObjectPut() {
+    OpenLongObjectHashMap<Object> map = newLongObjectMap();
+    for (int key : keys) {
+      map.put(key, keys);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public RobinHoodLongObjectHashMap<Object> robinHoodLongObjectPut() {
+    RobinHoodLongObjectHashMap<Object> map = newRobinHoodLongObjectMap();
+    for (int key : keys) {
+      map.put(key, keys);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public int longObjectGet() {
+    int found = 0;
+    for (int key : keys) {
+      found += longObjectMap.get(key) == null ? 0 : 1;
+    }
+    for (int key : missingKeys) {
+      found += longObjectMap.get(key) == null ? 0 : 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int robinHoodLongObjectGet() {
+    int found = 0;
+    for (int key : keys) {
+      found += robinHoodLongObjectMap.get(key) == null ? 0 : 1;
+    }
+    for (int key : missingKeys) {
+      found += robinHoodLongObjectMap.get(key) == null ? 0 : 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public long longObjectIterate() {
+    KeySumProcedure sum = new KeySumProcedure();
+    longObjectMap.forEachKey(sum);
+    return sum.sum;
+  }
+
+  @Benchmark
+  public long robinHoodLongObjectIterate() {
+    KeySumProcedure sum = new KeySumProcedure();
+    robinHoodLongObjectMap.forEachKey(sum);
+    return sum.sum;
+  }
+
+  @Benchmark
+  public FastByIDMap<Object> fastByIDMapPut() {
+    FastByIDMap<Object> map = newFastByIDMap();
+    for (int key : keys) {
+      map.put(key, keys);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public int fastByIDMapGet() {
+    int found = 0;
+    for (int key : keys) {
+      found += fastByIDMap.get(key) == null ? 0 : 1;
+    }
+    for (int key : missingKeys) {
+      found += fastByIDMap.get(key) == null ? 0 : 1;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public long fastByIDMapIterate() {
+    long sum = 0;
+    LongPrimitiveIterator it = fastByIDMap.keySetIterator();
+    while (it.hasNext()) {
+      sum += it.nextLong();
+    }
+    return sum;
+  }
+
+  private static final class SumProcedure implements IntDoubleProcedure {
+
+    private double sum;
+
+    @Override
+    public boolean apply(int key, double value) {
+      sum += value;
+      return true;
+    }
+  }
+
+  private static final class KeySumProcedure implements LongProcedure {
+
+    private long sum;
+
+    @Override
+    public boolean apply(long key) {
+      sum += key;
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.clustering.dirichlet.UncommonDistributions;
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.stats.AliasSampler;
+import org.apache.mahout.math.stats.Sampler;
+import org.apache.mahout.math.stats.UpdatableSampler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Repeated draws from the same discrete distribution: binary search over the cumulative distribution, the scan of
+ * {@link UncommonDistributions#rMultinom(Vector)}, the alias table and the tree of partial sums, the latter also with
+ * a weight changed before every draw.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SamplerBenchmark {
+
+  @Param({ "10", "1000", "100000" })
+  public int size;
+
+  private Vector distribution;
+  private double[] cumulative;
+  private Sampler binarySearchSampler;
+  private AliasSampler aliasSampler;
+  private UpdatableSampler updatableSampler;
+  private Random random;
+
+  @Setup
+  public void setUp() {
+    random = BenchmarkData.random(9);
+    double[] weights = new double[size];
+    cumulative = new double[size];
+    double sum = 0;
+    for (int i = 0; i < size; i++) {
+      // skewed, as topic and cluster weights are
+      weights[i] = Math.exp(2 * random.nextGaussian());
+      sum += weights[i];
+      cumulative[i] = sum;
+    }
+    for (int i = 0; i < size; i++) {
+      cumulative[i] /= sum;
+    }
+    distribution = new DenseVector(weights);
+    binarySearchSampler = new Sampler(random, cumulative);
+    aliasSampler = new AliasSampler(random, weights);
+    updatableSampler = new UpdatableSampler(random, weights);
+  }
+
+  @Benchmark
+  public int binarySearch() {
+    return binarySearchSampler.sample();
+  }
+
+  @Benchmark
+  public int multinomialScan() {
+    return UncommonDistributions.rMultinom(distribution);
+  }
+
+  @Benchmark
+  public int alias() {
+    return aliasSampler.sample();
+  }
+
+  @Benchmark
+  public int updatable() {
+    return updatableSampler.sample();
+  }
+
+  @Benchmark
+  public int updatableWithUpdate() {
+    int index = random.nextInt(size);
+    updatableSampler.set(index, updatableSampler.get(index) * 0.999 + 0.001);
+    return updatableSampler.sample();
+  }
+
+  @Benchmark
+  public AliasSampler aliasConstruction() {
+    return new AliasSampler(random, distribution);
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.benchmarks.BenchmarkData.VectorType;
+import org.apache.mahout.classifier.sgd.L1;
+import org.apache.mahout.classifier.sgd.OnlineLogisticRegression;
+import org.apache.mahout.math.Vector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Training and classification steps of the SGD logistic regression on sparse, hashed feature vectors.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SgdBenchmark {
+
+  private static final int NUM_EXAMPLES = 1000;
+
+  @Param({ "2", "20" })
+  public int numCategories;
+
+  @Param("10000")
+  public int numFeatures;
+
+  @Param("50")
+  public int numNonZeros;
+
+  private Vector[] examples;
+  private int[] labels;
+  private OnlineLogisticRegression learner;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    Random random = BenchmarkData.random(4);
+    examples = BenchmarkData.vectors(random, VectorType.RANDOM_ACCESS_SPARSE, NUM_EXAMPLES, numFeatures, numNonZeros);
+    labels = new int[NUM_EXAMPLES];
+    for (int n = 0; n < NUM_EXAMPLES; n++) {
+      labels[n] = random.nextInt(numCategories);
+    }
+    learner = new OnlineLogisticRegression(numCategories, numFeatures, new L1());
+    for (int n = 0; n < NUM_EXAMPLES; n++) {
+      learner.train(labels[n], examples[n]);
+    }
+  }
+
+  @Benchmark
+  public OnlineLogisticRegression train() {
+    next = (next + 1) % NUM_EXAMPLES;
+    learner.train(labels[next], examples[next]);
+    return learner;
+  }
+
+  @Benchmark
+  public Vector classifyFull() {
+    next = (next + 1) % NUM_EXAMPLES;
+    return learner.classifyFull(examples[next]);
+  }
+
+}
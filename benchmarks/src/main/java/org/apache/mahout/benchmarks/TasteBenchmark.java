@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.cf.taste.common.TasteException;
+import org.apache.mahout.cf.taste.impl.common.LongPrimitiveIterator;
+import org.apache.mahout.cf.taste.impl.recommender.GenericItemBasedRecommender;
+import org.apache.mahout.cf.taste.impl.recommender.TopItems;
+import org.apache.mahout.cf.taste.impl.similarity.LogLikelihoodSimilarity;
+import org.apache.mahout.cf.taste.impl.similarity.PearsonCorrelationSimilarity;
+import org.apache.mahout.cf.taste.model.DataModel;
+import org.apache.mahout.cf.taste.recommender.RecommendedItem;
+import org.apache.mahout.cf.taste.recommender.Recommender;
+import org.apache.mahout.cf.taste.similarity.ItemSimilarity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Item similarities, item-based recommendations and top-N selection on a synthetic rating dataset.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TasteBenchmark {
+
+  private static final int NUM_RECOMMENDATIONS = 10;
+
+  @Param("2000")
+  public int numUsers;
+
+  @Param("1000")
+  public int numItems;
+
+  @Param("20")
+  public int prefsPerUser;
+
+  private DataModel dataModel;
+  private ItemSimilarity pearson;
+  private ItemSimilarity logLikelihood;
+  private Recommender recommender;
+  private long[] itemIDs;
+  private double[] estimates;
+  private int nextUser;
+
+  @Setup
+  public void setUp() throws TasteException {
+    Random random = BenchmarkData.random(3);
+    dataModel = BenchmarkData.preferences(random, numUsers, numItems, prefsPerUser);
+    pearson = new PearsonCorrelationSimilarity(dataModel);
+    logLikelihood = new LogLikelihoodSimilarity(dataModel);
+    recommender = new GenericItemBasedRecommender(dataModel, logLikelihood);
+    itemIDs = new long[dataModel.getNumItems()];
+    LongPrimitiveIterator it = dataModel.getItemIDs();
+    for (int n = 0; n < itemIDs.length; n++) {
+      itemIDs[n] = it.nextLong();
+    }
+    estimates = new double[numItems];
+    for (int n = 0; n < numItems; n++) {
+      estimates[n] = random.nextDouble();
+    }
+  }
+
+  private long nextUserID() {
+    nextUser = (nextUser + 1) % numUsers;
+    return nextUser;
+  }
+
+  @Benchmark
+  public double[] pearsonItemSimilarities() throws TasteException {
+    return pearson.itemSimilarities(itemIDs[0], itemIDs);
+  }
+
+  @Benchmark
+  public double[] logLikelihoodItemSimilarities() throws TasteException {
+    return logLikelihood.itemSimilarities(itemIDs[0], itemIDs);
+  }
+
+  @Benchmark
+  public List<RecommendedItem> recommend() throws TasteException {
+    return recommender.recommend(nextUserID(), NUM_RECOMMENDATIONS);
+  }
+
+  @Benchmark
+  public List<RecommendedItem> topItems() throws TasteException {
+    return TopItems.getTopItems(NUM_RECOMMENDATIONS, dataModel.getItemIDs(), null, new TopItems.Estimator<Long>() {
+      @Override
+      public double estimate(Long itemID) {
+        return estimates[(int) itemID.longValue()];
+      }
+    });
+  }
+
+}
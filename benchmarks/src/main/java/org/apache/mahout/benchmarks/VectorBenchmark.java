@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.util.Iterator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.benchmarks.BenchmarkData.VectorType;
+import org.apache.mahout.common.distance.CosineDistanceMeasure;
+import org.apache.mahout.common.distance.DistanceMeasure;
+import org.apache.mahout.common.distance.ManhattanDistanceMeasure;
+import org.apache.mahout.common.distance.SquaredEuclideanDistanceMeasure;
+import org.apache.mahout.common.distance.TanimotoDistanceMeasure;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.function.Functions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binary vector operations and distance measures over every pair of vector storage types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VectorBenchmark {
+
+  private static final DistanceMeasure SQUARED_EUCLIDEAN = new SquaredEuclideanDistanceMeasure();
+  private static final DistanceMeasure MANHATTAN = new ManhattanDistanceMeasure();
+  private static final DistanceMeasure COSINE = new CosineDistanceMeasure();
+  private static final DistanceMeasure TANIMOTO = new TanimotoDistanceMeasure();
+
+  @Param({ "DENSE", "RANDOM_ACCESS_SPARSE", "SEQUENTIAL_ACCESS_SPARSE" })
+  public VectorType left;
+
+  @Param({ "DENSE", "RANDOM_ACCESS_SPARSE", "SEQUENTIAL_ACCESS_SPARSE" })
+  public VectorType right;
+
+  @Param("10000")
+  public int cardinality;
+
+  @Param("100")
+  public int numNonZeros;
+
+  private Vector x;
+  private Vector y;
+
+  @Setup
+  public void setUp() {
+    Random random = BenchmarkData.random(0);
+    x = BenchmarkData.vector(random, left, cardinality, numNonZeros);
+    y = BenchmarkData.vector(random, right, cardinality, numNonZeros);
+  }
+
+  @Benchmark
+  public double dot() {
+    return x.dot(y);
+  }
+
+  @Benchmark
+  public double aggregateSumOfProducts() {
+    return x.aggregate(y, Functions.PLUS, Functions.MULT);
+  }
+
+  @Benchmark
+  public double aggregateSumOfAbsoluteDifferences() {
+    return x.aggregate(y, Functions.PLUS, Functions.chain(Functions.ABS, Functions.MINUS));
+  }
+
+  @Benchmark
+  public Vector assignPlus() {
+    return x.clone().assign(y, Functions.PLUS);
+  }
+
+  @Benchmark
+  public Vector assignMult() {
+    return x.clone().assign(y, Functions.MULT);
+  }
+
+  @Benchmark
+  public Vector minus() {
+    return x.minus(y);
+  }
+
+  @Benchmark
+  public double iterateNonZero() {
+    double sum = 0;
+    Iterator<Vector.Element> nonZeroElements = x.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      sum += nonZeroElements.next().get();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public double squaredEuclideanDistance() {
+    return SQUARED_EUCLIDEAN.distance(x, y);
+  }
+
+  @Benchmark
+  public double manhattanDistance() {
+    return MANHATTAN.distance(x, y);
+  }
+
+  @Benchmark
+  public double cosineDistance() {
+    return COSINE.distance(x, y);
+  }
+
+  @Benchmark
+  public double tanimotoDistance() {
+    return TANIMOTO.distance(x, y);
+  }
+
+}
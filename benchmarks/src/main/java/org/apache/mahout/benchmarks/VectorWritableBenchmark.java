@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.VectorWritable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing and reading {@link VectorWritable}s of document, rating and binary vectors in every encoding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class VectorWritableBenchmark {
+
+  private static final int NUM_VECTORS = 1000;
+
+  /** the kinds of vectors that jobs shuffle */
+  public enum Data {
+    TF_IDF {
+      @Override
+      Vector vector(Random random) {
+        return BenchmarkData.tfIdfVector(random, 100000, 200);
+      }
+    },
+    RATINGS {
+      @Override
+      Vector vector(Random random) {
+        return BenchmarkData.ratingVector(random, 50000, 50);
+      }
+    },
+    BINARY {
+      @Override
+      Vector vector(Random random) {
+        return BenchmarkData.binaryVector(random, 50000, 50);
+      }
+    };
+
+    abstract Vector vector(Random random);
+  }
+
+  /** the settings of {@link VectorWritable} */
+  public enum Encoding {
+    DEFAULT(false, false, 0),
+    LAX_PRECISION(true, false, 0),
+    COMPRESSED(false, true, 0),
+    QUANTIZED_16(false, true, 16),
+    QUANTIZED_8(false, true, 8);
+
+    private final boolean laxPrecision;
+    private final boolean compressed;
+    private final int quantizationBits;
+
+    Encoding(boolean laxPrecision, boolean compressed, int quantizationBits) {
+      this.laxPrecision = laxPrecision;
+      this.compressed = compressed;
+      this.quantizationBits = quantizationBits;
+    }
+
+    VectorWritable writable() {
+      VectorWritable writable = new VectorWritable(null, laxPrecision);
+      writable.setWritesCompressed(compressed);
+      writable.setQuantizationBits(quantizationBits);
+      return writable;
+    }
+  }
+
+  @Param({ "TF_IDF", "RATINGS", "BINARY" })
+  public Data data;
+
+  @Param({ "DEFAULT", "LAX_PRECISION", "COMPRESSED", "QUANTIZED_16", "QUANTIZED_8" })
+  public Encoding encoding;
+
+  private Vector[] vectors;
+  private VectorWritable writable;
+  private ByteArrayOutputStream buffer;
+  private byte[] written;
+
+  @Setup
+  public void setUp() throws IOException {
+    Random random = BenchmarkData.random(6);
+    vectors = new Vector[NUM_VECTORS];
+    for (int n = 0; n < NUM_VECTORS; n++) {
+      vectors[n] = data.vector(random);
+    }
+    writable = encoding.writable();
+    buffer = new ByteArrayOutputStream();
+    write();
+    written = buffer.toByteArray();
+  }
+
+  @Benchmark
+  public int write() throws IOException {
+    buffer.reset();
+    DataOutputStream out = new DataOutputStream(buffer);
+    for (Vector vector : vectors) {
+      writable.set(vector);
+      writable.write(out);
+    }
+    out.flush();
+    return buffer.size();
+  }
+
+  @Benchmark
+  public double read() throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(written));
+    VectorWritable read = new VectorWritable();
+    double sum = 0;
+    for (int n = 0; n < NUM_VECTORS; n++) {
+      read.readFields(in);
+      sum += read.get().getNumNondefaultElements();
+    }
+    return sum;
+  }
+
+}
@@ -0,0 +1,8 @@
+/**
+ * <p>JMH microbenchmarks of math, taste, the SGD learners, the clustering inner loops and vector serialization.</p>
+ *
+ * <p>The module is not part of the default build. Build it with {@code mvn -Pbenchmarks package} and run
+ * {@code java -jar benchmarks/target/benchmarks.jar}. All datasets are generated by {@link
+ * org.apache.mahout.benchmarks.BenchmarkData} from fixed seeds.</p>
+ */
+package org.apache.mahout.benchmarks;
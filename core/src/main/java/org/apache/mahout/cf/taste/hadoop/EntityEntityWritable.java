@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import com.google.common.primitives.Longs;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
 import org.apache.mahout.math.Varint;
 
 /** A {@link WritableComparable} encapsulating two items. */
@@ -99,5 +100,35 @@ public final class EntityEntityWritable
   public EntityEntityWritable clone() {
     return new EntityEntityWritable(aID, bID);
   }
-  
+
+  /** A {@link WritableComparator} that compares the serialized IDs without deserializing them. */
+  public static class Comparator extends WritableComparator {
+
+    public Comparator() {
+      super(EntityEntityWritable.class);
+    }
+
+    @Override
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int aCompare = EntityEntityWritable.compare(Varint.readSignedVarLong(b1, s1), Varint.readSignedVarLong(b2, s2));
+      if (aCompare != 0) {
+        return aCompare;
+      }
+      return EntityEntityWritable.compare(Varint.readSignedVarLong(b1, skipVarLong(b1, s1)),
+          Varint.readSignedVarLong(b2, skipVarLong(b2, s2)));
+    }
+
+    /** the position after the variable length value at the given offset */
+    private static int skipVarLong(byte[] bytes, int offset) {
+      while ((bytes[offset] & 0x80) != 0) {
+        offset++;
+      }
+      return offset + 1;
+    }
+  }
+
+  static {
+    WritableComparator.define(EntityEntityWritable.class, new Comparator());
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,458 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.cf.taste.hadoop.als;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.io.Closeables;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.io.SequenceFile;
+import org.apache.mahout.cf.taste.hadoop.TasteHadoopUtils;
+import org.apache.mahout.common.HadoopUtil;
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.common.iterator.FileLineIterable;
+import org.apache.mahout.common.iterator.sequencefile.PathFilters;
+import org.apache.mahout.common.iterator.sequencefile.PathType;
+import org.apache.mahout.math.DenseMatrix;
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.QRDecomposition;
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.VectorWritable;
+import org.apache.mahout.math.list.FloatArrayList;
+import org.apache.mahout.math.list.IntArrayList;
+import org.apache.mahout.math.map.OpenIntIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Single JVM, multithreaded counterpart of {@link ParallelALSFactorizationJob} for datasets that fit into the
+ * memory of one machine.</p>
+ *
+ * <p>The ratings are read once and kept in two compressed sparse layouts (rows by user and rows by item) made of
+ * primitive arrays, the feature matrices are plain {@code double[][]}s. Each half-iteration recomputes all rows of
+ * one feature matrix in parallel, so there is no per-iteration job setup and no serialization of the fixed feature
+ * matrix. Input and output are the same as those of the MapReduce implementation.</p>
+ */
+final class InMemoryALSFactorizer {
+
+  private static final Logger log = LoggerFactory.getLogger(InMemoryALSFactorizer.class);
+
+  private static final int BLOCKS_PER_THREAD = 4;
+
+  private final int numFeatures;
+  private final double lambda;
+  private final double alpha;
+  private final boolean implicitFeedback;
+  private final int numIterations;
+  private final int numThreads;
+
+  /* dense index to original ID */
+  private int[] userIDs;
+  private int[] itemIDs;
+
+  /* ratings by user: the ratings of user u are at [userOffsets[u], userOffsets[u + 1]) */
+  private int[] userOffsets;
+  private int[] itemsOfUsers;
+  private float[] ratingsOfUsers;
+
+  /* ratings by item: the ratings of item i are at [itemOffsets[i], itemOffsets[i + 1]) */
+  private int[] itemOffsets;
+  private int[] usersOfItems;
+  private float[] ratingsOfItems;
+
+  private double[][] U;
+  private double[][] M;
+
+  InMemoryALSFactorizer(int numFeatures, double lambda, double alpha, boolean implicitFeedback, int numIterations,
+      int numThreads) {
+    Preconditions.checkArgument(numFeatures > 0, "numFeatures must be greater than zero");
+    Preconditions.checkArgument(numThreads > 0, "numThreads must be greater than zero");
+    this.numFeatures = numFeatures;
+    this.lambda = lambda;
+    this.alpha = alpha;
+    this.implicitFeedback = implicitFeedback;
+    this.numIterations = numIterations;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * reads textual preferences {@code userID,itemID,rating}, multiple ratings of a user for the same item are summed
+   * up and zero ratings are dropped as in the MapReduce implementation
+   */
+  void readRatings(Path input, Configuration conf) throws IOException {
+    IntArrayList users = new IntArrayList();
+    IntArrayList items = new IntArrayList();
+    FloatArrayList ratings = new FloatArrayList();
+
+    for (FileStatus status : HadoopUtil.getFileStatus(input, PathType.LIST, PathFilters.logsCRCFilter(), null, conf)) {
+      for (String line : new FileLineIterable(HadoopUtil.openStream(status.getPath(), conf))) {
+        String[] tokens = TasteHadoopUtils.splitPrefTokens(line);
+        users.add(Integer.parseInt(tokens[0]));
+        items.add(Integer.parseInt(tokens[1]));
+        ratings.add(Float.parseFloat(tokens[2]));
+      }
+    }
+    setRatings(users, items, ratings);
+  }
+
+  void setRatings(IntArrayList users, IntArrayList items, FloatArrayList ratings) {
+    int numRatings = ratings.size();
+
+    userIDs = sortedDistinct(users);
+    itemIDs = sortedDistinct(items);
+    int[] userIndexes = toIndexes(users, userIDs);
+    int[] itemIndexes = toIndexes(items, itemIDs);
+
+    /* two stable counting sorts yield the ratings ordered by user and then by item */
+    int[] identity = new int[numRatings];
+    for (int n = 0; n < numRatings; n++) {
+      identity[n] = n;
+    }
+    int[] byUserThenItem = countingSort(userIndexes, userIDs.length,
+        countingSort(itemIndexes, itemIDs.length, identity));
+
+    /* compact the ratings by user, summing up duplicates */
+    userOffsets = new int[userIDs.length + 1];
+    int[] compactedItems = new int[numRatings];
+    float[] compactedRatings = new float[numRatings];
+    int[] compactedUsers = new int[numRatings];
+    int numCompacted = 0;
+    int previousUser = -1;
+    int previousItem = -1;
+    for (int n = 0; n < numRatings; n++) {
+      int entry = byUserThenItem[n];
+      int user = userIndexes[entry];
+      int item = itemIndexes[entry];
+      if (user == previousUser && item == previousItem) {
+        compactedRatings[numCompacted - 1] += ratings.getQuick(entry);
+      } else {
+        compactedUsers[numCompacted] = user;
+        compactedItems[numCompacted] = item;
+        compactedRatings[numCompacted] = ratings.getQuick(entry);
+        userOffsets[user + 1]++;
+        numCompacted++;
+      }
+      previousUser = user;
+      previousItem = item;
+    }
+
+    /* the sparse vectors of the MapReduce implementation do not store zeros, so ratings summing up to zero are
+     * dropped and the remaining users and items are indexed again */
+    int numZeros = 0;
+    for (int n = 0; n < numCompacted; n++) {
+      if (compactedRatings[n] == 0) {
+        numZeros++;
+      }
+    }
+    if (numZeros > 0) {
+      IntArrayList nonZeroUsers = new IntArrayList(numCompacted - numZeros);
+      IntArrayList nonZeroItems = new IntArrayList(numCompacted - numZeros);
+      FloatArrayList nonZeroRatings = new FloatArrayList(numCompacted - numZeros);
+      for (int n = 0; n < numCompacted; n++) {
+        if (compactedRatings[n] != 0) {
+          nonZeroUsers.add(userIDs[compactedUsers[n]]);
+          nonZeroItems.add(itemIDs[compactedItems[n]]);
+          nonZeroRatings.add(compactedRatings[n]);
+        }
+      }
+      setRatings(nonZeroUsers, nonZeroItems, nonZeroRatings);
+      return;
+    }
+
+    for (int user = 0; user < userIDs.length; user++) {
+      userOffsets[user + 1] += userOffsets[user];
+    }
+    itemsOfUsers = new int[numCompacted];
+    ratingsOfUsers = new float[numCompacted];
+    System.arraycopy(compactedItems, 0, itemsOfUsers, 0, numCompacted);
+    System.arraycopy(compactedRatings, 0, ratingsOfUsers, 0, numCompacted);
+
+    /* transpose, the stable sort keeps the users of each item in order */
+    int[] entries = new int[numCompacted];
+    for (int n = 0; n < numCompacted; n++) {
+      entries[n] = n;
+    }
+    int[] byItem = countingSort(itemsOfUsers, itemIDs.length, entries);
+    itemOffsets = new int[itemIDs.length + 1];
+    usersOfItems = new int[numCompacted];
+    ratingsOfItems = new float[numCompacted];
+    for (int n = 0; n < numCompacted; n++) {
+      int entry = byItem[n];
+      usersOfItems[n] = compactedUsers[entry];
+      ratingsOfItems[n] = ratingsOfUsers[entry];
+      itemOffsets[itemsOfUsers[entry] + 1]++;
+    }
+    for (int item = 0; item < itemIDs.length; item++) {
+      itemOffsets[item + 1] += itemOffsets[item];
+    }
+
+    log.info("Read {} ratings of {} users for {} items", new Object[] { numCompacted, userIDs.length,
+        itemIDs.length });
+  }
+
+  void factorize() throws InterruptedException, ExecutionException {
+    initializeM();
+    U = new double[userIDs.length][numFeatures];
+
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      for (int currentIteration = 0; currentIteration < numIterations; currentIteration++) {
+        log.info("Recomputing U (iteration {}/{})", currentIteration, numIterations);
+        solve(executor, userOffsets, itemsOfUsers, ratingsOfUsers, M, U);
+        log.info("Recomputing M (iteration {}/{})", currentIteration, numIterations);
+        solve(executor, itemOffsets, usersOfItems, ratingsOfItems, U, M);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * writes the user ratings and the feature matrices to the same locations as {@link ParallelALSFactorizationJob}
+   */
+  void write(Path userRatingsPath, Path pathToU, Path pathToM, Configuration conf) throws IOException {
+    FileSystem fs = FileSystem.get(userRatingsPath.toUri(), conf);
+    SequenceFile.Writer writer = null;
+    try {
+      writer = new SequenceFile.Writer(fs, conf, new Path(userRatingsPath, "part-r-00000"), IntWritable.class,
+          VectorWritable.class);
+      for (int user = 0; user < userIDs.length; user++) {
+        Vector ratings = new RandomAccessSparseVector(Integer.MAX_VALUE, userOffsets[user + 1] - userOffsets[user]);
+        for (int n = userOffsets[user]; n < userOffsets[user + 1]; n++) {
+          ratings.setQuick(itemIDs[itemsOfUsers[n]], ratingsOfUsers[n]);
+        }
+        writer.append(new IntWritable(userIDs[user]), new VectorWritable(ratings));
+      }
+    } finally {
+      Closeables.closeQuietly(writer);
+    }
+    writeFeatures(U, userIDs, pathToU, conf);
+    writeFeatures(M, itemIDs, pathToM, conf);
+  }
+
+  double[][] getU() {
+    return U;
+  }
+
+  double[][] getM() {
+    return M;
+  }
+
+  private static void writeFeatures(double[][] features, int[] ids, Path path, Configuration conf)
+    throws IOException {
+    FileSystem fs = FileSystem.get(path.toUri(), conf);
+    SequenceFile.Writer writer = null;
+    try {
+      writer = new SequenceFile.Writer(fs, conf, new Path(path, "part-m-00000"), IntWritable.class,
+          VectorWritable.class);
+      for (int n = 0; n < ids.length; n++) {
+        writer.append(new IntWritable(ids[n]), new VectorWritable(new DenseVector(features[n], true)));
+      }
+    } finally {
+      Closeables.closeQuietly(writer);
+    }
+  }
+
+  /* the first feature is the average rating of the item, the others are random, same as in the MapReduce version */
+  private void initializeM() {
+    Random random = RandomUtils.getRandom();
+    M = new double[itemIDs.length][numFeatures];
+    for (int item = 0; item < itemIDs.length; item++) {
+      double sum = 0;
+      for (int n = itemOffsets[item]; n < itemOffsets[item + 1]; n++) {
+        sum += ratingsOfItems[n];
+      }
+      M[item][0] = sum / (itemOffsets[item + 1] - itemOffsets[item]);
+      for (int feature = 1; feature < numFeatures; feature++) {
+        M[item][feature] = random.nextDouble();
+      }
+    }
+  }
+
+  /**
+   * recomputes all rows of {@code features} from the fixed feature matrix, each task solving a block of rows
+   */
+  private void solve(ExecutorService executor, final int[] offsets, final int[] indexes, final float[] ratings,
+      final double[][] fixedFeatures, final double[][] features) throws InterruptedException, ExecutionException {
+
+    final double[][] YtransposeY = implicitFeedback ? transposeTimesSelf(fixedFeatures) : null;
+
+    int numRows = features.length;
+    int blockSize = Math.max(1, (numRows + numThreads * BLOCKS_PER_THREAD - 1) / (numThreads * BLOCKS_PER_THREAD));
+    List<Future<Void>> blocks = Lists.newArrayList();
+    for (int start = 0; start < numRows; start += blockSize) {
+      final int from = start;
+      final int to = Math.min(numRows, start + blockSize);
+      blocks.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          double[][] A = new double[numFeatures][numFeatures];
+          double[] b = new double[numFeatures];
+          for (int row = from; row < to; row++) {
+            if (implicitFeedback) {
+              solveImplicit(offsets[row], offsets[row + 1], indexes, ratings, fixedFeatures, YtransposeY, A, b);
+            } else {
+              solveExplicit(offsets[row], offsets[row + 1], indexes, ratings, fixedFeatures, A, b);
+            }
+            features[row] = solve(A, b);
+          }
+          return null;
+        }
+      }));
+    }
+    for (Future<Void> block : blocks) {
+      block.get();
+    }
+  }
+
+  /* A = Y(i)' Y(i) + lambda * n(i) * E, b = Y(i)' r(i) as in AlternatingLeastSquaresSolver */
+  private void solveExplicit(int from, int to, int[] indexes, float[] ratings, double[][] Y, double[][] A,
+      double[] b) {
+    clear(A, b);
+    for (int n = from; n < to; n++) {
+      double[] y = Y[indexes[n]];
+      double rating = ratings[n];
+      for (int i = 0; i < numFeatures; i++) {
+        double yi = y[i];
+        b[i] += rating * yi;
+        double[] Ai = A[i];
+        for (int j = 0; j <= i; j++) {
+          Ai[j] += yi * y[j];
+        }
+      }
+    }
+    symmetrizeAndAddToDiagonal(A, lambda * (to - from));
+  }
+
+  /* A = Y' Y + Y' (Cu - I) Y + lambda * E, b = Y' Cu p(u) as in ImplicitFeedbackAlternatingLeastSquaresSolver */
+  private void solveImplicit(int from, int to, int[] indexes, float[] ratings, double[][] Y,
+      double[][] YtransposeY, double[][] A, double[] b) {
+    clear(A, b);
+    for (int n = from; n < to; n++) {
+      double[] y = Y[indexes[n]];
+      double confidence = 1 + alpha * ratings[n];
+      for (int i = 0; i < numFeatures; i++) {
+        double yi = y[i];
+        b[i] += confidence * yi;
+        double[] Ai = A[i];
+        for (int j = 0; j <= i; j++) {
+          Ai[j] += (confidence - 1) * yi * y[j];
+        }
+      }
+    }
+    for (int i = 0; i < numFeatures; i++) {
+      for (int j = 0; j <= i; j++) {
+        A[i][j] += YtransposeY[i][j];
+      }
+    }
+    symmetrizeAndAddToDiagonal(A, lambda);
+  }
+
+  private double[] solve(double[][] A, double[] b) {
+    double[][] bAsColumn = new double[numFeatures][1];
+    for (int i = 0; i < numFeatures; i++) {
+      bAsColumn[i][0] = b[i];
+    }
+    Vector solution = new QRDecomposition(new DenseMatrix(A)).solve(new DenseMatrix(bAsColumn)).viewColumn(0);
+    double[] features = new double[numFeatures];
+    for (int i = 0; i < numFeatures; i++) {
+      features[i] = solution.getQuick(i);
+    }
+    return features;
+  }
+
+  private double[][] transposeTimesSelf(double[][] Y) {
+    double[][] YtransposeY = new double[numFeatures][numFeatures];
+    for (double[] y : Y) {
+      for (int i = 0; i < numFeatures; i++) {
+        double yi = y[i];
+        for (int j = 0; j <= i; j++) {
+          YtransposeY[i][j] += yi * y[j];
+        }
+      }
+    }
+    return YtransposeY;
+  }
+
+  private void clear(double[][] A, double[] b) {
+    for (int i = 0; i < numFeatures; i++) {
+      Arrays.fill(A[i], 0);
+    }
+    Arrays.fill(b, 0);
+  }
+
+  private void symmetrizeAndAddToDiagonal(double[][] A, double diagonal) {
+    for (int i = 0; i < numFeatures; i++) {
+      for (int j = 0; j < i; j++) {
+        A[j][i] = A[i][j];
+      }
+      A[i][i] += diagonal;
+    }
+  }
+
+  private static int[] sortedDistinct(IntArrayList ids) {
+    OpenIntIntHashMap distinct = new OpenIntIntHashMap();
+    for (int n = 0; n < ids.size(); n++) {
+      distinct.put(ids.getQuick(n), 0);
+    }
+    IntArrayList keys = distinct.keys();
+    keys.sort();
+    return keys.toArray(new int[keys.size()]);
+  }
+
+  private static int[] toIndexes(IntArrayList ids, int[] sortedDistinctIDs) {
+    int[] indexes = new int[ids.size()];
+    for (int n = 0; n < indexes.length; n++) {
+      indexes[n] = Arrays.binarySearch(sortedDistinctIDs, ids.getQuick(n));
+    }
+    return indexes;
+  }
+
+  /**
+   * stable counting sort of the given entries by their key
+   */
+  private static int[] countingSort(int[] keys, int numKeys, int[] entries) {
+    int[] offsets = new int[numKeys + 1];
+    for (int entry : entries) {
+      offsets[keys[entry] + 1]++;
+    }
+    for (int key = 0; key < numKeys; key++) {
+      offsets[key + 1] += offsets[key];
+    }
+    int[] sorted = new int[entries.length];
+    for (int entry : entries) {
+      sorted[offsets[keys[entry]]++] = entry;
+    }
+    return sorted;
+  }
+}
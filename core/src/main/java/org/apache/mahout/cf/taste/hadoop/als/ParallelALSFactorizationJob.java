@@ -38,6 +38,7 @@ import org.apache.mahout.cf.taste.impl.common.FullRunningAverage;
 import org.apache.mahout.cf.taste.impl.common.RunningAverage;
 import org.apache.mahout.common.AbstractJob;
 import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.common.commandline.DefaultOptionCreator;
 import org.apache.mahout.common.mapreduce.MergeVectorsCombiner;
 import org.apache.mahout.common.mapreduce.MergeVectorsReducer;
 import org.apache.mahout.common.mapreduce.TransposeMapper;
@@ -58,6 +59,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 /**
  * <p>MapReduce implementation of the two factorization algorithms described in
@@ -77,6 +79,9 @@ import java.util.Random;
  * <li>--lambda (double): regularization parameter to avoid overfitting</li>
  * <li>--userFeatures (path): path to the user feature matrix</li>
  * <li>--itemFeatures (path): path to the item feature matrix</li>
+ * <li>--method (sequential|mapreduce): run the factorization in memory on a single machine using all cores or as a
+ * sequence of MapReduce jobs (default: mapreduce)</li>
+ * <li>--numThreads (int): number of threads to use in sequential mode (default: number of available cores)</li>
  * </ol>
  */
 public class ParallelALSFactorizationJob extends AbstractJob {
@@ -108,6 +113,9 @@ public class ParallelALSFactorizationJob extends AbstractJob {
     addOption("alpha", null, "confidence parameter (only used on implicit feedback)", String.valueOf(40));
     addOption("numFeatures", null, "dimension of the feature space", true);
     addOption("numIterations", null, "number of iterations", true);
+    addOption(DefaultOptionCreator.methodOption().create());
+    addOption("numThreads", null, "number of threads to use in sequential mode",
+        String.valueOf(Runtime.getRuntime().availableProcessors()));
 
     Map<String,List<String>> parsedArgs = parseArguments(args);
     if (parsedArgs == null) {
@@ -120,6 +128,10 @@ public class ParallelALSFactorizationJob extends AbstractJob {
     alpha = Double.parseDouble(getOption("alpha"));
     implicitFeedback = Boolean.parseBoolean(getOption("implicitFeedback"));
 
+    if (getOption(DefaultOptionCreator.METHOD_OPTION).equalsIgnoreCase(DefaultOptionCreator.SEQUENTIAL_METHOD)) {
+      return runSequential(Integer.parseInt(getOption("numThreads")));
+    }
+
     /*
         * compute the factorization A = U M'
         *
@@ -176,6 +188,16 @@ public class ParallelALSFactorizationJob extends AbstractJob {
     return 0;
   }
 
+  /* same inputs and outputs as the MapReduce implementation, but without any intermediate data */
+  private int runSequential(int numThreads) throws IOException, InterruptedException, ExecutionException {
+    InMemoryALSFactorizer factorizer =
+        new InMemoryALSFactorizer(numFeatures, lambda, alpha, implicitFeedback, numIterations, numThreads);
+    factorizer.readRatings(getInputPath(), getConf());
+    factorizer.factorize();
+    factorizer.write(pathToUserRatings(), getOutputPath("U"), getOutputPath("M"), getConf());
+    return 0;
+  }
+
   private void initializeM(Vector averageRatings) throws IOException {
     Random random = RandomUtils.getRandom();
 
@@ -19,6 +19,9 @@ package org.apache.mahout.cf.taste.hadoop.als;
 
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Floats;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.mapreduce.Job;
@@ -31,13 +34,16 @@ import org.apache.mahout.cf.taste.hadoop.RecommendedItemsWritable;
 import org.apache.mahout.cf.taste.impl.recommender.GenericRecommendedItem;
 import org.apache.mahout.cf.taste.recommender.RecommendedItem;
 import org.apache.mahout.common.AbstractJob;
+import org.apache.mahout.common.iterator.sequencefile.PathFilters;
 import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.VectorWritable;
 import org.apache.mahout.math.function.IntObjectProcedure;
+import org.apache.mahout.math.list.IntArrayList;
 import org.apache.mahout.math.map.OpenIntObjectHashMap;
 import org.apache.mahout.math.set.OpenIntHashSet;
 
 import java.io.IOException;
+import java.lang.ref.SoftReference;
 import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
@@ -54,6 +60,8 @@ import java.util.Map;
  * <li>--numRecommendations (int): maximum number of recommendations per user</li>
  * <li>--maxRating (double): maximum rating of an item</li>
  * <li>--numFeatures (int): number of features to use for decomposition </li>
+ * <li>--usersPerBlock (int): number of users to score together against blocks of item features, 1 scores each user
+ * individually (default: 1)</li>
  * </ol>
  */
 public class RecommenderJob extends AbstractJob {
@@ -62,8 +70,13 @@ public class RecommenderJob extends AbstractJob {
   private static final String USER_FEATURES_PATH = RecommenderJob.class.getName() + ".userFeatures";
   private static final String ITEM_FEATURES_PATH = RecommenderJob.class.getName() + ".itemFeatures";
   private static final String MAX_RATING = RecommenderJob.class.getName() + ".maxRating";
+  private static final String USERS_PER_BLOCK = RecommenderJob.class.getName() + ".usersPerBlock";
 
   static final int DEFAULT_NUM_RECOMMENDATIONS = 10;
+  static final int DEFAULT_USERS_PER_BLOCK = 1;
+
+  /* number of item feature rows scored against a block of users at once, sized to stay in the cpu cache */
+  private static final int ITEMS_PER_BLOCK = 256;
 
   public static void main(String[] args) throws Exception {
     ToolRunner.run(new RecommenderJob(), args);
@@ -78,6 +91,8 @@ public class RecommenderJob extends AbstractJob {
     addOption("numRecommendations", null, "number of recommendations per user",
         String.valueOf(DEFAULT_NUM_RECOMMENDATIONS));
     addOption("maxRating", null, "maximum rating available", true);
+    addOption("usersPerBlock", null, "number of users to score together against blocks of item features",
+        String.valueOf(DEFAULT_USERS_PER_BLOCK));
     addOutputOption();
 
     Map<String,List<String>> parsedArgs = parseArguments(args);
@@ -85,8 +100,13 @@ public class RecommenderJob extends AbstractJob {
       return -1;
     }
 
-    Job prediction = prepareJob(getInputPath(), getOutputPath(), SequenceFileInputFormat.class, PredictionMapper.class,
+    int usersPerBlock = Integer.parseInt(getOption("usersPerBlock"));
+    Class<? extends Mapper> predictionMapper = usersPerBlock > 1 ?
+        BlockedPredictionMapper.class : PredictionMapper.class;
+
+    Job prediction = prepareJob(getInputPath(), getOutputPath(), SequenceFileInputFormat.class, predictionMapper,
         IntWritable.class, RecommendedItemsWritable.class, TextOutputFormat.class);
+    prediction.getConfiguration().setInt(USERS_PER_BLOCK, usersPerBlock);
     prediction.getConfiguration().setInt(NUM_RECOMMENDATIONS,
         Integer.parseInt(getOption("numRecommendations")));
     prediction.getConfiguration().set(USER_FEATURES_PATH, getOption("userFeatures"));
@@ -167,4 +187,171 @@ public class RecommenderJob extends AbstractJob {
       }
     }
   }
+
+  /**
+   * <p>Scores blocks of users against blocks of item features instead of each user against all items individually.</p>
+   *
+   * <p>The item features are copied into one contiguous array that is shared by all tasks running in the same JVM
+   * (e.g. when JVMs are reused), the features of the buffered users are scored against cache-sized chunks of it, so
+   * that every chunk is read from main memory only once per block of users. Each user gets a bounded heap of its top
+   * items, a recommendation is only instantiated if it makes it into that heap.</p>
+   *
+   * <p>The shared array is softly referenced and tagged with the names, lengths and modification times of the files
+   * it was read from, so it is reread when the item features are rewritten at the same path. The recommendations are
+   * those of {@link PredictionMapper}, but items with equal predicted ratings may be ordered differently.</p>
+   */
+  static class BlockedPredictionMapper
+      extends Mapper<IntWritable,VectorWritable,IntWritable,RecommendedItemsWritable> {
+
+    private static SoftReference<ItemFeatures> cachedItemFeatures;
+
+    private OpenIntObjectHashMap<Vector> U;
+    private int[] itemIDs;
+    private double[] itemFeatures;
+    private int numFeatures;
+
+    private int recommendationsPerUser;
+    private float maxRating;
+
+    private int numBufferedUsers;
+    private int[] userIDs;
+    private double[] userFeatures;
+    private OpenIntHashSet[] alreadyRatedItems;
+    private TopK<RecommendedItem>[] topKItems;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void setup(Context ctx) throws IOException, InterruptedException {
+      recommendationsPerUser = ctx.getConfiguration().getInt(NUM_RECOMMENDATIONS, DEFAULT_NUM_RECOMMENDATIONS);
+      maxRating = Float.parseFloat(ctx.getConfiguration().get(MAX_RATING));
+      int usersPerBlock = ctx.getConfiguration().getInt(USERS_PER_BLOCK, DEFAULT_USERS_PER_BLOCK);
+
+      U = ALSUtils.readMatrixByRows(new Path(ctx.getConfiguration().get(USER_FEATURES_PATH)), ctx.getConfiguration());
+      loadItemFeatures(ctx.getConfiguration().get(ITEM_FEATURES_PATH), ctx.getConfiguration());
+      numFeatures = itemIDs.length > 0 ? itemFeatures.length / itemIDs.length : 0;
+
+      userIDs = new int[usersPerBlock];
+      userFeatures = new double[usersPerBlock * numFeatures];
+      alreadyRatedItems = new OpenIntHashSet[usersPerBlock];
+      topKItems = new TopK[usersPerBlock];
+    }
+
+    private void loadItemFeatures(String path, Configuration conf) throws IOException {
+      String version = version(new Path(path), conf);
+      synchronized (BlockedPredictionMapper.class) {
+        ItemFeatures cached = cachedItemFeatures == null ? null : cachedItemFeatures.get();
+        if (cached == null || !cached.version.equals(version)) {
+          cached = new ItemFeatures(version, ALSUtils.readMatrixByRows(new Path(path), conf));
+          cachedItemFeatures = new SoftReference<ItemFeatures>(cached);
+        }
+        itemIDs = cached.ids;
+        itemFeatures = cached.features;
+      }
+    }
+
+    /** identifies the contents of the part files under the given path by their names, lengths and modification times */
+    private static String version(Path path, Configuration conf) throws IOException {
+      FileSystem fs = path.getFileSystem(conf);
+      StringBuilder version = new StringBuilder(path.toString());
+      for (FileStatus part : fs.listStatus(path, PathFilters.partFilter())) {
+        version.append(' ').append(part.getPath().getName()).append(':').append(part.getLen())
+            .append(':').append(part.getModificationTime());
+      }
+      return version.toString();
+    }
+
+    /** the item features in ascending order of the item IDs, copied into one row-major array */
+    private static final class ItemFeatures {
+
+      private final String version;
+      private final int[] ids;
+      private final double[] features;
+
+      private ItemFeatures(String version, OpenIntObjectHashMap<Vector> M) {
+        this.version = version;
+        IntArrayList sortedIDs = M.keys();
+        sortedIDs.sort();
+        int numFeatures = sortedIDs.isEmpty() ? 0 : M.get(sortedIDs.get(0)).size();
+        ids = new int[sortedIDs.size()];
+        features = new double[sortedIDs.size() * numFeatures];
+        for (int n = 0; n < sortedIDs.size(); n++) {
+          ids[n] = sortedIDs.getQuick(n);
+          Vector itemFeatures = M.get(sortedIDs.getQuick(n));
+          for (int feature = 0; feature < numFeatures; feature++) {
+            features[n * numFeatures + feature] = itemFeatures.getQuick(feature);
+          }
+        }
+      }
+    }
+
+    @Override
+    protected void map(IntWritable userIDWritable, VectorWritable ratingsWritable, Context ctx)
+        throws IOException, InterruptedException {
+
+      Vector ratings = ratingsWritable.get();
+      int userID = userIDWritable.get();
+      OpenIntHashSet ratedItems = new OpenIntHashSet(ratings.getNumNondefaultElements());
+      Iterator<Vector.Element> ratingsIterator = ratings.iterateNonZero();
+      while (ratingsIterator.hasNext()) {
+        ratedItems.add(ratingsIterator.next().index());
+      }
+
+      Vector features = U.get(userID);
+      for (int feature = 0; feature < numFeatures; feature++) {
+        userFeatures[numBufferedUsers * numFeatures + feature] = features.getQuick(feature);
+      }
+      userIDs[numBufferedUsers] = userID;
+      alreadyRatedItems[numBufferedUsers] = ratedItems;
+      topKItems[numBufferedUsers] = new TopK<RecommendedItem>(recommendationsPerUser, BY_PREFERENCE_VALUE);
+      numBufferedUsers++;
+
+      if (numBufferedUsers == userIDs.length) {
+        scoreBufferedUsers(ctx);
+      }
+    }
+
+    @Override
+    protected void cleanup(Context ctx) throws IOException, InterruptedException {
+      scoreBufferedUsers(ctx);
+      super.cleanup(ctx);
+    }
+
+    private void scoreBufferedUsers(Context ctx) throws IOException, InterruptedException {
+      for (int fromItem = 0; fromItem < itemIDs.length; fromItem += ITEMS_PER_BLOCK) {
+        int toItem = Math.min(itemIDs.length, fromItem + ITEMS_PER_BLOCK);
+        for (int user = 0; user < numBufferedUsers; user++) {
+          int userOffset = user * numFeatures;
+          TopK<RecommendedItem> userTopKItems = topKItems[user];
+          for (int item = fromItem; item < toItem; item++) {
+            int itemOffset = item * numFeatures;
+            double predictedRating = 0;
+            for (int feature = 0; feature < numFeatures; feature++) {
+              predictedRating += userFeatures[userOffset + feature] * itemFeatures[itemOffset + feature];
+            }
+            if (userTopKItems.size() == recommendationsPerUser
+                && (float) predictedRating <= userTopKItems.smallestGreat().getValue()) {
+              continue;
+            }
+            if (!alreadyRatedItems[user].contains(itemIDs[item])) {
+              userTopKItems.offer(new GenericRecommendedItem(itemIDs[item], (float) predictedRating));
+            }
+          }
+        }
+      }
+
+      for (int user = 0; user < numBufferedUsers; user++) {
+        if (!topKItems[user].isEmpty()) {
+          List<RecommendedItem> recommendedItems = Lists.newArrayListWithExpectedSize(recommendationsPerUser);
+          for (RecommendedItem topItem : topKItems[user].retrieve()) {
+            recommendedItems.add(new GenericRecommendedItem(topItem.getItemID(),
+                Math.min(topItem.getValue(), maxRating)));
+          }
+          ctx.write(new IntWritable(userIDs[user]), new RecommendedItemsWritable(recommendedItems));
+        }
+        alreadyRatedItems[user] = null;
+        topKItems[user] = null;
+      }
+      numBufferedUsers = 0;
+    }
+  }
 }
@@ -37,8 +37,10 @@ import org.apache.mahout.math.function.Functions;
 import org.apache.mahout.math.map.OpenIntLongHashMap;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -110,30 +112,33 @@ public final class AggregateAndRecommendReducer extends
   protected void reduce(VarLongWritable userID,
                         Iterable<PrefAndSimilarityColumnWritable> values,
                         Context context) throws IOException, InterruptedException {
-    if (booleanData) {
-      reduceBooleanData(userID, values, context);
-    } else {
-      reduceNonBooleanData(userID, values, context);
+    Vector recommendationVector = booleanData ? predictBooleanData(values) : predictNonBooleanData(values);
+    if (recommendationVector != null) {
+      writeRecommendedItems(userID, recommendationVector, context);
     }
   }
 
-  private void reduceBooleanData(VarLongWritable userID,
-                                 Iterable<PrefAndSimilarityColumnWritable> values,
-                                 Context context) throws IOException, InterruptedException {
-    /* having boolean data, each estimated preference can only be 1,
-     * however we can't use this to rank the recommended items,
-     * so we use the sum of similarities for that. */
+  /**
+   * having boolean data, each estimated preference can only be 1, however we can't use this to rank the recommended
+   * items, so we use the sum of similarities for that. The similarity columns are not modified.
+   */
+  static Vector predictBooleanData(Iterable<PrefAndSimilarityColumnWritable> values) {
     Iterator<PrefAndSimilarityColumnWritable> columns = values.iterator();
-    Vector predictions = columns.next().getSimilarityColumn();
+    if (!columns.hasNext()) {
+      return null;
+    }
+    Vector predictions = columns.next().getSimilarityColumn().clone();
     while (columns.hasNext()) {
       predictions.assign(columns.next().getSimilarityColumn(), Functions.PLUS);
     }
-    writeRecommendedItems(userID, predictions, context);
+    return predictions;
   }
 
-  private void reduceNonBooleanData(VarLongWritable userID,
-                        Iterable<PrefAndSimilarityColumnWritable> values,
-                        Context context) throws IOException, InterruptedException {
+  /**
+   * computes the normalized prediction for all items that are similar to at least two of the given items, the
+   * similarity columns are not modified
+   */
+  static Vector predictNonBooleanData(Iterable<PrefAndSimilarityColumnWritable> values) {
     /* each entry here is the sum in the numerator of the prediction formula */
     Vector numerators = null;
     /* each entry here is the sum in the denominator of the prediction formula */
@@ -163,17 +168,19 @@ public final class AggregateAndRecommendReducer extends
           numerators.assign(Functions.MULT, prefValue);
         }
       } else {
-        Vector toAdd = simColumn;
-        if (prefValue != BOOLEAN_PREF_VALUE) {
-          toAdd.assign(Functions.MULT, prefValue);
+        /* add prefValue * simColumn without modifying simColumn */
+        Iterator<Vector.Element> similarities = simColumn.iterateNonZero();
+        while (similarities.hasNext()) {
+          Vector.Element similarity = similarities.next();
+          int itemIDIndex = similarity.index();
+          numerators.setQuick(itemIDIndex, numerators.getQuick(itemIDIndex) + prefValue * similarity.get());
         }
-        numerators.assign(toAdd, Functions.PLUS);
       }
 
     }
 
     if (numerators == null) {
-      return;
+      return null;
     }
 
     Vector recommendationVector = new RandomAccessSparseVector(Integer.MAX_VALUE, 100);
@@ -188,7 +195,7 @@ public final class AggregateAndRecommendReducer extends
         recommendationVector.setQuick(itemIDIndex, prediction);
       }
     }
-    writeRecommendedItems(userID, recommendationVector, context);
+    return recommendationVector;
   }
 
   /**
@@ -196,6 +203,18 @@ public final class AggregateAndRecommendReducer extends
    */
   private void writeRecommendedItems(VarLongWritable userID, Vector recommendationVector, Context context)
     throws IOException, InterruptedException {
+    List<RecommendedItem> recommendedItems = topRecommendations(recommendationVector, recommendationsPerUser,
+        indexItemIDMap, itemsToRecommendFor);
+    if (!recommendedItems.isEmpty()) {
+      context.write(userID, new RecommendedItemsWritable(recommendedItems));
+    }
+  }
+
+  /**
+   * find the top entries in recommendationVector and map them to the real itemIDs
+   */
+  static List<RecommendedItem> topRecommendations(Vector recommendationVector, int recommendationsPerUser,
+      OpenIntLongHashMap indexItemIDMap, FastIDSet itemsToRecommendFor) {
 
     TopK<RecommendedItem> topKItems = new TopK<RecommendedItem>(recommendationsPerUser, BY_PREFERENCE_VALUE);
 
@@ -217,9 +236,7 @@ public final class AggregateAndRecommendReducer extends
       }
     }
 
-    if (!topKItems.isEmpty()) {
-      context.write(userID, new RecommendedItemsWritable(topKItems.retrieve()));
-    }
+    return topKItems.isEmpty() ? Collections.<RecommendedItem>emptyList() : topKItems.retrieve();
   }
 
 }
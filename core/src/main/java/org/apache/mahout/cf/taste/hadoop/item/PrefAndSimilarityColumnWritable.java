@@ -24,7 +24,6 @@ import java.io.IOException;
 import org.apache.hadoop.io.Writable;
 import org.apache.mahout.common.RandomUtils;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.math.VectorWritable;
 
 public final class PrefAndSimilarityColumnWritable implements Writable {
 
@@ -54,17 +53,13 @@ public final class PrefAndSimilarityColumnWritable implements Writable {
   @Override
   public void readFields(DataInput in) throws IOException {
     prefValue = in.readFloat();
-    VectorWritable vw = new VectorWritable();
-    vw.readFields(in);
-    similarityColumn = vw.get();
+    similarityColumn = SimilarityColumns.read(in);
   }
 
   @Override
   public void write(DataOutput out) throws IOException {
     out.writeFloat(prefValue);
-    VectorWritable vw = new VectorWritable(similarityColumn);
-    vw.setWritesLaxPrecision(true);
-    vw.write(out);
+    SimilarityColumns.write(out, similarityColumn);
   }
 
   @Override
@@ -80,6 +80,9 @@ import java.util.regex.Pattern;
  *   the item similarity computation phase,
  * users with more preferences will be sampled down (1000)</li>
  * <li>--threshold (double): discard item pairs with a similarity value below this</li>
+ * <li>--broadcastSimilarityMatrix (boolean): load the complete similarity matrix into the memory of each mapper and
+ *   compute the recommendations map-side instead of shuffling it along the user preferences, only works if the
+ *   similarity matrix fits into memory (false)</li>
  * </ol>
  * <p/>
  * <p>General command line options are documented in {@link AbstractJob}.</p>
@@ -120,6 +123,9 @@ public final class RecommenderJob extends AbstractJob {
     addOption("similarityClassname", "s", "Name of distributed similarity measures class to instantiate, " 
             + "alternatively use one of the predefined similarities (" + VectorSimilarityMeasures.list() + ')', true);
     addOption("threshold", "tr", "discard item pairs with a similarity value below this", false);
+    addOption("broadcastSimilarityMatrix", "bsm", "Compute the recommendations map-side with the complete "
+            + "similarity matrix in memory instead of shuffling it (only works if it fits into memory)",
+            Boolean.FALSE.toString());
 
     Map<String, List<String>> parsedArgs = parseArguments(args);
     if (parsedArgs == null) {
@@ -139,6 +145,7 @@ public final class RecommenderJob extends AbstractJob {
     String similarityClassname = getOption("similarityClassname");
     double threshold = hasOption("threshold") ?
                  Double.parseDouble(getOption("threshold")) : RowSimilarityJob.NO_THRESHOLD;
+    boolean broadcastSimilarityMatrix = Boolean.valueOf(getOption("broadcastSimilarityMatrix"));
 
 
     Path prepPath = getTempPath("preparePreferenceMatrix");
@@ -190,7 +197,7 @@ public final class RecommenderJob extends AbstractJob {
     }
 
     //start the multiplication of the co-occurrence matrix by the user vectors
-    if (shouldRunNextPhase(parsedArgs, currentPhase)) {
+    if (shouldRunNextPhase(parsedArgs, currentPhase) && !broadcastSimilarityMatrix) {
       Job prePartialMultiply1 = prepareJob(
               similarityMatrixPath, prePartialMultiplyPath1, SequenceFileInputFormat.class,
               SimilarityMatrixRowWrapperMapper.class, VarIntWritable.class, VectorOrPrefWritable.class,
@@ -229,6 +236,36 @@ public final class RecommenderJob extends AbstractJob {
       }
     }
 
+    if (broadcastSimilarityMatrix) {
+      if (shouldRunNextPhase(parsedArgs, currentPhase)) {
+        //multiply the user vectors with the in-memory similarity matrix and extract the recommendations map-side
+        Job userVectorTimesSimilarityMatrix = prepareJob(new Path(prepPath, PreparePreferenceMatrixJob.USER_VECTORS),
+                outputPath, SequenceFileInputFormat.class, UserVectorTimesSimilarityMatrixMapper.class,
+                VarLongWritable.class, RecommendedItemsWritable.class, TextOutputFormat.class);
+        Configuration multiplyConf = userVectorTimesSimilarityMatrix.getConfiguration();
+        multiplyConf.set(UserVectorTimesSimilarityMatrixMapper.SIMILARITY_MATRIX_PATH, similarityMatrixPath.toString());
+        multiplyConf.set(AggregateAndRecommendReducer.ITEMID_INDEX_PATH,
+                new Path(prepPath, PreparePreferenceMatrixJob.ITEMID_INDEX).toString());
+        multiplyConf.setInt(AggregateAndRecommendReducer.NUM_RECOMMENDATIONS, numRecommendations);
+        multiplyConf.setInt(UserVectorSplitterMapper.MAX_PREFS_PER_USER_CONSIDERED, maxPrefsPerUser);
+        multiplyConf.setBoolean(BOOLEAN_DATA, booleanData);
+        if (usersFile != null) {
+          multiplyConf.set(UserVectorSplitterMapper.USERS_FILE, usersFile);
+        }
+        if (itemsFile != null) {
+          multiplyConf.set(AggregateAndRecommendReducer.ITEMS_FILE, itemsFile);
+        }
+        if (filterFile != null) {
+          multiplyConf.set(UserVectorTimesSimilarityMatrixMapper.FILTER_FILE, filterFile);
+        }
+        boolean succeeded = userVectorTimesSimilarityMatrix.waitForCompletion(true);
+        if (!succeeded) {
+          return -1;
+        }
+      }
+      return 0;
+    }
+
     if (shouldRunNextPhase(parsedArgs, currentPhase)) {
       //filter out any users we don't care about
       /* convert the user/item pairs to filter if a filterfile has been specified */
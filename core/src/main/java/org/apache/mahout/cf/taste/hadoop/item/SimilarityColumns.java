@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.cf.taste.hadoop.item;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.math.Varint;
+import org.apache.mahout.math.Vector;
+
+/**
+ * <p>Compact serialization of the sparse similarity columns that are shuffled by {@link RecommenderJob}.</p>
+ *
+ * <p>The indices of these columns are hashed item IDs spread over the whole int range, so that the encoding of
+ * {@link org.apache.mahout.math.VectorWritable} mostly needs five bytes per index. Here the indices are sorted and
+ * delta-encoded as varints and the values are written with float precision, which is all the precision the
+ * recommendations are computed with.</p>
+ */
+final class SimilarityColumns {
+
+  private SimilarityColumns() {}
+
+  static void write(DataOutput out, Vector column) throws IOException {
+    int numNonDefaultElements = column.getNumNondefaultElements();
+    int[] indices = new int[numNonDefaultElements];
+    int n = 0;
+    Iterator<Vector.Element> nonZeroElements = column.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      indices[n++] = nonZeroElements.next().index();
+    }
+    /* dense vectors might have fewer non-zero than non-default elements */
+    numNonDefaultElements = n;
+    if (!column.isSequentialAccess()) {
+      Arrays.sort(indices, 0, numNonDefaultElements);
+    }
+
+    Varint.writeUnsignedVarInt(column.size(), out);
+    Varint.writeUnsignedVarInt(numNonDefaultElements, out);
+    int lastIndex = 0;
+    for (int k = 0; k < numNonDefaultElements; k++) {
+      Varint.writeUnsignedVarInt(indices[k] - lastIndex, out);
+      out.writeFloat((float) column.getQuick(indices[k]));
+      lastIndex = indices[k];
+    }
+  }
+
+  static Vector read(DataInput in) throws IOException {
+    int size = Varint.readUnsignedVarInt(in);
+    int numNonDefaultElements = Varint.readUnsignedVarInt(in);
+    Vector column = new RandomAccessSparseVector(size, numNonDefaultElements);
+    int index = 0;
+    for (int k = 0; k < numNonDefaultElements; k++) {
+      index += Varint.readUnsignedVarInt(in);
+      column.setQuick(index, in.readFloat());
+    }
+    return column;
+  }
+}
@@ -84,7 +84,7 @@ public final class UserVectorSplitterMapper extends
     if (usersToRecommendFor != null && !usersToRecommendFor.contains(userID)) {
       return;
     }
-    Vector userVector = maybePruneUserVector(value.get());
+    Vector userVector = maybePruneUserVector(value.get(), maxPrefsPerUserConsidered);
     Iterator<Vector.Element> it = userVector.iterateNonZero();
     VarIntWritable itemIndexWritable = new VarIntWritable();
     VectorOrPrefWritable vectorOrPref = new VectorOrPrefWritable();
@@ -96,12 +96,12 @@ public final class UserVectorSplitterMapper extends
     }
   }
 
-  private Vector maybePruneUserVector(Vector userVector) {
+  static Vector maybePruneUserVector(Vector userVector, int maxPrefsPerUserConsidered) {
     if (userVector.getNumNondefaultElements() <= maxPrefsPerUserConsidered) {
       return userVector;
     }
 
-    float smallestLargeValue = findSmallestLargeValue(userVector);
+    float smallestLargeValue = findSmallestLargeValue(userVector, maxPrefsPerUserConsidered);
 
     // "Blank out" small-sized prefs to reduce the amount of partial products
     // generated later. They're not zeroed, but NaN-ed, so they come through
@@ -118,7 +118,7 @@ public final class UserVectorSplitterMapper extends
     return userVector;
   }
 
-  private float findSmallestLargeValue(Vector userVector) {
+  private static float findSmallestLargeValue(Vector userVector, int maxPrefsPerUserConsidered) {
 
     TopK<Float> topPrefValues = new TopK<Float>(maxPrefsPerUserConsidered, new Comparator<Float>() {
       @Override
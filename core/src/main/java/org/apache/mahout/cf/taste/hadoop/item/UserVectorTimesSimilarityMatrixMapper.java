@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.cf.taste.hadoop.item;
+
+import com.google.common.collect.Lists;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
+import org.apache.hadoop.mapreduce.Mapper;
+import org.apache.mahout.cf.taste.hadoop.RecommendedItemsWritable;
+import org.apache.mahout.cf.taste.hadoop.TasteHadoopUtils;
+import org.apache.mahout.cf.taste.impl.common.FastByIDMap;
+import org.apache.mahout.cf.taste.impl.common.FastIDSet;
+import org.apache.mahout.cf.taste.impl.common.LongPrimitiveIterator;
+import org.apache.mahout.cf.taste.recommender.RecommendedItem;
+import org.apache.mahout.common.HadoopUtil;
+import org.apache.mahout.common.Pair;
+import org.apache.mahout.common.iterator.FileLineIterable;
+import org.apache.mahout.common.iterator.sequencefile.PathFilters;
+import org.apache.mahout.common.iterator.sequencefile.PathType;
+import org.apache.mahout.common.iterator.sequencefile.SequenceFileDirIterable;
+import org.apache.mahout.math.RandomAccessSparseVector;
+import org.apache.mahout.math.VarLongWritable;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.VectorWritable;
+import org.apache.mahout.math.map.OpenIntLongHashMap;
+import org.apache.mahout.math.map.OpenIntObjectHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Map-side alternative to the partial multiplication phase of {@link RecommenderJob}.</p>
+ *
+ * <p>Every mapper loads the complete (already pruned) item similarity matrix into memory once and multiplies each
+ * user vector with it directly, computing the same predictions as {@link AggregateAndRecommendReducer}. This avoids
+ * shuffling a copy of each similarity column for every preference of every user, but only works if the similarity
+ * matrix fits into the memory of a single map task.</p>
+ */
+public final class UserVectorTimesSimilarityMatrixMapper
+    extends Mapper<VarLongWritable,VectorWritable,VarLongWritable,RecommendedItemsWritable> {
+
+  private static final Logger log = LoggerFactory.getLogger(UserVectorTimesSimilarityMatrixMapper.class);
+
+  static final String SIMILARITY_MATRIX_PATH = "similarityMatrixPath";
+  static final String FILTER_FILE = "filterFile";
+
+  private static final float BOOLEAN_PREF_VALUE = 1.0f;
+
+  private boolean booleanData;
+  private int recommendationsPerUser;
+  private int maxPrefsPerUserConsidered;
+  private FastIDSet usersToRecommendFor;
+  private FastIDSet itemsToRecommendFor;
+  private FastByIDMap<FastIDSet> itemsToFilterPerUser;
+  private OpenIntLongHashMap indexItemIDMap;
+  private OpenIntObjectHashMap<Vector> similarityMatrix;
+
+  @Override
+  protected void setup(Context ctx) throws IOException {
+    Configuration conf = ctx.getConfiguration();
+    booleanData = conf.getBoolean(RecommenderJob.BOOLEAN_DATA, false);
+    recommendationsPerUser = conf.getInt(AggregateAndRecommendReducer.NUM_RECOMMENDATIONS,
+        AggregateAndRecommendReducer.DEFAULT_NUM_RECOMMENDATIONS);
+    maxPrefsPerUserConsidered = conf.getInt(UserVectorSplitterMapper.MAX_PREFS_PER_USER_CONSIDERED,
+        UserVectorSplitterMapper.DEFAULT_MAX_PREFS_PER_USER_CONSIDERED);
+    indexItemIDMap = TasteHadoopUtils.readItemIDIndexMap(conf.get(AggregateAndRecommendReducer.ITEMID_INDEX_PATH),
+        conf);
+    similarityMatrix = readSimilarityMatrix(new Path(conf.get(SIMILARITY_MATRIX_PATH)), conf);
+
+    String usersFile = conf.get(UserVectorSplitterMapper.USERS_FILE);
+    if (usersFile != null) {
+      usersToRecommendFor = readIDs(new Path(usersFile), conf);
+    }
+    String itemsFile = conf.get(AggregateAndRecommendReducer.ITEMS_FILE);
+    if (itemsFile != null) {
+      itemsToRecommendFor = readIDs(new Path(itemsFile), conf);
+    }
+    String filterFile = conf.get(FILTER_FILE);
+    if (filterFile != null) {
+      itemsToFilterPerUser = readItemsToFilter(new Path(filterFile), conf);
+    }
+  }
+
+  @Override
+  protected void map(VarLongWritable userIDWritable, VectorWritable userVectorWritable, Context ctx)
+    throws IOException, InterruptedException {
+
+    long userID = userIDWritable.get();
+    if (usersToRecommendFor != null && !usersToRecommendFor.contains(userID)) {
+      return;
+    }
+
+    Vector userVector = UserVectorSplitterMapper.maybePruneUserVector(userVectorWritable.get(),
+        maxPrefsPerUserConsidered);
+
+    List<PrefAndSimilarityColumnWritable> prefsAndSimilarityColumns =
+        Lists.newArrayListWithCapacity(userVector.getNumNondefaultElements());
+    Iterator<Vector.Element> prefs = userVector.iterateNonZero();
+    while (prefs.hasNext()) {
+      Vector.Element pref = prefs.next();
+      float prefValue = (float) pref.get();
+      /* pruned preferences have been NaN-ed, see UserVectorSplitterMapper */
+      if (!Float.isNaN(prefValue)) {
+        Vector similarityColumn = similarityMatrix.get(pref.index());
+        if (similarityColumn != null) {
+          prefsAndSimilarityColumns.add(new PrefAndSimilarityColumnWritable(prefValue, similarityColumn));
+        }
+      }
+    }
+
+    /* same trick as in ItemFilterAsVectorAndPrefsReducer: a NaN summand excludes the item */
+    if (itemsToFilterPerUser != null) {
+      FastIDSet itemsToFilter = itemsToFilterPerUser.get(userID);
+      if (itemsToFilter != null) {
+        LongPrimitiveIterator itemIDs = itemsToFilter.iterator();
+        while (itemIDs.hasNext()) {
+          Vector filterColumn = new RandomAccessSparseVector(Integer.MAX_VALUE, 1);
+          filterColumn.setQuick(TasteHadoopUtils.idToIndex(itemIDs.nextLong()), Double.NaN);
+          prefsAndSimilarityColumns.add(new PrefAndSimilarityColumnWritable(BOOLEAN_PREF_VALUE, filterColumn));
+        }
+      }
+    }
+
+    Vector recommendationVector = booleanData
+        ? AggregateAndRecommendReducer.predictBooleanData(prefsAndSimilarityColumns)
+        : AggregateAndRecommendReducer.predictNonBooleanData(prefsAndSimilarityColumns);
+    if (recommendationVector == null) {
+      return;
+    }
+
+    List<RecommendedItem> recommendedItems = AggregateAndRecommendReducer.topRecommendations(recommendationVector,
+        recommendationsPerUser, indexItemIDMap, itemsToRecommendFor);
+    if (!recommendedItems.isEmpty()) {
+      ctx.write(userIDWritable, new RecommendedItemsWritable(recommendedItems));
+    }
+  }
+
+  /**
+   * reads the rows of the similarity matrix, as the matrix is symmetric they can be used as columns
+   */
+  static OpenIntObjectHashMap<Vector> readSimilarityMatrix(Path path, Configuration conf) {
+    OpenIntObjectHashMap<Vector> similarityMatrix = new OpenIntObjectHashMap<Vector>();
+    for (Pair<IntWritable,VectorWritable> record
+        : new SequenceFileDirIterable<IntWritable,VectorWritable>(path, PathType.LIST, PathFilters.partFilter(),
+                                                                  conf)) {
+      int itemIDIndex = record.getFirst().get();
+      Vector similarityMatrixRow = record.getSecond().get();
+      /* remove self similarity */
+      similarityMatrixRow.set(itemIDIndex, Double.NaN);
+      similarityMatrix.put(itemIDIndex, similarityMatrixRow);
+    }
+    return similarityMatrix;
+  }
+
+  private static FastIDSet readIDs(Path path, Configuration conf) throws IOException {
+    FastIDSet ids = new FastIDSet();
+    for (String line : new FileLineIterable(HadoopUtil.openStream(path, conf))) {
+      try {
+        ids.add(Long.parseLong(line));
+      } catch (NumberFormatException nfe) {
+        log.warn("line ignored: {}", line);
+      }
+    }
+    return ids;
+  }
+
+  private static FastByIDMap<FastIDSet> readItemsToFilter(Path path, Configuration conf) throws IOException {
+    FastByIDMap<FastIDSet> itemsToFilterPerUser = new FastByIDMap<FastIDSet>();
+    for (String line : new FileLineIterable(HadoopUtil.openStream(path, conf))) {
+      String[] tokens = TasteHadoopUtils.splitPrefTokens(line);
+      long userID = Long.parseLong(tokens[0]);
+      long itemID = Long.parseLong(tokens[1]);
+      FastIDSet itemIDs = itemsToFilterPerUser.get(userID);
+      if (itemIDs == null) {
+        itemIDs = new FastIDSet();
+        itemsToFilterPerUser.put(userID, itemIDs);
+      }
+      itemIDs.add(itemID);
+    }
+    return itemsToFilterPerUser;
+  }
+}
@@ -26,7 +26,6 @@ import com.google.common.collect.Lists;
 import org.apache.hadoop.io.Writable;
 import org.apache.mahout.math.Varint;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.math.VectorWritable;
 
 public final class VectorAndPrefsWritable implements Writable {
 
@@ -57,9 +56,7 @@ public final class VectorAndPrefsWritable implements Writable {
 
   @Override
   public void write(DataOutput out) throws IOException {
-    VectorWritable vw = new VectorWritable(vector);
-    vw.setWritesLaxPrecision(true);
-    vw.write(out);
+    SimilarityColumns.write(out, vector);
     Varint.writeUnsignedVarInt(userIDs.size(), out);
     for (int i = 0; i < userIDs.size(); i++) {
       Varint.writeSignedVarLong(userIDs.get(i), out);
@@ -69,9 +66,7 @@ public final class VectorAndPrefsWritable implements Writable {
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    VectorWritable writable = new VectorWritable();
-    writable.readFields(in);
-    vector = writable.get();
+    vector = SimilarityColumns.read(in);
     int size = Varint.readUnsignedVarInt(in);
     userIDs = Lists.newArrayListWithCapacity(size);
     values = Lists.newArrayListWithCapacity(size);
@@ -25,7 +25,6 @@ import java.io.IOException;
 import org.apache.hadoop.io.Writable;
 import org.apache.mahout.math.Varint;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.math.VectorWritable;
 
 public final class VectorOrPrefWritable implements Writable {
 
@@ -77,9 +76,7 @@ public final class VectorOrPrefWritable implements Writable {
       out.writeFloat(value);
     } else {
       out.writeBoolean(true);
-      VectorWritable vw = new VectorWritable(vector);
-      vw.setWritesLaxPrecision(true);
-      vw.write(out);
+      SimilarityColumns.write(out, vector);
     }
   }
 
@@ -87,9 +84,7 @@ public final class VectorOrPrefWritable implements Writable {
   public void readFields(DataInput in) throws IOException {
     boolean hasVector = in.readBoolean();
     if (hasVector) {
-      VectorWritable writable = new VectorWritable();
-      writable.readFields(in);
-      set(writable.get());
+      set(SimilarityColumns.read(in));
     } else {
       long theUserID = Varint.readSignedVarLong(in);
       float theValue = in.readFloat();
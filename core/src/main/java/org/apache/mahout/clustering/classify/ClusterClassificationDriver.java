@@ -255,6 +255,8 @@ public final class ClusterClassificationDriver extends AbstractJob {
     
     Job job = new Job(conf, "Cluster Classification Driver running over input: " + input);
     job.setJarByClass(ClusterClassificationDriver.class);
+    // the mapper only computes distances to the input vectors and writes them back
+    job.getConfiguration().setBoolean(VectorWritable.READS_LAZILY, true);
     
     job.setInputFormatClass(SequenceFileInputFormat.class);
     job.setOutputFormatClass(SequenceFileOutputFormat.class);
@@ -22,16 +22,18 @@ import java.util.Random;
 import org.apache.mahout.common.RandomUtils;
 import org.apache.mahout.math.DenseVector;
 import org.apache.mahout.math.Vector;
-import org.uncommons.maths.random.GaussianGenerator;
 
 public final class UncommonDistributions {
   
   public static final double SQRT2PI = Math.sqrt(2.0 * Math.PI);
   
-  private static final Random RANDOM = RandomUtils.getRandom();
-  
   private UncommonDistributions() {
   }
+
+  /** the fast generator of the calling thread, so that threads sampling at the same time do not contend */
+  private static Random random() {
+    return RandomUtils.getThreadRandom();
+  }
   
   // =============== start of BSD licensed code. See LICENSE.txt
   /**
@@ -40,6 +42,7 @@ public final class UncommonDistributions {
    * Cheng's rejection algorithm (GB) for k>=1, rejection from Weibull distribution for 0 < k < 1.
    */
   public static double rGamma(double k, double lambda) {
+    Random random = random();
     boolean accept = false;
     if (k >= 1.0) {
       // Cheng's algorithm
@@ -49,8 +52,8 @@ public final class UncommonDistributions {
       double cheng = 1.0 + Math.log(4.5);
       double x;
       do {
-        double u = RANDOM.nextDouble();
-        double v = RANDOM.nextDouble();
+        double u = random.nextDouble();
+        double v = random.nextDouble();
         double y = 1.0 / lam * Math.log(v / (1.0 - v));
         x = k * Math.exp(y);
         double z = u * v * v;
@@ -66,8 +69,8 @@ public final class UncommonDistributions {
       double d = (1.0 - k) * Math.pow(k, k / (1.0 - k));
       double x;
       do {
-        double u = RANDOM.nextDouble();
-        double v = RANDOM.nextDouble();
+        double u = random.nextDouble();
+        double v = random.nextDouble();
         double z = -Math.log(u);
         double e = -Math.log(v);
         x = Math.pow(z, c);
@@ -143,8 +146,7 @@ public final class UncommonDistributions {
    * @return a double sample
    */
   public static double rNorm(double mean, double sd) {
-    GaussianGenerator dist = new GaussianGenerator(mean, sd, RANDOM);
-    return dist.nextValue();
+    return mean + sd * random().nextGaussian();
   }
   
   /**
@@ -171,7 +173,7 @@ public final class UncommonDistributions {
   public static int rMultinom(Vector probabilities) {
     // our probability argument are not normalized.
     double total = probabilities.zSum();
-    double nextDouble = RANDOM.nextDouble();
+    double nextDouble = random().nextDouble();
     double p = nextDouble * total;
     for (int i = 0; i < probabilities.size(); i++) {
       double pi = probabilities.get(i);
@@ -224,11 +226,12 @@ public final class UncommonDistributions {
     if (p >= 1.0) {
       return n; // needed to avoid infinite loops and negative results
     }
+    Random random = random();
     double q = -Math.log1p(-p);
     double sum = 0.0;
     int x = 0;
     while (sum <= q) {
-      double u = RANDOM.nextDouble();
+      double u = random.nextDouble();
       double e = -Math.log(u);
       sum += e / (n - x);
       x++;
@@ -94,7 +94,7 @@ public class CachingCVB0Mapper
       readModel = new TopicModel(conf, eta, alpha, null, numUpdateThreads, modelWeight, modelPaths);
     } else {
       log.info("No model files found");
-      readModel = new TopicModel(numTopics, numTerms, eta, alpha, RandomUtils.getRandom(seed), null,
+      readModel = new TopicModel(numTopics, numTerms, eta, alpha, RandomUtils.getFastRandom(seed), null,
           numTrainThreads, modelWeight);
     }
 
@@ -34,6 +34,7 @@ import org.apache.mahout.math.SequentialAccessSparseVector;
 import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.VectorWritable;
 import org.apache.mahout.math.function.Functions;
+import org.apache.mahout.math.jet.random.engine.Xoroshiro128PlusRandom;
 import org.apache.mahout.math.stats.Sampler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -133,7 +134,7 @@ public class TopicModel implements Configurable, Iterable<MatrixSlice> {
     this.numTerms = topicTermCounts.numCols();
     this.eta = eta;
     this.alpha = alpha;
-    this.sampler = new Sampler(RandomUtils.getRandom());
+    this.sampler = new Sampler(RandomUtils.getFastRandom());
     this.numThreads = numThreads;
     if (modelWeight != 1) {
       topicSums.assign(Functions.mult(modelWeight));
@@ -180,10 +181,16 @@ public class TopicModel implements Configurable, Iterable<MatrixSlice> {
     Matrix topicTermCounts = new DenseMatrix(numTopics, numTerms);
     Vector topicSums = new DenseVector(numTopics);
     if (random != null) {
+      double[] row = new double[numTerms];
       for (int x = 0; x < numTopics; x++) {
-        for (int term = 0; term < numTerms; term++) {
-          topicTermCounts.viewRow(x).set(term, random.nextDouble());
+        if (random instanceof Xoroshiro128PlusRandom) {
+          ((Xoroshiro128PlusRandom) random).nextDoubles(row);
+        } else {
+          for (int term = 0; term < numTerms; term++) {
+            row[term] = random.nextDouble();
+          }
         }
+        topicTermCounts.viewRow(x).assign(row);
       }
     }
     for (int x = 0; x < numTopics; x++) {
@@ -19,7 +19,6 @@ package org.apache.mahout.common.distance;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.mahout.common.parameters.Parameter;
@@ -52,17 +51,7 @@ public class ChebyshevDistanceMeasure implements DistanceMeasure {
     if (v1.size() != v2.size()) {
       throw new CardinalityException(v1.size(), v2.size());
     }
-    double result = 0.0;
-    Vector vector = v1.minus(v2);
-    Iterator<Vector.Element> iter = vector.iterateNonZero(); 
-    while (iter.hasNext()) {
-      Vector.Element e = iter.next();
-      double d = Math.abs(e.get());
-      if (d > result) {
-        result = d;
-      }
-    }
-    return result;
+    return v1.minus(v2).norm(Double.POSITIVE_INFINITY);
   }
   
   @Override
@@ -19,7 +19,6 @@ package org.apache.mahout.common.distance;
 
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 
 import org.apache.hadoop.conf.Configuration;
 import org.apache.mahout.common.parameters.Parameter;
@@ -60,15 +59,7 @@ public class ManhattanDistanceMeasure implements DistanceMeasure {
     if (v1.size() != v2.size()) {
       throw new CardinalityException(v1.size(), v2.size());
     }
-    double result = 0;
-    Vector vector = v1.minus(v2);
-    Iterator<Vector.Element> iter = vector.iterateNonZero(); 
-    // this contains all non zero elements between the two
-    while (iter.hasNext()) {
-      Vector.Element e = iter.next();
-      result += Math.abs(e.get());
-    }
-    return result;
+    return v1.minus(v2).norm(1.0);
   }
   
   @Override
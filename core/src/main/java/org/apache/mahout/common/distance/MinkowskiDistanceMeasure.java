@@ -18,7 +18,6 @@
 package org.apache.mahout.common.distance;
 
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.List;
 
 import com.google.common.collect.Lists;
@@ -26,7 +25,7 @@ import org.apache.hadoop.conf.Configuration;
 import org.apache.mahout.common.parameters.DoubleParameter;
 import org.apache.mahout.common.parameters.Parameter;
 import org.apache.mahout.math.Vector;
-import org.apache.mahout.math.Vector.Element;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 /** 
  * Implement Minkowski distance, a real-valued generalization of the 
@@ -82,14 +81,9 @@ public class MinkowskiDistanceMeasure implements DistanceMeasure {
    */
   @Override
   public double distance(Vector v1, Vector v2) {
-    Vector distVector = v1.minus(v2);
-    double sum = 0.0;
-    Iterator<Element> it = distVector.iterateNonZero();
-    while (it.hasNext()) {
-      Element e = it.next();
-      sum += Math.pow(Math.abs(e.get()), exponent);
-    }
-    return Math.pow(sum, 1.0 / exponent);
+    SumOfPowers sum = new SumOfPowers(exponent);
+    v1.minus(v2).forEachNonZero(sum);
+    return Math.pow(sum.result, 1.0 / exponent);
   }
 
   // TODO: how?
@@ -98,4 +92,20 @@ public class MinkowskiDistanceMeasure implements DistanceMeasure {
     return distance(centroid, v); // TODO - can this use centroidLengthSquare somehow?
   }
 
+  private static final class SumOfPowers implements IntDoubleProcedure {
+
+    private final double exponent;
+    private double result;
+
+    SumOfPowers(double exponent) {
+      this.exponent = exponent;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += Math.pow(Math.abs(value), exponent);
+      return true;
+    }
+  }
+
 }
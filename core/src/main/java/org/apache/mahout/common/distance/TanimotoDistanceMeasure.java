@@ -17,9 +17,8 @@
 
 package org.apache.mahout.common.distance;
 
-import java.util.Iterator;
-
 import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 /**
  * Tanimoto coefficient implementation.
@@ -61,18 +60,28 @@ public class TanimotoDistanceMeasure extends WeightedDistanceMeasure {
   }
   
   public double dot(Vector a, Vector b) {
-    boolean sameVector = a == b;
-    Iterator<Vector.Element> it = a.iterateNonZero();
-    Vector.Element el;
-    Vector weights = getWeights();
-    double dot = 0.0;
-    while (it.hasNext() && (el = it.next()) != null) {
-      double elementValue = el.get();
-      double value = elementValue * (sameVector ? elementValue : b.getQuick(el.index()));
-      value *= weights.getQuick(el.index());  
-      dot += value;
+    WeightedDot dot = new WeightedDot(a == b ? null : b, getWeights());
+    a.forEachNonZero(dot);
+    return dot.result;
+  }
+
+  /** sums the products of the visited elements with those of another vector, or with themselves, and the weights */
+  private static final class WeightedDot implements IntDoubleProcedure {
+
+    private final Vector other;
+    private final Vector weights;
+    private double result;
+
+    WeightedDot(Vector other, Vector weights) {
+      this.other = other;
+      this.weights = weights;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += value * (other == null ? value : other.getQuick(index)) * weights.getQuick(index);
+      return true;
     }
-    return dot;
   }
   
   @Override
@@ -17,9 +17,8 @@
 
 package org.apache.mahout.common.distance;
 
-import java.util.Iterator;
-
 import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 /**
  * This class implements a "Manhattan distance" metric by summing the absolute values of the difference
@@ -29,30 +28,34 @@ public class WeightedManhattanDistanceMeasure extends WeightedDistanceMeasure {
   
   @Override
   public double distance(Vector p1, Vector p2) {
-    double result = 0;
-    
     Vector res = p2.minus(p1);
     if (getWeights() == null) {
-      Iterator<Vector.Element> iter = res.iterateNonZero();
-      while (iter.hasNext()) {
-        Vector.Element elt = iter.next();
-        result += Math.abs(elt.get());
-      }
-      
-    } else {
-      Iterator<Vector.Element> iter = res.iterateNonZero();
-      while (iter.hasNext()) {
-        Vector.Element elt = iter.next();
-        result += Math.abs(elt.get() * getWeights().get(elt.index()));
-      }
+      return res.norm(1.0);
     }
-    
-    return result;
+    WeightedSumOfAbs result = new WeightedSumOfAbs(getWeights());
+    res.forEachNonZero(result);
+    return result.result;
   }
   
   @Override
   public double distance(double centroidLengthSquare, Vector centroid, Vector v) {
     return distance(centroid, v); // TODO
   }
+
+  private static final class WeightedSumOfAbs implements IntDoubleProcedure {
+
+    private final Vector weights;
+    private double result;
+
+    WeightedSumOfAbs(Vector weights) {
+      this.weights = weights;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += Math.abs(value * weights.get(index));
+      return true;
+    }
+  }
   
 }
@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * <p>Encodes increasing indices as the gaps between them, packed with a fixed number of bits per gap in blocks of
+ * {@link #BLOCK_SIZE}. Every block starts with a byte holding the width of its largest gap, so a few large gaps only
+ * widen the block they occur in. This is used by {@link VectorWritable} for binary vectors, which consist of indices
+ * only.</p>
+ */
+final class BitPackedIndices {
+
+  static final int BLOCK_SIZE = 128;
+
+  private BitPackedIndices() {
+  }
+
+  /**
+   * @param indices the indices to write, strictly increasing and non-negative
+   * @param count the number of indices to write
+   */
+  static void write(DataOutput out, int[] indices, int count) throws IOException {
+    int previous = -1;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      int blockEnd = Math.min(count, blockStart + BLOCK_SIZE);
+      // the highest bit set in any gap of the block
+      int gapBits = 0;
+      int last = previous;
+      for (int i = blockStart; i < blockEnd; i++) {
+        gapBits |= indices[i] - last - 1;
+        last = indices[i];
+      }
+      int width = 32 - Integer.numberOfLeadingZeros(gapBits);
+      out.writeByte(width);
+
+      long buffer = 0;
+      int numBits = 0;
+      for (int i = blockStart; i < blockEnd; i++) {
+        buffer |= (long) (indices[i] - previous - 1) << numBits;
+        numBits += width;
+        previous = indices[i];
+        while (numBits >= 8) {
+          out.writeByte((int) buffer);
+          buffer >>>= 8;
+          numBits -= 8;
+        }
+      }
+      if (numBits > 0) {
+        out.writeByte((int) buffer);
+      }
+    }
+  }
+
+  /**
+   * @param count the number of indices to read
+   * @return the indices
+   */
+  static int[] read(DataInput in, int count) throws IOException {
+    int[] indices = new int[count];
+    int previous = -1;
+    for (int blockStart = 0; blockStart < count; blockStart += BLOCK_SIZE) {
+      int blockEnd = Math.min(count, blockStart + BLOCK_SIZE);
+      int width = in.readUnsignedByte();
+      if (width > 32) {
+        throw new IOException("Invalid width of packed indices: " + width);
+      }
+      long mask = (1L << width) - 1;
+
+      long buffer = 0;
+      int numBits = 0;
+      for (int i = blockStart; i < blockEnd; i++) {
+        while (numBits < width) {
+          buffer |= (long) in.readUnsignedByte() << numBits;
+          numBits += 8;
+        }
+        previous += (int) (buffer & mask) + 1;
+        indices[i] = previous;
+        buffer >>>= width;
+        numBits -= width;
+      }
+    }
+    return indices;
+  }
+}
@@ -0,0 +1,348 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.collect.AbstractIterator;
+import org.apache.mahout.math.function.IntDoubleProcedure;
+
+/**
+ * <p>Read only view of a vector in the format written by {@link VectorWritable}, returned by
+ * {@link VectorWritable#get()} after reading with {@link VectorWritable#setReadsLazily(boolean)}. Only the encoded
+ * elements are copied when the vector is read, they are decoded every time they are iterated over, so that consumers
+ * which compute a few dot products, norms or distances with each vector do not build a hash map or arrays for it.</p>
+ *
+ * <p>Random access to the elements of a sparse vector decodes them into sorted arrays once. All attempts to change
+ * the vector throw {@link UnsupportedOperationException}, {@link #clone()} returns a writable copy.</p>
+ */
+public final class SerializedVector extends AbstractVector {
+
+  private final int numNonZeros;
+  private final boolean dense;
+  private final boolean sortedIndices;
+  /** 0 for binary vectors, 1 or 2 for quantized values, 4 for floats and 8 for doubles */
+  private final int valueWidth;
+  private final double scale;
+  private final byte[] data;
+
+  /** the decoded elements of a sparse vector, in index order */
+  private int[] indices;
+  private double[] values;
+
+  private SerializedVector(int size, int numNonZeros, boolean dense, boolean sortedIndices, int valueWidth,
+                           double scale, byte[] data) {
+    super(size);
+    this.numNonZeros = numNonZeros;
+    this.dense = dense;
+    this.sortedIndices = sortedIndices;
+    this.valueWidth = valueWidth;
+    this.scale = scale;
+    this.data = data;
+  }
+
+  /**
+   * Copies the encoded elements of a vector whose header has been read by {@link VectorWritable}
+   *
+   * @param numNonZeros the number of encoded elements, the size of dense vectors
+   * @param sortedIndices whether the indices of a sparse vector are delta-coded
+   * @param valueWidth the number of bytes per value, 0 for binary vectors
+   * @param scale the scale of quantized values
+   */
+  static SerializedVector read(DataInput in, int size, int numNonZeros, boolean dense, boolean sortedIndices,
+                               int valueWidth, double scale) throws IOException {
+    byte[] data;
+    if (dense) {
+      data = new byte[size * valueWidth];
+      in.readFully(data);
+    } else if (valueWidth == 0) {
+      // blocks of bit-packed gaps, each starting with its width in bits
+      byte[] buffer = new byte[numNonZeros * 4 + numNonZeros / BitPackedIndices.BLOCK_SIZE + 1];
+      int length = 0;
+      for (int blockStart = 0; blockStart < numNonZeros; blockStart += BitPackedIndices.BLOCK_SIZE) {
+        int blockSize = Math.min(numNonZeros - blockStart, BitPackedIndices.BLOCK_SIZE);
+        int width = in.readUnsignedByte();
+        buffer[length++] = (byte) width;
+        int numBytes = (blockSize * width + 7) / 8;
+        in.readFully(buffer, length, numBytes);
+        length += numBytes;
+      }
+      data = Arrays.copyOf(buffer, length);
+    } else {
+      // a varint of at most 5 bytes and a value per element
+      byte[] buffer = new byte[numNonZeros * (5 + valueWidth)];
+      int length = 0;
+      for (int i = 0; i < numNonZeros; i++) {
+        int numIndexBytes = 0;
+        byte b;
+        do {
+          if (++numIndexBytes > 5) {
+            throw new IOException("Variable length index is too long");
+          }
+          b = in.readByte();
+          buffer[length++] = b;
+        } while ((b & 0x80) != 0);
+        in.readFully(buffer, length, valueWidth);
+        length += valueWidth;
+      }
+      data = Arrays.copyOf(buffer, length);
+    }
+    return new SerializedVector(size, numNonZeros, dense, sortedIndices, valueWidth, scale, data);
+  }
+
+  @Override
+  protected Matrix matrixLike(int rows, int columns) {
+    return dense ? new DenseMatrix(rows, columns) : new SparseRowMatrix(rows, columns);
+  }
+
+  /**
+   * @return a writable copy of this vector
+   */
+  @Override
+  public Vector clone() {
+    return like().assign(this);
+  }
+
+  @Override
+  public boolean isDense() {
+    return dense;
+  }
+
+  @Override
+  public boolean isSequentialAccess() {
+    return dense || sortedIndices || valueWidth == 0;
+  }
+
+  @Override
+  public int getNumNondefaultElements() {
+    return dense ? size() : numNonZeros;
+  }
+
+  @Override
+  public double getQuick(int index) {
+    if (dense) {
+      return valueAt(index * valueWidth);
+    }
+    decode();
+    int position = Arrays.binarySearch(indices, index);
+    return position < 0 ? 0.0 : values[position];
+  }
+
+  @Override
+  public void setQuick(int index, double value) {
+    throw new UnsupportedOperationException("Serialized vectors are read only");
+  }
+
+  @Override
+  public Vector like() {
+    return dense ? new DenseVector(size()) : new RandomAccessSparseVector(size(), numNonZeros);
+  }
+
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
+    Decoder decoder = new Decoder();
+    while (decoder.next()) {
+      if (!procedure.apply(decoder.index, decoder.value)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public Iterator<Element> iterateNonZero() {
+    return new AbstractIterator<Element>() {
+      private final Decoder decoder = new Decoder();
+      private final DecodedElement element = new DecodedElement();
+
+      @Override
+      protected Element computeNext() {
+        if (!decoder.next()) {
+          return endOfData();
+        }
+        element.index = decoder.index;
+        element.value = decoder.value;
+        return element;
+      }
+    };
+  }
+
+  @Override
+  public Iterator<Element> iterator() {
+    if (!dense) {
+      decode();
+    }
+    return new AllIterator();
+  }
+
+  private final class AllIterator extends AbstractIterator<Element> {
+
+    private final DecodedElement element = new DecodedElement();
+    private int nextNonZero;
+
+    private AllIterator() {
+      element.index = -1;
+    }
+
+    @Override
+    protected Element computeNext() {
+      int index = element.index + 1;
+      if (index >= size()) {
+        return endOfData();
+      }
+      element.index = index;
+      if (dense) {
+        element.value = valueAt(index * valueWidth);
+      } else if (nextNonZero < indices.length && indices[nextNonZero] == index) {
+        element.value = values[nextNonZero++];
+      } else {
+        element.value = 0.0;
+      }
+      return element;
+    }
+  }
+
+  /** decodes the elements of a sparse vector into arrays sorted by index, once */
+  private void decode() {
+    if (indices != null) {
+      return;
+    }
+    int[] decodedIndices = new int[numNonZeros];
+    double[] decodedValues = new double[numNonZeros];
+    int count = 0;
+    Decoder decoder = new Decoder();
+    while (decoder.next()) {
+      decodedIndices[count] = decoder.index;
+      decodedValues[count++] = decoder.value;
+    }
+    if (!isSequentialAccess()) {
+      SequentialAccessSparseVector sorted = new SequentialAccessSparseVector(size(), count);
+      for (int i = 0; i < count; i++) {
+        sorted.setQuick(decodedIndices[i], decodedValues[i]);
+      }
+      count = sorted.getNonZeros(decodedIndices, decodedValues);
+    }
+    values = Arrays.copyOf(decodedValues, count);
+    indices = Arrays.copyOf(decodedIndices, count);
+  }
+
+  private double valueAt(int position) {
+    switch (valueWidth) {
+      case 1:
+        return data[position] * scale;
+      case 2:
+        return (short) ((data[position] << 8) | (data[position + 1] & 0xFF)) * scale;
+      case 4:
+        return Float.intBitsToFloat(readInt(position));
+      default:
+        return Double.longBitsToDouble((long) readInt(position) << 32 | readInt(position + 4) & 0xFFFFFFFFL);
+    }
+  }
+
+  private int readInt(int position) {
+    return (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16 | (data[position + 2] & 0xFF) << 8
+        | data[position + 3] & 0xFF;
+  }
+
+  /** walks the non-zero elements in the order in which they were written */
+  private final class Decoder {
+
+    private int position;
+    private int count;
+    private int index = dense ? -1 : 0;
+    private double value;
+    private int[] binaryIndices;
+
+    /** moves to the next non-zero element, returns false when there is none */
+    boolean next() {
+      if (dense) {
+        while (++index < size()) {
+          value = valueAt(index * valueWidth);
+          if (value != 0.0) {
+            return true;
+          }
+        }
+        return false;
+      }
+      while (count < numNonZeros) {
+        if (valueWidth == 0) {
+          if (binaryIndices == null) {
+            binaryIndices = readBinaryIndices();
+          }
+          index = binaryIndices[count++];
+          value = 1.0;
+          return true;
+        }
+        int delta = 0;
+        int shift = 0;
+        int b;
+        while (((b = data[position++]) & 0x80) != 0) {
+          delta |= (b & 0x7F) << shift;
+          shift += 7;
+        }
+        delta |= b << shift;
+        index = sortedIndices ? index + delta : delta;
+        value = valueAt(position);
+        position += valueWidth;
+        count++;
+        if (value != 0.0) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  private int[] readBinaryIndices() {
+    if (indices != null) {
+      return indices;
+    }
+    try {
+      return BitPackedIndices.read(new DataInputStream(new ByteArrayInputStream(data)), numNonZeros);
+    } catch (IOException e) {
+      // the bytes were complete when they were read
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private final class DecodedElement implements Element {
+
+    private int index;
+    private double value;
+
+    @Override
+    public double get() {
+      return value;
+    }
+
+    @Override
+    public int index() {
+      return index;
+    }
+
+    @Override
+    public void set(double value) {
+      throw new UnsupportedOperationException("Serialized vectors are read only");
+    }
+  }
+}
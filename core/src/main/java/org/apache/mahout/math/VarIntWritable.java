@@ -22,6 +22,7 @@ import java.io.DataOutput;
 import java.io.IOException;
 
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
 
 public class VarIntWritable implements WritableComparable<VarIntWritable>, Cloneable {
 
@@ -83,4 +84,23 @@ public class VarIntWritable implements WritableComparable<VarIntWritable>, Clone
     value = Varint.readSignedVarInt(in);
   }
 
-}
\ No newline at end of file
+  /** A {@link WritableComparator} that compares the serialized values without deserializing them. */
+  public static class Comparator extends WritableComparator {
+
+    public Comparator() {
+      super(VarIntWritable.class);
+    }
+
+    @Override
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      int thisValue = Varint.readSignedVarInt(b1, s1);
+      int thatValue = Varint.readSignedVarInt(b2, s2);
+      return thisValue < thatValue ? -1 : thisValue == thatValue ? 0 : 1;
+    }
+  }
+
+  static {
+    WritableComparator.define(VarIntWritable.class, new Comparator());
+  }
+
+}
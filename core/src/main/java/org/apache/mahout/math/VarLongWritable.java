@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import com.google.common.primitives.Longs;
 import org.apache.hadoop.io.WritableComparable;
+import org.apache.hadoop.io.WritableComparator;
 
 public class VarLongWritable implements WritableComparable<VarLongWritable>, Cloneable {
 
@@ -85,4 +86,23 @@ public class VarLongWritable implements WritableComparable<VarLongWritable>, Clo
     value = Varint.readSignedVarLong(in);
   }
 
-}
\ No newline at end of file
+  /** A {@link WritableComparator} that compares the serialized values without deserializing them. */
+  public static class Comparator extends WritableComparator {
+
+    public Comparator() {
+      super(VarLongWritable.class);
+    }
+
+    @Override
+    public int compare(byte[] b1, int s1, int l1, byte[] b2, int s2, int l2) {
+      long thisValue = Varint.readSignedVarLong(b1, s1);
+      long thatValue = Varint.readSignedVarLong(b2, s2);
+      return thisValue < thatValue ? -1 : thisValue == thatValue ? 0 : 1;
+    }
+  }
+
+  static {
+    WritableComparator.define(VarLongWritable.class, new Comparator());
+  }
+
+}
@@ -164,4 +164,62 @@ public final class Varint {
     return value | (b << i);
   }
 
+  /**
+   * Decodes a value directly from a byte array, e.g. for raw comparators that must not deserialize their input.
+   *
+   * @param bytes to read from
+   * @param offset position of the first byte of the value
+   * @return decoded value
+   * @throws IllegalArgumentException if variable-length value does not terminate
+   *  after 9 bytes have been read
+   * @see #readSignedVarLong(DataInput)
+   */
+  public static long readSignedVarLong(byte[] bytes, int offset) {
+    long raw = readUnsignedVarLong(bytes, offset);
+    long temp = (((raw << 63) >> 63) ^ raw) >> 1;
+    return temp ^ (raw & (1L << 63));
+  }
+
+  /**
+   * @see #readSignedVarLong(byte[], int)
+   * @see #readUnsignedVarLong(DataInput)
+   */
+  public static long readUnsignedVarLong(byte[] bytes, int offset) {
+    long value = 0L;
+    int i = 0;
+    long b;
+    while (((b = bytes[offset++]) & 0x80L) != 0) {
+      value |= (b & 0x7F) << i;
+      i += 7;
+      Preconditions.checkArgument(i <= 63, "Variable length quantity is too long");
+    }
+    return value | (b << i);
+  }
+
+  /**
+   * @see #readSignedVarLong(byte[], int)
+   * @see #readSignedVarInt(DataInput)
+   */
+  public static int readSignedVarInt(byte[] bytes, int offset) {
+    int raw = readUnsignedVarInt(bytes, offset);
+    int temp = (((raw << 31) >> 31) ^ raw) >> 1;
+    return temp ^ (raw & (1 << 31));
+  }
+
+  /**
+   * @see #readSignedVarLong(byte[], int)
+   * @see #readUnsignedVarInt(DataInput)
+   */
+  public static int readUnsignedVarInt(byte[] bytes, int offset) {
+    int value = 0;
+    int i = 0;
+    int b;
+    while (((b = bytes[offset++]) & 0x80) != 0) {
+      value |= (b & 0x7F) << i;
+      i += 7;
+      Preconditions.checkArgument(i <= 35, "Variable length quantity is too long");
+    }
+    return value | (b << i);
+  }
+
 }
@@ -17,26 +17,53 @@
 
 package org.apache.mahout.math;
 
+import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.conf.Configured;
 import org.apache.hadoop.io.Writable;
 
 import com.google.common.base.Preconditions;
+import org.apache.mahout.math.function.IntComparator;
 
 import java.io.DataInput;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.util.Iterator;
 
+/**
+ * <p>Writes a {@link Vector} as a flags byte followed by its size, its non-zero elements and an optional name.</p>
+ *
+ * <p>Only {@link #FLAG_DENSE}, {@link #FLAG_SEQUENTIAL}, {@link #FLAG_NAMED} and {@link #FLAG_LAX_PRECISION} are
+ * understood by releases that predate the other flags, which reject vectors with any other flag set. Float vectors
+ * always set {@link #FLAG_FLOAT}, so data read by such releases must be written from double vectors with lax
+ * precision instead; compressed and quantized vectors are never readable by them.</p>
+ */
 public final class VectorWritable extends Configured implements Writable {
 
   public static final int FLAG_DENSE = 0x01;
   public static final int FLAG_SEQUENTIAL = 0x02;
   public static final int FLAG_NAMED = 0x04;
   public static final int FLAG_LAX_PRECISION = 0x08;
-  public static final int NUM_FLAGS = 4;
+  /**
+   * values are floats and are read into a {@link DenseFloatVector} or {@link RandomAccessSparseFloatVector}, set for
+   * all float vectors; not understood by readers that only know the first four flags
+   */
+  public static final int FLAG_FLOAT = 0x10;
+  /** the indices of a random access sparse vector are sorted and delta-coded, as for sequential access vectors */
+  public static final int FLAG_DELTA_INDICES = 0x20;
+  /** values are written as 8 or 16 bit multiples of a scale that is written once per vector */
+  public static final int FLAG_QUANTIZED = 0x40;
+  /** all non-zero values are 1, only the indices are written, bit-packed by {@link BitPackedIndices} */
+  public static final int FLAG_BINARY = 0x80;
+  public static final int NUM_FLAGS = 8;
+
+  /** configuration key that makes instances created by Hadoop read lazily, see {@link #setReadsLazily(boolean)} */
+  public static final String READS_LAZILY = "mahout.vectorwritable.readsLazily";
 
   private Vector vector;
   private boolean writesLaxPrecision;
+  private boolean writesCompressed;
+  private int quantizationBits;
+  private boolean readsLazily;
 
   public VectorWritable() {
   }
@@ -75,46 +102,117 @@ public final class VectorWritable extends Configured implements Writable {
     this.writesLaxPrecision = writesLaxPrecision;
   }
 
+  /**
+   * @return true if this delta-codes the indices of random access sparse vectors, which requires sorting them, and
+   *  writes sparse vectors whose non-zero values are all 1 as bit-packed indices only. Both are lossless.
+   */
+  public boolean isWritesCompressed() {
+    return writesCompressed;
+  }
+
+  public void setWritesCompressed(boolean writesCompressed) {
+    this.writesCompressed = writesCompressed;
+  }
+
+  /**
+   * @return 8 or 16 if this writes values as multiples of the largest absolute value of the vector divided by
+   *  127 or 32767, which loses precision, or 0 if values are written as floats or doubles
+   */
+  public int getQuantizationBits() {
+    return quantizationBits;
+  }
+
+  public void setQuantizationBits(int quantizationBits) {
+    checkQuantizationBits(quantizationBits);
+    this.quantizationBits = quantizationBits;
+  }
+
+  /**
+   * @return true if {@link #readFields(DataInput)} only copies the encoded elements into a read only
+   *  {@link SerializedVector}, which decodes them when they are accessed
+   */
+  public boolean isReadsLazily() {
+    return readsLazily;
+  }
+
+  public void setReadsLazily(boolean readsLazily) {
+    this.readsLazily = readsLazily;
+  }
+
+  @Override
+  public void setConf(Configuration conf) {
+    super.setConf(conf);
+    if (conf != null) {
+      readsLazily = conf.getBoolean(READS_LAZILY, false);
+    }
+  }
+
+  private static void checkQuantizationBits(int quantizationBits) {
+    Preconditions.checkArgument(quantizationBits == 0 || quantizationBits == 8 || quantizationBits == 16,
+        "Values can be quantized to 8 or 16 bits only, not %s", quantizationBits);
+  }
+
   @Override
   public void write(DataOutput out) throws IOException {
-    writeVector(out, this.vector, this.writesLaxPrecision);
+    writeVector(out, this.vector, this.writesLaxPrecision, this.writesCompressed, this.quantizationBits);
   }
 
   @Override
   public void readFields(DataInput in) throws IOException {
-    int flags = in.readByte();
+    int flags = in.readUnsignedByte();
     Preconditions.checkArgument(flags >> NUM_FLAGS == 0, "Unknown flags set: %d", Integer.toString(flags, 2));
     boolean dense = (flags & FLAG_DENSE) != 0;
     boolean sequential = (flags & FLAG_SEQUENTIAL) != 0;
     boolean named = (flags & FLAG_NAMED) != 0;
-    boolean laxPrecision = (flags & FLAG_LAX_PRECISION) != 0;
+    boolean floatValues = (flags & FLAG_FLOAT) != 0;
+    boolean laxPrecision = floatValues || (flags & FLAG_LAX_PRECISION) != 0;
+    boolean deltaIndices = sequential || (flags & FLAG_DELTA_INDICES) != 0;
+    boolean binary = (flags & FLAG_BINARY) != 0;
 
     int size = Varint.readUnsignedVarInt(in);
+    int numNonDefaultElements = dense ? size : Varint.readUnsignedVarInt(in);
+    ValueCoding values = binary ? null : ValueCoding.read(in, laxPrecision, (flags & FLAG_QUANTIZED) != 0);
     Vector v;
-    if (dense) {
-      double[] values = new double[size];
+    if (readsLazily) {
+      v = SerializedVector.read(in, size, numNonDefaultElements, dense, deltaIndices,
+          binary ? 0 : values.width(), binary ? 0.0 : values.scale);
+    } else if (dense && floatValues) {
+      float[] floats = new float[size];
+      for (int i = 0; i < size; i++) {
+        floats[i] = (float) values.read(in);
+      }
+      v = new DenseFloatVector(floats, true);
+    } else if (dense) {
+      double[] doubles = new double[size];
       for (int i = 0; i < size; i++) {
-        values[i] = laxPrecision ? in.readFloat() : in.readDouble();
+        doubles[i] = values.read(in);
       }
-      v = new DenseVector(values);
+      v = new DenseVector(doubles);
     } else {
-      int numNonDefaultElements = Varint.readUnsignedVarInt(in);
-      v = sequential
-          ? new SequentialAccessSparseVector(size, numNonDefaultElements)
-          : new RandomAccessSparseVector(size, numNonDefaultElements);
-      if (sequential) {
+      if (floatValues) {
+        v = new RandomAccessSparseFloatVector(size, numNonDefaultElements);
+      } else {
+        v = sequential
+            ? new SequentialAccessSparseVector(size, numNonDefaultElements)
+            : new RandomAccessSparseVector(size, numNonDefaultElements);
+      }
+      if (binary) {
+        for (int index : BitPackedIndices.read(in, numNonDefaultElements)) {
+          v.setQuick(index, 1.0);
+        }
+      } else if (deltaIndices) {
         int lastIndex = 0;
         for (int i = 0; i < numNonDefaultElements; i++) {
           int delta = Varint.readUnsignedVarInt(in);
           int index = lastIndex + delta;
           lastIndex = index;
-          double value = laxPrecision ? in.readFloat() : in.readDouble();
+          double value = values.read(in);
           v.setQuick(index, value);
         }
       } else {
         for (int i = 0; i < numNonDefaultElements; i++) {
           int index = Varint.readUnsignedVarInt(in);
-          double value = laxPrecision ? in.readFloat() : in.readDouble();
+          double value = values.read(in);
           v.setQuick(index, value);
         }
       }
@@ -132,51 +230,92 @@ public final class VectorWritable extends Configured implements Writable {
   }
 
   public static void writeVector(DataOutput out, Vector vector, boolean laxPrecision) throws IOException {
+    writeVector(out, vector, laxPrecision, false, 0);
+  }
+
+  /**
+   * Write the vector to the output
+   *
+   * @param compressed
+   *          delta-code the indices of random access sparse vectors and write binary sparse vectors as bit-packed
+   *          indices, see {@link #setWritesCompressed(boolean)}
+   * @param quantizationBits
+   *          0, or 8 or 16 to quantize values, see {@link #setQuantizationBits(int)}
+   */
+  public static void writeVector(DataOutput out, Vector vector, boolean laxPrecision, boolean compressed,
+                                 int quantizationBits) throws IOException {
+    checkQuantizationBits(quantizationBits);
     boolean dense = vector.isDense();
     boolean sequential = vector.isSequentialAccess();
     boolean named = vector instanceof NamedVector;
+    Vector delegate = named ? ((NamedVector) vector).getDelegate() : vector;
+    boolean floatValues = delegate instanceof DenseFloatVector || delegate instanceof RandomAccessSparseFloatVector;
+    laxPrecision |= floatValues;
+    boolean quantized = quantizationBits != 0;
+
+    // compressed sparse vectors are collected first, to sort them and to find out whether they are binary
+    int[] indices = null;
+    double[] values = null;
+    int numNonZeros = 0;
+    boolean binary = false;
+    if (compressed && !dense) {
+      indices = new int[vector.getNumNondefaultElements()];
+      values = new double[indices.length];
+      numNonZeros = vector.getNonZeros(indices, values);
+      if (!sequential) {
+        sortByIndex(indices, values, numNonZeros);
+      }
+      binary = numNonZeros > 0;
+      for (int i = 0; i < numNonZeros && binary; i++) {
+        binary = values[i] == 1.0;
+      }
+    }
 
     out.writeByte((dense ? FLAG_DENSE : 0)
         | (sequential ? FLAG_SEQUENTIAL : 0)
         | (named ? FLAG_NAMED : 0)
-        | (laxPrecision ? FLAG_LAX_PRECISION : 0));
+        | (laxPrecision ? FLAG_LAX_PRECISION : 0)
+        | (floatValues ? FLAG_FLOAT : 0)
+        | (compressed && !dense && !sequential ? FLAG_DELTA_INDICES : 0)
+        | (quantized && !binary ? FLAG_QUANTIZED : 0)
+        | (binary ? FLAG_BINARY : 0));
 
     Varint.writeUnsignedVarInt(vector.size(), out);
     if (dense) {
+      ValueCoding coding = ValueCoding.write(out, vector, laxPrecision, quantizationBits);
       for (Vector.Element element : vector) {
-        if (laxPrecision) {
-          out.writeFloat((float) element.get());
-        } else {
-          out.writeDouble(element.get());
+        coding.write(out, element.get());
+      }
+    } else if (compressed) {
+      Varint.writeUnsignedVarInt(numNonZeros, out);
+      if (binary) {
+        BitPackedIndices.write(out, indices, numNonZeros);
+      } else {
+        ValueCoding coding = ValueCoding.write(out, vector, laxPrecision, quantizationBits);
+        int lastIndex = 0;
+        for (int i = 0; i < numNonZeros; i++) {
+          Varint.writeUnsignedVarInt(indices[i] - lastIndex, out);
+          lastIndex = indices[i];
+          coding.write(out, values[i]);
         }
       }
     } else {
+      // the stored count includes explicitly stored zeros, which iterateNonZero() visits as well
       Varint.writeUnsignedVarInt(vector.getNumNondefaultElements(), out);
+      ValueCoding coding = ValueCoding.write(out, vector, laxPrecision, quantizationBits);
       Iterator<Vector.Element> iter = vector.iterateNonZero();
-      if (sequential) {
-        int lastIndex = 0;
-        while (iter.hasNext()) {
-          Vector.Element element = iter.next();
-          int thisIndex = element.index();
+      int lastIndex = 0;
+      while (iter.hasNext()) {
+        Vector.Element element = iter.next();
+        int thisIndex = element.index();
+        if (sequential) {
           // Delta-code indices:
           Varint.writeUnsignedVarInt(thisIndex - lastIndex, out);
           lastIndex = thisIndex;
-          if (laxPrecision) {
-            out.writeFloat((float) element.get());
-          } else {
-            out.writeDouble(element.get());
-          }
-        }
-      } else {
-        while (iter.hasNext()) {
-          Vector.Element element = iter.next();
-          Varint.writeUnsignedVarInt(element.index(), out);
-          if (laxPrecision) {
-            out.writeFloat((float) element.get());
-          } else {
-            out.writeDouble(element.get());
-          }
+        } else {
+          Varint.writeUnsignedVarInt(thisIndex, out);
         }
+        coding.write(out, element.get());
       }
     }
     if (named) {
@@ -185,6 +324,106 @@ public final class VectorWritable extends Configured implements Writable {
     }
   }
 
+  private static void sortByIndex(final int[] indices, final double[] values, int count) {
+    Sorting.quickSort(0, count, new IntComparator() {
+      @Override
+      public int compare(int a, int b) {
+        return indices[a] < indices[b] ? -1 : indices[a] > indices[b] ? 1 : 0;
+      }
+    }, new Swapper() {
+      @Override
+      public void swap(int a, int b) {
+        int index = indices[a];
+        indices[a] = indices[b];
+        indices[b] = index;
+        double value = values[a];
+        values[a] = values[b];
+        values[b] = value;
+      }
+    });
+  }
+
+  /**
+   * How values are written: as doubles, as floats, or quantized to multiples of a scale. Quantized values are
+   * preceded by the number of bits and the scale.
+   */
+  private static final class ValueCoding {
+
+    private final boolean laxPrecision;
+    private final int quantizationBits;
+    private final double scale;
+
+    private ValueCoding(boolean laxPrecision, int quantizationBits, double scale) {
+      this.laxPrecision = laxPrecision;
+      this.quantizationBits = quantizationBits;
+      this.scale = scale;
+    }
+
+    static ValueCoding write(DataOutput out, Vector vector, boolean laxPrecision, int quantizationBits)
+      throws IOException {
+      if (quantizationBits == 0) {
+        return new ValueCoding(laxPrecision, 0, 0.0);
+      }
+      int maxQuantum = (1 << (quantizationBits - 1)) - 1;
+      float scale = (float) (vector.norm(Double.POSITIVE_INFINITY) / maxQuantum);
+      out.writeByte(quantizationBits);
+      out.writeFloat(scale);
+      return new ValueCoding(laxPrecision, quantizationBits, scale);
+    }
+
+    static ValueCoding read(DataInput in, boolean laxPrecision, boolean quantized) throws IOException {
+      if (!quantized) {
+        return new ValueCoding(laxPrecision, 0, 0.0);
+      }
+      int quantizationBits = in.readUnsignedByte();
+      if (quantizationBits != 8 && quantizationBits != 16) {
+        throw new IOException("Invalid number of bits of quantized values: " + quantizationBits);
+      }
+      return new ValueCoding(laxPrecision, quantizationBits, in.readFloat());
+    }
+
+    void write(DataOutput out, double value) throws IOException {
+      if (quantizationBits == 8) {
+        out.writeByte(quantize(value));
+      } else if (quantizationBits == 16) {
+        out.writeShort(quantize(value));
+      } else if (laxPrecision) {
+        out.writeFloat((float) value);
+      } else {
+        out.writeDouble(value);
+      }
+    }
+
+    /** the number of bytes per value */
+    int width() {
+      if (quantizationBits != 0) {
+        return quantizationBits / 8;
+      }
+      return laxPrecision ? 4 : 8;
+    }
+
+    private int quantize(double value) {
+      if (scale == 0.0) {
+        return 0;
+      }
+      // the scale is rounded to a float, which may push the largest values just past the largest quantum
+      int maxQuantum = (1 << (quantizationBits - 1)) - 1;
+      return (int) Math.max(-maxQuantum, Math.min(maxQuantum, Math.round(value / scale)));
+    }
+
+    double read(DataInput in) throws IOException {
+      if (quantizationBits == 8) {
+        return in.readByte() * scale;
+      } else if (quantizationBits == 16) {
+        return in.readShort() * scale;
+      } else if (laxPrecision) {
+        return in.readFloat();
+      } else {
+        return in.readDouble();
+      }
+    }
+  }
+
   public static Vector readVector(DataInput in) throws IOException {
     VectorWritable v = new VectorWritable();
     v.readFields(in);
@@ -193,6 +432,19 @@ public final class VectorWritable extends Configured implements Writable {
 
   public static VectorWritable merge(Iterator<VectorWritable> vectors) {
     Vector accumulator = vectors.next().get();
+    if (accumulator instanceof SequentialAccessSparseVector) {
+      // inserting out of order into a sequential vector shifts its elements, sort all of them once instead
+      SequentialAccessSparseVector.Builder merged =
+          new SequentialAccessSparseVector.Builder(accumulator.size(), accumulator.getNumNondefaultElements());
+      merged.set(accumulator);
+      while (vectors.hasNext()) {
+        VectorWritable v = vectors.next();
+        if (v != null) {
+          merged.set(v.get());
+        }
+      }
+      return new VectorWritable(merged.build());
+    }
     while (vectors.hasNext()) {
       VectorWritable v = vectors.next();
       if (v != null) {
@@ -101,6 +101,8 @@ public class VectorDistanceSimilarityJob extends AbstractJob {
     conf.set(DISTANCE_MEASURE_KEY, measure.getClass().getName());
     conf.set(SEEDS_PATH_KEY, seeds.toString());
     Job job = new Job(conf, "Vector Distance Similarity: seeds: " + seeds + " input: " + input);
+    // the mappers only compute distances between the seeds and the input vectors
+    job.getConfiguration().setBoolean(VectorWritable.READS_LAZILY, true);
     job.setInputFormatClass(SequenceFileInputFormat.class);
     job.setOutputFormatClass(SequenceFileOutputFormat.class);
     if ("pw".equalsIgnoreCase(outType)) {
@@ -37,7 +37,9 @@ import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.VectorWritable;
 import org.apache.mahout.math.hadoop.similarity.cooccurrence.measures.VectorSimilarityMeasures;
 import org.apache.mahout.math.hadoop.similarity.cooccurrence.measures.VectorSimilarityMeasure;
+import org.apache.mahout.math.list.IntArrayList;
 import org.apache.mahout.math.map.OpenIntIntHashMap;
+import org.apache.mahout.math.map.OpenIntObjectHashMap;
 
 import java.io.IOException;
 import java.util.Arrays;
@@ -61,7 +63,11 @@ public class RowSimilarityJob extends AbstractJob {
   static final String MAXVALUES_PATH = RowSimilarityJob.class + ".maxWeightsPath";
 
   static final String NUM_NON_ZERO_ENTRIES_PATH = RowSimilarityJob.class + ".nonZeroEntriesPath";
+  static final String MAX_OBSERVATIONS_PER_COLUMN = RowSimilarityJob.class + ".maxObservationsPerColumn";
+  static final String MAX_BUFFERED_ROWS = RowSimilarityJob.class + ".maxBufferedRows";
   private static final int DEFAULT_MAX_SIMILARITIES_PER_ROW = 100;
+  private static final int DEFAULT_MAX_BUFFERED_ROWS = 1000;
+  private static final int NO_SAMPLING = Integer.MAX_VALUE;
 
   private static final int NORM_VECTOR_MARKER = Integer.MIN_VALUE;
   private static final int MAXVALUE_VECTOR_MARKER = Integer.MIN_VALUE + 1;
@@ -86,6 +92,11 @@ public class RowSimilarityJob extends AbstractJob {
         + DEFAULT_MAX_SIMILARITIES_PER_ROW + ')', String.valueOf(DEFAULT_MAX_SIMILARITIES_PER_ROW));
     addOption("excludeSelfSimilarity", "ess", "compute similarity of rows to themselves?", String.valueOf(false));
     addOption("threshold", "tr", "discard row pairs with a similarity value below this", false);
+    addOption("maxObservationsPerColumn", "mo", "randomly sample columns with more than this number of non-zero "
+        + "entries down to this number before computing cooccurrences (default: no sampling)", false);
+    addOption("maxBufferedRows", "mb", "number of transposed rows whose top similarities are buffered map-side "
+        + "before being emitted (default: " + DEFAULT_MAX_BUFFERED_ROWS + ')',
+        String.valueOf(DEFAULT_MAX_BUFFERED_ROWS));
     addOption(DefaultOptionCreator.overwriteOption().create());
 
     Map<String,List<String>> parsedArgs = parseArguments(args);
@@ -123,6 +134,9 @@ public class RowSimilarityJob extends AbstractJob {
     boolean excludeSelfSimilarity = Boolean.parseBoolean(getOption("excludeSelfSimilarity"));
     double threshold = hasOption("threshold") ?
         Double.parseDouble(getOption("threshold")) : NO_THRESHOLD;
+    int maxObservationsPerColumn = hasOption("maxObservationsPerColumn") ?
+        Integer.parseInt(getOption("maxObservationsPerColumn")) : NO_SAMPLING;
+    int maxBufferedRows = Integer.parseInt(getOption("maxBufferedRows"));
 
     Path weightsPath = getTempPath("weights");
     Path normsPath = getTempPath("norms.bin");
@@ -160,6 +174,7 @@ public class RowSimilarityJob extends AbstractJob {
       pairwiseConf.set(SIMILARITY_CLASSNAME, similarityClassname);
       pairwiseConf.setInt(NUMBER_OF_COLUMNS, numberOfColumns);
       pairwiseConf.setBoolean(EXCLUDE_SELF_SIMILARITY, excludeSelfSimilarity);
+      pairwiseConf.setInt(MAX_OBSERVATIONS_PER_COLUMN, maxObservationsPerColumn);
       boolean succeeded = pairwiseSimilarity.waitForCompletion(true);
       if (!succeeded) {
         return -1;
@@ -172,6 +187,7 @@ public class RowSimilarityJob extends AbstractJob {
           VectorWritable.class);
       asMatrix.setCombinerClass(MergeToTopKSimilaritiesReducer.class);
       asMatrix.getConfiguration().setInt(MAX_SIMILARITIES_PER_ROW, maxSimilaritiesPerRow);
+      asMatrix.getConfiguration().setInt(MAX_BUFFERED_ROWS, maxBufferedRows);
       boolean succeeded = asMatrix.waitForCompletion(true);
       if (!succeeded) {
         return -1;
@@ -286,6 +302,7 @@ public class RowSimilarityJob extends AbstractJob {
     private OpenIntIntHashMap numNonZeroEntries;
     private Vector maxValues;
     private double threshold;
+    private int maxObservationsPerColumn;
 
     private static final Comparator<Vector.Element> BY_INDEX = new Comparator<Vector.Element>() {
       @Override
@@ -302,6 +319,7 @@ public class RowSimilarityJob extends AbstractJob {
           ctx.getConfiguration());
       maxValues = Vectors.read(new Path(ctx.getConfiguration().get(MAXVALUES_PATH)), ctx.getConfiguration());
       threshold = Double.parseDouble(ctx.getConfiguration().get(THRESHOLD));
+      maxObservationsPerColumn = ctx.getConfiguration().getInt(MAX_OBSERVATIONS_PER_COLUMN, NO_SAMPLING);
     }
 
     private boolean consider(Vector.Element occurrenceA, Vector.Element occurrenceB) {
@@ -317,7 +335,9 @@ public class RowSimilarityJob extends AbstractJob {
     @Override
     protected void map(IntWritable column, VectorWritable occurrenceVector, Context ctx)
       throws IOException, InterruptedException {
-      Vector.Element[] occurrences = Vectors.toArray(occurrenceVector);
+      // the number of cooccurrences is quadratic in the number of occurrences, so very dense columns are sampled down
+      Vector.Element[] occurrences =
+          Vectors.toArray(Vectors.maybeSample(occurrenceVector.get(), maxObservationsPerColumn));
       Arrays.sort(occurrences, BY_INDEX);
 
       int cooccurrences = 0;
@@ -395,33 +415,59 @@ public class RowSimilarityJob extends AbstractJob {
   public static class UnsymmetrifyMapper extends Mapper<IntWritable,VectorWritable,IntWritable,VectorWritable>  {
 
     private int maxSimilaritiesPerRow;
+    private int maxBufferedRows;
+    private int cardinality;
+    /* bounded buffers holding the top similarities of the transposed rows seen by this mapper so far */
+    private OpenIntObjectHashMap<TopK<Vector.Element>> transposedTopKQueues;
 
     @Override
     protected void setup(Mapper.Context ctx) throws IOException, InterruptedException {
       maxSimilaritiesPerRow = ctx.getConfiguration().getInt(MAX_SIMILARITIES_PER_ROW, 0);
       Preconditions.checkArgument(maxSimilaritiesPerRow > 0, "Incorrect maximum number of similarities per row!");
+      maxBufferedRows = ctx.getConfiguration().getInt(MAX_BUFFERED_ROWS, DEFAULT_MAX_BUFFERED_ROWS);
+      Preconditions.checkArgument(maxBufferedRows > 0, "Incorrect maximum number of buffered rows!");
+      transposedTopKQueues = new OpenIntObjectHashMap<TopK<Vector.Element>>();
     }
 
     @Override
     protected void map(IntWritable row, VectorWritable similaritiesWritable, Context ctx)
       throws IOException, InterruptedException {
       Vector similarities = similaritiesWritable.get();
-      // For performance reasons, the creation of transposedPartial is moved out of the while loop and it is reused inside
-      Vector transposedPartial = new RandomAccessSparseVector(similarities.size(), 1);
+      cardinality = similarities.size();
       TopK<Vector.Element> topKQueue = new TopK<Vector.Element>(maxSimilaritiesPerRow, Vectors.BY_VALUE);
       Iterator<Vector.Element> nonZeroElements = similarities.iterateNonZero();
       while (nonZeroElements.hasNext()) {
         Vector.Element nonZeroElement = nonZeroElements.next();
         topKQueue.offer(new Vectors.TemporaryElement(nonZeroElement));
-        transposedPartial.setQuick(row.get(), nonZeroElement.get());
-        ctx.write(new IntWritable(nonZeroElement.index()), new VectorWritable(transposedPartial));
-        transposedPartial.setQuick(row.get(), 0.0);
+        // only the top similarities of each transposed row can survive MergeToTopKSimilaritiesReducer anyway
+        TopK<Vector.Element> transposedTopKQueue = transposedTopKQueues.get(nonZeroElement.index());
+        if (transposedTopKQueue == null) {
+          transposedTopKQueue = new TopK<Vector.Element>(maxSimilaritiesPerRow, Vectors.BY_VALUE);
+          transposedTopKQueues.put(nonZeroElement.index(), transposedTopKQueue);
+        }
+        transposedTopKQueue.offer(new Vectors.TemporaryElement(row.get(), nonZeroElement.get()));
+        // checked per element, as a single wide row would otherwise overrun the buffer on its own
+        if (transposedTopKQueues.size() >= maxBufferedRows) {
+          flushTransposedTopKQueues(ctx);
+        }
       }
-      Vector topKSimilarities = new RandomAccessSparseVector(similarities.size(), maxSimilaritiesPerRow);
-      for (Vector.Element topKSimilarity : topKQueue.retrieve()) {
-        topKSimilarities.setQuick(topKSimilarity.index(), topKSimilarity.get());
+      ctx.write(row, new VectorWritable(Vectors.toVector(topKQueue, cardinality)));
+    }
+
+    @Override
+    protected void cleanup(Context ctx) throws IOException, InterruptedException {
+      flushTransposedTopKQueues(ctx);
+      super.cleanup(ctx);
+    }
+
+    private void flushTransposedTopKQueues(Context ctx) throws IOException, InterruptedException {
+      IntArrayList rows = transposedTopKQueues.keys();
+      for (int n = 0; n < rows.size(); n++) {
+        int row = rows.getQuick(n);
+        Vector transposedPartial = Vectors.toVector(transposedTopKQueues.get(row), cardinality);
+        ctx.write(new IntWritable(row), new VectorWritable(transposedPartial));
       }
-      ctx.write(row, new VectorWritable(topKSimilarities));
+      transposedTopKQueues.clear();
     }
   }
 
@@ -17,7 +17,9 @@
 
 package org.apache.mahout.math.hadoop.similarity.cooccurrence;
 
+import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Iterators;
 import com.google.common.io.Closeables;
 import com.google.common.primitives.Doubles;
 import org.apache.hadoop.conf.Configuration;
@@ -48,8 +50,17 @@ public final class Vectors {
       return original;
     }
     Vector sample = new RandomAccessSparseVector(original.size(), sampleSize);
+    // the sampler keeps references to the elements it returns, but vector iterators reuse a single element
+    // instance, so each element has to be copied before it enters the reservoir
+    Iterator<Vector.Element> copiedElements =
+        Iterators.transform(original.iterateNonZero(), new Function<Vector.Element,Vector.Element>() {
+          @Override
+          public Vector.Element apply(Vector.Element element) {
+            return new TemporaryElement(element);
+          }
+        });
     Iterator<Vector.Element> sampledElements =
-        new FixedSizeSamplingIterator<Vector.Element>(sampleSize, original.iterateNonZero());
+        new FixedSizeSamplingIterator<Vector.Element>(sampleSize, copiedElements);
     while (sampledElements.hasNext()) {
       Vector.Element elem = sampledElements.next();
       sample.setQuick(elem.index(), elem.get());
@@ -67,11 +78,15 @@ public final class Vectors {
       Vector.Element nonZeroElement = nonZeroElements.next();
       topKQueue.offer(new Vectors.TemporaryElement(nonZeroElement));
     }
-    Vector topKSimilarities = new RandomAccessSparseVector(original.size(), k);
-    for (Vector.Element topKSimilarity : topKQueue.retrieve()) {
-      topKSimilarities.setQuick(topKSimilarity.index(), topKSimilarity.get());
+    return toVector(topKQueue, original.size());
+  }
+
+  static Vector toVector(TopK<Vector.Element> topKQueue, int cardinality) {
+    Vector topKElements = new RandomAccessSparseVector(cardinality, topKQueue.size());
+    for (Vector.Element topKElement : topKQueue.retrieve()) {
+      topKElements.setQuick(topKElement.index(), topKElement.get());
     }
-    return topKSimilarities;
+    return topKElements;
   }
 
   public static Vector merge(Iterable<VectorWritable> partialVectors) {
@@ -128,9 +143,13 @@ public final class Vectors {
   }
 
   public static Vector.Element[] toArray(VectorWritable vectorWritable) {
-    Vector.Element[] elements = new Vector.Element[vectorWritable.get().getNumNondefaultElements()];
+    return toArray(vectorWritable.get());
+  }
+
+  public static Vector.Element[] toArray(Vector vector) {
+    Vector.Element[] elements = new Vector.Element[vector.getNumNondefaultElements()];
     int k = 0;
-    Iterator<Vector.Element> nonZeroElements = vectorWritable.get().iterateNonZero();
+    Iterator<Vector.Element> nonZeroElements = vector.iterateNonZero();
     while (nonZeroElements.hasNext()) {
       Vector.Element nonZeroElement = nonZeroElements.next();
       elements[k++] = new TemporaryElement(nonZeroElement.index(), nonZeroElement.get());
@@ -166,13 +185,15 @@ public final class Vectors {
 
   /* ugly optimization for loading sparse vectors containing ints only */
   public static OpenIntIntHashMap readAsIntMap(DataInput in) throws IOException {
-    int flags = in.readByte();
+    int flags = in.readUnsignedByte();
     Preconditions.checkArgument(flags >> VectorWritable.NUM_FLAGS == 0,
                                 "Unknown flags set: %d", Integer.toString(flags, 2));
     boolean dense = (flags & VectorWritable.FLAG_DENSE) != 0;
     boolean sequential = (flags & VectorWritable.FLAG_SEQUENTIAL) != 0;
     boolean laxPrecision = (flags & VectorWritable.FLAG_LAX_PRECISION) != 0;
     Preconditions.checkState(!dense && !sequential, "Only for reading sparse vectors!");
+    Preconditions.checkState((flags & (VectorWritable.FLAG_DELTA_INDICES | VectorWritable.FLAG_QUANTIZED
+        | VectorWritable.FLAG_BINARY)) == 0, "Only for reading uncompressed vectors!");
 
     Varint.readUnsignedVarInt(in);
 
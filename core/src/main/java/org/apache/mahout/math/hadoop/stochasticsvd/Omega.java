@@ -32,14 +32,14 @@ import java.util.concurrent.TimeUnit;
 import org.apache.mahout.math.DenseVector;
 import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.Vector.Element;
+import org.apache.mahout.math.ssvd.OmegaMatrix;
 
 /**
- * simplistic implementation for Omega matrix in Stochastic SVD method
+ * simplistic implementation for Omega matrix in Stochastic SVD method. The
+ * values are those of {@link OmegaMatrix} with the same seed.
  */
 public class Omega {
 
-  private static final double UNIFORM_DIVISOR = Math.pow(2.0, 64);
-
   private final long seed;
   private final int kp;
 
@@ -57,8 +57,7 @@ public class Omega {
    *          omega column
    */
   public double getQuick(int row, int column) {
-    long hash = murmur64((long) row << Integer.SIZE | column, 8, seed);
-    return hash / UNIFORM_DIVISOR;
+    return OmegaMatrix.value(seed, row, column);
   }
 
   /**
@@ -198,25 +197,7 @@ public class Omega {
    * @return murmur hash
    */
   public static long murmur64(long val, int len, long seed) {
-
-    // assert len > 0 && len <= 8;
-    long m = 0xc6a4a7935bd1e995L;
-    long h = seed ^ len * m;
-
-    long k = val;
-
-    k *= m;
-    int r = 47;
-    k ^= k >>> r;
-    k *= m;
-
-    h ^= k;
-    h *= m;
-
-    h ^= h >>> r;
-    h *= m;
-    h ^= h >>> r;
-    return h;
+    return OmegaMatrix.murmur64(val, len, seed);
   }
 
   public static long murmur64(byte[] val, int offset, int len, long seed) {
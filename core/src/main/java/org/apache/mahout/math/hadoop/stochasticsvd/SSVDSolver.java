@@ -110,6 +110,7 @@ public class SSVDSolver {
   private boolean overwrite;
   private boolean broadcast = true;
   private Path pcaMeanPath;
+  private Long omegaSeed;
 
   /**
    * create new SSVD solver. Required parameters are passed to constructor to
@@ -173,6 +174,16 @@ public class SSVDSolver {
     this.q = q;
   }
 
+  /**
+   * Sets the seed of the random projection, so that runs on the same input
+   * give the same results as each other and as
+   * {@link org.apache.mahout.math.StochasticSingularValueDecomposition} with
+   * the same seed. By default a random seed is used.
+   */
+  public void setOmegaSeed(long omegaSeed) {
+    this.omegaSeed = omegaSeed;
+  }
+
   /**
    * The setting controlling whether to compute U matrix of low rank SSVD.
    * 
@@ -341,8 +352,13 @@ public class SSVDSolver {
       if (pcaMeanPath != null) {
         fs.mkdirs(pcaBasePath);
       }
-      Random rnd = RandomUtils.getRandom();
-      long seed = rnd.nextLong();
+      long seed;
+      if (omegaSeed == null) {
+        Random rnd = RandomUtils.getRandom();
+        seed = rnd.nextLong();
+      } else {
+        seed = omegaSeed;
+      }
 
       Path sbPath = null;
       double xisquaredlen = 0.0;
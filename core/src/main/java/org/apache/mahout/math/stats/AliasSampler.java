@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import com.google.common.base.Preconditions;
+import org.apache.mahout.math.Vector;
+
+import java.util.Iterator;
+import java.util.Random;
+
+/**
+ * Discrete distribution sampler by the alias method:
+ *
+ * Samples repeatedly from a fixed discrete distribution over [0,N) in constant time per draw, after building a table
+ * in O(N).  The distribution is given by non-negative weights, which need not be normalized.  Each of the N columns of
+ * the table holds a probability and an alias: a draw picks a column uniformly and returns it with its probability,
+ * or else its alias.  The table is built by Vose's method, see
+ *
+ * http://www.keithschwarz.com/darts-dice-coins/
+ *
+ * Use {@link Sampler#sample(Vector)} for a single draw and {@link UpdatableSampler} for weights that change between
+ * draws.
+ */
+public class AliasSampler {
+
+  private final Random random;
+  private final double[] probability;
+  private final int[] alias;
+
+  public AliasSampler(Random random, Vector weights) {
+    this(random, weights.size());
+    double[] values = new double[weights.size()];
+    Iterator<Vector.Element> nonZeros = weights.iterateNonZero();
+    while (nonZeros.hasNext()) {
+      Vector.Element e = nonZeros.next();
+      values[e.index()] = e.get();
+    }
+    build(values);
+  }
+
+  public AliasSampler(Random random, double[] weights) {
+    this(random, weights.length);
+    build(weights.clone());
+  }
+
+  private AliasSampler(Random random, int size) {
+    Preconditions.checkArgument(size > 0, "Distribution must not be empty");
+    this.random = random;
+    probability = new double[size];
+    alias = new int[size];
+  }
+
+  /** fills the table, the weights are scaled to a mean of 1 in place */
+  private void build(double[] weights) {
+    int n = weights.length;
+    double total = 0;
+    for (double weight : weights) {
+      Preconditions.checkArgument(weight >= 0 && !Double.isInfinite(weight), "Illegal weight: %s", weight);
+      total += weight;
+    }
+    Preconditions.checkArgument(total > 0, "Weights must not all be zero");
+
+    // columns with less and more than the mean weight, as stacks
+    int[] small = new int[n];
+    int numSmall = 0;
+    int[] large = new int[n];
+    int numLarge = 0;
+    for (int i = 0; i < n; i++) {
+      weights[i] *= n / total;
+      if (weights[i] < 1) {
+        small[numSmall++] = i;
+      } else {
+        large[numLarge++] = i;
+      }
+    }
+    // each small column is topped up by a large one, which may become small in turn
+    while (numSmall > 0 && numLarge > 0) {
+      int less = small[--numSmall];
+      int more = large[--numLarge];
+      probability[less] = weights[less];
+      alias[less] = more;
+      weights[more] -= 1 - weights[less];
+      if (weights[more] < 1) {
+        small[numSmall++] = more;
+      } else {
+        large[numLarge++] = more;
+      }
+    }
+    // what is left has a weight of 1 but for round-off
+    while (numLarge > 0) {
+      int i = large[--numLarge];
+      probability[i] = 1;
+      alias[i] = i;
+    }
+    while (numSmall > 0) {
+      int i = small[--numSmall];
+      probability[i] = 1;
+      alias[i] = i;
+    }
+  }
+
+  public int size() {
+    return probability.length;
+  }
+
+  public int sample() {
+    // one uniform draw gives both the column and the coin flip
+    double u = random.nextDouble() * probability.length;
+    int column = (int) u;
+    return u - column < probability[column] ? column : alias[column];
+  }
+
+  /** Fills an array with independent draws. */
+  public void sample(int[] samples) {
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = sample();
+    }
+  }
+}
@@ -0,0 +1,57 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.mahout.math.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hadoop.io.Writable;
+
+/**
+ * {@link Writable} form of an {@link OnlineSummarizer}, so that summaries computed by mappers can be combined with
+ * {@link OnlineSummarizer#add(OnlineSummarizer)} in a combiner or reducer.
+ */
+public class OnlineSummarizerWritable implements Writable {
+
+  private OnlineSummarizer summarizer;
+
+  public OnlineSummarizerWritable() {
+  }
+
+  public OnlineSummarizerWritable(OnlineSummarizer summarizer) {
+    set(summarizer);
+  }
+
+  public OnlineSummarizer get() {
+    return summarizer;
+  }
+
+  public void set(OnlineSummarizer summarizer) {
+    this.summarizer = summarizer;
+  }
+
+  @Override
+  public void write(DataOutput out) throws IOException {
+    summarizer.write(out);
+  }
+
+  @Override
+  public void readFields(DataInput in) throws IOException {
+    summarizer = OnlineSummarizer.read(in);
+  }
+}
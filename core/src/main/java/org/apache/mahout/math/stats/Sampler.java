@@ -28,7 +28,8 @@ import java.util.Random;
  *
  * Samples from a given discrete distribution: you provide a source of randomness and a Vector
  * (cardinality N) which describes a distribution over [0,N), and calls to sample() sample
- * from 0 to N using this distribution
+ * from 0 to N using this distribution.  Each call binary searches the cumulative distribution;
+ * an {@link AliasSampler} draws from a fixed distribution in constant time instead.
  */
 public class Sampler {
 
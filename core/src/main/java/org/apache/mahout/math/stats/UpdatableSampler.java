@@ -0,0 +1,138 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Random;
+
+/**
+ * Discrete distribution sampler for changing weights:
+ *
+ * Samples from a discrete distribution over [0,N) whose non-negative weights can be changed between draws.  The
+ * weights are kept in a binary indexed (Fenwick) tree of partial sums, so that both changing a weight and drawing
+ * take O(log N).  For weights that do not change, {@link AliasSampler} draws in constant time.
+ *
+ * Round-off accumulates in the partial sums as weights are changed; {@link #rebuild()} recomputes them exactly.
+ */
+public class UpdatableSampler {
+
+  private final Random random;
+  private final double[] weights;
+  // tree[i] holds the sum of the weights in (i - lowestOneBit(i), i], 1-based
+  private final double[] tree;
+  private final int highestStep;
+
+  public UpdatableSampler(Random random, int size) {
+    this(random, new double[size]);
+  }
+
+  public UpdatableSampler(Random random, double[] weights) {
+    Preconditions.checkArgument(weights.length > 0, "Distribution must not be empty");
+    this.random = random;
+    this.weights = new double[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      checkWeight(weights[i]);
+      this.weights[i] = weights[i];
+    }
+    tree = new double[weights.length + 1];
+    highestStep = Integer.highestOneBit(weights.length);
+    rebuild();
+  }
+
+  private static void checkWeight(double weight) {
+    Preconditions.checkArgument(weight >= 0 && !Double.isInfinite(weight), "Illegal weight: %s", weight);
+  }
+
+  /** Recomputes the partial sums from the weights, in O(N). */
+  public void rebuild() {
+    int n = weights.length;
+    System.arraycopy(weights, 0, tree, 1, n);
+    tree[0] = 0;
+    for (int i = 1; i <= n; i++) {
+      int parent = i + (i & -i);
+      if (parent <= n) {
+        tree[parent] += tree[i];
+      }
+    }
+  }
+
+  public int size() {
+    return weights.length;
+  }
+
+  public double get(int index) {
+    return weights[index];
+  }
+
+  /** Changes the weight of an index. */
+  public void set(int index, double weight) {
+    checkWeight(weight);
+    double delta = weight - weights[index];
+    weights[index] = weight;
+    for (int i = index + 1; i < tree.length; i += i & -i) {
+      tree[i] += delta;
+    }
+  }
+
+  /** Returns the sum of all weights. */
+  public double getTotal() {
+    double total = 0;
+    for (int i = weights.length; i > 0; i -= i & -i) {
+      total += tree[i];
+    }
+    return total;
+  }
+
+  /**
+   * @throws IllegalStateException if all weights are zero
+   */
+  public int sample() {
+    double total = getTotal();
+    Preconditions.checkState(total > 0, "Weights must not all be zero");
+    double u = random.nextDouble() * total;
+    // descend the tree to the first index whose cumulative weight exceeds u
+    int position = 0;
+    for (int step = highestStep; step > 0; step >>= 1) {
+      int next = position + step;
+      if (next <= weights.length && tree[next] <= u) {
+        position = next;
+        u -= tree[next];
+      }
+    }
+    if (position == weights.length || weights[position] == 0) {
+      // round-off in the partial sums carried the draw past the last positive weight
+      position = nearestPositive(Math.min(position, weights.length - 1));
+    }
+    return position;
+  }
+
+  private int nearestPositive(int index) {
+    for (int i = index; i >= 0; i--) {
+      if (weights[i] > 0) {
+        return i;
+      }
+    }
+    for (int i = index + 1; i < weights.length; i++) {
+      if (weights[i] > 0) {
+        return i;
+      }
+    }
+    throw new IllegalStateException("Weights must not all be zero");
+  }
+}
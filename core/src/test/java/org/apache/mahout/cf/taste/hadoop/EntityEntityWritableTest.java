@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.cf.taste.hadoop;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import org.apache.hadoop.io.WritableComparator;
+import org.apache.mahout.cf.taste.impl.TasteTestCase;
+import org.junit.Test;
+
+public final class EntityEntityWritableTest extends TasteTestCase {
+
+  @Test
+  public void testRawComparator() throws Exception {
+    long[] ids = { Long.MIN_VALUE, -300L, -1L, 0L, 1L, 300L, Long.MAX_VALUE };
+    WritableComparator comparator = WritableComparator.get(EntityEntityWritable.class);
+    for (long a1 : ids) {
+      for (long b1 : ids) {
+        EntityEntityWritable one = new EntityEntityWritable(a1, b1);
+        byte[] oneBytes = serialize(one);
+        for (long a2 : ids) {
+          for (long b2 : ids) {
+            EntityEntityWritable two = new EntityEntityWritable(a2, b2);
+            byte[] twoBytes = serialize(two);
+            assertEquals(Integer.signum(one.compareTo(two)),
+                Integer.signum(comparator.compare(oneBytes, 0, oneBytes.length, twoBytes, 0, twoBytes.length)));
+          }
+        }
+      }
+    }
+  }
+
+  private static byte[] serialize(EntityEntityWritable writable) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writable.write(new DataOutputStream(baos));
+    return baos.toByteArray();
+  }
+
+}
@@ -17,16 +17,25 @@
 
 package org.apache.mahout.cf.taste.hadoop.als;
 
+import com.google.common.collect.Maps;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IntWritable;
 import org.apache.mahout.cf.taste.impl.TasteTestCase;
 import org.apache.mahout.cf.taste.impl.common.FullRunningAverage;
 import org.apache.mahout.cf.taste.impl.common.RunningAverage;
+import org.apache.mahout.common.Pair;
+import org.apache.mahout.common.commandline.DefaultOptionCreator;
+import org.apache.mahout.common.iterator.sequencefile.PathFilters;
+import org.apache.mahout.common.iterator.sequencefile.PathType;
+import org.apache.mahout.common.iterator.sequencefile.SequenceFileDirIterable;
 import org.apache.mahout.math.DenseVector;
 import org.apache.mahout.math.Matrix;
 import org.apache.mahout.math.MatrixSlice;
+import org.apache.mahout.math.SequentialAccessSparseVector;
 import org.apache.mahout.math.SparseRowMatrix;
 import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.VectorWritable;
 import org.apache.mahout.math.hadoop.MathHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -35,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.Iterator;
+import java.util.Map;
 
 public class ParallelALSFactorizationJobTest extends TasteTestCase {
 
@@ -74,6 +84,15 @@ public class ParallelALSFactorizationJobTest extends TasteTestCase {
    */
   @Test
   public void completeJobToyExample() throws Exception {
+    explicitExample(DefaultOptionCreator.MAPREDUCE_METHOD);
+  }
+
+  @Test
+  public void completeJobToyExampleSequential() throws Exception {
+    explicitExample(DefaultOptionCreator.SEQUENTIAL_METHOD);
+  }
+
+  private void explicitExample(String method) throws Exception {
 
     Double na = Double.NaN;
     Matrix preferences = new SparseRowMatrix(4, 4, new Vector[] {
@@ -93,7 +112,8 @@ public class ParallelALSFactorizationJobTest extends TasteTestCase {
 
     alsFactorization.run(new String[] { "--input", inputFile.getAbsolutePath(), "--output", outputDir.getAbsolutePath(),
         "--tempDir", tmpDir.getAbsolutePath(), "--lambda", String.valueOf(lambda),
-        "--numFeatures", String.valueOf(numFeatures), "--numIterations", String.valueOf(numIterations) });
+        "--numFeatures", String.valueOf(numFeatures), "--numIterations", String.valueOf(numIterations),
+        "--method", method });
 
     Matrix u = MathHelper.readMatrix(conf, new Path(outputDir.getAbsolutePath(), "U/part-m-00000"),
         preferences.numRows(), numFeatures);
@@ -139,6 +159,15 @@ public class ParallelALSFactorizationJobTest extends TasteTestCase {
 
   @Test
   public void completeJobImplicitToyExample() throws Exception {
+    implicitExample(DefaultOptionCreator.MAPREDUCE_METHOD);
+  }
+
+  @Test
+  public void completeJobImplicitToyExampleSequential() throws Exception {
+    implicitExample(DefaultOptionCreator.SEQUENTIAL_METHOD);
+  }
+
+  private void implicitExample(String method) throws Exception {
 
     Matrix observations = new SparseRowMatrix(4, 4, new Vector[] {
         new DenseVector(new double[] { 5.0, 5.0, 2.0, 0 }),
@@ -165,7 +194,8 @@ public class ParallelALSFactorizationJobTest extends TasteTestCase {
     alsFactorization.run(new String[] { "--input", inputFile.getAbsolutePath(), "--output", outputDir.getAbsolutePath(),
         "--tempDir", tmpDir.getAbsolutePath(), "--lambda", String.valueOf(lambda),
         "--implicitFeedback", String.valueOf(true), "--alpha", String.valueOf(alpha),
-        "--numFeatures", String.valueOf(numFeatures), "--numIterations", String.valueOf(numIterations) });
+        "--numFeatures", String.valueOf(numFeatures), "--numIterations", String.valueOf(numIterations),
+        "--method", method });
 
     Matrix u = MathHelper.readMatrix(conf, new Path(outputDir.getAbsolutePath(), "U/part-m-00000"),
         observations.numRows(), numFeatures);
@@ -210,6 +240,33 @@ public class ParallelALSFactorizationJobTest extends TasteTestCase {
     assertTrue(rmse < 0.4);
   }
 
+  @Test
+  public void sequentialDropsZeroRatingsLikeMapReduce() throws Exception {
+    /* explicit zero ratings, two ratings summing up to zero and a user who rated nothing but zero */
+    writeLines(inputFile, "1,1,5.0", "1,2,0.0", "2,1,3.0", "2,2,4.0", "2,3,1.5", "2,3,-1.5", "3,3,2.0", "4,3,0.0");
+
+    Map<Integer,Vector> userRatings = userRatings(DefaultOptionCreator.MAPREDUCE_METHOD);
+    assertFalse(userRatings.containsKey(4));
+    assertEquals(userRatings, userRatings(DefaultOptionCreator.SEQUENTIAL_METHOD));
+  }
+
+  private Map<Integer,Vector> userRatings(String method) throws Exception {
+    File output = getTestTempDir("output-" + method);
+    output.delete();
+    ParallelALSFactorizationJob alsFactorization = new ParallelALSFactorizationJob();
+    alsFactorization.setConf(conf);
+    alsFactorization.run(new String[] { "--input", inputFile.getAbsolutePath(), "--output", output.getAbsolutePath(),
+        "--tempDir", getTestTempDir("tmp-" + method).getAbsolutePath(), "--lambda", String.valueOf(0.065),
+        "--numFeatures", String.valueOf(2), "--numIterations", String.valueOf(1), "--method", method });
+
+    Map<Integer,Vector> userRatings = Maps.newHashMap();
+    for (Pair<IntWritable,VectorWritable> ratings : new SequenceFileDirIterable<IntWritable,VectorWritable>(
+        new Path(output.getAbsolutePath(), "userRatings"), PathType.LIST, PathFilters.partFilter(), conf)) {
+      userRatings.put(ratings.getFirst().get(), new SequentialAccessSparseVector(ratings.getSecond().get()));
+    }
+    return userRatings;
+  }
+
   protected static String preferencesAsText(Matrix preferences) {
     StringBuilder prefsAsText = new StringBuilder();
     String separator = "";
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.cf.taste.hadoop.als;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.apache.mahout.cf.taste.impl.TasteTestCase;
+import org.apache.mahout.common.HadoopUtil;
+import org.apache.mahout.common.commandline.DefaultOptionCreator;
+import org.apache.mahout.common.iterator.FileLineIterable;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+public class RecommenderJobTest extends TasteTestCase {
+
+  /**
+   * scoring users in blocks must yield the same recommendations as scoring them one by one
+   */
+  @Test
+  public void blockedPredictionToyExample() throws Exception {
+    File inputFile = writeToyPreferences();
+    File factorizationDir = getTestTempDir("factorization");
+    factorizationDir.delete();
+    Configuration conf = new Configuration();
+
+    factorize(conf, inputFile, factorizationDir, 3);
+
+    Map<Integer,Map<Float,Set<Long>>> recommendations = recommend(conf, factorizationDir, "unblocked", 1);
+    Map<Integer,Map<Float,Set<Long>>> blockedRecommendations = recommend(conf, factorizationDir, "blocked", 2);
+
+    assertEquals(5, recommendations.size());
+    assertEquals(recommendations, blockedRecommendations);
+  }
+
+  /**
+   * the item features that blocked scoring shares between tasks must be reread when they are rewritten in place
+   */
+  @Test
+  public void blockedPredictionRereadsRewrittenItemFeatures() throws Exception {
+    File inputFile = writeToyPreferences();
+    File factorizationDir = getTestTempDir("factorization");
+    factorizationDir.delete();
+    Configuration conf = new Configuration();
+
+    factorize(conf, inputFile, factorizationDir, 3);
+    recommend(conf, factorizationDir, "blocked-before", 2);
+
+    HadoopUtil.delete(conf, new Path(factorizationDir.getAbsolutePath()));
+    factorize(conf, inputFile, factorizationDir, 2);
+
+    Map<Integer,Map<Float,Set<Long>>> recommendations = recommend(conf, factorizationDir, "unblocked", 1);
+    Map<Integer,Map<Float,Set<Long>>> blockedRecommendations = recommend(conf, factorizationDir, "blocked-after", 2);
+
+    assertEquals(5, recommendations.size());
+    assertEquals(recommendations, blockedRecommendations);
+  }
+
+  private File writeToyPreferences() throws IOException {
+    File inputFile = getTestTempFile("prefs.txt");
+    writeLines(inputFile,
+        "0,0,5", "0,1,5", "0,2,2",
+        "1,0,2", "1,2,3", "1,3,5", "1,4,1",
+        "2,1,5", "2,3,3", "2,5,4",
+        "3,0,3", "3,3,5", "3,5,2",
+        "4,1,1", "4,4,4", "4,5,5");
+    return inputFile;
+  }
+
+  private void factorize(Configuration conf, File inputFile, File factorizationDir, int numFeatures)
+    throws Exception {
+    ParallelALSFactorizationJob alsFactorization = new ParallelALSFactorizationJob();
+    alsFactorization.setConf(conf);
+    alsFactorization.run(new String[] { "--input", inputFile.getAbsolutePath(),
+        "--output", factorizationDir.getAbsolutePath(),
+        "--tempDir", getTestTempDir("tmp-" + numFeatures).getAbsolutePath(),
+        "--lambda", String.valueOf(0.065), "--numFeatures", String.valueOf(numFeatures),
+        "--numIterations", String.valueOf(5), "--method", DefaultOptionCreator.SEQUENTIAL_METHOD });
+  }
+
+  private Map<Integer,Map<Float,Set<Long>>> recommend(Configuration conf, File factorizationDir, String name,
+      int usersPerBlock) throws Exception {
+    File outputDir = getTestTempDir(name);
+    outputDir.delete();
+
+    RecommenderJob recommender = new RecommenderJob();
+    recommender.setConf(conf);
+    recommender.run(new String[] { "--input", new File(factorizationDir, "userRatings").getAbsolutePath(),
+        "--userFeatures", new File(factorizationDir, "U").getAbsolutePath(),
+        "--itemFeatures", new File(factorizationDir, "M").getAbsolutePath(),
+        "--output", outputDir.getAbsolutePath(), "--tempDir", getTestTempDir("tmp-" + name).getAbsolutePath(),
+        "--numRecommendations", String.valueOf(2), "--maxRating", String.valueOf(5),
+        "--usersPerBlock", String.valueOf(usersPerBlock) });
+
+    return readRecommendations(new File(outputDir, "part-m-00000"));
+  }
+
+  /**
+   * reads the recommended items of each user keyed by their score, items with the same score, for instance those
+   * capped at the maximum rating, can be written in any order
+   */
+  private static Map<Integer,Map<Float,Set<Long>>> readRecommendations(File file) throws IOException {
+    Map<Integer,Map<Float,Set<Long>>> recommendations = Maps.newHashMap();
+    for (String line : new FileLineIterable(file)) {
+      String[] keyValue = line.split("\t");
+      Map<Float,Set<Long>> itemsByScore = Maps.newHashMap();
+      for (String recommendedItem : keyValue[1].substring(1, keyValue[1].length() - 1).split(",")) {
+        String[] itemAndScore = recommendedItem.split(":");
+        float score = Float.parseFloat(itemAndScore[1]);
+        Set<Long> items = itemsByScore.get(score);
+        if (items == null) {
+          items = Sets.newHashSet();
+          itemsByScore.put(score, items);
+        }
+        items.add(Long.parseLong(itemAndScore[0]));
+      }
+      recommendations.put(Integer.parseInt(keyValue[0]), itemsByScore);
+    }
+    return recommendations;
+  }
+
+
+}
@@ -28,6 +28,8 @@ import java.util.Map.Entry;
 
 import com.google.common.collect.Maps;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.io.DataInputBuffer;
+import org.apache.hadoop.io.DataOutputBuffer;
 import org.apache.hadoop.io.IntWritable;
 import org.apache.hadoop.io.LongWritable;
 import org.apache.hadoop.io.Text;
@@ -527,6 +529,35 @@ public class RecommenderJobTest extends TasteTestCase {
     EasyMock.verify(context);
   }
 
+  /**
+   * tests the compact serialization of similarity columns in {@link PrefAndSimilarityColumnWritable}
+   */
+  @Test
+  public void testPrefAndSimilarityColumnWritableSerialization() throws Exception {
+    Vector similarityColumn = new RandomAccessSparseVector(Integer.MAX_VALUE, 100);
+    similarityColumn.set(TasteHadoopUtils.idToIndex(987654321L), 0.5);
+    similarityColumn.set(7, Double.NaN);
+    similarityColumn.set(3, -0.25);
+
+    DataOutputBuffer out = new DataOutputBuffer();
+    new PrefAndSimilarityColumnWritable(2.0f, similarityColumn).write(out);
+    DataInputBuffer in = new DataInputBuffer();
+    in.reset(out.getData(), out.getLength());
+    PrefAndSimilarityColumnWritable read = new PrefAndSimilarityColumnWritable();
+    read.readFields(in);
+
+    assertEquals(2.0f, read.getPrefValue(), EPSILON);
+    assertEquals(Integer.MAX_VALUE, read.getSimilarityColumn().size());
+    assertEquals(3, read.getSimilarityColumn().getNumNondefaultElements());
+    assertEquals(0.5, read.getSimilarityColumn().get(TasteHadoopUtils.idToIndex(987654321L)), EPSILON);
+    assertTrue(Double.isNaN(read.getSimilarityColumn().get(7)));
+    assertEquals(-0.25, read.getSimilarityColumn().get(3), EPSILON);
+
+    DataOutputBuffer vectorWritableOut = new DataOutputBuffer();
+    new VectorWritable(similarityColumn, true).write(vectorWritableOut);
+    assertTrue(out.getLength() < 4 + vectorWritableOut.getLength());
+  }
+
 
   /**
    * tests {@link AggregateAndRecommendReducer}
@@ -881,6 +912,117 @@ public class RecommenderJobTest extends TasteTestCase {
    }
 
 
+  /**
+   * the map-side multiplication with the in-memory similarity matrix must compute the same recommendations as the
+   * shuffle-based partial multiplication
+   */
+  @Test
+  public void testCompleteJobWithBroadcastSimilarityMatrix() throws Exception {
+
+    File inputFile = getTestTempFile("prefs.txt");
+    writeLines(inputFile,
+        "1,1,5",
+        "1,2,5",
+        "1,3,2",
+        "2,1,2",
+        "2,3,3",
+        "2,4,5",
+        "3,2,5",
+        "3,4,3",
+        "4,1,3",
+        "4,4,5");
+
+    String[] args = { "--similarityClassname", TanimotoCoefficientSimilarity.class.getName(),
+        "--numRecommendations", "4" };
+
+    File shuffleOutputDir = runRecommenderJob(inputFile, "shuffle", args);
+    File broadcastOutputDir = runRecommenderJob(inputFile, "broadcast", append(args, "--broadcastSimilarityMatrix",
+        "true"));
+
+    Map<Long,List<RecommendedItem>> expected = readRecommendations(new File(shuffleOutputDir, "part-r-00000"));
+    Map<Long,List<RecommendedItem>> recommendations =
+        readRecommendations(new File(broadcastOutputDir, "part-m-00000"));
+
+    assertEquals(4, recommendations.size());
+    assertEquals(expected.keySet(), recommendations.keySet());
+    for (Entry<Long,List<RecommendedItem>> entry : expected.entrySet()) {
+      List<RecommendedItem> expectedItems = entry.getValue();
+      List<RecommendedItem> items = recommendations.get(entry.getKey());
+      assertEquals(expectedItems.size(), items.size());
+      for (int n = 0; n < expectedItems.size(); n++) {
+        assertEquals(expectedItems.get(n).getItemID(), items.get(n).getItemID());
+        assertEquals(expectedItems.get(n).getValue(), items.get(n).getValue(), 0.001);
+      }
+    }
+  }
+
+  /**
+   * check whether the explicit user/item filter works with the map-side multiplication, too
+   */
+  @Test
+  public void testCompleteJobWithBroadcastSimilarityMatrixAndFiltering() throws Exception {
+
+    File inputFile = getTestTempFile("prefs.txt");
+    File userFile = getTestTempFile("users.txt");
+    File filterFile = getTestTempFile("filter.txt");
+
+    writeLines(inputFile,
+        "1,1,5",
+        "1,2,5",
+        "1,3,2",
+        "2,1,2",
+        "2,3,3",
+        "2,4,5",
+        "3,2,5",
+        "3,4,3",
+        "4,1,3",
+        "4,4,5");
+
+    /* only compute recommendations for the donkey */
+    writeLines(userFile, "4");
+    /* do not recommend the hotdog for the donkey */
+    writeLines(filterFile, "4,2");
+
+    File outputDir = runRecommenderJob(inputFile, "broadcast", new String[] { "--similarityClassname",
+        TanimotoCoefficientSimilarity.class.getName(), "--numRecommendations", "1",
+        "--usersFile", userFile.getAbsolutePath(), "--filterFile", filterFile.getAbsolutePath(),
+        "--broadcastSimilarityMatrix", "true" });
+
+    Map<Long,List<RecommendedItem>> recommendations = readRecommendations(new File(outputDir, "part-m-00000"));
+
+    assertEquals(1, recommendations.size());
+    assertTrue(recommendations.containsKey(4L));
+    assertEquals(1, recommendations.get(4L).size());
+
+    /* berries should have been recommended to the donkey */
+    RecommendedItem recommendedItem = recommendations.get(4L).get(0);
+    assertEquals(3L, recommendedItem.getItemID());
+    assertEquals(3.5, recommendedItem.getValue(), 0.05);
+  }
+
+  private File runRecommenderJob(File inputFile, String name, String[] args) throws Exception {
+    File outputDir = getTestTempDir("output-" + name);
+    outputDir.delete();
+    File tmpDir = getTestTempDir("tmp-" + name);
+
+    Configuration conf = new Configuration();
+    conf.set("mapred.input.dir", inputFile.getAbsolutePath());
+    conf.set("mapred.output.dir", outputDir.getAbsolutePath());
+    conf.setBoolean("mapred.output.compress", false);
+
+    RecommenderJob recommenderJob = new RecommenderJob();
+    recommenderJob.setConf(conf);
+    recommenderJob.run(append(args, "--tempDir", tmpDir.getAbsolutePath()));
+    return outputDir;
+  }
+
+  private static String[] append(String[] args, String... moreArgs) {
+    String[] allArgs = Arrays.copyOf(args, args.length + moreArgs.length);
+    System.arraycopy(moreArgs, 0, allArgs, args.length, moreArgs.length);
+    return allArgs;
+  }
+
+
   static Map<Long,List<RecommendedItem>> readRecommendations(File file) throws IOException {
     Map<Long,List<RecommendedItem>> recommendations = Maps.newHashMap();
     Iterable<String> lineIterable = new FileLineIterable(file);
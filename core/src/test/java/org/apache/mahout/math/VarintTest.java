@@ -17,6 +17,8 @@
 
 package org.apache.mahout.math;
 
+import org.apache.hadoop.io.Writable;
+import org.apache.hadoop.io.WritableComparator;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -25,6 +27,7 @@ import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
 import java.io.DataOutputStream;
+import java.io.IOException;
 
 /**
  * Tests {@link Varint}.
@@ -186,4 +189,57 @@ public final class VarintTest extends MahoutTestCase {
     }
   }
 
+  @Test
+  public void testFromByteArray() throws Exception {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutput out = new DataOutputStream(baos);
+    long[] longs = { 0L, 1L, -1L, 300L, -300L, Long.MAX_VALUE, Long.MIN_VALUE };
+    int[] ints = { 0, 1, -1, 300, -300, Integer.MAX_VALUE, Integer.MIN_VALUE };
+    int[] offsets = new int[longs.length + ints.length];
+    for (int n = 0; n < longs.length; n++) {
+      offsets[n] = baos.size();
+      Varint.writeSignedVarLong(longs[n], out);
+    }
+    for (int n = 0; n < ints.length; n++) {
+      offsets[longs.length + n] = baos.size();
+      Varint.writeSignedVarInt(ints[n], out);
+    }
+
+    byte[] bytes = baos.toByteArray();
+    for (int n = 0; n < longs.length; n++) {
+      assertEquals(longs[n], Varint.readSignedVarLong(bytes, offsets[n]));
+    }
+    for (int n = 0; n < ints.length; n++) {
+      assertEquals(ints[n], Varint.readSignedVarInt(bytes, offsets[longs.length + n]));
+    }
+  }
+
+  @Test
+  public void testRawComparators() throws Exception {
+    long[] values = { Long.MIN_VALUE, -300L, -1L, 0L, 1L, 300L, Integer.MAX_VALUE, Long.MAX_VALUE };
+    for (long one : values) {
+      for (long two : values) {
+        byte[] oneBytes = serialize(new VarLongWritable(one));
+        byte[] twoBytes = serialize(new VarLongWritable(two));
+        assertEquals(Long.signum(new VarLongWritable(one).compareTo(new VarLongWritable(two))),
+            Long.signum(WritableComparator.get(VarLongWritable.class).compare(oneBytes, 0, oneBytes.length, twoBytes,
+                0, twoBytes.length)));
+
+        int oneInt = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, one));
+        int twoInt = (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, two));
+        oneBytes = serialize(new VarIntWritable(oneInt));
+        twoBytes = serialize(new VarIntWritable(twoInt));
+        assertEquals(Long.signum(new VarIntWritable(oneInt).compareTo(new VarIntWritable(twoInt))),
+            Long.signum(WritableComparator.get(VarIntWritable.class).compare(oneBytes, 0, oneBytes.length, twoBytes,
+                0, twoBytes.length)));
+      }
+    }
+  }
+
+  private static byte[] serialize(Writable writable) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    writable.write(new DataOutputStream(baos));
+    return baos.toByteArray();
+  }
+
 }
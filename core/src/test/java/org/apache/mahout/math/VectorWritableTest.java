@@ -19,6 +19,7 @@ package org.apache.mahout.math;
 
 import com.google.common.io.Closeables;
 import org.apache.hadoop.io.Writable;
+import org.apache.mahout.common.RandomUtils;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
@@ -26,6 +27,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
 
 public final class VectorWritableTest extends MahoutTestCase {
 
@@ -62,6 +65,178 @@ public final class VectorWritableTest extends MahoutTestCase {
     doTestVectorWritableEquals(v);
   }
 
+  @Test
+  public void testFloatVectorWritable() throws Exception {
+    Vector dense = new DenseFloatVector(5);
+    dense.set(1, 3.1);
+    dense.set(3, 5.0);
+    doTestVectorWritableEquals(dense);
+    doTestVectorWritableEquals(new NamedVector(dense, "Victor"));
+
+    Vector sparse = new RandomAccessSparseFloatVector(5);
+    sparse.set(1, 3.1);
+    sparse.set(3, 5.0);
+    doTestVectorWritableEquals(sparse);
+
+    VectorWritable read = new VectorWritable();
+    writeAndRead(new VectorWritable(dense), read);
+    assertTrue(read.get() instanceof DenseFloatVector);
+    writeAndRead(new VectorWritable(sparse), read);
+    assertTrue(read.get() instanceof RandomAccessSparseFloatVector);
+  }
+
+  @Test
+  public void testCompressedVectorWritable() throws Exception {
+    Random random = RandomUtils.getRandom();
+    Vector sparse = new RandomAccessSparseVector(100000);
+    Vector binary = new RandomAccessSparseVector(100000);
+    for (int i = 0; i < 300; i++) {
+      int index = random.nextInt(100000);
+      sparse.set(index, random.nextGaussian());
+      binary.set(index, 1.0);
+    }
+    // a gap that takes all bits of a block
+    binary.set(99999, 1.0);
+
+    for (Vector v : new Vector[] { sparse, binary, new SequentialAccessSparseVector(sparse),
+        new NamedVector(binary, "Victor"), new RandomAccessSparseVector(10) }) {
+      VectorWritable compressed = new VectorWritable(v);
+      compressed.setWritesCompressed(true);
+      VectorWritable read = new VectorWritable();
+      writeAndRead(compressed, read);
+      assertEquals(v, read.get());
+      assertEquals(v.isSequentialAccess(), read.get().isSequentialAccess());
+    }
+
+    VectorWritable compressed = new VectorWritable(binary);
+    compressed.setWritesCompressed(true);
+    assertTrue(numBytes(compressed) < numBytes(new VectorWritable(binary)) / 4);
+    compressed.set(sparse);
+    assertTrue(numBytes(compressed) < numBytes(new VectorWritable(sparse)));
+  }
+
+  @Test
+  public void testQuantizedVectorWritable() throws Exception {
+    Random random = RandomUtils.getRandom();
+    Vector dense = new DenseVector(200);
+    Vector sparse = new RandomAccessSparseVector(1000);
+    for (int i = 0; i < 200; i++) {
+      dense.set(i, random.nextGaussian());
+      sparse.set(random.nextInt(1000), random.nextGaussian());
+    }
+
+    for (int bits : new int[] { 8, 16 }) {
+      for (Vector v : new Vector[] { dense, sparse, new DenseFloatVector(dense) }) {
+        VectorWritable quantized = new VectorWritable(v);
+        quantized.setQuantizationBits(bits);
+        quantized.setWritesCompressed(bits == 16);
+        VectorWritable read = new VectorWritable();
+        writeAndRead(quantized, read);
+        double maxError = v.norm(Double.POSITIVE_INFINITY) / ((1 << (bits - 1)) - 1) / 2 * 1.01;
+        assertEquals(v.getClass(), read.get().getClass());
+        assertEquals(0, v.minus(read.get()).norm(Double.POSITIVE_INFINITY), maxError);
+      }
+    }
+
+    VectorWritable quantized = new VectorWritable(dense);
+    quantized.setQuantizationBits(8);
+    assertEquals(1 + 2 + 1 + 4 + 200, numBytes(quantized));
+  }
+
+  @Test
+  public void testLazyVectorWritable() throws Exception {
+    Random random = RandomUtils.getRandom();
+    Vector dense = new DenseVector(50);
+    Vector sparse = new RandomAccessSparseVector(1000);
+    Vector binary = new RandomAccessSparseVector(1000);
+    for (int i = 0; i < 50; i++) {
+      dense.set(i, random.nextGaussian());
+      int index = random.nextInt(1000);
+      sparse.set(index, random.nextGaussian());
+      binary.set(index, 1.0);
+    }
+    Vector x = new DenseVector(1000).assign(dense.getQuick(7));
+
+    for (Vector v : new Vector[] { dense, sparse, binary, new SequentialAccessSparseVector(sparse),
+        new NamedVector(sparse, "Victor"), new RandomAccessSparseVector(1000) }) {
+      for (boolean compressed : new boolean[] { false, true }) {
+        VectorWritable written = new VectorWritable(v);
+        written.setWritesCompressed(compressed);
+        VectorWritable lazy = new VectorWritable();
+        lazy.setReadsLazily(true);
+        writeAndRead(written, lazy);
+        VectorWritable eager = new VectorWritable();
+        writeAndRead(written, eager);
+
+        Vector read = lazy.get();
+        if (v instanceof NamedVector) {
+          assertEquals("Victor", ((NamedVector) read).getName());
+          read = ((NamedVector) read).getDelegate();
+        }
+        assertTrue(read instanceof SerializedVector);
+        assertEquals(eager.get(), lazy.get());
+        assertEquals(v.getNumNondefaultElements(), read.getNumNondefaultElements());
+        assertEquals(v.norm(2), read.norm(2), EPSILON);
+        assertEquals(v.getQuick(v.maxValueIndex()), read.getQuick(v.maxValueIndex()), EPSILON);
+        if (v.size() == x.size()) {
+          assertEquals(v.dot(x), read.dot(x), EPSILON);
+          assertEquals(v.getDistanceSquared(x), read.getDistanceSquared(x), EPSILON);
+        }
+        Vector copy = read.clone();
+        copy.setQuick(0, 3.0);
+        assertEquals(3.0, copy.getQuick(0), EPSILON);
+      }
+    }
+
+    for (int bits : new int[] { 8, 16 }) {
+      for (Vector v : new Vector[] { dense, sparse }) {
+        VectorWritable quantized = new VectorWritable(v);
+        quantized.setQuantizationBits(bits);
+        VectorWritable lazy = new VectorWritable();
+        lazy.setReadsLazily(true);
+        writeAndRead(quantized, lazy);
+        VectorWritable eager = new VectorWritable();
+        writeAndRead(quantized, eager);
+        assertEquals(eager.get(), lazy.get());
+      }
+    }
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testLazyVectorIsReadOnly() throws Exception {
+    VectorWritable lazy = new VectorWritable();
+    lazy.setReadsLazily(true);
+    writeAndRead(new VectorWritable(new DenseVector(3)), lazy);
+    lazy.get().setQuick(0, 1.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidQuantizationBits() {
+    new VectorWritable().setQuantizationBits(12);
+  }
+
+  @Test
+  public void testMergeSequentialAccessSparseVectors() {
+    Vector first = new SequentialAccessSparseVector(10);
+    first.set(8, 1.0);
+    first.set(2, 2.0);
+    Vector second = new SequentialAccessSparseVector(10);
+    second.set(5, 3.0);
+    second.set(8, 4.0);
+    Vector third = new RandomAccessSparseVector(10);
+    third.set(0, 5.0);
+
+    Vector merged = VectorWritable.merge(Arrays.asList(new VectorWritable(first), new VectorWritable(second),
+        new VectorWritable(third)).iterator()).get();
+
+    assertTrue(merged instanceof SequentialAccessSparseVector);
+    assertEquals(4, merged.getNumNondefaultElements());
+    assertEquals(5.0, merged.get(0), EPSILON);
+    assertEquals(2.0, merged.get(2), EPSILON);
+    assertEquals(3.0, merged.get(5), EPSILON);
+    assertEquals(4.0, merged.get(8), EPSILON);
+  }
+
   private static void doTestVectorWritableEquals(Vector v) throws IOException {
     Writable vectorWritable = new VectorWritable(v);
     VectorWritable vectorWritable2 = new VectorWritable();
@@ -77,6 +252,14 @@ public final class VectorWritableTest extends MahoutTestCase {
     assertEquals(v, v2);
   }
 
+  private static int numBytes(Writable writable) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    DataOutputStream dos = new DataOutputStream(baos);
+    writable.write(dos);
+    dos.close();
+    return baos.size();
+  }
+
   private static void writeAndRead(Writable toWrite, Writable toRead) throws IOException {
     ByteArrayOutputStream baos = new ByteArrayOutputStream();
     DataOutputStream dos = new DataOutputStream(baos);
@@ -26,6 +26,7 @@ import org.apache.hadoop.fs.Path;
 import org.apache.mahout.common.MahoutTestCase;
 import org.apache.mahout.math.DenseMatrix;
 import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.StochasticSingularValueDecomposition;
 import org.apache.mahout.math.Vector;
 import org.junit.Test;
 
@@ -118,6 +119,7 @@ public class LocalSSVDSolverDenseTest extends MahoutTestCase {
     int ablockRows = 867;
     int p = 10;
     int k = 3;
+    long seed = 1234L;
     SSVDSolver ssvd =
       new SSVDSolver(conf,
                      new Path[] { aPath },
@@ -135,6 +137,7 @@ public class LocalSSVDSolverDenseTest extends MahoutTestCase {
     ssvd.setOverwrite(true);
     ssvd.setQ(q);
     ssvd.setBroadcast(false);
+    ssvd.setOmegaSeed(seed);
     ssvd.run();
 
     Vector stochasticSValues = ssvd.getSingularValues();
@@ -173,6 +176,16 @@ public class LocalSSVDSolverDenseTest extends MahoutTestCase {
           / singularValues.getQuick(i)) <= s_precisionPct / 100);
     }
 
+    // the in-core solver projects on the same directions
+    DenseMatrix a =
+      new DenseMatrix(SSVDHelper.loadDistributedRowMatrix(fs, aPath, conf));
+    Vector inCoreSValues =
+      new StochasticSingularValueDecomposition(a, k, p, q, seed).getSingularValues();
+    for (int i = 0; i < k; i++) {
+      assertEquals(stochasticSValues.getQuick(i), inCoreSValues.getQuick(i),
+                   1.0e-8);
+    }
+
     double[][] mQ =
       SSVDHelper.loadDistributedRowMatrix(fs, new Path(svdOutPath, "Bt-job/"
           + BtJob.OUTPUT_Q + "-*"), conf);
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import org.apache.mahout.common.MahoutTestCase;
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.Vector;
+import org.junit.Test;
+
+public class AliasSamplerTest extends MahoutTestCase {
+
+  @Test
+  public void testAliasSampler() {
+    Vector distribution = new DenseVector(new double[] {1, 0, 2, 3, 5, 0});
+    AliasSampler sampler = new AliasSampler(RandomUtils.getRandom(), distribution);
+    assertEquals(6, sampler.size());
+    int[] samples = new int[100000];
+    sampler.sample(samples);
+    Vector sampledDistribution = distribution.like();
+    for (int index : samples) {
+      sampledDistribution.set(index, sampledDistribution.get(index) + 1);
+    }
+    assertEquals(0, sampledDistribution.get(1), 0);
+    assertEquals(0, sampledDistribution.get(5), 0);
+    assertTrue("sampled distribution is far from the original",
+        distribution.normalize(1).minus(sampledDistribution.normalize(1)).norm(1) < 1.0e-2);
+  }
+
+  @Test
+  public void testSingleWeight() {
+    AliasSampler sampler = new AliasSampler(RandomUtils.getRandom(), new double[] {0, 0, 0.5});
+    for (int i = 0; i < 100; i++) {
+      assertEquals(2, sampler.sample());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeWeight() {
+    new AliasSampler(RandomUtils.getRandom(), new double[] {1, -1});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testZeroWeights() {
+    new AliasSampler(RandomUtils.getRandom(), new double[] {0, 0});
+  }
+}
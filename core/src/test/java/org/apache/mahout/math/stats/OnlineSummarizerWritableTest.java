@@ -0,0 +1,59 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.mahout.math.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.apache.mahout.common.MahoutTestCase;
+import org.apache.mahout.common.RandomUtils;
+import org.junit.Test;
+
+public final class OnlineSummarizerWritableTest extends MahoutTestCase {
+
+  @Test
+  public void testWritable() throws IOException {
+    Random gen = RandomUtils.getRandom();
+    OnlineSummarizer reduced = new OnlineSummarizer();
+    OnlineSummarizer all = new OnlineSummarizer();
+    OnlineSummarizerWritable writable = new OnlineSummarizerWritable();
+    // each part is written by a mapper, then read and merged in a reducer
+    for (int part = 0; part < 3; part++) {
+      OnlineSummarizer summarizer = new OnlineSummarizer();
+      for (int i = 0; i < 1000; i++) {
+        double sample = gen.nextGaussian();
+        summarizer.add(sample);
+        all.add(sample);
+      }
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      new OnlineSummarizerWritable(summarizer).write(new DataOutputStream(bytes));
+      writable.readFields(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+      reduced.add(writable.get());
+    }
+
+    assertEquals(3000, reduced.getCount());
+    assertEquals(all.getMean(), reduced.getMean(), EPSILON);
+    assertEquals(all.getSD(), reduced.getSD(), EPSILON);
+    assertEquals(all.getMin(), reduced.getMin(), 0);
+    assertEquals(all.getMax(), reduced.getMax(), 0);
+    assertEquals(all.getMedian(), reduced.getMedian(), 0.05);
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import org.apache.mahout.common.MahoutTestCase;
+import org.apache.mahout.common.RandomUtils;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class UpdatableSamplerTest extends MahoutTestCase {
+
+  @Test
+  public void testUpdates() {
+    Random random = RandomUtils.getRandom();
+    double[] weights = new double[37];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = i % 3 == 0 ? 0 : random.nextDouble();
+    }
+    UpdatableSampler sampler = new UpdatableSampler(random, weights);
+    for (int round = 0; round < 5; round++) {
+      // change a few weights, then check the draws follow the new distribution
+      for (int n = 0; n < 10; n++) {
+        int index = random.nextInt(weights.length);
+        weights[index] = random.nextInt(4) == 0 ? 0 : random.nextDouble() * 3;
+        sampler.set(index, weights[index]);
+        assertEquals(weights[index], sampler.get(index), 0);
+      }
+      double total = 0;
+      for (double weight : weights) {
+        total += weight;
+      }
+      assertEquals(total, sampler.getTotal(), EPSILON);
+
+      double[] counts = new double[weights.length];
+      int draws = 200000;
+      for (int n = 0; n < draws; n++) {
+        counts[sampler.sample()]++;
+      }
+      double distance = 0;
+      for (int i = 0; i < weights.length; i++) {
+        if (weights[i] == 0) {
+          assertEquals(0, counts[i], 0);
+        }
+        distance += Math.abs(weights[i] / total - counts[i] / draws);
+      }
+      assertTrue("sampled distribution is far from the original: " + distance, distance < 2.0e-2);
+    }
+  }
+
+  @Test
+  public void testRoundOff() {
+    UpdatableSampler sampler = new UpdatableSampler(RandomUtils.getRandom(), 8);
+    for (int n = 0; n < 1000; n++) {
+      sampler.set(n % 7, 0.1 * (n % 13));
+    }
+    for (int i = 0; i < 7; i++) {
+      sampler.set(i, 0);
+    }
+    sampler.set(7, 1.0e-3);
+    for (int n = 0; n < 100; n++) {
+      assertEquals(7, sampler.sample());
+    }
+    sampler.rebuild();
+    assertEquals(1.0e-3, sampler.getTotal(), 0);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testZeroWeights() {
+    new UpdatableSampler(RandomUtils.getRandom(), 3).sample();
+  }
+}
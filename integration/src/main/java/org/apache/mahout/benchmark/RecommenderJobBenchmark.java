@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.Closeables;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.DataOutputBuffer;
+import org.apache.hadoop.util.ToolRunner;
+import org.apache.mahout.cf.taste.hadoop.item.PrefAndSimilarityColumnWritable;
+import org.apache.mahout.cf.taste.hadoop.item.RecommenderJob;
+import org.apache.mahout.cf.taste.hadoop.item.VectorAndPrefsWritable;
+import org.apache.mahout.common.AbstractJob;
+import org.apache.mahout.common.HadoopUtil;
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.common.iterator.sequencefile.PathFilters;
+import org.apache.mahout.common.iterator.sequencefile.PathType;
+import org.apache.mahout.common.iterator.sequencefile.SequenceFileDirValueIterable;
+import org.apache.mahout.math.VarLongWritable;
+import org.apache.mahout.math.VectorWritable;
+import org.apache.mahout.math.hadoop.similarity.cooccurrence.measures.VectorSimilarityMeasures;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the shuffle-based final phase of the item-based {@link RecommenderJob} with the map-side multiplication
+ * against the in-memory similarity matrix ({@code --broadcastSimilarityMatrix}) on synthetic data in local mode.
+ * Reports the wall time of both variants, the size of the intermediate data the shuffle-based variant materializes
+ * and the number of bytes its {@code PartialMultiplyMapper} emits into the shuffle.
+ */
+public class RecommenderJobBenchmark extends AbstractJob {
+
+  private static final Logger log = LoggerFactory.getLogger(RecommenderJobBenchmark.class);
+
+  public static void main(String[] args) throws Exception {
+    ToolRunner.run(new Configuration(), new RecommenderJobBenchmark(), args);
+  }
+
+  @Override
+  public int run(String[] args) throws Exception {
+    addOption("numUsers", "nu", "number of users to generate", String.valueOf(10000));
+    addOption("numItems", "ni", "number of items to generate", String.valueOf(2000));
+    addOption("prefsPerUser", "ppu", "average number of preferences per user", String.valueOf(20));
+    addOption("similarityClassname", "s", "similarity measure to use",
+        VectorSimilarityMeasures.SIMILARITY_COOCCURRENCE.name());
+
+    Map<String,List<String>> parsedArgs = parseArguments(args);
+    if (parsedArgs == null) {
+      return -1;
+    }
+
+    int numUsers = Integer.parseInt(getOption("numUsers"));
+    int numItems = Integer.parseInt(getOption("numItems"));
+    int prefsPerUser = Integer.parseInt(getOption("prefsPerUser"));
+    String similarityClassname = getOption("similarityClassname");
+
+    Path prefsFile = getTempPath("prefs.txt");
+    writePreferences(prefsFile, numUsers, numItems, prefsPerUser);
+
+    Path shuffleTempDir = getTempPath("shuffle");
+    long shuffleTime = runRecommenderJob(prefsFile, shuffleTempDir, similarityClassname, false);
+    FileSystem fs = FileSystem.get(shuffleTempDir.toUri(), getConf());
+    long intermediateBytes = fs.getContentSummary(new Path(shuffleTempDir, "prePartialMultiply1")).getLength()
+        + fs.getContentSummary(new Path(shuffleTempDir, "prePartialMultiply2")).getLength()
+        + fs.getContentSummary(new Path(shuffleTempDir, "partialMultiply")).getLength();
+    long[] partialMultiplyShuffleBytes = partialMultiplyShuffleBytes(new Path(shuffleTempDir, "partialMultiply"));
+
+    Path broadcastTempDir = getTempPath("broadcast");
+    long broadcastTime = runRecommenderJob(prefsFile, broadcastTempDir, similarityClassname, true);
+
+    log.info("{} users, {} items, ~{} prefs per user", new Object[] { numUsers, numItems, prefsPerUser });
+    log.info("shuffle: {} ms, {} bytes of intermediate data, {} bytes emitted by PartialMultiplyMapper "
+        + "({} bytes when encoding the similarity columns as VectorWritables)",
+        new Object[] { shuffleTime, intermediateBytes, partialMultiplyShuffleBytes[0], partialMultiplyShuffleBytes[1] });
+    log.info("broadcast: {} ms, no partial multiplication shuffle", broadcastTime);
+    return 0;
+  }
+
+  private long runRecommenderJob(Path prefsFile, Path tempDir, String similarityClassname, boolean broadcast)
+    throws Exception {
+    long start = System.currentTimeMillis();
+    ToolRunner.run(getConf(), new RecommenderJob(), new String[] {
+      "--input", prefsFile.toString(),
+      "--output", new Path(tempDir, "output").toString(),
+      "--tempDir", tempDir.toString(),
+      "--similarityClassname", similarityClassname,
+      "--broadcastSimilarityMatrix", String.valueOf(broadcast),
+    });
+    return System.currentTimeMillis() - start;
+  }
+
+  /**
+   * serializes the records the {@code PartialMultiplyMapper} would emit for the given partial multiplication output,
+   * once as they are and once with the similarity columns encoded as lax precision {@link VectorWritable}s
+   */
+  private long[] partialMultiplyShuffleBytes(Path partialMultiplyPath) throws IOException {
+    DataOutputBuffer buffer = new DataOutputBuffer();
+    VarLongWritable userIDWritable = new VarLongWritable();
+    PrefAndSimilarityColumnWritable prefAndSimilarityColumn = new PrefAndSimilarityColumnWritable();
+    long bytes = 0;
+    long vectorWritableBytes = 0;
+    for (VectorAndPrefsWritable vectorAndPrefs : new SequenceFileDirValueIterable<VectorAndPrefsWritable>(
+        partialMultiplyPath, PathType.LIST, PathFilters.partFilter(), getConf())) {
+      List<Long> userIDs = vectorAndPrefs.getUserIDs();
+      List<Float> prefValues = vectorAndPrefs.getValues();
+      for (int n = 0; n < userIDs.size(); n++) {
+        if (!Float.isNaN(prefValues.get(n))) {
+          buffer.reset();
+          userIDWritable.set(userIDs.get(n));
+          userIDWritable.write(buffer);
+          prefAndSimilarityColumn.set(prefValues.get(n), vectorAndPrefs.getVector());
+          prefAndSimilarityColumn.write(buffer);
+          bytes += buffer.getLength();
+
+          buffer.reset();
+          userIDWritable.write(buffer);
+          buffer.writeFloat(prefValues.get(n));
+          VectorWritable.writeVector(buffer, vectorAndPrefs.getVector(), true);
+          vectorWritableBytes += buffer.getLength();
+        }
+      }
+    }
+    return new long[] { bytes, vectorWritableBytes };
+  }
+
+  /**
+   * generates ratings with a skewed item popularity, so that some similarity columns are shuffled very often
+   */
+  private void writePreferences(Path prefsFile, int numUsers, int numItems, int prefsPerUser) throws IOException {
+    Random random = RandomUtils.getRandom();
+    FileSystem fs = FileSystem.get(prefsFile.toUri(), getConf());
+    HadoopUtil.delete(getConf(), prefsFile);
+    Writer writer = new OutputStreamWriter(fs.create(prefsFile), Charsets.UTF_8);
+    try {
+      for (int userID = 0; userID < numUsers; userID++) {
+        int numPrefs = 1 + random.nextInt(2 * prefsPerUser);
+        for (int n = 0; n < numPrefs; n++) {
+          double skewed = random.nextDouble();
+          long itemID = (long) (skewed * skewed * numItems);
+          writer.write(userID + "," + itemID + ',' + (1 + random.nextInt(5)) + '\n');
+        }
+      }
+    } finally {
+      Closeables.closeQuietly(writer);
+    }
+  }
+}
@@ -63,15 +63,24 @@ import org.apache.mahout.math.SequentialAccessSparseVector;
 import org.apache.mahout.math.SparseMatrix;
 import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.VectorWritable;
+import org.apache.mahout.math.function.DoubleDoubleFunction;
+import org.apache.mahout.math.function.Functions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * @deprecated use the JMH benchmarks in the mahout-benchmarks module, e.g. {@code VectorBenchmark}, which control
+ *             warmup and run every benchmark in a fresh JVM
+ */
+@Deprecated
 public class VectorBenchmarks {
 
   private static final Logger log = LoggerFactory.getLogger(VectorBenchmarks.class);
 
   private static final Pattern TAB_NEWLINE_PATTERN = Pattern.compile("[\n\t]");
   private static final String[] EMPTY = new String[0];
+  private static final String[] VECTOR_TYPES = { "Dense", "RandSparse", "SeqSparse" };
+  private static final String[] SHORT_VECTOR_TYPES = { "Dense", "Rand", "Seq" };
 
   private final Vector[][] vectors;
   private final Vector[] clusters;
@@ -467,6 +476,54 @@ public class VectorBenchmarks {
   }
 
 
+  /**
+   * runs aggregate(Vector, aggregator, combiner) over every pair of vector types
+   */
+  public void aggregateBenchmark(String name, DoubleDoubleFunction aggregator, DoubleDoubleFunction combiner) {
+    for (int x = 0; x < vectors.length; x++) {
+      for (int y = 0; y < vectors.length; y++) {
+        double result = 0;
+        TimingStatistics stats = new TimingStatistics();
+        for (int l = 0; l < loop; l++) {
+          for (int i = 0; i < numVectors; i++) {
+            TimingStatistics.Call call = stats.newCall();
+            result += vectors[x][i].aggregate(vectors[y][(i + 1) % numVectors], aggregator, combiner);
+            call.end();
+          }
+        }
+        // print result to prevent hotspot from eliminating deadcode
+        printStats(stats, "Aggregate " + name, pairName(x, y), "sum = " + result + ' ');
+      }
+    }
+  }
+
+  /**
+   * runs assign(Vector, function) on copies of the vectors over every pair of vector types
+   */
+  public void assignBenchmark(String name, DoubleDoubleFunction function) {
+    for (int x = 0; x < vectors.length; x++) {
+      for (int y = 0; y < vectors.length; y++) {
+        double result = 0;
+        TimingStatistics stats = new TimingStatistics();
+        for (int l = 0; l < loop; l++) {
+          for (int i = 0; i < numVectors; i++) {
+            Vector target = vectors[x][i].clone();
+            TimingStatistics.Call call = stats.newCall();
+            target.assign(vectors[y][(i + 1) % numVectors], function);
+            call.end();
+            result += target.getQuick(i % cardinality);
+          }
+        }
+        // print result to prevent hotspot from eliminating deadcode
+        printStats(stats, "Assign " + name, pairName(x, y), "sum = " + result + ' ');
+      }
+    }
+  }
+
+  private static String pairName(int x, int y) {
+    return x == y ? VECTOR_TYPES[x] + "Vector" : SHORT_VECTOR_TYPES[x] + ".fn(" + SHORT_VECTOR_TYPES[y] + ')';
+  }
+
   public void closestCentroidBenchmark(DistanceMeasure measure) {
 
     for (int i = 0; i < numClusters; i++) {
@@ -782,6 +839,12 @@ public class VectorBenchmarks {
       mark.incrementalCreateBenchmark();
       mark.cloneBenchmark();
       mark.dotBenchmark();
+      mark.aggregateBenchmark("sum(x*y)", Functions.PLUS, Functions.MULT);
+      mark.aggregateBenchmark("sum(|x-y|)", Functions.PLUS, Functions.chain(Functions.ABS, Functions.MINUS));
+      mark.aggregateBenchmark("max(|x-y|)", Functions.MAX, Functions.chain(Functions.ABS, Functions.MINUS));
+      mark.assignBenchmark("x+y", Functions.PLUS);
+      mark.assignBenchmark("x*y", Functions.MULT);
+      mark.assignBenchmark("|x-y|", Functions.chain(Functions.ABS, Functions.MINUS));
       mark.serializeBenchmark();
       mark.deserializeBenchmark();
       mark.distanceMeasureBenchmark(new CosineDistanceMeasure());
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Parallel sort, selection and top-k of <code>${valueType}</code> keys with an optional <code>int</code> payload that
+ * is moved along with the keys, behind the corresponding methods of {@link Sorting}. Large ranges are split into runs
+ * that are sorted concurrently by {@link ParallelBlocks} and merged back together concurrently.
+#if (${valueTypeFloating} == 'true')
+ * Keys are ordered as by {@link ${valueObjectType}#compare(${valueType}, ${valueType})}.
+#end
+ */
+final class ${valueTypeCap}ParallelSorting {
+
+  /* Ranges shorter than this are sorted by a single thread */
+  private static final int MIN_PARALLEL_RUN_LENGTH = 1 << 12;
+  /* Ranges shorter than this are sorted or selected by insertion sort */
+  private static final int INSERTION_SORT_LENGTH = 16;
+
+  private ${valueTypeCap}ParallelSorting() {
+  }
+
+  /** sorts the range of the keys into ascending order, the payload is moved along if it is not null */
+  static void parallelSort(final ${valueType}[] keys, final int[] payload, int from, int to) {
+    Preconditions.checkNotNull(keys);
+    Sorting.checkBounds(keys.length, from, to);
+    if (payload != null) {
+      Sorting.checkBounds(payload.length, from, to);
+    }
+    final int[] runStarts = runStarts(from, to);
+    int numRuns = runStarts.length - 1;
+    if (numRuns == 1) {
+      sort0(keys, payload, from, to);
+      return;
+    }
+    ParallelBlocks.run(numRuns, numRuns, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromRun, int toRun) {
+        for (int run = fromRun; run < toRun; run++) {
+          sort0(keys, payload, runStarts[run], runStarts[run + 1]);
+        }
+      }
+    });
+
+    // merge adjacent runs pairwise, back and forth between the range and a buffer that holds it from index 0
+    int length = to - from;
+    ${valueType}[] sourceKeys = keys;
+    int[] sourcePayload = payload;
+    int sourceOffset = 0;
+    ${valueType}[] targetKeys = new ${valueType}[length];
+    int[] targetPayload = payload == null ? null : new int[length];
+    int targetOffset = -from;
+    for (; numRuns > 1; numRuns /= 2) {
+      mergeRuns(sourceKeys, sourcePayload, sourceOffset, targetKeys, targetPayload, targetOffset, runStarts, numRuns);
+      for (int run = 0; run <= numRuns / 2; run++) {
+        runStarts[run] = runStarts[2 * run];
+      }
+      ${valueType}[] mergedKeys = targetKeys;
+      targetKeys = sourceKeys;
+      sourceKeys = mergedKeys;
+      int[] mergedPayload = targetPayload;
+      targetPayload = sourcePayload;
+      sourcePayload = mergedPayload;
+      int mergedOffset = targetOffset;
+      targetOffset = sourceOffset;
+      sourceOffset = mergedOffset;
+    }
+    if (sourceKeys != keys) {
+      System.arraycopy(sourceKeys, 0, keys, from, length);
+      if (payload != null) {
+        System.arraycopy(sourcePayload, 0, payload, from, length);
+      }
+    }
+  }
+
+  /** moves the key that belongs at index k if the range was sorted there, and the smaller keys before it */
+  static void select(${valueType}[] keys, int[] payload, int from, int to, int k) {
+    Preconditions.checkNotNull(keys);
+    Sorting.checkBounds(keys.length, from, to);
+    if (payload != null) {
+      Sorting.checkBounds(payload.length, from, to);
+    }
+    Preconditions.checkArgument(k >= from && k < to, "Index %s is not in the range from %s to %s", k, from, to);
+    while (to - from > INSERTION_SORT_LENGTH) {
+      long bounds = partition(keys, payload, from, to);
+      if (k < lowerEnd(bounds)) {
+        to = lowerEnd(bounds);
+      } else if (k >= upperEnd(bounds)) {
+        from = upperEnd(bounds);
+      } else {
+        return;
+      }
+    }
+    insertionSort(keys, payload, from, to);
+  }
+
+  /** the indexes of the k largest values, in descending order of their values */
+  static int[] topK(${valueType}[] values, int k) {
+    int length = values.length;
+    Preconditions.checkArgument(k >= 0 && k <= length, "Cannot select %s of %s values", k, length);
+    ${valueType}[] keys = values.clone();
+    int[] indexes = new int[length];
+    for (int i = 0; i < length; i++) {
+      indexes[i] = i;
+    }
+    if (k > 0 && k < length) {
+      select(keys, indexes, 0, length, length - k);
+    }
+    sort0(keys, indexes, length - k, length);
+    int[] top = new int[k];
+    for (int i = 0; i < k; i++) {
+      top[i] = indexes[length - 1 - i];
+    }
+    return top;
+  }
+
+  /**
+   * Splits the range into a power of two number of runs to sort concurrently, a single run if the range is short or
+   * there is a single core.
+   */
+  private static int[] runStarts(int from, int to) {
+    int length = to - from;
+    int numRuns = 1;
+    while (numRuns < ParallelBlocks.NUM_THREADS && length / (2 * numRuns) >= MIN_PARALLEL_RUN_LENGTH) {
+      numRuns <<= 1;
+    }
+    int[] runStarts = new int[numRuns + 1];
+    for (int run = 0; run <= numRuns; run++) {
+      runStarts[run] = from + (int) ((long) length * run / numRuns);
+    }
+    return runStarts;
+  }
+
+  /** merges runs 0 and 1, 2 and 3, ... of the source into the target, each pair in pieces that run concurrently */
+  private static void mergeRuns(final ${valueType}[] sourceKeys, final int[] sourcePayload, final int sourceOffset,
+                                final ${valueType}[] targetKeys, final int[] targetPayload, final int targetOffset,
+                                final int[] runStarts, int numRuns) {
+    int numMerges = numRuns / 2;
+    // split every merge so that the last merges also use all cores
+    final int pieces = Math.max(1, 2 * ParallelBlocks.NUM_THREADS / numMerges);
+    ParallelBlocks.run(numMerges * pieces, numMerges * pieces, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromPiece, int toPiece) {
+        for (int piece = fromPiece; piece < toPiece; piece++) {
+          int merge = piece / pieces;
+          int aFrom = runStarts[2 * merge];
+          int bFrom = runStarts[2 * merge + 1];
+          int bTo = runStarts[2 * merge + 2];
+          // the piece takes a share of the first run and the elements of the second run that fall between them
+          int aStart = aFrom + (int) ((long) (bFrom - aFrom) * (piece % pieces) / pieces);
+          int aEnd = aFrom + (int) ((long) (bFrom - aFrom) * (piece % pieces + 1) / pieces);
+          int bStart = piece % pieces == 0 ? bFrom
+              : lowerBound(sourceKeys, sourceOffset, aStart, bFrom, bTo);
+          int bEnd = piece % pieces == pieces - 1 ? bTo
+              : lowerBound(sourceKeys, sourceOffset, aEnd, bFrom, bTo);
+          merge(sourceKeys, sourcePayload, sourceOffset, aStart, aEnd, bStart, bEnd,
+              targetKeys, targetPayload, targetOffset + aStart + bStart - bFrom);
+        }
+      }
+    });
+  }
+
+  /**
+   * @return the first index of the second run whose key is not less than the key at the given index of the first run,
+   *         or the end of the second run if the first run ends there.
+   */
+  private static int lowerBound(${valueType}[] keys, int offset, int index, int bFrom, int bTo) {
+    if (index == bFrom) {
+      return bTo;
+    }
+    ${valueType} key = keys[offset + index];
+    int low = bFrom;
+    int high = bTo;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (lessThan(keys[offset + middle], key)) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  /** merges two sorted ranges of the source into the target, starting at the given target index */
+  private static void merge(${valueType}[] sourceKeys, int[] sourcePayload, int sourceOffset, int aStart, int aEnd,
+                            int bStart, int bEnd, ${valueType}[] targetKeys, int[] targetPayload, int target) {
+    int a = sourceOffset + aStart;
+    int b = sourceOffset + bStart;
+    int aLimit = sourceOffset + aEnd;
+    int bLimit = sourceOffset + bEnd;
+    if (sourcePayload == null) {
+      while (a < aLimit && b < bLimit) {
+        targetKeys[target++] = lessThan(sourceKeys[b], sourceKeys[a]) ? sourceKeys[b++] : sourceKeys[a++];
+      }
+    } else {
+      while (a < aLimit && b < bLimit) {
+        if (lessThan(sourceKeys[b], sourceKeys[a])) {
+          targetPayload[target] = sourcePayload[b];
+          targetKeys[target++] = sourceKeys[b++];
+        } else {
+          targetPayload[target] = sourcePayload[a];
+          targetKeys[target++] = sourceKeys[a++];
+        }
+      }
+      System.arraycopy(sourcePayload, a, targetPayload, target, aLimit - a);
+      System.arraycopy(sourcePayload, b, targetPayload, target + aLimit - a, bLimit - b);
+    }
+    System.arraycopy(sourceKeys, a, targetKeys, target, aLimit - a);
+    System.arraycopy(sourceKeys, b, targetKeys, target + aLimit - a, bLimit - b);
+  }
+
+  private static void sort0(${valueType}[] keys, int[] payload, int from, int to) {
+    if (payload == null) {
+      Arrays.sort(keys, from, to);
+      return;
+    }
+    while (to - from > INSERTION_SORT_LENGTH) {
+      long bounds = partition(keys, payload, from, to);
+      int lowerEnd = lowerEnd(bounds);
+      int upperEnd = upperEnd(bounds);
+      // recurse into the shorter side and loop on the longer one, to bound the depth of the recursion
+      if (lowerEnd - from < to - upperEnd) {
+        sort0(keys, payload, from, lowerEnd);
+        from = upperEnd;
+      } else {
+        sort0(keys, payload, upperEnd, to);
+        to = lowerEnd;
+      }
+    }
+    insertionSort(keys, payload, from, to);
+  }
+
+  /**
+   * Partitions the range around the median of its first, middle and last key into the keys less than it, equal to it
+   * and greater than it.
+   *
+   * @return the end of the keys less than the pivot and the start of the keys greater than it, packed into a long
+   */
+  private static long partition(${valueType}[] keys, int[] payload, int from, int to) {
+    int middle = (from + to) >>> 1;
+    ${valueType} first = keys[from];
+    ${valueType} center = keys[middle];
+    ${valueType} last = keys[to - 1];
+    ${valueType} pivot;
+    if (lessThan(first, center)) {
+      pivot = lessThan(center, last) ? center : lessThan(first, last) ? last : first;
+    } else {
+      pivot = lessThan(first, last) ? first : lessThan(center, last) ? last : center;
+    }
+    int less = from;
+    int greater = to;
+    int i = from;
+    while (i < greater) {
+      int comparison = compare(keys[i], pivot);
+      if (comparison < 0) {
+        swap(keys, payload, less++, i++);
+      } else if (comparison > 0) {
+        swap(keys, payload, i, --greater);
+      } else {
+        i++;
+      }
+    }
+    return ((long) less << 32) | greater;
+  }
+
+  /* the bounds of a partition, packed into a long by partition() */
+  private static int lowerEnd(long bounds) {
+    return (int) (bounds >>> 32);
+  }
+
+  private static int upperEnd(long bounds) {
+    return (int) bounds;
+  }
+
+  private static void insertionSort(${valueType}[] keys, int[] payload, int from, int to) {
+    for (int i = from + 1; i < to; i++) {
+      for (int j = i; j > from && lessThan(keys[j], keys[j - 1]); j--) {
+        swap(keys, payload, j, j - 1);
+      }
+    }
+  }
+
+  private static void swap(${valueType}[] keys, int[] payload, int i, int j) {
+    ${valueType} key = keys[i];
+    keys[i] = keys[j];
+    keys[j] = key;
+    if (payload != null) {
+      int element = payload[i];
+      payload[i] = payload[j];
+      payload[j] = element;
+    }
+  }
+
+#if (${valueTypeFloating} == 'true')
+  private static boolean lessThan(${valueType} a, ${valueType} b) {
+    return ${valueObjectType}.compare(a, b) < 0;
+  }
+
+  private static int compare(${valueType} a, ${valueType} b) {
+    return ${valueObjectType}.compare(a, b);
+  }
+#else
+  private static boolean lessThan(${valueType} a, ${valueType} b) {
+    return a < b;
+  }
+
+  private static int compare(${valueType} a, ${valueType} b) {
+    return a < b ? -1 : a == b ? 0 : 1;
+  }
+#end
+}
@@ -0,0 +1,257 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.mahout.math.map;
+
+import com.google.common.base.Preconditions;
+
+import org.apache.mahout.math.function.${keyTypeCap}${valueTypeCap}Procedure;
+import org.apache.mahout.math.function.${keyTypeCap}Procedure;
+import org.apache.mahout.math.list.${keyTypeCap}ArrayList;
+import org.apache.mahout.math.set.AbstractSet;
+
+/**
+ * <p>Thread-safe hash map from ${keyType} keys to ${valueType} values.</p>
+ *
+ * <p>The keys are spread over a power of two number of segments by the high bits of their hash, and each segment is a
+ * {@link RobinHood${keyTypeCap}${valueTypeCap}HashMap} guarded by its own lock, so threads only contend when they
+ * use keys of the same segment. {@link #adjustOrPutValue}, {@link #putIfAbsent} and {@link #replace} are atomic;
+ * a loop around {@link #get} and {@link #replace} updates a value atomically with any function.</p>
+ *
+ * <p>{@link #size()} and the iterating methods visit one segment at a time and are not atomic with respect to updates
+ * of other segments. The procedures are applied to a copy of each segment, outside of its lock, and may update the
+ * map.</p>
+ */
+public class Concurrent${keyTypeCap}${valueTypeCap}HashMap {
+
+  public static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+  private final RobinHood${keyTypeCap}${valueTypeCap}HashMap[] segments;
+  private final int segmentShift;
+
+  /** Constructs an empty map with default capacity and default concurrency level. */
+  public Concurrent${keyTypeCap}${valueTypeCap}HashMap() {
+    this(AbstractSet.defaultCapacity, DEFAULT_CONCURRENCY_LEVEL);
+  }
+
+  /**
+   * Constructs an empty map.
+   *
+   * @param initialCapacity  the number of associations the map can hold before it grows.
+   * @param concurrencyLevel the number of threads expected to update the map at the same time, rounded up to a power
+   *                         of two segments.
+   * @throws IllegalArgumentException if the initial capacity is less than zero or the concurrency level is not
+   *                                  positive.
+   */
+  public Concurrent${keyTypeCap}${valueTypeCap}HashMap(int initialCapacity, int concurrencyLevel) {
+    Preconditions.checkArgument(initialCapacity >= 0, "Initial Capacity must not be less than zero: %s",
+        initialCapacity);
+    Preconditions.checkArgument(concurrencyLevel > 0 && concurrencyLevel <= 1 << 16, "Illegal concurrency level: %s",
+        concurrencyLevel);
+    int numSegments = 1;
+    int bits = 0;
+    while (numSegments < concurrencyLevel) {
+      numSegments <<= 1;
+      bits++;
+    }
+    segmentShift = 32 - bits;
+    segments = new RobinHood${keyTypeCap}${valueTypeCap}HashMap[numSegments];
+    for (int i = 0; i < numSegments; i++) {
+      segments[i] = new RobinHood${keyTypeCap}${valueTypeCap}HashMap((initialCapacity + numSegments - 1) / numSegments);
+    }
+  }
+
+  /** the segment of a key, by the high bits of its hash as the segments probe by the low bits */
+  private RobinHood${keyTypeCap}${valueTypeCap}HashMap segmentFor(${keyType} key) {
+    int hash = HashFunctions.hash(key) * 0x9E3779B9;
+    return segments[(hash >>> segmentShift) & (segments.length - 1)];
+  }
+
+  /**
+   * Returns the value associated with the specified key.
+   *
+   * @return the value associated with the specified key; <tt>0</tt> if no such key is present.
+   */
+  public ${valueType} get(${keyType} key) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.get(key);
+    }
+  }
+
+  /**
+   * Returns <tt>true</tt> if the receiver contains the specified key.
+   */
+  public boolean containsKey(${keyType} key) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.containsKey(key);
+    }
+  }
+
+  /**
+   * Associates the given key with the given value, replacing any old association.
+   *
+   * @return <tt>true</tt> if the receiver did not already contain such a key.
+   */
+  public boolean put(${keyType} key, ${valueType} value) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.put(key, value);
+    }
+  }
+
+  /**
+   * Associates the given key with the given value if the key is not contained.
+   *
+   * @return <tt>true</tt> if the value was associated, <tt>false</tt> if the receiver already contained the key.
+   */
+  public boolean putIfAbsent(${keyType} key, ${valueType} value) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      if (segment.containsKey(key)) {
+        return false;
+      }
+      segment.put(key, value);
+      return true;
+    }
+  }
+
+  /**
+   * Associates the given key with the new value if it is currently associated with the expected value.
+   *
+   * @return <tt>true</tt> if the value was replaced.
+   */
+  public boolean replace(${keyType} key, ${valueType} expectedValue, ${valueType} newValue) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      if (!segment.containsKey(key) || segment.get(key) != expectedValue) {
+        return false;
+      }
+      segment.put(key, newValue);
+      return true;
+    }
+  }
+
+  /**
+   * Atomically adds to the value of a key, or associates the key with a new value if it is not contained.
+   *
+   * @param key       the key.
+   * @param newValue  the value to associate with the key if it is not contained.
+   * @param incrValue the value to add to the current value of the key.
+   * @return the value now associated with the key.
+   */
+  public ${valueType} adjustOrPutValue(${keyType} key, ${valueType} newValue, ${valueType} incrValue) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.adjustOrPutValue(key, newValue, incrValue);
+    }
+  }
+
+  /**
+   * Removes the given key with its associated value, if present.
+   *
+   * @return <tt>true</tt> if the receiver contained the specified key.
+   */
+  public boolean removeKey(${keyType} key) {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap segment = segmentFor(key);
+    synchronized (segment) {
+      return segment.removeKey(key);
+    }
+  }
+
+  /** Removes all associations, one segment at a time. */
+  public void clear() {
+    for (RobinHood${keyTypeCap}${valueTypeCap}HashMap segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+
+  /**
+   * Returns the number of associations, summed over the segments one at a time.
+   */
+  public int size() {
+    int size = 0;
+    for (RobinHood${keyTypeCap}${valueTypeCap}HashMap segment : segments) {
+      synchronized (segment) {
+        size += segment.size();
+      }
+    }
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  private RobinHood${keyTypeCap}${valueTypeCap}HashMap copyOf(RobinHood${keyTypeCap}${valueTypeCap}HashMap segment) {
+    synchronized (segment) {
+      return (RobinHood${keyTypeCap}${valueTypeCap}HashMap) segment.clone();
+    }
+  }
+
+  /**
+   * Applies a procedure to each key of the receiver, if any, in no particular order.
+   *
+   * @param procedure the procedure to be applied. Stops iteration if the procedure returns <tt>false</tt>, otherwise
+   *                  continues.
+   * @return <tt>false</tt> if the procedure stopped before all keys where iterated over, <tt>true</tt> otherwise.
+   */
+  public boolean forEachKey(${keyTypeCap}Procedure procedure) {
+    for (RobinHood${keyTypeCap}${valueTypeCap}HashMap segment : segments) {
+      if (!copyOf(segment).forEachKey(procedure)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies a procedure to each (key,value) pair of the receiver, if any, in no particular order.
+   *
+   * @param procedure the procedure to be applied. Stops iteration if the procedure returns <tt>false</tt>, otherwise
+   *                  continues.
+   * @return <tt>false</tt> if the procedure stopped before all pairs where iterated over, <tt>true</tt> otherwise.
+   */
+  public boolean forEachPair(${keyTypeCap}${valueTypeCap}Procedure procedure) {
+    for (RobinHood${keyTypeCap}${valueTypeCap}HashMap segment : segments) {
+      if (!copyOf(segment).forEachPair(procedure)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns a list filled with all keys contained in the receiver, in no particular order.
+   */
+  public ${keyTypeCap}ArrayList keys() {
+    final ${keyTypeCap}ArrayList keys = new ${keyTypeCap}ArrayList();
+    forEachKey(new ${keyTypeCap}Procedure() {
+      @Override
+      public boolean apply(${keyType} key) {
+        keys.add(key);
+        return true;
+      }
+    });
+    return keys;
+  }
+}
@@ -0,0 +1,521 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.mahout.math.map;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.mahout.math.function.${keyTypeCap}ObjectProcedure;
+import org.apache.mahout.math.function.${keyTypeCap}Procedure;
+import org.apache.mahout.math.list.${keyTypeCap}ArrayList;
+
+
+/**
+ * <p>Hash map from ${keyType} keys to Object values with the same contract as
+ * {@link Open${keyTypeCap}ObjectHashMap}, laid out for fast lookups instead of double hashing.</p>
+ *
+ * <p>The table has a power of two capacity and is probed linearly from the home slot of a key. On insertion a key
+ * takes the slot of any key that is closer to its own home slot, and carries that key on (Robin Hood hashing), which
+ * keeps all keys close to their home slots and lets a lookup stop as soon as it meets a key closer to its home than the
+ * key looked up. Removal shifts the following keys back by one slot instead of leaving a removed marker behind.</p>
+ *
+ * <p>A free slot holds the key 0, so no state array is read next to the keys; the value of the key 0 itself is kept
+ * outside of the table. The load factors have the same meaning as for {@link Open${keyTypeCap}ObjectHashMap},
+ * but the capacity is a number of associations and is rounded to a table of the next power of two.</p>
+ */
+public class RobinHood${keyTypeCap}ObjectHashMap<T> extends Abstract${keyTypeCap}ObjectMap<T> {
+
+  /** The key of free slots. */
+  private static final ${keyType} FREE_KEY = 0;
+  private static final int MINIMUM_CAPACITY = 4;
+  private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+  /** The hash table keys. */
+  private ${keyType}[] table;
+
+  /** The hash table values. */
+  private T[] values;
+
+  /** The table capacity - 1, to map hashes onto slots. */
+  private int mask;
+
+  /** Whether the key 0 is contained, and the value associated with it. */
+  private boolean containsFreeKey;
+  private T freeKeyValue;
+
+  /** Constructs an empty map with default capacity and default load factors. */
+  public RobinHood${keyTypeCap}ObjectHashMap() {
+    this(defaultCapacity);
+  }
+
+  /**
+   * Constructs an empty map with the specified initial capacity and default load factors.
+   *
+   * @param initialCapacity the number of associations the map can hold before it grows.
+   * @throws IllegalArgumentException if the initial capacity is less than zero.
+   */
+  public RobinHood${keyTypeCap}ObjectHashMap(int initialCapacity) {
+    this(initialCapacity, defaultMinLoadFactor, defaultMaxLoadFactor);
+  }
+
+  /**
+   * Constructs an empty map with the specified initial capacity and the specified minimum and maximum load factor.
+   *
+   * @param initialCapacity the number of associations the map can hold before it grows.
+   * @param minLoadFactor   the minimum load factor.
+   * @param maxLoadFactor   the maximum load factor.
+   * @throws IllegalArgumentException if <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) ||
+   *                                  (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >=
+   *                                  maxLoadFactor)</tt>.
+   */
+  public RobinHood${keyTypeCap}ObjectHashMap(int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+    setUp(initialCapacity, minLoadFactor, maxLoadFactor);
+  }
+
+  /** Removes all (key,value) associations from the receiver. Implicitly calls <tt>trimToSize()</tt>. */
+  @Override
+  public void clear() {
+    Arrays.fill(table, FREE_KEY);
+    Arrays.fill(values, null);
+    containsFreeKey = false;
+    freeKeyValue = null;
+    distinct = 0;
+    trimToSize();
+  }
+
+  /**
+   * Returns a deep copy of the receiver.
+   *
+   * @return a deep copy of the receiver.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public RobinHood${keyTypeCap}ObjectHashMap<T> clone() {
+    RobinHood${keyTypeCap}ObjectHashMap<T> copy = (RobinHood${keyTypeCap}ObjectHashMap<T>) super.clone();
+    copy.table = copy.table.clone();
+    copy.values = copy.values.clone();
+    return copy;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the receiver contains the specified key.
+   *
+   * @return <tt>true</tt> if the receiver contains the specified key.
+   */
+  @Override
+  public boolean containsKey(${keyType} key) {
+    if (key == FREE_KEY) {
+      return containsFreeKey;
+    }
+    return indexOfKey(key) >= 0;
+  }
+
+  /**
+   * Returns <tt>true</tt> if the receiver contains the specified value.
+   *
+   * @return <tt>true</tt> if the receiver contains the specified value.
+   */
+  @Override
+  public boolean containsValue(T value) {
+    if (containsFreeKey && freeKeyValue == value) {
+      return true;
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY && values[i] == value) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Ensures that the receiver can hold at least the specified number of associations without needing to allocate new
+   * internal memory. If necessary, allocates new internal memory and increases the capacity of the receiver.
+   *
+   * @param minCapacity the desired minimum capacity.
+   */
+  @Override
+  public void ensureCapacity(int minCapacity) {
+    int newCapacity = capacityFor(minCapacity);
+    if (table.length < newCapacity) {
+      rehash(newCapacity);
+    }
+  }
+
+  /**
+   * Applies a procedure to each key of the receiver, if any. Iterates over the keys in no particular order, which is
+   * the order of all other methods that iterate over the receiver.
+   *
+   * @param procedure the procedure to be applied. Stops iteration if the procedure returns <tt>false</tt>, otherwise
+   *                  continues.
+   * @return <tt>false</tt> if the procedure stopped before all keys where iterated over, <tt>true</tt> otherwise.
+   */
+  @Override
+  public boolean forEachKey(${keyTypeCap}Procedure procedure) {
+    if (containsFreeKey && !procedure.apply(FREE_KEY)) {
+      return false;
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY && !procedure.apply(table[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Applies a procedure to each (key,value) pair of the receiver, if any. Iteration order is guaranteed to be
+   * <i>identical</i> to the order used by method {@link #forEachKey(${keyTypeCap}Procedure)}.
+   *
+   * @param procedure the procedure to be applied. Stops iteration if the procedure returns <tt>false</tt>, otherwise
+   *                  continues.
+   * @return <tt>false</tt> if the procedure stopped before all keys where iterated over, <tt>true</tt> otherwise.
+   */
+  @Override
+  public boolean forEachPair(${keyTypeCap}ObjectProcedure<T> procedure) {
+    if (containsFreeKey && !procedure.apply(FREE_KEY, freeKeyValue)) {
+      return false;
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY && !procedure.apply(table[i], values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the value associated with the specified key.
+   *
+   * @param key the key to be searched for.
+   * @return the value associated with the specified key; <tt>null</tt> if no such key is present.
+   */
+  @Override
+  public T get(${keyType} key) {
+    if (key == FREE_KEY) {
+      return freeKeyValue;
+    }
+    int i = indexOfKey(key);
+    return i < 0 ? null : values[i];
+  }
+
+  /** the home slot of a key, the hash is spread so that keys differing in their high bits only do not collide */
+  private int slot(${keyType} key) {
+    int hash = HashFunctions.hash(key) * 0x9E3779B9;
+    return (hash ^ (hash >>> 16)) & mask;
+  }
+
+  /** how far the key in slot i is from its home slot */
+  private int probeDistance(int i) {
+    return (i - slot(table[i])) & mask;
+  }
+
+  /**
+   * @param key a key other than 0
+   * @return the slot of the key, or -1 if the key is not contained.
+   */
+  private int indexOfKey(${keyType} key) {
+    int i = slot(key);
+    for (int distance = 0;; distance++) {
+      ${keyType} k = table[i];
+      if (k == key) {
+        return i;
+      }
+      // a key closer to its home would have been displaced by the key searched for
+      if (k == FREE_KEY || probeDistance(i) < distance) {
+        return -1;
+      }
+      i = (i + 1) & mask;
+    }
+  }
+
+  /**
+   * Stores a key that is not contained, starting at slot i which is the given distance from its home slot, and
+   * displacing the keys that are closer to their home slots.
+   */
+  private void insert(${keyType} key, T value, int i, int distance) {
+    while (table[i] != FREE_KEY) {
+      int residentDistance = probeDistance(i);
+      if (residentDistance < distance) {
+        ${keyType} residentKey = table[i];
+        T residentValue = values[i];
+        table[i] = key;
+        values[i] = value;
+        key = residentKey;
+        value = residentValue;
+        distance = residentDistance;
+      }
+      i = (i + 1) & mask;
+      distance++;
+    }
+    table[i] = key;
+    values[i] = value;
+  }
+
+  /**
+   * Fills all keys contained in the receiver into the specified list. Fills the list, starting at index 0. After this
+   * call returns the specified list has a new size that equals <tt>this.size()</tt>. Iteration order is guaranteed to
+   * be <i>identical</i> to the order used by method {@link #forEachKey(${keyTypeCap}Procedure)}.
+   *
+   * @param list the list to be filled, can have any size.
+   */
+  @Override
+  public void keys(${keyTypeCap}ArrayList list) {
+    list.setSize(distinct);
+    ${keyType}[] elements = list.elements();
+
+    int j = 0;
+    if (containsFreeKey) {
+      elements[j++] = FREE_KEY;
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY) {
+        elements[j++] = table[i];
+      }
+    }
+  }
+
+  /**
+   * Fills all pairs satisfying a given condition into the specified lists. Fills into the lists, starting at index 0.
+   * After this call returns the specified lists both have a new size, the number of pairs satisfying the condition.
+   * Iteration order is guaranteed to be <i>identical</i> to the order used by method {@link
+   * #forEachKey(${keyTypeCap}Procedure)}.
+   *
+   * @param condition the condition to be matched. Takes the current key as first and the current value as second
+   *                  argument.
+   * @param keyList   the list to be filled with keys, can have any size.
+   * @param valueList the list to be filled with values, can have any size.
+   */
+  @Override
+  public void pairsMatching(${keyTypeCap}ObjectProcedure<T> condition,
+                            ${keyTypeCap}ArrayList keyList,
+                            List<T> valueList) {
+    keyList.clear();
+    valueList.clear();
+
+    if (containsFreeKey && condition.apply(FREE_KEY, freeKeyValue)) {
+      keyList.add(FREE_KEY);
+      valueList.add(freeKeyValue);
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY && condition.apply(table[i], values[i])) {
+        keyList.add(table[i]);
+        valueList.add(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Associates the given key with the given value. Replaces any old <tt>(key,someOtherValue)</tt> association, if
+   * existing.
+   *
+   * @param key   the key the value shall be associated with.
+   * @param value the value to be associated.
+   * @return <tt>true</tt> if the receiver did not already contain such a key; <tt>false</tt> if the receiver did
+   *         already contain such a key - the new value has now replaced the formerly associated value.
+   */
+  @Override
+  public boolean put(${keyType} key, T value) {
+    if (key == FREE_KEY) {
+      freeKeyValue = value;
+      if (containsFreeKey) {
+        return false;
+      }
+      containsFreeKey = true;
+      distinct++;
+      return true;
+    }
+
+    // a single probe finds either the key or the slot it belongs in
+    int i = slot(key);
+    int distance = 0;
+    while (table[i] != FREE_KEY) {
+      if (table[i] == key) {
+        values[i] = value;
+        return false;
+      }
+      if (probeDistance(i) < distance) {
+        break;
+      }
+      i = (i + 1) & mask;
+      distance++;
+    }
+
+    if (distinct >= highWaterMark) {
+      rehash(Math.min(MAXIMUM_CAPACITY, table.length << 1));
+      i = slot(key);
+      distance = 0;
+    }
+    insert(key, value, i, distance);
+    distinct++;
+    return true;
+  }
+
+  /**
+   * Rehashes the contents of the receiver into a new table with a smaller or larger power of two capacity. This method
+   * is called automatically when the number of keys in the receiver exceeds the high water mark or falls below the low
+   * water mark.
+   */
+  @SuppressWarnings("unchecked")
+  private void rehash(int newCapacity) {
+    ${keyType}[] oldTable = table;
+    T[] oldValues = values;
+
+    table = new ${keyType}[newCapacity];
+    values = (T[]) new Object[newCapacity];
+    mask = newCapacity - 1;
+
+    lowWaterMark = chooseLowWaterMark(newCapacity, minLoadFactor);
+    highWaterMark = chooseHighWaterMark(newCapacity, maxLoadFactor);
+
+    for (int i = 0; i < oldTable.length; i++) {
+      if (oldTable[i] != FREE_KEY) {
+        insert(oldTable[i], oldValues[i], slot(oldTable[i]), 0);
+      }
+    }
+  }
+
+  /**
+   * Removes the given key with its associated element from the receiver, if present.
+   *
+   * @param key the key to be removed from the receiver.
+   * @return <tt>true</tt> if the receiver contained the specified key, <tt>false</tt> otherwise.
+   */
+  @Override
+  public boolean removeKey(${keyType} key) {
+    if (key == FREE_KEY) {
+      if (!containsFreeKey) {
+        return false;
+      }
+      containsFreeKey = false;
+      freeKeyValue = null;
+    } else {
+      int i = indexOfKey(key);
+      if (i < 0) {
+        return false;
+      }
+      // shift the rest of the cluster back by one slot, up to a free slot or a key in its home slot
+      int next = (i + 1) & mask;
+      while (table[next] != FREE_KEY && probeDistance(next) > 0) {
+        table[i] = table[next];
+        values[i] = values[next];
+        i = next;
+        next = (next + 1) & mask;
+      }
+      table[i] = FREE_KEY;
+      values[i] = null;
+    }
+    distinct--;
+
+    if (distinct < lowWaterMark) {
+      int newCapacity = table.length >> 1;
+      if (newCapacity >= MINIMUM_CAPACITY && chooseHighWaterMark(newCapacity, maxLoadFactor) > distinct) {
+        rehash(newCapacity);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Initializes the receiver.
+   *
+   * @param initialCapacity the number of associations the receiver can hold before it grows.
+   * @param minLoadFactor   the minLoadFactor of the receiver.
+   * @param maxLoadFactor   the maxLoadFactor of the receiver.
+   * @throws IllegalArgumentException if <tt>initialCapacity < 0 || (minLoadFactor < 0.0 || minLoadFactor >= 1.0) ||
+   *                                  (maxLoadFactor <= 0.0 || maxLoadFactor >= 1.0) || (minLoadFactor >=
+   *                                  maxLoadFactor)</tt>.
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  protected void setUp(int initialCapacity, double minLoadFactor, double maxLoadFactor) {
+    super.setUp(initialCapacity, minLoadFactor, maxLoadFactor);
+    this.minLoadFactor = minLoadFactor;
+    this.maxLoadFactor = maxLoadFactor;
+    int capacity = capacityFor(initialCapacity);
+
+    table = new ${keyType}[capacity];
+    values = (T[]) new Object[capacity];
+    mask = capacity - 1;
+    containsFreeKey = false;
+    freeKeyValue = null;
+    distinct = 0;
+
+    // as for the open hash maps, the table does not shrink below its initial capacity until it first grows
+    lowWaterMark = 0;
+    highWaterMark = chooseHighWaterMark(capacity, maxLoadFactor);
+  }
+
+  /** the smallest power of two capacity that holds the given number of associations without growing */
+  private int capacityFor(int size) {
+    int capacity = MINIMUM_CAPACITY;
+    while (capacity < MAXIMUM_CAPACITY && chooseHighWaterMark(capacity, maxLoadFactor) < size) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  /**
+   * Trims the capacity of the receiver to the smallest power of two that holds its current size. Releases any
+   * superfluous internal memory.
+   */
+  @Override
+  public void trimToSize() {
+    int newCapacity = capacityFor(size());
+    if (table.length > newCapacity) {
+      rehash(newCapacity);
+    }
+  }
+
+  /**
+   * Fills all values contained in the receiver into the specified list. Fills the list, starting at index 0. After this
+   * call returns the specified list has a new size that equals <tt>this.size()</tt>. Iteration order is guaranteed to
+   * be <i>identical</i> to the order used by method {@link #forEachKey(${keyTypeCap}Procedure)}.
+   *
+   * @param list the list to be filled, can have any size.
+   */
+  @Override
+  public void values(List<T> list) {
+    list.clear();
+
+    if (containsFreeKey) {
+      list.add(freeKeyValue);
+    }
+    for (int i = 0; i < table.length; i++) {
+      if (table[i] != FREE_KEY) {
+        list.add(values[i]);
+      }
+    }
+  }
+
+  /**
+   * Access for unit tests.
+   * @param capacity
+   * @param minLoadFactor
+   * @param maxLoadFactor
+   */
+  protected void getInternalFactors(int[] capacity,
+      double[] minLoadFactor,
+      double[] maxLoadFactor) {
+    capacity[0] = table.length;
+    minLoadFactor[0] = this.minLoadFactor;
+    maxLoadFactor[0] = this.maxLoadFactor;
+  }
+}
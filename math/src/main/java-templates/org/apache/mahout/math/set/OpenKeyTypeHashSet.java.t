@@ -83,7 +83,7 @@ public class Open${keyTypeCap}HashSet extends Abstract${keyTypeCap}Set {
   /** Removes all values associations from the receiver. Implicitly calls <tt>trimToSize()</tt>. */
   @Override
   public void clear() {
-    Arrays.fill(this.state, 0, state.length - 1, FREE);
+    Arrays.fill(this.state, FREE);
     distinct = 0;
     freeEntries = table.length; // delta
     trimToSize();
@@ -23,6 +23,7 @@ import java.util.Random;
 import java.util.WeakHashMap;
 
 import com.google.common.primitives.Longs;
+import org.apache.mahout.math.jet.random.engine.Xoroshiro128PlusRandom;
 
 /**
  * <p>
@@ -42,6 +43,8 @@ public final class RandomUtils {
   private static final Map<RandomWrapper,Boolean> INSTANCES =
       Collections.synchronizedMap(new WeakHashMap<RandomWrapper,Boolean>());
   
+  private static volatile ThreadLocal<Xoroshiro128PlusRandom> threadRandoms = newThreadRandoms();
+
   private RandomUtils() { }
   
   public static void useTestSeed() {
@@ -51,6 +54,7 @@ public final class RandomUtils {
         rng.reset();
       }
     }
+    threadRandoms = newThreadRandoms();
   }
   
   public static Random getRandom() {
@@ -65,6 +69,46 @@ public final class RandomUtils {
     return random;
   }
   
+  /**
+   * @return a fast generator that is not synchronized, seeded like {@link #getRandom()}: with the standard seed after
+   *  {@link #useTestSeed()}, randomly otherwise.
+   */
+  public static Xoroshiro128PlusRandom getFastRandom() {
+    return new Xoroshiro128PlusRandom(RandomWrapper.newSeed());
+  }
+
+  public static Xoroshiro128PlusRandom getFastRandom(long seed) {
+    return new Xoroshiro128PlusRandom(seed);
+  }
+
+  /**
+   * @return the generator of one of several independent streams with the same seed, such as one per mapper with the
+   *  task partition as stream, reproducible whichever tasks run
+   */
+  public static Xoroshiro128PlusRandom getFastRandom(long seed, int stream) {
+    return new Xoroshiro128PlusRandom(seed, stream);
+  }
+
+  /**
+   * @return the fast generator of the current thread, split from a common generator when the thread first asks for
+   *  it. It must not be passed to other threads.
+   */
+  public static Xoroshiro128PlusRandom getThreadRandom() {
+    return threadRandoms.get();
+  }
+
+  private static ThreadLocal<Xoroshiro128PlusRandom> newThreadRandoms() {
+    final Xoroshiro128PlusRandom root = getFastRandom();
+    return new ThreadLocal<Xoroshiro128PlusRandom>() {
+      @Override
+      protected Xoroshiro128PlusRandom initialValue() {
+        synchronized (root) {
+          return root.split();
+        }
+      }
+    };
+  }
+
   public static byte[] longSeedtoBytes(long seed) {
     byte[] seedBytes = new byte[16];
     seedBytes[0] = (byte) (seed >>> 56);
@@ -49,6 +49,19 @@ public final class RandomWrapper extends Random {
     testSeed = true;
   }
 
+  /** the seed of a generator that is not given one: the standard seed in tests, a random one otherwise */
+  static long newSeed() {
+    if (testSeed) {
+      return RandomUtils.seedBytesToLong(STANDARD_SEED);
+    }
+    try {
+      return RandomUtils.seedBytesToLong(SEED_GENERATOR.generateSeed(8));
+    } catch (SeedException se) {
+      // Can't happen
+      throw new IllegalStateException(se);
+    }
+  }
+
   private Random buildRandom() {
     if (fixedSeed == null) {
       if (testSeed) {
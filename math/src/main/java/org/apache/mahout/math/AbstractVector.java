@@ -20,7 +20,7 @@ package org.apache.mahout.math;
 import org.apache.mahout.common.RandomUtils;
 import org.apache.mahout.math.function.DoubleDoubleFunction;
 import org.apache.mahout.math.function.DoubleFunction;
-import org.apache.mahout.math.function.Functions;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 import java.util.Iterator;
 
@@ -53,11 +53,10 @@ public abstract class AbstractVector implements Vector {
     if (size < 1) {
       throw new IllegalArgumentException("Cannot aggregate empty vector");
     }
-    double result = combiner.apply(getQuick(0), other.getQuick(0));
-    for (int i = 1; i < size; i++) {
-      result = aggregator.apply(result, combiner.apply(getQuick(i), other.getQuick(i)));
+    if (size != other.size()) {
+      throw new CardinalityException(size, other.size());
     }
-    return result;
+    return VectorBinaryOperations.aggregate(this, other, aggregator, combiner);
   }
 
   /**
@@ -147,23 +146,44 @@ public abstract class AbstractVector implements Vector {
       return x.dot(this);
     }
 
-    double result = 0.0;
+    DotProduct dotProduct = new DotProduct(x);
+    forEachNonZero(dotProduct);
+    double result = dotProduct.result;
+    return result;
+  }
+  
+  public double dotSelf() {
+    SumOfSquares sumOfSquares = new SumOfSquares();
+    forEachNonZero(sumOfSquares);
+    return sumOfSquares.result;
+  }
+
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
     Iterator<Element> iter = iterateNonZero();
     while (iter.hasNext()) {
       Element element = iter.next();
-      result += element.get() * x.getQuick(element.index());
+      double value = element.get();
+      if (value != 0.0 && !procedure.apply(element.index(), value)) {
+        return false;
+      }
     }
-    return result;
+    return true;
   }
-  
-  public double dotSelf() {
-    double result = 0.0;
+
+  @Override
+  public int getNonZeros(int[] indices, double[] values) {
+    int numNonZeros = 0;
     Iterator<Element> iter = iterateNonZero();
     while (iter.hasNext()) {
-      double value = iter.next().get();
-      result += value * value;
+      Element element = iter.next();
+      double value = element.get();
+      if (value != 0.0) {
+        indices[numNonZeros] = element.index();
+        values[numNonZeros++] = value;
+      }
     }
-    return result;
+    return numNonZeros;
   }
 
   @Override
@@ -239,37 +259,24 @@ public abstract class AbstractVector implements Vector {
     }
     // we can special case certain powers
     if (Double.isInfinite(power)) {
-      double val = 0.0;
-      Iterator<Element> iter = this.iterateNonZero();
-      while (iter.hasNext()) {
-        val = Math.max(val, Math.abs(iter.next().get()));
-      }
-      return val;
+      MaxAbs maxAbs = new MaxAbs();
+      forEachNonZero(maxAbs);
+      return maxAbs.result;
     } else if (power == 2.0) {
       return Math.sqrt(dotSelf());
     } else if (power == 1.0) {
-      double val = 0.0;
-      Iterator<Element> iter = this.iterateNonZero();
-      while (iter.hasNext()) {
-        val += Math.abs(iter.next().get());
-      }
-      return val;
+      SumOfAbs sumOfAbs = new SumOfAbs();
+      forEachNonZero(sumOfAbs);
+      return sumOfAbs.result;
     } else if (power == 0.0) {
-      // this is the number of non-zero elements
-      double val = 0.0;
-      Iterator<Element> iter = this.iterateNonZero();
-      while (iter.hasNext()) {
-        val += iter.next().get() == 0 ? 0 : 1;
-      }
-      return val;
+      // this is the number of non-zero elements, as x^0 == 1
+      SumOfPowers count = new SumOfPowers(0.0);
+      forEachNonZero(count);
+      return count.result;
     } else {
-      double val = 0.0;
-      Iterator<Element> iter = this.iterateNonZero();
-      while (iter.hasNext()) {
-        Element element = iter.next();
-        val += Math.pow(element.get(), power);
-      }
-      return Math.pow(val, 1.0 / power);
+      SumOfPowers sumOfPowers = new SumOfPowers(power);
+      forEachNonZero(sumOfPowers);
+      return Math.pow(sumOfPowers.result, 1.0 / power);
     }
   }
 
@@ -290,25 +297,16 @@ public abstract class AbstractVector implements Vector {
     if (lengthSquared >= 0 && v instanceof AbstractVector && ((AbstractVector)v).lengthSquared >= 0) {
       return lengthSquared + v.getLengthSquared() - 2 * this.dot(v);
     }
-    Vector randomlyAccessed;
-    Iterator<Element> it;
-    double d = 0.0;
+    DistanceSquared distanceSquared;
     if (lengthSquared >= 0.0) {
-      it = v.iterateNonZero();
-      randomlyAccessed = this;
-      d += lengthSquared;
+      distanceSquared = new DistanceSquared(this, lengthSquared);
+      v.forEachNonZero(distanceSquared);
     } else { // TODO: could be further optimized, figure out which one is smaller, etc
-      it = iterateNonZero();
-      randomlyAccessed = v;
-      d += v.getLengthSquared();
-    }
-    while (it.hasNext()) {
-      Element e = it.next();
-      double value = e.get();
-      d += value * (value - 2.0 * randomlyAccessed.getQuick(e.index()));
+      distanceSquared = new DistanceSquared(v, v.getLengthSquared());
+      forEachNonZero(distanceSquared);
     }
     //assert d > -1.0e-9; // round-off errors should never be too far off!
-    return Math.abs(d);
+    return Math.abs(distanceSquared.result);
   }
 
   @Override
@@ -552,18 +550,7 @@ public abstract class AbstractVector implements Vector {
       throw new CardinalityException(size, other.size());
     }
 
-    /* special case: we only need to iterate over the non-zero elements of the vector to add */
-    if (Functions.PLUS.equals(function) || Functions.PLUS_ABS.equals(function)) {
-      Iterator<Vector.Element> nonZeroElements = other.iterateNonZero();
-      while (nonZeroElements.hasNext()) {
-        Vector.Element e = nonZeroElements.next();
-        setQuick(e.index(), function.apply(getQuick(e.index()), e.get()));
-      }
-    } else {
-      for (int i = 0; i < size; i++) {
-        setQuick(i, function.apply(getQuick(i), other.getQuick(i)));
-      }
-    }
+    VectorBinaryOperations.assign(this, other, function);
     return this;
   }
 
@@ -648,6 +635,90 @@ public abstract class AbstractVector implements Vector {
   }
 
 
+  /** sums the products of the visited elements with the elements of another vector */
+  private static final class DotProduct implements IntDoubleProcedure {
+
+    private final Vector other;
+    private double result;
+
+    DotProduct(Vector other) {
+      this.other = other;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += value * other.getQuick(index);
+      return true;
+    }
+  }
+
+  private static final class SumOfSquares implements IntDoubleProcedure {
+
+    private double result;
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += value * value;
+      return true;
+    }
+  }
+
+  private static final class SumOfAbs implements IntDoubleProcedure {
+
+    private double result;
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += Math.abs(value);
+      return true;
+    }
+  }
+
+  private static final class MaxAbs implements IntDoubleProcedure {
+
+    private double result;
+
+    @Override
+    public boolean apply(int index, double value) {
+      result = Math.max(result, Math.abs(value));
+      return true;
+    }
+  }
+
+  private static final class SumOfPowers implements IntDoubleProcedure {
+
+    private final double power;
+    private double result;
+
+    SumOfPowers(double power) {
+      this.power = power;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += Math.pow(value, power);
+      return true;
+    }
+  }
+
+  /** adds v * (v - 2 * w) for the visited elements v and the elements w of another vector to the initial result */
+  private static final class DistanceSquared implements IntDoubleProcedure {
+
+    private final Vector other;
+    private double result;
+
+    DistanceSquared(Vector other, double initialResult) {
+      this.other = other;
+      this.result = initialResult;
+    }
+
+    @Override
+    public boolean apply(int index, double value) {
+      result += value * (value - 2.0 * other.getQuick(index));
+      return true;
+    }
+  }
+
   protected final class LocalElement implements Element {
     int index;
 
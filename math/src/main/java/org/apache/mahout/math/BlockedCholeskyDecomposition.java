@@ -0,0 +1,245 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * <p>Cholesky decomposition without pivoting of a dense symmetric positive semi-definite matrix A into a lower
+ * triangular matrix L with L L' = A, computing the same factor as {@code new CholeskyDecomposition(a, false)}.</p>
+ *
+ * <p>The matrix is copied into a single row-major array and factored right-looking, {@link #BLOCK_SIZE} columns at a
+ * time: each panel of columns is factored, then its outer product is subtracted from the trailing submatrix. That
+ * update and the triangular solves work on blocks of rows or columns that run concurrently for large matrices, on the
+ * threads that {@link Matrix#times(Matrix)} uses.</p>
+ *
+ * <p>Columns whose diagonal element is not larger than 1e-10 times their largest absolute element are degenerate and
+ * set to zero, the matrix is then reported not to be positive definite.</p>
+ */
+public class BlockedCholeskyDecomposition {
+
+  /** the number of columns factored before the trailing submatrix is updated */
+  static final int BLOCK_SIZE = 64;
+
+  private static final long PARALLELISM_THRESHOLD = 1L << 18;
+
+  private final int n;
+  /** L, row after row */
+  private final double[] l;
+  private boolean isPositiveDefinite = true;
+
+  public BlockedCholeskyDecomposition(Matrix a) {
+    n = a.rowSize();
+    // must be square
+    Preconditions.checkArgument(n == a.columnSize(), "Matrix of %s x %s is not square", n, a.columnSize());
+    l = toArray(a);
+    decompose();
+  }
+
+  private void decompose() {
+    for (int fromColumn = 0; fromColumn < n; fromColumn += BLOCK_SIZE) {
+      int toColumn = Math.min(n, fromColumn + BLOCK_SIZE);
+      factorPanel(fromColumn, toColumn);
+      updateTrailingSubmatrix(fromColumn, toColumn);
+    }
+    // set the upper triangle to 0
+    for (int row = 0; row < n; row++) {
+      for (int column = row + 1; column < n; column++) {
+        l[row * n + column] = 0.0;
+      }
+    }
+  }
+
+  /** column by column on all rows below the diagonal, as the panel is narrow */
+  private void factorPanel(int fromColumn, int toColumn) {
+    for (int k = fromColumn; k < toColumn; k++) {
+      double max = 0.0;
+      for (int row = k; row < n; row++) {
+        max = Math.max(max, Math.abs(l[row * n + k]));
+      }
+      double akk = l[k * n + k];
+      if (akk <= 1.0e-10 * max) {
+        // degenerate column case, set all to zero, no need to subtract from the remaining columns
+        for (int row = k; row < n; row++) {
+          l[row * n + k] = 0.0;
+        }
+        isPositiveDefinite = false;
+        continue;
+      }
+
+      akk = Math.sqrt(akk);
+      l[k * n + k] = akk;
+      for (int row = k + 1; row < n; row++) {
+        l[row * n + k] /= akk;
+      }
+      for (int column = k + 1; column < toColumn; column++) {
+        double lck = l[column * n + k];
+        if (lck != 0.0) {
+          for (int row = column; row < n; row++) {
+            l[row * n + column] -= l[row * n + k] * lck;
+          }
+        }
+      }
+    }
+  }
+
+  /** subtracts L21 L21' from the lower triangle of the trailing submatrix, L21 being the panel below its diagonal */
+  private void updateTrailingSubmatrix(final int fromColumn, final int toColumn) {
+    final int trailing = n - toColumn;
+    long multiplyAdds = (long) trailing * trailing * (toColumn - fromColumn) / 2;
+    ParallelBlocks.run(trailing, multiplyAdds, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            for (int row = toColumn + fromRow; row < toColumn + toRow; row++) {
+              int rowOffset = row * n;
+              for (int column = toColumn; column <= row; column++) {
+                int columnOffset = column * n;
+                double sum = 0.0;
+                for (int k = fromColumn; k < toColumn; k++) {
+                  sum += l[rowOffset + k] * l[columnOffset + k];
+                }
+                l[rowOffset + column] -= sum;
+              }
+            }
+          }
+        });
+  }
+
+  public boolean isPositiveDefinite() {
+    return isPositiveDefinite;
+  }
+
+  public Matrix getL() {
+    return new RowMajorDenseMatrix(n, n, l.clone(), true);
+  }
+
+  /**
+   * Compute inv(L) * z efficiently, rows of the result that correspond to zero diagonal elements of L are zero.
+   */
+  public Matrix solveLeft(Matrix z) {
+    if (z.rowSize() != n) {
+      throw new CardinalityException(n, z.rowSize());
+    }
+    final int columns = z.columnSize();
+    final double[] x = toArray(z);
+    // forward substitution on all columns of z at once, the columns are independent
+    ParallelBlocks.run(columns, (long) n * n * columns / 2, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromColumn, int toColumn) {
+            for (int k = 0; k < n; k++) {
+              int kOffset = k * columns;
+              for (int i = 0; i < k; i++) {
+                double lki = l[k * n + i];
+                if (lki != 0.0) {
+                  int iOffset = i * columns;
+                  for (int column = fromColumn; column < toColumn; column++) {
+                    x[kOffset + column] -= x[iOffset + column] * lki;
+                  }
+                }
+              }
+              double lkk = l[k * n + k];
+              for (int column = fromColumn; column < toColumn; column++) {
+                x[kOffset + column] = lkk != 0.0 ? x[kOffset + column] / lkk : 0.0;
+              }
+            }
+          }
+        });
+    return new RowMajorDenseMatrix(n, columns, x, true);
+  }
+
+  /**
+   * Compute z * inv(L') efficiently, columns of the result that correspond to zero diagonal elements of L are zero.
+   */
+  public Matrix solveRight(Matrix z) {
+    if (z.columnSize() != n) {
+      throw new CardinalityException(n, z.columnSize());
+    }
+    int rows = z.rowSize();
+    final double[] x = toArray(z);
+    // every row y of the result solves L y' = z', by forward substitution
+    ParallelBlocks.run(rows, (long) rows * n * n / 2, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+              int rowOffset = row * n;
+              for (int k = 0; k < n; k++) {
+                int kOffset = k * n;
+                double sum = x[rowOffset + k];
+                for (int i = 0; i < k; i++) {
+                  sum -= x[rowOffset + i] * l[kOffset + i];
+                }
+                double lkk = l[kOffset + k];
+                x[rowOffset + k] = lkk != 0.0 ? sum / lkk : 0.0;
+              }
+            }
+          }
+        });
+    return new RowMajorDenseMatrix(rows, n, x, true);
+  }
+
+  /**
+   * Solves A x = b for a positive definite A, by solving L y = b and L' x = y
+   */
+  public Matrix solve(Matrix b) {
+    Preconditions.checkState(isPositiveDefinite, "Matrix is not positive definite");
+    if (b.rowSize() != n) {
+      throw new CardinalityException(n, b.rowSize());
+    }
+    final int columns = b.columnSize();
+    final double[] x = toArray(solveLeft(b));
+    // back substitution of L' x = y on all columns of y at once
+    ParallelBlocks.run(columns, (long) n * n * columns / 2, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromColumn, int toColumn) {
+            for (int k = n - 1; k >= 0; k--) {
+              int kOffset = k * columns;
+              double lkk = l[k * n + k];
+              for (int column = fromColumn; column < toColumn; column++) {
+                x[kOffset + column] /= lkk;
+              }
+              for (int i = 0; i < k; i++) {
+                double lki = l[k * n + i];
+                if (lki != 0.0) {
+                  int iOffset = i * columns;
+                  for (int column = fromColumn; column < toColumn; column++) {
+                    x[iOffset + column] -= x[kOffset + column] * lki;
+                  }
+                }
+              }
+            }
+          }
+        });
+    return new RowMajorDenseMatrix(n, columns, x, true);
+  }
+
+  /** the elements of the matrix, row after row */
+  private static double[] toArray(Matrix matrix) {
+    int columns = matrix.columnSize();
+    double[] values = new double[matrix.rowSize() * columns];
+    for (int row = 0; row < matrix.rowSize(); row++) {
+      for (int column = 0; column < columns; column++) {
+        values[row * columns + column] = matrix.getQuick(row, column);
+      }
+    }
+    return values;
+  }
+}
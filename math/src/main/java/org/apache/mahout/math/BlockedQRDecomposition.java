@@ -0,0 +1,247 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Locale;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * <p>QR decomposition of an m x n matrix A with m >= n by Householder reflections, computing the same factors as
+ * {@link QRDecomposition}.</p>
+ *
+ * <p>The columns of the matrix are copied into arrays and reduced {@link #BLOCK_SIZE} at a time: the reflections of
+ * a panel of columns are computed on the panel alone, then applied to all remaining columns together, so that every
+ * remaining column is read once per panel instead of once per reflection. The remaining columns, the columns of Q and
+ * the columns of the right hand sides in {@link #solve(Matrix)} are independent of each other and are processed
+ * concurrently for large matrices, on the threads that {@link Matrix#times(Matrix)} uses.</p>
+ */
+public class BlockedQRDecomposition {
+
+  /** the number of columns reduced before their reflections are applied to the remaining columns */
+  static final int BLOCK_SIZE = 32;
+
+  private static final long PARALLELISM_THRESHOLD = 1L << 18;
+
+  private final int rows;
+  private final int columns;
+  /** R above the diagonal, the Householder vectors on and below it, column by column */
+  private final double[][] qr;
+  private final double[] rDiag;
+
+  /**
+   * @throws IllegalArgumentException if the matrix has fewer rows than columns
+   */
+  public BlockedQRDecomposition(Matrix a) {
+    rows = a.rowSize();
+    columns = a.columnSize();
+    Preconditions.checkArgument(rows >= columns, "Matrix of %s x %s has fewer rows than columns", rows, columns);
+    qr = new double[columns][rows];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        qr[column][row] = a.getQuick(row, column);
+      }
+    }
+    rDiag = new double[columns];
+
+    for (int fromColumn = 0; fromColumn < columns; fromColumn += BLOCK_SIZE) {
+      int toColumn = Math.min(columns, fromColumn + BLOCK_SIZE);
+      for (int k = fromColumn; k < toColumn; k++) {
+        reduce(k, toColumn);
+      }
+      applyReflections(fromColumn, toColumn, qr, toColumn, columns, (long) rows * (columns - toColumn));
+    }
+  }
+
+  /** computes the k-th reflection and applies it to the columns after k up to the end of the panel */
+  private void reduce(int k, int toColumn) {
+    double[] v = qr[k];
+    // 2-norm of the k-th column without under/overflow
+    double nrm = 0;
+    for (int i = k; i < rows; i++) {
+      nrm = Algebra.hypot(nrm, v[i]);
+    }
+    if (nrm != 0.0) {
+      // form the k-th Householder vector
+      if (v[k] < 0) {
+        nrm = -nrm;
+      }
+      for (int i = k; i < rows; i++) {
+        v[i] /= nrm;
+      }
+      v[k] += 1;
+      for (int j = k + 1; j < toColumn; j++) {
+        reflect(v, k, qr[j]);
+      }
+    }
+    rDiag[k] = -nrm;
+  }
+
+  /** applies the k-th reflection, stored in v, to the vector x */
+  private void reflect(double[] v, int k, double[] x) {
+    double s = 0;
+    for (int i = k; i < rows; i++) {
+      s += v[i] * x[i];
+    }
+    s = -s / v[k];
+    for (int i = k; i < rows; i++) {
+      x[i] += s * v[i];
+    }
+  }
+
+  /**
+   * applies the reflections fromReflection to toReflection - 1, in this order, to the given vectors from fromVector to
+   * toVector - 1
+   */
+  private void applyReflections(final int fromReflection, final int toReflection, final double[][] vectors,
+                                final int fromVector, int toVector, long size) {
+    long multiplyAdds = 2L * size * (toReflection - fromReflection);
+    ParallelBlocks.run(toVector - fromVector, multiplyAdds, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int from, int to) {
+            for (int j = fromVector + from; j < fromVector + to; j++) {
+              for (int k = fromReflection; k < toReflection; k++) {
+                if (rDiag[k] != 0.0) {
+                  reflect(qr[k], k, vectors[j]);
+                }
+              }
+            }
+          }
+        });
+  }
+
+  /**
+   * Generates and returns the (economy-sized) orthogonal factor <tt>Q</tt>.
+   *
+   * @return <tt>Q</tt>
+   */
+  public Matrix getQ() {
+    final double[][] qColumns = new double[columns][rows];
+    ParallelBlocks.run(columns, (long) rows * columns * columns, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromColumn, int toColumn) {
+            for (int j = fromColumn; j < toColumn; j++) {
+              // Q e_j, the reflections after the j-th leave e_j unchanged
+              double[] column = qColumns[j];
+              column[j] = 1;
+              for (int k = j; k >= 0; k--) {
+                if (rDiag[k] != 0.0) {
+                  reflect(qr[k], k, column);
+                }
+              }
+            }
+          }
+        });
+    Matrix q = new DenseMatrix(rows, columns);
+    for (int j = 0; j < columns; j++) {
+      for (int i = 0; i < rows; i++) {
+        q.setQuick(i, j, qColumns[j][i]);
+      }
+    }
+    return q;
+  }
+
+  /**
+   * Returns the upper triangular factor, <tt>R</tt>.
+   *
+   * @return <tt>R</tt>
+   */
+  public Matrix getR() {
+    Matrix r = new DenseMatrix(columns, columns);
+    for (int j = 0; j < columns; j++) {
+      for (int i = 0; i < j; i++) {
+        r.setQuick(i, j, qr[j][i]);
+      }
+      r.setQuick(j, j, rDiag[j]);
+    }
+    return r;
+  }
+
+  /**
+   * Returns whether the matrix <tt>A</tt> has full rank.
+   *
+   * @return true if <tt>R</tt>, and hence <tt>A</tt>, has full rank.
+   */
+  public boolean hasFullRank() {
+    for (double d : rDiag) {
+      if (d == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Least squares solution of <tt>A*X = B</tt>; <tt>returns X</tt>. Q is not formed, its transpose is applied to the
+   * columns of B as reflections.
+   *
+   * @param b A matrix with as many rows as <tt>A</tt> and any number of columns.
+   * @return <tt>X</tt> that minimizes the two norm of <tt>Q*R*X - B</tt>.
+   * @throws CardinalityException if <tt>B.rows() != A.rows()</tt>.
+   */
+  public Matrix solve(Matrix b) {
+    if (b.rowSize() != rows) {
+      throw new CardinalityException(rows, b.rowSize());
+    }
+    int bColumns = b.columnSize();
+    final double[][] y = new double[bColumns][rows];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < bColumns; column++) {
+        y[column][row] = b.getQuick(row, column);
+      }
+    }
+    // Q' B
+    applyReflections(0, columns, y, 0, bColumns, (long) rows * bColumns);
+
+    // R X = Q' B by back substitution, the columns of X are independent
+    ParallelBlocks.run(bColumns, (long) columns * columns * bColumns / 2, PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromColumn, int toColumn) {
+            for (int c = fromColumn; c < toColumn; c++) {
+              double[] x = y[c];
+              for (int k = columns - 1; k >= 0; k--) {
+                x[k] /= rDiag[k];
+                double[] rColumn = qr[k];
+                for (int i = 0; i < k; i++) {
+                  x[i] -= x[k] * rColumn[i];
+                }
+              }
+            }
+          }
+        });
+
+    Matrix x = new DenseMatrix(columns, bColumns);
+    for (int column = 0; column < bColumns; column++) {
+      for (int row = 0; row < columns; row++) {
+        x.setQuick(row, column, y[column][row]);
+      }
+    }
+    return x;
+  }
+
+  /**
+   * Returns a rough string rendition of a QR.
+   */
+  @Override
+  public String toString() {
+    return String.format(Locale.ENGLISH, "QR(%d,%d,fullRank=%s)", columns, rows, hasFullRank());
+  }
+}
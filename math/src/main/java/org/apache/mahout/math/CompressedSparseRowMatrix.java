@@ -0,0 +1,394 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * <p>Sparse matrix in compressed sparse row layout: the column indices and values of all non-zero elements are kept
+ * row after row in two arrays, and a third array holds where each row starts.</p>
+ *
+ * <p>The layout is fixed once the matrix is built, so only its non-zero elements can be changed. In exchange
+ * {@link #times(Vector)} and {@link #timesSquared(Vector)}, which the Lanczos and conjugate gradient solvers spend
+ * their time in, run over contiguous arrays and use all cores for large matrices. {@link #like()} returns a
+ * {@link SparseRowMatrix}.</p>
+ */
+public class CompressedSparseRowMatrix extends AbstractMatrix {
+
+  private int[] rowStarts;
+  private int[] indices;
+  private double[] values;
+
+  /**
+   * Construct a matrix directly from its layout, without copying the arrays
+   *
+   * @param rowStarts
+   *          rows + 1 positions, row i consists of the elements from rowStarts[i] to rowStarts[i + 1] - 1
+   * @param indices
+   *          the column indices of the non-zero elements, increasing within each row
+   * @param values
+   *          the values of the non-zero elements
+   */
+  public CompressedSparseRowMatrix(int rows, int columns, int[] rowStarts, int[] indices, double[] values) {
+    super(rows, columns);
+    Preconditions.checkArgument(rowStarts.length == rows + 1, "Expected %s row starts but got %s", rows + 1,
+        rowStarts.length);
+    Preconditions.checkArgument(indices.length == values.length, "Got %s indices but %s values", indices.length,
+        values.length);
+    Preconditions.checkArgument(rowStarts[0] == 0 && rowStarts[rows] == values.length,
+        "Row starts do not span the %s non-zero elements", values.length);
+    this.rowStarts = rowStarts;
+    this.indices = indices;
+    this.values = values;
+  }
+
+  /**
+   * Construct a copy of the non-zero elements of the given matrix
+   */
+  public CompressedSparseRowMatrix(Matrix other) {
+    super(other.rowSize(), other.columnSize());
+    rowStarts = new int[rows + 1];
+    int numNonZeros = 0;
+    for (int row = 0; row < rows; row++) {
+      numNonZeros += other.viewRow(row).getNumNondefaultElements();
+    }
+    indices = new int[numNonZeros];
+    values = new double[numNonZeros];
+    int k = 0;
+    for (int row = 0; row < rows; row++) {
+      rowStarts[row] = k;
+      Vector vector = other.viewRow(row);
+      if (!vector.isSequentialAccess()) {
+        vector = new SequentialAccessSparseVector(vector);
+      }
+      Iterator<Vector.Element> nonZeroElements = vector.iterateNonZero();
+      while (nonZeroElements.hasNext()) {
+        Vector.Element element = nonZeroElements.next();
+        indices[k] = element.index();
+        values[k++] = element.get();
+      }
+    }
+    rowStarts[rows] = k;
+    /* dense rows might have fewer non-zero than non-default elements */
+    if (k < numNonZeros) {
+      indices = Arrays.copyOf(indices, k);
+      values = Arrays.copyOf(values, k);
+    }
+  }
+
+  @Override
+  public Matrix clone() {
+    CompressedSparseRowMatrix clone = (CompressedSparseRowMatrix) super.clone();
+    clone.rowStarts = rowStarts.clone();
+    clone.indices = indices.clone();
+    clone.values = values.clone();
+    return clone;
+  }
+
+  /** the position of the element in the given row and column, or a negative number if it is zero */
+  private int find(int row, int column) {
+    return Arrays.binarySearch(indices, rowStarts[row], rowStarts[row + 1], column);
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    int position = find(row, column);
+    return position < 0 ? 0.0 : values[position];
+  }
+
+  /**
+   * @throws UnsupportedOperationException if the element is zero in the layout of this matrix
+   */
+  @Override
+  public void setQuick(int row, int column, double value) {
+    int position = find(row, column);
+    if (position < 0) {
+      throw new UnsupportedOperationException("Cannot add element " + row + ", " + column
+          + " to a compressed sparse row matrix");
+    }
+    values[position] = value;
+  }
+
+  /** only changes elements that differ, so that zeros can be assigned to zero elements */
+  private void assign(int row, int column, double value) {
+    if (getQuick(row, column) != value) {
+      setQuick(row, column, value);
+    }
+  }
+
+  @Override
+  public Matrix like() {
+    return like(rowSize(), columnSize());
+  }
+
+  @Override
+  public Matrix like(int rows, int columns) {
+    return new SparseRowMatrix(rows, columns);
+  }
+
+  @Override
+  public int[] getNumNondefaultElements() {
+    int numNonEmptyRows = 0;
+    int maxRowLength = 0;
+    for (int row = 0; row < rows; row++) {
+      int rowLength = rowStarts[row + 1] - rowStarts[row];
+      if (rowLength > 0) {
+        numNonEmptyRows++;
+        maxRowLength = Math.max(maxRowLength, rowLength);
+      }
+    }
+    return new int[] { numNonEmptyRows, maxRowLength };
+  }
+
+  @Override
+  public Matrix viewPart(int[] offset, int[] size) {
+    return viewPart(offset[ROW], size[ROW], offset[COL], size[COL]);
+  }
+
+  @Override
+  public Matrix viewPart(int rowOffset, int rowsRequested, int columnOffset, int columnsRequested) {
+    if (rowOffset < 0) {
+      throw new IndexException(rowOffset, rowSize());
+    }
+    if (rowOffset + rowsRequested > rowSize()) {
+      throw new IndexException(rowOffset + rowsRequested, rowSize());
+    }
+    if (columnOffset < 0) {
+      throw new IndexException(columnOffset, columnSize());
+    }
+    if (columnOffset + columnsRequested > columnSize()) {
+      throw new IndexException(columnOffset + columnsRequested, columnSize());
+    }
+    return new MatrixView(this, new int[]{rowOffset, columnOffset}, new int[]{rowsRequested, columnsRequested});
+  }
+
+  @Override
+  public Vector viewRow(int row) {
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    return new RowVector(row);
+  }
+
+  @Override
+  public Matrix assignColumn(int column, Vector other) {
+    if (rowSize() != other.size()) {
+      throw new CardinalityException(rowSize(), other.size());
+    }
+    if (column < 0 || column >= columnSize()) {
+      throw new IndexException(column, columnSize());
+    }
+    for (int row = 0; row < rows; row++) {
+      assign(row, column, other.getQuick(row));
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assignRow(int row, Vector other) {
+    if (columnSize() != other.size()) {
+      throw new CardinalityException(columnSize(), other.size());
+    }
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    for (int column = 0; column < columns; column++) {
+      assign(row, column, other.getQuick(column));
+    }
+    return this;
+  }
+
+  @Override
+  public Vector times(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    return new DenseVector(MatrixMultiplication.csrTimes(rowStarts, indices, values, toArray(v)), true);
+  }
+
+  @Override
+  public Vector timesSquared(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    return new DenseVector(MatrixMultiplication.csrTimesSquared(rowStarts, indices, values, toArray(v), columns),
+        true);
+  }
+
+  private static double[] toArray(Vector v) {
+    double[] x = new double[v.size()];
+    Iterator<Vector.Element> nonZeroElements = v.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      Vector.Element element = nonZeroElements.next();
+      x[element.index()] = element.get();
+    }
+    return x;
+  }
+
+  /**
+   * A row of the matrix, setting elements that are zero in the layout of the matrix is not supported
+   */
+  private final class RowVector extends AbstractVector {
+
+    private final int row;
+
+    private RowVector(int row) {
+      super(columns);
+      this.row = row;
+    }
+
+    @Override
+    protected Matrix matrixLike(int rows, int columns) {
+      return new SparseRowMatrix(rows, columns);
+    }
+
+    /** the clone is a copy that does not share the storage of the matrix */
+    @Override
+    public Vector clone() {
+      return new SequentialAccessSparseVector(this);
+    }
+
+    @Override
+    public boolean isDense() {
+      return false;
+    }
+
+    @Override
+    public boolean isSequentialAccess() {
+      return true;
+    }
+
+    @Override
+    public double getQuick(int index) {
+      return CompressedSparseRowMatrix.this.getQuick(row, index);
+    }
+
+    @Override
+    public void setQuick(int index, double value) {
+      CompressedSparseRowMatrix.this.setQuick(row, index, value);
+    }
+
+    @Override
+    public Vector like() {
+      return new SequentialAccessSparseVector(size());
+    }
+
+    @Override
+    public int getNumNondefaultElements() {
+      return rowStarts[row + 1] - rowStarts[row];
+    }
+
+    @Override
+    public double dot(Vector x) {
+      if (size() != x.size()) {
+        throw new CardinalityException(size(), x.size());
+      }
+      if (!x.isDense()) {
+        return super.dot(x);
+      }
+      double result = 0;
+      for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+        result += values[k] * x.getQuick(indices[k]);
+      }
+      return result;
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+      return new AllIterator();
+    }
+
+    @Override
+    public Iterator<Element> iterateNonZero() {
+      return new NonZeroIterator();
+    }
+
+    private final class NonZeroIterator extends AbstractIterator<Element> {
+
+      private final RowElement element = new RowElement();
+
+      private NonZeroIterator() {
+        element.position = rowStarts[row] - 1;
+      }
+
+      @Override
+      protected Element computeNext() {
+        element.position++;
+        if (element.position >= rowStarts[row + 1]) {
+          return endOfData();
+        }
+        element.index = indices[element.position];
+        return element;
+      }
+    }
+
+    private final class AllIterator extends AbstractIterator<Element> {
+
+      private final RowElement element = new RowElement();
+      private int nextNonZero = rowStarts[row];
+
+      private AllIterator() {
+        element.index = -1;
+      }
+
+      @Override
+      protected Element computeNext() {
+        if (element.index + 1 >= size()) {
+          return endOfData();
+        }
+        element.index++;
+        if (nextNonZero < rowStarts[row + 1] && indices[nextNonZero] == element.index) {
+          element.position = nextNonZero++;
+        } else {
+          element.position = -1;
+        }
+        return element;
+      }
+    }
+
+    private final class RowElement implements Element {
+
+      private int index;
+      /** the position of the element in the layout of the matrix, or -1 if it is zero */
+      private int position;
+
+      @Override
+      public double get() {
+        return position < 0 ? 0.0 : values[position];
+      }
+
+      @Override
+      public int index() {
+        return index;
+      }
+
+      @Override
+      public void set(double value) {
+        if (position < 0) {
+          setQuick(index, value);
+        } else {
+          values[position] = value;
+        }
+      }
+    }
+  }
+}
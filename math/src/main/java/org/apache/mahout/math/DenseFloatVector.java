@@ -0,0 +1,234 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.collect.AbstractIterator;
+
+/**
+ * Implements vector as an array of floats. Values set are rounded to float precision, which halves the memory of
+ * {@link DenseVector} where that precision suffices, e.g. for topic models or cluster centroids.
+ */
+public class DenseFloatVector extends AbstractVector {
+
+  private float[] values;
+
+  /** For serialization purposes only */
+  public DenseFloatVector() {
+    super(0);
+  }
+
+  /** Construct a new instance using provided values */
+  public DenseFloatVector(float[] values) {
+    this(values, false);
+  }
+
+  public DenseFloatVector(float[] values, boolean shallowCopy) {
+    super(values.length);
+    this.values = shallowCopy ? values : values.clone();
+  }
+
+  /** Construct a new instance of the given cardinality */
+  public DenseFloatVector(int cardinality) {
+    super(cardinality);
+    this.values = new float[cardinality];
+  }
+
+  /**
+   * Copy-constructor, rounds the values of the given vector to float precision
+   * @param vector
+   */
+  public DenseFloatVector(Vector vector) {
+    super(vector.size());
+    values = new float[vector.size()];
+    Iterator<Element> it = vector.iterateNonZero();
+    while (it.hasNext()) {
+      Element e = it.next();
+      values[e.index()] = (float) e.get();
+    }
+  }
+
+  @Override
+  protected Matrix matrixLike(int rows, int columns) {
+    return new DenseFloatMatrix(rows, columns);
+  }
+
+  @Override
+  public DenseFloatVector clone() {
+    return new DenseFloatVector(values.clone(), true);
+  }
+
+  /**
+   * @return true
+   */
+  @Override
+  public boolean isDense() {
+    return true;
+  }
+
+  /**
+   * @return true
+   */
+  @Override
+  public boolean isSequentialAccess() {
+    return true;
+  }
+
+  @Override
+  public double getQuick(int index) {
+    return values[index];
+  }
+
+  @Override
+  public DenseFloatVector like() {
+    return new DenseFloatVector(size());
+  }
+
+  @Override
+  public void setQuick(int index, double value) {
+    lengthSquared = -1.0;
+    values[index] = (float) value;
+  }
+
+  @Override
+  public Vector assign(double value) {
+    this.lengthSquared = -1;
+    Arrays.fill(values, (float) value);
+    return this;
+  }
+
+  @Override
+  public int getNumNondefaultElements() {
+    return values.length;
+  }
+
+  @Override
+  public double dot(Vector x) {
+    if (x instanceof DenseFloatVector) {
+      if (size() != x.size()) {
+        throw new CardinalityException(size(), x.size());
+      }
+      float[] otherValues = ((DenseFloatVector) x).values;
+      double result = 0.0;
+      for (int i = 0; i < values.length; i++) {
+        result += (double) values[i] * otherValues[i];
+      }
+      return result;
+    }
+    return super.dot(x);
+  }
+
+  @Override
+  public double getLengthSquared() {
+    if (lengthSquared >= 0.0) {
+      return lengthSquared;
+    }
+    double result = 0.0;
+    for (float value : values) {
+      result += (double) value * value;
+    }
+    lengthSquared = result;
+    return result;
+  }
+
+  /**
+   * Returns an iterator that traverses the non-zero elements of this Vector from 0 to cardinality-1, in that order.
+   */
+  @Override
+  public Iterator<Element> iterateNonZero() {
+    return new NonDefaultIterator();
+  }
+
+  @Override
+  public Iterator<Element> iterator() {
+    return new AllIterator();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o instanceof DenseFloatVector) {
+      return Arrays.equals(values, ((DenseFloatVector) o).values);
+    }
+    return super.equals(o);
+  }
+
+  private final class NonDefaultIterator extends AbstractIterator<Element> {
+
+    private final DenseElement element = new DenseElement();
+    private int index = 0;
+
+    @Override
+    protected Element computeNext() {
+      while (index < size() && values[index] == 0.0f) {
+        index++;
+      }
+      if (index < size()) {
+        element.index = index;
+        index++;
+        return element;
+      } else {
+        return endOfData();
+      }
+    }
+
+  }
+
+  private final class AllIterator extends AbstractIterator<Element> {
+
+    private final DenseElement element = new DenseElement();
+
+    private AllIterator() {
+      element.index = -1;
+    }
+
+    @Override
+    protected Element computeNext() {
+      if (element.index + 1 < size()) {
+        element.index++;
+        return element;
+      } else {
+        return endOfData();
+      }
+    }
+
+  }
+
+  private final class DenseElement implements Element {
+
+    int index;
+
+    @Override
+    public double get() {
+      return values[index];
+    }
+
+    @Override
+    public int index() {
+      return index;
+    }
+
+    @Override
+    public void set(double value) {
+      lengthSquared = -1;
+      values[index] = (float) value;
+    }
+  }
+
+}
@@ -40,6 +40,27 @@ public class DenseMatrix extends AbstractMatrix {
     }
   }
   
+  /**
+   * Construct a matrix from the given values, optionally without copying them
+   *
+   * @param values
+   *          a double[][]
+   * @param shallowCopy
+   *          directly use the given rows as the storage of this matrix
+   */
+  public DenseMatrix(double[][] values, boolean shallowCopy) {
+    // without rows there is no row to take the number of columns from
+    super(values.length, values.length == 0 ? 0 : values[0].length);
+    if (shallowCopy) {
+      this.values = values;
+    } else {
+      this.values = new double[values.length][];
+      for (int i = 0; i < values.length; i++) {
+        this.values[i] = values[i].clone();
+      }
+    }
+  }
+
   /**
    * Constructs an empty matrix of the given size.
    * @param rows  The number of rows in the result.
@@ -107,6 +128,25 @@ public class DenseMatrix extends AbstractMatrix {
     return new MatrixView(this, new int[]{rowOffset, columnOffset}, new int[]{rowsRequested, columnsRequested});
   }
 
+  @Override
+  public Matrix times(Matrix other) {
+    if (columnSize() != other.rowSize()) {
+      throw new CardinalityException(columnSize(), other.rowSize());
+    }
+    if (other instanceof DenseMatrix) {
+      return MatrixMultiplication.denseTimesDense(values, ((DenseMatrix) other).values, other.columnSize());
+    }
+    if (other instanceof SparseRowMatrix) {
+      return MatrixMultiplication.denseTimesSparseRows(values, other);
+    }
+    return super.times(other);
+  }
+
+  /** the rows of this matrix, to be used by the kernels in {@link MatrixMultiplication} only */
+  double[][] rows() {
+    return values;
+  }
+
   @Override
   public Matrix assign(double value) {
     for (int row = 0; row < rowSize(); row++) {
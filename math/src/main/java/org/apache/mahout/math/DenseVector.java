@@ -22,7 +22,7 @@ import java.util.Iterator;
 
 import com.google.common.collect.AbstractIterator;
 import org.apache.mahout.math.function.DoubleDoubleFunction;
-import org.apache.mahout.math.function.PlusMult;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 /** Implements vector as an array of doubles */
 public class DenseVector extends AbstractVector {
@@ -133,8 +133,7 @@ public class DenseVector extends AbstractVector {
     if (size() != other.size()) {
       throw new CardinalityException(size(), other.size());
     }
-    // is there some other way to know if function.apply(0, x) = x for all x?
-    if (function instanceof PlusMult) {
+    if (function.isRightZeroIdentity()) {
       Iterator<Element> it = other.iterateNonZero();
       Element e;
       while (it.hasNext() && (e = it.next()) != null) {
@@ -183,6 +182,28 @@ public class DenseVector extends AbstractVector {
     return new NonDefaultIterator();
   }
 
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != 0.0 && !procedure.apply(i, values[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int getNonZeros(int[] indices, double[] values) {
+    int numNonZeros = 0;
+    for (int i = 0; i < this.values.length; i++) {
+      if (this.values[i] != 0.0) {
+        indices[numNonZeros] = i;
+        values[numNonZeros++] = this.values[i];
+      }
+    }
+    return numNonZeros;
+  }
+
   @Override
   public Iterator<Element> iterator() {
     return new AllIterator();
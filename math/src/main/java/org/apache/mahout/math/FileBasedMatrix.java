@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.io.Closeables;
+
+/**
+ * <p>Dense matrix stored row after row in a file that is mapped into memory, so that it can be larger than the heap.
+ * Pages of the file are loaded by the operating system as they are touched, which makes sequential passes over the
+ * rows, as in the sequential solvers, run at nearly the speed of an in-memory matrix.</p>
+ *
+ * <p>The file starts with a header of four ints: a magic number, the number of rows, the number of columns and a
+ * reserved int, followed by the values as doubles. Files are written with {@link #writeMatrix(File, Matrix)} or
+ * allocated with {@link #create(File, int, int)} and filled through the matrix. Matrices opened read only throw
+ * {@link java.nio.ReadOnlyBufferException} on any change.</p>
+ *
+ * <p>{@link #clone()} and {@link #like()} return matrices on the heap.</p>
+ */
+public final class FileBasedMatrix extends AbstractMatrix {
+
+  static final int MAGIC = 0x4D444D31;
+  static final int HEADER_SIZE = 16;
+
+  private final MappedFileRegion values;
+
+  /**
+   * Maps the matrix in the given file read only
+   */
+  public FileBasedMatrix(File file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Maps the matrix in the given file
+   *
+   * @param writable
+   *          whether changes to the matrix are allowed, they are written through to the file
+   */
+  public FileBasedMatrix(File file, boolean writable) throws IOException {
+    this(file, writable, MappedFileRegion.DEFAULT_SEGMENT_SHIFT);
+  }
+
+  FileBasedMatrix(File file, boolean writable, int segmentShift) throws IOException {
+    this(file, readHeader(file), writable, segmentShift);
+  }
+
+  private FileBasedMatrix(File file, int[] size, boolean writable, int segmentShift) throws IOException {
+    super(size[ROW], size[COL]);
+    RandomAccessFile data = new RandomAccessFile(file, writable ? "rw" : "r");
+    try {
+      values = new MappedFileRegion(data.getChannel(),
+          writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+          HEADER_SIZE, (long) rows * columns * 8L, segmentShift);
+    } finally {
+      Closeables.closeQuietly(data);
+    }
+  }
+
+  private static int[] readHeader(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " does not contain a dense matrix");
+      }
+      int[] size = new int[2];
+      size[ROW] = in.readInt();
+      size[COL] = in.readInt();
+      long expectedLength = HEADER_SIZE + (long) size[ROW] * size[COL] * 8L;
+      if (file.length() < expectedLength) {
+        throw new IOException(file + " is truncated, expected " + expectedLength + " bytes but found "
+            + file.length());
+      }
+      return size;
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
+  /**
+   * Allocates a file for a matrix of the given size that is filled with zeros and maps it for writing
+   */
+  public static FileBasedMatrix create(File file, int rows, int columns) throws IOException {
+    RandomAccessFile data = new RandomAccessFile(file, "rw");
+    boolean threw = true;
+    try {
+      data.setLength(0);
+      data.writeInt(MAGIC);
+      data.writeInt(rows);
+      data.writeInt(columns);
+      data.writeInt(0);
+      data.setLength(HEADER_SIZE + (long) rows * columns * 8L);
+      threw = false;
+    } finally {
+      Closeables.close(data, threw);
+    }
+    return new FileBasedMatrix(file, true);
+  }
+
+  /**
+   * Writes the given matrix to a file that can be mapped by this class, row by row
+   */
+  public static void writeMatrix(File file, Matrix matrix) throws IOException {
+    int columns = matrix.columnSize();
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+    boolean threw = true;
+    try {
+      out.writeInt(MAGIC);
+      out.writeInt(matrix.rowSize());
+      out.writeInt(columns);
+      out.writeInt(0);
+      double[] row = new double[columns];
+      for (int i = 0; i < matrix.rowSize(); i++) {
+        Vector vector = matrix.viewRow(i);
+        if (vector.isDense()) {
+          for (int column = 0; column < columns; column++) {
+            row[column] = vector.getQuick(column);
+          }
+        } else {
+          Arrays.fill(row, 0.0);
+          Iterator<Vector.Element> nonZeroElements = vector.iterateNonZero();
+          while (nonZeroElements.hasNext()) {
+            Vector.Element element = nonZeroElements.next();
+            row[element.index()] = element.get();
+          }
+        }
+        for (double value : row) {
+          out.writeDouble(value);
+        }
+      }
+      threw = false;
+    } finally {
+      Closeables.close(out, threw);
+    }
+  }
+
+  @Override
+  public Matrix clone() {
+    return new DenseMatrix(rows, columns).assign(this);
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    return values.getDouble((long) row * columns + column);
+  }
+
+  @Override
+  public void setQuick(int row, int column, double value) {
+    values.setDouble((long) row * columns + column, value);
+  }
+
+  @Override
+  public Matrix like() {
+    return like(rowSize(), columnSize());
+  }
+
+  @Override
+  public Matrix like(int rows, int columns) {
+    return new DenseMatrix(rows, columns);
+  }
+
+  @Override
+  public Matrix viewPart(int[] offset, int[] size) {
+    return viewPart(offset[ROW], size[ROW], offset[COL], size[COL]);
+  }
+
+  @Override
+  public Matrix viewPart(int rowOffset, int rowsRequested, int columnOffset, int columnsRequested) {
+    if (rowOffset < 0) {
+      throw new IndexException(rowOffset, rowSize());
+    }
+    if (rowOffset + rowsRequested > rowSize()) {
+      throw new IndexException(rowOffset + rowsRequested, rowSize());
+    }
+    if (columnOffset < 0) {
+      throw new IndexException(columnOffset, columnSize());
+    }
+    if (columnOffset + columnsRequested > columnSize()) {
+      throw new IndexException(columnOffset + columnsRequested, columnSize());
+    }
+    return new MatrixView(this, new int[]{rowOffset, columnOffset}, new int[]{rowsRequested, columnsRequested});
+  }
+
+  @Override
+  public Matrix assignColumn(int column, Vector other) {
+    if (rowSize() != other.size()) {
+      throw new CardinalityException(rowSize(), other.size());
+    }
+    if (column < 0 || column >= columnSize()) {
+      throw new IndexException(column, columnSize());
+    }
+    for (int row = 0; row < rows; row++) {
+      setQuick(row, column, other.getQuick(row));
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assignRow(int row, Vector other) {
+    if (columnSize() != other.size()) {
+      throw new CardinalityException(columnSize(), other.size());
+    }
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    for (int column = 0; column < columns; column++) {
+      setQuick(row, column, other.getQuick(column));
+    }
+    return this;
+  }
+
+  @Override
+  public Vector times(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    final double[] x = toArray(v);
+    final double[] y = new double[rows];
+    ParallelBlocks.run(rows, (long) rows * columns, MatrixMultiplication.MATRIX_VECTOR_PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            long offset = (long) fromRow * columns;
+            for (int row = fromRow; row < toRow; row++) {
+              double sum = 0;
+              for (int column = 0; column < columns; column++) {
+                sum += values.getDouble(offset + column) * x[column];
+              }
+              y[row] = sum;
+              offset += columns;
+            }
+          }
+        });
+    return new DenseVector(y, true);
+  }
+
+  /**
+   * A' (A v), computed by blocks of rows in parallel, each accumulating its part of the result separately
+   */
+  @Override
+  public Vector timesSquared(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    final double[] x = toArray(v);
+    return new DenseVector(MatrixMultiplication.sumOverRowBlocks(rows, 2L * rows * columns, columns,
+        new MatrixMultiplication.PartialResultKernel() {
+          @Override
+          public void accumulate(int fromRow, int toRow, double[] y) {
+            long offset = (long) fromRow * columns;
+            for (int row = fromRow; row < toRow; row++) {
+              double d = 0;
+              for (int column = 0; column < columns; column++) {
+                d += values.getDouble(offset + column) * x[column];
+              }
+              if (d != 0.0) {
+                for (int column = 0; column < columns; column++) {
+                  y[column] += d * values.getDouble(offset + column);
+                }
+              }
+              offset += columns;
+            }
+          }
+        }), true);
+  }
+
+  private static double[] toArray(Vector v) {
+    double[] x = new double[v.size()];
+    Iterator<Vector.Element> nonZeroElements = v.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      Vector.Element element = nonZeroElements.next();
+      x[element.index()] = element.get();
+    }
+    return x;
+  }
+}
@@ -0,0 +1,605 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+
+/**
+ * <p>Sparse matrix in compressed sparse row layout stored in a file that is mapped into memory, so that it can be
+ * larger than the heap.</p>
+ *
+ * <p>The file starts with a header of four ints: a magic number, the number of rows, the number of columns and a
+ * reserved int, followed by the number of non-zero elements as a long. Then follow the positions where the rows
+ * start as rows + 1 longs, the column indices of all non-zero elements as ints, padded to a multiple of eight bytes,
+ * and their values as doubles. Files are written with a {@link Writer} or {@link #writeMatrix(File, Matrix)}.</p>
+ *
+ * <p>Only the non-zero elements of the matrix can be changed, and only if it was mapped writable. Rows are views that
+ * iterate over their non-zero elements in the order of their indices. {@link #clone()} and {@link #like()} return
+ * matrices on the heap.</p>
+ */
+public final class FileBasedSparseMatrix extends AbstractMatrix {
+
+  static final int MAGIC = 0x4D53524D;
+  static final int HEADER_SIZE = 24;
+
+  private final MappedFileRegion rowStarts;
+  private final MappedFileRegion indices;
+  private final MappedFileRegion values;
+
+  /**
+   * Maps the matrix in the given file read only
+   */
+  public FileBasedSparseMatrix(File file) throws IOException {
+    this(file, false);
+  }
+
+  /**
+   * Maps the matrix in the given file
+   *
+   * @param writable
+   *          whether the non-zero elements may be changed, changes are written through to the file
+   */
+  public FileBasedSparseMatrix(File file, boolean writable) throws IOException {
+    this(file, writable, MappedFileRegion.DEFAULT_SEGMENT_SHIFT);
+  }
+
+  FileBasedSparseMatrix(File file, boolean writable, int segmentShift) throws IOException {
+    this(file, readHeader(file), writable, segmentShift);
+  }
+
+  private FileBasedSparseMatrix(File file, long[] header, boolean writable, int segmentShift) throws IOException {
+    super((int) header[ROW], (int) header[COL]);
+    long numNonZeros = header[2];
+    RandomAccessFile data = new RandomAccessFile(file, writable ? "rw" : "r");
+    try {
+      FileChannel channel = data.getChannel();
+      long position = HEADER_SIZE;
+      long size = (rows + 1L) * 8L;
+      rowStarts = new MappedFileRegion(channel, FileChannel.MapMode.READ_ONLY, position, size, segmentShift);
+      position += size;
+      size = numNonZeros * 4L;
+      indices = new MappedFileRegion(channel, FileChannel.MapMode.READ_ONLY, position, size, segmentShift);
+      position += padding(size);
+      size = numNonZeros * 8L;
+      values = new MappedFileRegion(channel,
+          writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, position, size, segmentShift);
+    } finally {
+      Closeables.closeQuietly(data);
+    }
+  }
+
+  private static long[] readHeader(File file) throws IOException {
+    DataInputStream in = new DataInputStream(new FileInputStream(file));
+    try {
+      if (in.readInt() != MAGIC) {
+        throw new IOException(file + " does not contain a sparse matrix");
+      }
+      long[] header = new long[3];
+      header[ROW] = in.readInt();
+      header[COL] = in.readInt();
+      in.readInt();
+      header[2] = in.readLong();
+      long expectedLength = length(header[ROW], header[2]);
+      if (file.length() < expectedLength) {
+        throw new IOException(file + " is truncated, expected " + expectedLength + " bytes but found "
+            + file.length());
+      }
+      return header;
+    } finally {
+      Closeables.closeQuietly(in);
+    }
+  }
+
+  /** the size of the indices rounded up to a multiple of eight bytes, so that the values are aligned */
+  private static long padding(long sizeOfIndices) {
+    return (sizeOfIndices + 7L) & ~7L;
+  }
+
+  private static long length(long rows, long numNonZeros) {
+    return HEADER_SIZE + (rows + 1L) * 8L + padding(numNonZeros * 4L) + numNonZeros * 8L;
+  }
+
+  /**
+   * Writes the given matrix to a file that can be mapped by this class, row by row
+   */
+  public static void writeMatrix(File file, Matrix matrix) throws IOException {
+    Writer writer = new Writer(file, matrix.rowSize(), matrix.columnSize());
+    boolean threw = true;
+    try {
+      for (int row = 0; row < matrix.rowSize(); row++) {
+        writer.append(row, matrix.viewRow(row));
+      }
+      threw = false;
+    } finally {
+      Closeables.close(writer, threw);
+    }
+  }
+
+  @Override
+  public Matrix clone() {
+    Matrix clone = new SparseRowMatrix(rows, columns);
+    for (int row = 0; row < rows; row++) {
+      clone.assignRow(row, viewRow(row));
+    }
+    return clone;
+  }
+
+  private long rowStart(int row) {
+    return rowStarts.getLong(row);
+  }
+
+  /** the position of the element in the given row and column, or -(insertion point) - 1 if it is zero */
+  private long find(int row, int column) {
+    long low = rowStart(row);
+    long high = rowStart(row + 1) - 1;
+    while (low <= high) {
+      long middle = (low + high) >>> 1;
+      int index = indices.getInt(middle);
+      if (index < column) {
+        low = middle + 1;
+      } else if (index > column) {
+        high = middle - 1;
+      } else {
+        return middle;
+      }
+    }
+    return -(low + 1);
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    long position = find(row, column);
+    return position < 0 ? 0.0 : values.getDouble(position);
+  }
+
+  /**
+   * @throws UnsupportedOperationException if the element is zero in the file
+   */
+  @Override
+  public void setQuick(int row, int column, double value) {
+    long position = find(row, column);
+    if (position < 0) {
+      throw new UnsupportedOperationException("Cannot add element " + row + ", " + column
+          + " to a file based sparse matrix");
+    }
+    values.setDouble(position, value);
+  }
+
+  @Override
+  public Matrix like() {
+    return like(rowSize(), columnSize());
+  }
+
+  @Override
+  public Matrix like(int rows, int columns) {
+    return new SparseRowMatrix(rows, columns);
+  }
+
+  @Override
+  public int[] getNumNondefaultElements() {
+    int numNonEmptyRows = 0;
+    int maxRowLength = 0;
+    for (int row = 0; row < rows; row++) {
+      int rowLength = (int) (rowStart(row + 1) - rowStart(row));
+      if (rowLength > 0) {
+        numNonEmptyRows++;
+        maxRowLength = Math.max(maxRowLength, rowLength);
+      }
+    }
+    return new int[] { numNonEmptyRows, maxRowLength };
+  }
+
+  @Override
+  public Matrix viewPart(int[] offset, int[] size) {
+    return viewPart(offset[ROW], size[ROW], offset[COL], size[COL]);
+  }
+
+  @Override
+  public Matrix viewPart(int rowOffset, int rowsRequested, int columnOffset, int columnsRequested) {
+    if (rowOffset < 0) {
+      throw new IndexException(rowOffset, rowSize());
+    }
+    if (rowOffset + rowsRequested > rowSize()) {
+      throw new IndexException(rowOffset + rowsRequested, rowSize());
+    }
+    if (columnOffset < 0) {
+      throw new IndexException(columnOffset, columnSize());
+    }
+    if (columnOffset + columnsRequested > columnSize()) {
+      throw new IndexException(columnOffset + columnsRequested, columnSize());
+    }
+    return new MatrixView(this, new int[]{rowOffset, columnOffset}, new int[]{rowsRequested, columnsRequested});
+  }
+
+  @Override
+  public Vector viewRow(int row) {
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    return new RowVector(row);
+  }
+
+  @Override
+  public Matrix assignColumn(int column, Vector other) {
+    if (rowSize() != other.size()) {
+      throw new CardinalityException(rowSize(), other.size());
+    }
+    if (column < 0 || column >= columnSize()) {
+      throw new IndexException(column, columnSize());
+    }
+    for (int row = 0; row < rows; row++) {
+      assign(row, column, other.getQuick(row));
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assignRow(int row, Vector other) {
+    if (columnSize() != other.size()) {
+      throw new CardinalityException(columnSize(), other.size());
+    }
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    for (int column = 0; column < columns; column++) {
+      assign(row, column, other.getQuick(column));
+    }
+    return this;
+  }
+
+  /** only changes elements that differ, so that zeros can be assigned to zero elements */
+  private void assign(int row, int column, double value) {
+    if (getQuick(row, column) != value) {
+      setQuick(row, column, value);
+    }
+  }
+
+  @Override
+  public Vector times(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    final double[] x = toArray(v);
+    final double[] y = new double[rows];
+    ParallelBlocks.run(rows, rowStart(rows), MatrixMultiplication.MATRIX_VECTOR_PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            long start = rowStart(fromRow);
+            for (int row = fromRow; row < toRow; row++) {
+              long end = rowStart(row + 1);
+              double sum = 0;
+              for (long k = start; k < end; k++) {
+                sum += values.getDouble(k) * x[indices.getInt(k)];
+              }
+              y[row] = sum;
+              start = end;
+            }
+          }
+        });
+    return new DenseVector(y, true);
+  }
+
+  /**
+   * A' (A v), computed by blocks of rows in parallel, each accumulating its part of the result separately
+   */
+  @Override
+  public Vector timesSquared(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    final double[] x = toArray(v);
+    return new DenseVector(MatrixMultiplication.sumOverRowBlocks(rows, 2 * rowStart(rows), columns,
+        new MatrixMultiplication.PartialResultKernel() {
+          @Override
+          public void accumulate(int fromRow, int toRow, double[] y) {
+            long start = rowStart(fromRow);
+            for (int row = fromRow; row < toRow; row++) {
+              long end = rowStart(row + 1);
+              double d = 0;
+              for (long k = start; k < end; k++) {
+                d += values.getDouble(k) * x[indices.getInt(k)];
+              }
+              if (d != 0.0) {
+                for (long k = start; k < end; k++) {
+                  y[indices.getInt(k)] += d * values.getDouble(k);
+                }
+              }
+              start = end;
+            }
+          }
+        }), true);
+  }
+
+  private static double[] toArray(Vector v) {
+    double[] x = new double[v.size()];
+    Iterator<Vector.Element> nonZeroElements = v.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      Vector.Element element = nonZeroElements.next();
+      x[element.index()] = element.get();
+    }
+    return x;
+  }
+
+  /**
+   * A row of the matrix, setting elements that are zero in the file is not supported
+   */
+  private final class RowVector extends AbstractVector {
+
+    private final int row;
+
+    private RowVector(int row) {
+      super(columns);
+      this.row = row;
+    }
+
+    @Override
+    protected Matrix matrixLike(int rows, int columns) {
+      return new SparseRowMatrix(rows, columns);
+    }
+
+    /** the clone is a copy on the heap */
+    @Override
+    public Vector clone() {
+      return new SequentialAccessSparseVector(this);
+    }
+
+    @Override
+    public boolean isDense() {
+      return false;
+    }
+
+    @Override
+    public boolean isSequentialAccess() {
+      return true;
+    }
+
+    @Override
+    public double getQuick(int index) {
+      return FileBasedSparseMatrix.this.getQuick(row, index);
+    }
+
+    @Override
+    public void setQuick(int index, double value) {
+      FileBasedSparseMatrix.this.setQuick(row, index, value);
+    }
+
+    @Override
+    public Vector like() {
+      return new SequentialAccessSparseVector(size());
+    }
+
+    @Override
+    public int getNumNondefaultElements() {
+      return (int) (rowStart(row + 1) - rowStart(row));
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+      return new AllIterator();
+    }
+
+    @Override
+    public Iterator<Element> iterateNonZero() {
+      return new NonZeroIterator();
+    }
+
+    private final class NonZeroIterator extends AbstractIterator<Element> {
+
+      private final RowElement element = new RowElement();
+      private final long end = rowStart(row + 1);
+
+      private NonZeroIterator() {
+        element.position = rowStart(row) - 1;
+      }
+
+      @Override
+      protected Element computeNext() {
+        element.position++;
+        if (element.position >= end) {
+          return endOfData();
+        }
+        element.index = indices.getInt(element.position);
+        return element;
+      }
+    }
+
+    private final class AllIterator extends AbstractIterator<Element> {
+
+      private final RowElement element = new RowElement();
+      private long nextNonZero = rowStart(row);
+      private final long end = rowStart(row + 1);
+
+      private AllIterator() {
+        element.index = -1;
+      }
+
+      @Override
+      protected Element computeNext() {
+        if (element.index + 1 >= size()) {
+          return endOfData();
+        }
+        element.index++;
+        if (nextNonZero < end && indices.getInt(nextNonZero) == element.index) {
+          element.position = nextNonZero++;
+        } else {
+          element.position = -1;
+        }
+        return element;
+      }
+    }
+
+    private final class RowElement implements Element {
+
+      private int index;
+      /** the position of the element in the file, or -1 if it is zero */
+      private long position;
+
+      @Override
+      public double get() {
+        return position < 0 ? 0.0 : values.getDouble(position);
+      }
+
+      @Override
+      public int index() {
+        return index;
+      }
+
+      @Override
+      public void set(double value) {
+        if (position < 0) {
+          setQuick(index, value);
+        } else {
+          values.setDouble(position, value);
+        }
+      }
+    }
+  }
+
+  /**
+   * <p>Writes a matrix row by row in increasing order of the rows, rows that are not appended are empty. Only the
+   * positions where the rows start are held in memory.</p>
+   *
+   * <p>The column indices are written to the file directly, the values are written to a temporary file next to it
+   * and appended when the writer is closed.</p>
+   */
+  public static final class Writer implements Closeable {
+
+    private final File file;
+    private final File valuesFile;
+    private final int rows;
+    private final int columns;
+    private final long[] rowStarts;
+    private final DataOutputStream indicesOut;
+    private final DataOutputStream valuesOut;
+    private int nextRow;
+    private long numNonZeros;
+    private boolean closed;
+
+    public Writer(File file, int rows, int columns) throws IOException {
+      this.file = file;
+      this.rows = rows;
+      this.columns = columns;
+      rowStarts = new long[rows + 1];
+      valuesFile = new File(file.getPath() + ".values");
+      indicesOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+      valuesOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(valuesFile)));
+      /* the header and the row starts are written when closing */
+      indicesOut.write(new byte[HEADER_SIZE]);
+      for (int row = 0; row <= rows; row++) {
+        indicesOut.writeLong(0L);
+      }
+    }
+
+    /**
+     * @param row
+     *          the index of the row, greater than the index of any row appended before
+     */
+    public void append(int row, Vector vector) throws IOException {
+      Preconditions.checkState(!closed, "Writer is closed");
+      if (row < 0 || row >= rows) {
+        throw new IndexException(row, rows);
+      }
+      Preconditions.checkArgument(row >= nextRow, "Row %s appended after row %s", row, nextRow - 1);
+      if (vector.size() != columns) {
+        throw new CardinalityException(columns, vector.size());
+      }
+      while (nextRow <= row) {
+        rowStarts[nextRow++] = numNonZeros;
+      }
+      Vector sorted = vector.isSequentialAccess() ? vector : new SequentialAccessSparseVector(vector);
+      Iterator<Vector.Element> nonZeroElements = sorted.iterateNonZero();
+      while (nonZeroElements.hasNext()) {
+        Vector.Element element = nonZeroElements.next();
+        indicesOut.writeInt(element.index());
+        valuesOut.writeDouble(element.get());
+        numNonZeros++;
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      while (nextRow <= rows) {
+        rowStarts[nextRow++] = numNonZeros;
+      }
+      boolean threw = true;
+      try {
+        for (long k = numNonZeros * 4L; k < padding(numNonZeros * 4L); k++) {
+          indicesOut.writeByte(0);
+        }
+        valuesOut.close();
+        InputStream valuesIn = new BufferedInputStream(new FileInputStream(valuesFile));
+        try {
+          ByteStreams.copy(valuesIn, indicesOut);
+        } finally {
+          Closeables.closeQuietly(valuesIn);
+        }
+        indicesOut.close();
+        writeHeader();
+        threw = false;
+      } finally {
+        Closeables.close(valuesOut, threw);
+        Closeables.close(indicesOut, threw);
+        if (!valuesFile.delete() && !threw) {
+          throw new IOException("Could not delete " + valuesFile);
+        }
+      }
+    }
+
+    private void writeHeader() throws IOException {
+      RandomAccessFile data = new RandomAccessFile(file, "rw");
+      boolean threw = true;
+      try {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(data.getFD())));
+        out.writeInt(MAGIC);
+        out.writeInt(rows);
+        out.writeInt(columns);
+        out.writeInt(0);
+        out.writeLong(numNonZeros);
+        for (long rowStart : rowStarts) {
+          out.writeLong(rowStart);
+        }
+        out.flush();
+        threw = false;
+      } finally {
+        Closeables.close(data, threw);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.mahout.math;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * <p>A region of a file mapped into memory, read and written as an array of ints, longs or doubles that can be longer
+ * than the 2GB a single {@link java.nio.MappedByteBuffer} is limited to.</p>
+ *
+ * <p>The region is mapped as a sequence of segments whose size is a power of two, so no element spans two segments.
+ * Elements are accessed with absolute gets and puts only, which makes concurrent reads safe.</p>
+ */
+final class MappedFileRegion {
+
+  /** segments of 1GB */
+  static final int DEFAULT_SEGMENT_SHIFT = 30;
+
+  private final ByteBuffer[] segments;
+  private final int segmentShift;
+  private final long segmentMask;
+
+  MappedFileRegion(FileChannel channel, FileChannel.MapMode mode, long position, long size, int segmentShift)
+    throws IOException {
+    this.segmentShift = segmentShift;
+    long segmentSize = 1L << segmentShift;
+    segmentMask = segmentSize - 1;
+    long numSegments = (size + segmentSize - 1) >>> segmentShift;
+    segments = new ByteBuffer[(int) numSegments];
+    for (int segment = 0; segment < segments.length; segment++) {
+      long offset = (long) segment << segmentShift;
+      segments[segment] = channel.map(mode, position + offset, Math.min(segmentSize, size - offset));
+    }
+  }
+
+  int getInt(long index) {
+    long position = index << 2;
+    return segments[(int) (position >>> segmentShift)].getInt((int) (position & segmentMask));
+  }
+
+  long getLong(long index) {
+    long position = index << 3;
+    return segments[(int) (position >>> segmentShift)].getLong((int) (position & segmentMask));
+  }
+
+  double getDouble(long index) {
+    long position = index << 3;
+    return segments[(int) (position >>> segmentShift)].getDouble((int) (position & segmentMask));
+  }
+
+  void setDouble(long index, double value) {
+    long position = index << 3;
+    segments[(int) (position >>> segmentShift)].putDouble((int) (position & segmentMask), value);
+  }
+}
@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * <p>Matrix products on the raw storage of {@link DenseMatrix} and {@link SparseRowMatrix}, used by their
+ * {@code times(Matrix)} instead of the generic triple loop over {@code getQuick()} in {@link AbstractMatrix}, and
+ * the products of a {@link CompressedSparseRowMatrix}, {@link FileBasedMatrix} and {@link FileBasedSparseMatrix} with
+ * vectors.</p>
+ *
+ * <p>The dense kernel works on blocks of the inner dimension and of the result columns that fit into the cpu cache
+ * and updates four result rows per pass over a row of the right operand. Products with more than
+ * {@link #PARALLELISM_THRESHOLD} multiply-adds are split into blocks of result rows, which are computed
+ * concurrently by {@link ParallelBlocks}. Products with vectors are split once they exceed
+ * {@link #MATRIX_VECTOR_PARALLELISM_THRESHOLD} multiply-adds.</p>
+ */
+final class MatrixMultiplication {
+
+  /** products with fewer multiply-adds are computed in the calling thread */
+  static final long PARALLELISM_THRESHOLD = 1L << 24;
+
+  /** products of matrices with vectors with fewer multiply-adds are computed in the calling thread */
+  static final long MATRIX_VECTOR_PARALLELISM_THRESHOLD = 1L << 18;
+
+  private static final int INNER_BLOCK_SIZE = 128;
+  private static final int COLUMN_BLOCK_SIZE = 512;
+
+  private MatrixMultiplication() {
+  }
+
+  static Matrix denseTimesDense(final double[][] a, final double[][] b, int columnsOfB) {
+    final int inner = b.length;
+    final int columns = columnsOfB;
+    final double[][] c = new double[a.length][columns];
+    run(a.length, (long) a.length * inner * columns, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromRow, int toRow) {
+        for (int fromK = 0; fromK < inner; fromK += INNER_BLOCK_SIZE) {
+          int toK = Math.min(inner, fromK + INNER_BLOCK_SIZE);
+          for (int fromColumn = 0; fromColumn < columns; fromColumn += COLUMN_BLOCK_SIZE) {
+            int toColumn = Math.min(columns, fromColumn + COLUMN_BLOCK_SIZE);
+            int row = fromRow;
+            for (; row + 3 < toRow; row += 4) {
+              multiplyFourRows(a, b, c, row, fromK, toK, fromColumn, toColumn);
+            }
+            for (; row < toRow; row++) {
+              multiplyRow(a[row], b, c[row], fromK, toK, fromColumn, toColumn);
+            }
+          }
+        }
+      }
+    });
+    return result(c, columns);
+  }
+
+  private static void multiplyFourRows(double[][] a, double[][] b, double[][] c, int row, int fromK, int toK,
+      int fromColumn, int toColumn) {
+    double[] a0 = a[row];
+    double[] a1 = a[row + 1];
+    double[] a2 = a[row + 2];
+    double[] a3 = a[row + 3];
+    double[] c0 = c[row];
+    double[] c1 = c[row + 1];
+    double[] c2 = c[row + 2];
+    double[] c3 = c[row + 3];
+    for (int k = fromK; k < toK; k++) {
+      double a0k = a0[k];
+      double a1k = a1[k];
+      double a2k = a2[k];
+      double a3k = a3[k];
+      double[] bk = b[k];
+      for (int column = fromColumn; column < toColumn; column++) {
+        double bkj = bk[column];
+        c0[column] += a0k * bkj;
+        c1[column] += a1k * bkj;
+        c2[column] += a2k * bkj;
+        c3[column] += a3k * bkj;
+      }
+    }
+  }
+
+  private static void multiplyRow(double[] aRow, double[][] b, double[] cRow, int fromK, int toK, int fromColumn,
+      int toColumn) {
+    for (int k = fromK; k < toK; k++) {
+      double aik = aRow[k];
+      double[] bk = b[k];
+      for (int column = fromColumn; column < toColumn; column++) {
+        cRow[column] += aik * bk[column];
+      }
+    }
+  }
+
+  /** both operands and the result are stored row after row in single arrays, as in {@link RowMajorDenseMatrix} */
+  static double[] rowMajorTimesRowMajor(final double[] a, int rows, final int inner, final double[] b,
+      final int columns) {
+    final double[] c = new double[rows * columns];
+    run(rows, (long) rows * inner * columns, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromRow, int toRow) {
+        for (int fromK = 0; fromK < inner; fromK += INNER_BLOCK_SIZE) {
+          int toK = Math.min(inner, fromK + INNER_BLOCK_SIZE);
+          for (int fromColumn = 0; fromColumn < columns; fromColumn += COLUMN_BLOCK_SIZE) {
+            int toColumn = Math.min(columns, fromColumn + COLUMN_BLOCK_SIZE);
+            int row = fromRow;
+            for (; row + 3 < toRow; row += 4) {
+              int a0 = row * inner;
+              int a1 = a0 + inner;
+              int a2 = a1 + inner;
+              int a3 = a2 + inner;
+              int c0 = row * columns;
+              int c1 = c0 + columns;
+              int c2 = c1 + columns;
+              int c3 = c2 + columns;
+              for (int k = fromK; k < toK; k++) {
+                double a0k = a[a0 + k];
+                double a1k = a[a1 + k];
+                double a2k = a[a2 + k];
+                double a3k = a[a3 + k];
+                int bk = k * columns;
+                for (int column = fromColumn; column < toColumn; column++) {
+                  double bkj = b[bk + column];
+                  c[c0 + column] += a0k * bkj;
+                  c[c1 + column] += a1k * bkj;
+                  c[c2 + column] += a2k * bkj;
+                  c[c3 + column] += a3k * bkj;
+                }
+              }
+            }
+            for (; row < toRow; row++) {
+              int ai = row * inner;
+              int ci = row * columns;
+              for (int k = fromK; k < toK; k++) {
+                double aik = a[ai + k];
+                int bk = k * columns;
+                for (int column = fromColumn; column < toColumn; column++) {
+                  c[ci + column] += aik * b[bk + column];
+                }
+              }
+            }
+          }
+        }
+      }
+    });
+    return c;
+  }
+
+  /** dense left operand, the rows of the right operand are only traversed over their non-zero elements */
+  static Matrix denseTimesSparseRows(final double[][] a, Matrix b) {
+    int inner = b.rowSize();
+    final int[][] indices = new int[inner][];
+    final double[][] values = new double[inner][];
+    long nonZeros = 0;
+    for (int k = 0; k < inner; k++) {
+      Vector row = b.viewRow(k);
+      int numNonDefaultElements = row.getNumNondefaultElements();
+      indices[k] = new int[numNonDefaultElements];
+      values[k] = new double[numNonDefaultElements];
+      int n = 0;
+      Iterator<Vector.Element> nonZeroElements = row.iterateNonZero();
+      while (nonZeroElements.hasNext() && n < numNonDefaultElements) {
+        Vector.Element element = nonZeroElements.next();
+        indices[k][n] = element.index();
+        values[k][n] = element.get();
+        n++;
+      }
+      nonZeros += n;
+    }
+
+    final int columns = b.columnSize();
+    final double[][] c = new double[a.length][columns];
+    run(a.length, a.length * nonZeros, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromRow, int toRow) {
+        for (int row = fromRow; row < toRow; row++) {
+          double[] aRow = a[row];
+          double[] cRow = c[row];
+          for (int k = 0; k < indices.length; k++) {
+            double aik = aRow[k];
+            if (aik == 0.0) {
+              continue;
+            }
+            int[] indicesOfK = indices[k];
+            double[] valuesOfK = values[k];
+            for (int n = 0; n < indicesOfK.length; n++) {
+              cRow[indicesOfK[n]] += aik * valuesOfK[n];
+            }
+          }
+        }
+      }
+    });
+    return result(c, columns);
+  }
+
+  /**
+   * the rows of the left operand are only traversed over their non-zero elements, dense right operand. Every row of
+   * the product is accumulated in a dense buffer and its non-zero elements are set in the given result, which has to
+   * be empty and to allow setting distinct rows concurrently.
+   */
+  static void sparseRowsTimesDense(final Matrix a, final double[][] b, final Matrix result) {
+    final int columns = result.columnSize();
+    long nonZeros = 0;
+    for (int row = 0; row < a.rowSize(); row++) {
+      nonZeros += a.viewRow(row).getNumNondefaultElements();
+    }
+    run(a.rowSize(), nonZeros * columns, new ParallelBlocks.BlockKernel() {
+      @Override
+      public void compute(int fromRow, int toRow) {
+        double[] cRow = new double[columns];
+        for (int row = fromRow; row < toRow; row++) {
+          Arrays.fill(cRow, 0.0);
+          Iterator<Vector.Element> nonZeroElements = a.viewRow(row).iterateNonZero();
+          while (nonZeroElements.hasNext()) {
+            Vector.Element element = nonZeroElements.next();
+            double aik = element.get();
+            double[] bk = b[element.index()];
+            for (int column = 0; column < columns; column++) {
+              cRow[column] += aik * bk[column];
+            }
+          }
+          for (int column = 0; column < columns; column++) {
+            if (cRow[column] != 0.0) {
+              result.setQuick(row, column, cRow[column]);
+            }
+          }
+        }
+      }
+    });
+  }
+
+  /** the product of a matrix in compressed sparse row layout with the dense vector x */
+  static double[] csrTimes(final int[] rowStarts, final int[] indices, final double[] values, final double[] x) {
+    final double[] y = new double[rowStarts.length - 1];
+    ParallelBlocks.run(y.length, values.length, MATRIX_VECTOR_PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+              double sum = 0;
+              for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+                sum += values[k] * x[indices[k]];
+              }
+              y[row] = sum;
+            }
+          }
+        });
+    return y;
+  }
+
+  /**
+   * A' (A x) for a matrix A in compressed sparse row layout. Every block of rows accumulates its part of the result
+   * separately, the parts are added up in the order of the blocks once all are done.
+   */
+  static double[] csrTimesSquared(final int[] rowStarts, final int[] indices, final double[] values, final double[] x,
+      int columns) {
+    return sumOverRowBlocks(rowStarts.length - 1, 2L * values.length, columns, new PartialResultKernel() {
+      @Override
+      public void accumulate(int fromRow, int toRow, double[] y) {
+        for (int row = fromRow; row < toRow; row++) {
+          double d = 0;
+          for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+            d += values[k] * x[indices[k]];
+          }
+          if (d != 0.0) {
+            for (int k = rowStarts[row]; k < rowStarts[row + 1]; k++) {
+              y[indices[k]] += d * values[k];
+            }
+          }
+        }
+      }
+    });
+  }
+
+  /** adds the part of a sum over rows that a block of rows contributes to its partial result */
+  interface PartialResultKernel {
+    void accumulate(int fromRow, int toRow, double[] partialResult);
+  }
+
+  /**
+   * A sum over the rows from 0 to rows - 1 of vectors of the given length, such as A' (A x). The rows are split into
+   * at most one block per thread if there are at least {@link #MATRIX_VECTOR_PARALLELISM_THRESHOLD} multiply-adds,
+   * every call of the kernel accumulates into its own partial result, and the partial results are added up in the
+   * order of the blocks.
+   */
+  static double[] sumOverRowBlocks(final int rows, long multiplyAdds, final int columns,
+      final PartialResultKernel kernel) {
+    int blocks = Math.max(1, Math.min(rows, ParallelBlocks.NUM_THREADS));
+    final int rowsPerBlock = (rows + blocks - 1) / blocks;
+    /* indexed by block, null for blocks that were computed together with a preceding block */
+    final double[][] partialResults = new double[blocks][];
+    ParallelBlocks.run(blocks, multiplyAdds, MATRIX_VECTOR_PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromBlock, int toBlock) {
+            int fromRow = Math.min(rows, fromBlock * rowsPerBlock);
+            int toRow = Math.min(rows, toBlock * rowsPerBlock);
+            if (fromRow < toRow) {
+              double[] partialResult = new double[columns];
+              kernel.accumulate(fromRow, toRow, partialResult);
+              partialResults[fromBlock] = partialResult;
+            }
+          }
+        });
+    return sumPartialResults(partialResults, columns);
+  }
+
+  /**
+   * adds up the parts of a product that blocks of rows accumulated separately, indexed by block and null for blocks
+   * without a part of their own, in the order of the blocks
+   */
+  static double[] sumPartialResults(double[][] partialResults, int columns) {
+    double[] y = null;
+    for (double[] partialResult : partialResults) {
+      if (partialResult == null) {
+        continue;
+      }
+      if (y == null) {
+        y = partialResult;
+      } else {
+        for (int column = 0; column < columns; column++) {
+          y[column] += partialResult[column];
+        }
+      }
+    }
+    return y == null ? new double[columns] : y;
+  }
+
+  private static Matrix result(double[][] c, int columns) {
+    return c.length == 0 ? new DenseMatrix(0, columns) : new DenseMatrix(c, true);
+  }
+
+  private static void run(int rows, long multiplyAdds, ParallelBlocks.BlockKernel kernel) {
+    ParallelBlocks.run(rows, multiplyAdds, PARALLELISM_THRESHOLD, kernel);
+  }
+}
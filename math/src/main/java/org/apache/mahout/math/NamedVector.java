@@ -19,6 +19,7 @@ package org.apache.mahout.math;
 
 import org.apache.mahout.math.function.DoubleDoubleFunction;
 import org.apache.mahout.math.function.DoubleFunction;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 import java.util.Iterator;
 
@@ -136,6 +137,16 @@ public class NamedVector implements Vector {
     return delegate.iterateNonZero();
   }
 
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
+    return delegate.forEachNonZero(procedure);
+  }
+
+  @Override
+  public int getNonZeros(int[] indices, double[] values) {
+    return delegate.getNonZeros(indices, values);
+  }
+
   @Override
   public Element getElement(int index) {
     return delegate.getElement(index);
@@ -18,6 +18,10 @@
 package org.apache.mahout.math;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import org.apache.mahout.math.function.DoubleDoubleFunction;
 
 final class OrderedIntDoubleMapping implements Serializable, Cloneable {
 
@@ -120,6 +124,125 @@ final class OrderedIntDoubleMapping implements Serializable, Cloneable {
     }
   }
 
+  /**
+   * Builds a mapping from index/value pairs in arbitrary order, sorting them once instead of inserting them one by
+   * one. Of several pairs with the same index, a later pair replaces the value of the earlier ones, unless it is
+   * marked in {@code accumulate}, in which case it is added to it.
+   */
+  static OrderedIntDoubleMapping fromUnordered(int[] indices, double[] values, int numPairs, BitSet accumulate) {
+    // sort by index, the position in the low bits keeps pairs with the same index in their original order
+    long[] order = new long[numPairs];
+    for (int n = 0; n < numPairs; n++) {
+      order[n] = ((long) indices[n] << 32) | n;
+    }
+    Arrays.sort(order);
+
+    OrderedIntDoubleMapping mapping = new OrderedIntDoubleMapping(numPairs);
+    int n = 0;
+    while (n < numPairs) {
+      int index = (int) (order[n] >>> 32);
+      double value = values[(int) order[n]];
+      for (n++; n < numPairs && (int) (order[n] >>> 32) == index; n++) {
+        int position = (int) order[n];
+        value = accumulate != null && accumulate.get(position) ? value + values[position] : values[position];
+      }
+      if (value != DEFAULT_VALUE) {
+        mapping.indices[mapping.numMappings] = index;
+        mapping.values[mapping.numMappings++] = value;
+      }
+    }
+    return mapping;
+  }
+
+  /**
+   * Applies {@code function} to every value of this mapping and the value at the same index of the given sorted
+   * mappings, in place. The function must map x and 0 to x, so that only the given mappings need to be visited.
+   * Both mappings are merged from their ends, so the result needs no buffer apart from the grown arrays of this
+   * mapping.
+   */
+  void merge(int[] otherIndices, double[] otherValues, int otherNumMappings, DoubleDoubleFunction function) {
+    int union = numMappings;
+    for (int i = 0, j = 0; j < otherNumMappings; ) {
+      if (i < numMappings && indices[i] < otherIndices[j]) {
+        i++;
+      } else if (i < numMappings && indices[i] == otherIndices[j]) {
+        i++;
+        j++;
+      } else {
+        union++;
+        j++;
+      }
+    }
+    if (union > indices.length) {
+      growTo(Math.max((int) (1.2 * numMappings), union));
+    }
+
+    boolean zeros = false;
+    int i = numMappings - 1;
+    int k = union - 1;
+    for (int j = otherNumMappings - 1; j >= 0; k--) {
+      if (i >= 0 && indices[i] > otherIndices[j]) {
+        indices[k] = indices[i];
+        values[k] = values[i--];
+      } else {
+        double value;
+        if (i >= 0 && indices[i] == otherIndices[j]) {
+          value = function.apply(values[i--], otherValues[j]);
+        } else {
+          value = function.apply(DEFAULT_VALUE, otherValues[j]);
+        }
+        indices[k] = otherIndices[j--];
+        values[k] = value;
+        zeros |= value == DEFAULT_VALUE;
+      }
+    }
+    numMappings = union;
+    if (zeros) {
+      removeDefaultValues();
+    }
+  }
+
+  /**
+   * @return a new mapping holding the result of {@code function} applied to the values of both mappings at every
+   *  index present in at least one of them, where missing values are zero
+   */
+  static OrderedIntDoubleMapping merge(OrderedIntDoubleMapping a, OrderedIntDoubleMapping b,
+                                       DoubleDoubleFunction function) {
+    OrderedIntDoubleMapping result = new OrderedIntDoubleMapping(a.numMappings + b.numMappings);
+    int i = 0;
+    int j = 0;
+    while (i < a.numMappings || j < b.numMappings) {
+      int index;
+      double value;
+      if (j == b.numMappings || i < a.numMappings && a.indices[i] < b.indices[j]) {
+        index = a.indices[i];
+        value = function.apply(a.values[i++], DEFAULT_VALUE);
+      } else if (i == a.numMappings || b.indices[j] < a.indices[i]) {
+        index = b.indices[j];
+        value = function.apply(DEFAULT_VALUE, b.values[j++]);
+      } else {
+        index = a.indices[i];
+        value = function.apply(a.values[i++], b.values[j++]);
+      }
+      if (value != DEFAULT_VALUE) {
+        result.indices[result.numMappings] = index;
+        result.values[result.numMappings++] = value;
+      }
+    }
+    return result;
+  }
+
+  private void removeDefaultValues() {
+    int k = 0;
+    for (int i = 0; i < numMappings; i++) {
+      if (values[i] != DEFAULT_VALUE) {
+        indices[k] = indices[i];
+        values[k++] = values[i];
+      }
+    }
+    numMappings = k;
+  }
+
   @Override
   public int hashCode() {
     int result = 0;
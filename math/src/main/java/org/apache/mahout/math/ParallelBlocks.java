@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs work that is split into independent blocks of a range of indexes, such as the rows of a product or the runs of
+ * a sort, on a shared pool of daemon threads with one thread per core. The pool is created on first use. Used by
+ * {@link MatrixMultiplication}, the decompositions in this package and the parallel sorts of {@link Sorting}.
+ */
+final class ParallelBlocks {
+
+  static final int NUM_THREADS = Runtime.getRuntime().availableProcessors();
+
+  private static final int BLOCKS_PER_THREAD = 4;
+
+  private ParallelBlocks() {
+  }
+
+  /** computes the indexes from {@code from}, inclusive, to {@code to}, exclusive */
+  interface BlockKernel {
+    void compute(int from, int to);
+  }
+
+  /* created on first use only */
+  private static final class ThreadPoolHolder {
+    static final ExecutorService POOL = Executors.newFixedThreadPool(NUM_THREADS, new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "mahout-math-parallel");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  /**
+   * Splits the indexes from 0 to count - 1 into blocks for the pool, unless there is a single core, a single index or
+   * less than threshold units of work in total, in which case they are computed in the calling thread.
+   */
+  static void run(int count, long work, long threshold, BlockKernel kernel) {
+    if (work < threshold) {
+      kernel.compute(0, count);
+    } else {
+      run(count, Math.min(count, NUM_THREADS * BLOCKS_PER_THREAD), kernel);
+    }
+  }
+
+  /**
+   * Splits the indexes from 0 to count - 1 into at most the given number of blocks for the pool, regardless of the
+   * amount of work, for callers that already split their work into pieces of sufficient size.
+   */
+  static void run(int count, int maxBlocks, final BlockKernel kernel) {
+    if (NUM_THREADS == 1 || count < 2 || maxBlocks < 2) {
+      kernel.compute(0, count);
+      return;
+    }
+    int numBlocks = Math.min(count, maxBlocks);
+    int indexesPerBlock = (count + numBlocks - 1) / numBlocks;
+    List<Future<Void>> blocks = new ArrayList<Future<Void>>(numBlocks);
+    for (int fromIndex = 0; fromIndex < count; fromIndex += indexesPerBlock) {
+      final int from = fromIndex;
+      final int to = Math.min(count, fromIndex + indexesPerBlock);
+      blocks.add(ThreadPoolHolder.POOL.submit(new Callable<Void>() {
+        @Override
+        public Void call() {
+          kernel.compute(from, to);
+          return null;
+        }
+      }));
+    }
+    try {
+      for (Future<Void> block : blocks) {
+        block.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -20,6 +20,7 @@ package org.apache.mahout.math;
 import java.util.Iterator;
 
 import com.google.common.collect.AbstractIterator;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 import org.apache.mahout.math.list.IntArrayList;
 import org.apache.mahout.math.map.OpenIntDoubleHashMap;
 
@@ -161,6 +162,25 @@ public class RandomAccessSparseVector extends AbstractVector {
   public Iterator<Element> iterateNonZero() {
     return new NonDefaultIterator();
   }
+
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
+    return values.forEachPair(procedure);
+  }
+
+  @Override
+  public int getNonZeros(final int[] indices, final double[] values) {
+    final int[] numNonZeros = new int[1];
+    this.values.forEachPair(new IntDoubleProcedure() {
+      @Override
+      public boolean apply(int index, double value) {
+        indices[numNonZeros[0]] = index;
+        values[numNonZeros[0]++] = value;
+        return true;
+      }
+    });
+    return numNonZeros[0];
+  }
   
   @Override
   public Iterator<Element> iterator() {
@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.AbstractIterator;
+import org.apache.mahout.math.function.DoubleFunction;
+
+/**
+ * <p>Dense matrix stored in a single row-major {@code double[]}, as an alternative to the array of rows of
+ * {@link DenseMatrix}.</p>
+ *
+ * <p>Rows, columns and the diagonal are views of the backing array that copy nothing, so changes to them affect the
+ * matrix. Products with other dense matrices and with dense vectors run directly on the backing array.</p>
+ */
+public class RowMajorDenseMatrix extends AbstractMatrix {
+
+  private double[] values;
+
+  /**
+   * Constructs an empty matrix of the given size.
+   * @param rows  The number of rows in the result.
+   * @param columns The number of columns in the result.
+   */
+  public RowMajorDenseMatrix(int rows, int columns) {
+    super(rows, columns);
+    this.values = new double[numValues(rows, columns)];
+  }
+
+  /**
+   * Construct a matrix from the given values in row-major order
+   *
+   * @param values
+   *          the rows of the matrix one after the other
+   * @param shallowCopy
+   *          directly use the given array as the storage of this matrix
+   */
+  public RowMajorDenseMatrix(int rows, int columns, double[] values, boolean shallowCopy) {
+    super(rows, columns);
+    Preconditions.checkArgument(values.length == numValues(rows, columns), "Expected %s values but got %s",
+        numValues(rows, columns), values.length);
+    this.values = shallowCopy ? values : values.clone();
+  }
+
+  /**
+   * Construct a matrix from the given values
+   *
+   * @param values
+   *          a double[][]
+   */
+  public RowMajorDenseMatrix(double[][] values) {
+    // without rows there is no row to take the number of columns from
+    this(values.length, values.length == 0 ? 0 : values[0].length);
+    for (int row = 0; row < rows; row++) {
+      System.arraycopy(values[row], 0, this.values, row * columns, columns);
+    }
+  }
+
+  /**
+   * Construct a copy of the given matrix
+   */
+  public RowMajorDenseMatrix(Matrix other) {
+    this(other.rowSize(), other.columnSize());
+    assign(other);
+  }
+
+  private static int numValues(int rows, int columns) {
+    long numValues = (long) rows * columns;
+    Preconditions.checkArgument(numValues <= Integer.MAX_VALUE, "Matrix of %s x %s is too large for a single array",
+        rows, columns);
+    return (int) numValues;
+  }
+
+  @Override
+  public Matrix clone() {
+    RowMajorDenseMatrix clone = (RowMajorDenseMatrix) super.clone();
+    clone.values = values.clone();
+    return clone;
+  }
+
+  @Override
+  public double getQuick(int row, int column) {
+    return values[row * columns + column];
+  }
+
+  @Override
+  public void setQuick(int row, int column, double value) {
+    values[row * columns + column] = value;
+  }
+
+  @Override
+  public Matrix like() {
+    return like(rowSize(), columnSize());
+  }
+
+  @Override
+  public Matrix like(int rows, int columns) {
+    return new RowMajorDenseMatrix(rows, columns);
+  }
+
+  @Override
+  public int[] getNumNondefaultElements() {
+    return new int[] { rows, columns };
+  }
+
+  @Override
+  public Matrix viewPart(int[] offset, int[] size) {
+    return viewPart(offset[ROW], size[ROW], offset[COL], size[COL]);
+  }
+
+  @Override
+  public Matrix viewPart(int rowOffset, int rowsRequested, int columnOffset, int columnsRequested) {
+    if (rowOffset < 0) {
+      throw new IndexException(rowOffset, rowSize());
+    }
+    if (rowOffset + rowsRequested > rowSize()) {
+      throw new IndexException(rowOffset + rowsRequested, rowSize());
+    }
+    if (columnOffset < 0) {
+      throw new IndexException(columnOffset, columnSize());
+    }
+    if (columnOffset + columnsRequested > columnSize()) {
+      throw new IndexException(columnOffset + columnsRequested, columnSize());
+    }
+    return new MatrixView(this, new int[]{rowOffset, columnOffset}, new int[]{rowsRequested, columnsRequested});
+  }
+
+  @Override
+  public Vector viewRow(int row) {
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    return new StridedVector(values, row * columns, 1, columns);
+  }
+
+  @Override
+  public Vector viewColumn(int column) {
+    if (column < 0 || column >= columnSize()) {
+      throw new IndexException(column, columnSize());
+    }
+    return new StridedVector(values, column, columns, rows);
+  }
+
+  @Override
+  public Vector viewDiagonal() {
+    return new StridedVector(values, 0, columns + 1, Math.min(rows, columns));
+  }
+
+  @Override
+  public Matrix assign(double value) {
+    Arrays.fill(values, value);
+    return this;
+  }
+
+  @Override
+  public Matrix assign(DoubleFunction function) {
+    for (int i = 0; i < values.length; i++) {
+      values[i] = function.apply(values[i]);
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assign(Matrix other) {
+    if (rowSize() != other.rowSize()) {
+      throw new CardinalityException(rowSize(), other.rowSize());
+    }
+    if (columnSize() != other.columnSize()) {
+      throw new CardinalityException(columnSize(), other.columnSize());
+    }
+    if (other instanceof RowMajorDenseMatrix) {
+      System.arraycopy(((RowMajorDenseMatrix) other).values, 0, values, 0, values.length);
+    } else if (other instanceof DenseMatrix) {
+      double[][] otherRows = ((DenseMatrix) other).rows();
+      for (int row = 0; row < rows; row++) {
+        System.arraycopy(otherRows[row], 0, values, row * columns, columns);
+      }
+    } else {
+      super.assign(other);
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assignColumn(int column, Vector other) {
+    if (rowSize() != other.size()) {
+      throw new CardinalityException(rowSize(), other.size());
+    }
+    if (column < 0 || column >= columnSize()) {
+      throw new IndexException(column, columnSize());
+    }
+    for (int row = 0; row < rows; row++) {
+      values[row * columns + column] = other.getQuick(row);
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix assignRow(int row, Vector other) {
+    if (columnSize() != other.size()) {
+      throw new CardinalityException(columnSize(), other.size());
+    }
+    if (row < 0 || row >= rowSize()) {
+      throw new IndexException(row, rowSize());
+    }
+    int offset = row * columns;
+    for (int column = 0; column < columns; column++) {
+      values[offset + column] = other.getQuick(column);
+    }
+    return this;
+  }
+
+  @Override
+  public Matrix times(Matrix other) {
+    if (columnSize() != other.rowSize()) {
+      throw new CardinalityException(columnSize(), other.rowSize());
+    }
+    if (other instanceof RowMajorDenseMatrix || other instanceof DenseMatrix) {
+      double[] otherValues = other instanceof RowMajorDenseMatrix
+          ? ((RowMajorDenseMatrix) other).values
+          : new RowMajorDenseMatrix(other).values;
+      int otherColumns = other.columnSize();
+      return new RowMajorDenseMatrix(rows, otherColumns,
+          MatrixMultiplication.rowMajorTimesRowMajor(values, rows, columns, otherValues, otherColumns), true);
+    }
+    return super.times(other);
+  }
+
+  @Override
+  public Vector times(Vector v) {
+    if (columnSize() != v.size()) {
+      throw new CardinalityException(columnSize(), v.size());
+    }
+    if (!v.isDense()) {
+      return super.times(v);
+    }
+    double[] x = new double[columns];
+    for (int column = 0; column < columns; column++) {
+      x[column] = v.getQuick(column);
+    }
+    double[] y = new double[rows];
+    for (int row = 0; row < rows; row++) {
+      int offset = row * columns;
+      double sum = 0;
+      for (int column = 0; column < columns; column++) {
+        sum += values[offset + column] * x[column];
+      }
+      y[row] = sum;
+    }
+    return new DenseVector(y, true);
+  }
+
+  @Override
+  public Matrix transpose() {
+    double[] transposed = new double[values.length];
+    for (int row = 0; row < rows; row++) {
+      int offset = row * columns;
+      for (int column = 0; column < columns; column++) {
+        transposed[column * rows + row] = values[offset + column];
+      }
+    }
+    return new RowMajorDenseMatrix(columns, rows, transposed, true);
+  }
+
+  /**
+   * A vector made of every {@code stride}-th value of an array, starting at {@code offset}
+   */
+  private static final class StridedVector extends AbstractVector {
+
+    private double[] values;
+    private int offset;
+    private int stride;
+
+    private StridedVector(double[] values, int offset, int stride, int size) {
+      super(size);
+      this.values = values;
+      this.offset = offset;
+      this.stride = stride;
+    }
+
+    @Override
+    protected Matrix matrixLike(int rows, int columns) {
+      return new RowMajorDenseMatrix(rows, columns);
+    }
+
+    /** the clone owns a compact copy of the viewed values */
+    @Override
+    public Vector clone() {
+      StridedVector clone = (StridedVector) super.clone();
+      clone.values = new double[size()];
+      for (int index = 0; index < size(); index++) {
+        clone.values[index] = getQuick(index);
+      }
+      clone.offset = 0;
+      clone.stride = 1;
+      return clone;
+    }
+
+    @Override
+    public boolean isDense() {
+      return true;
+    }
+
+    @Override
+    public boolean isSequentialAccess() {
+      return true;
+    }
+
+    @Override
+    public double getQuick(int index) {
+      return values[offset + index * stride];
+    }
+
+    @Override
+    public void setQuick(int index, double value) {
+      values[offset + index * stride] = value;
+    }
+
+    @Override
+    public Vector like() {
+      return new DenseVector(size());
+    }
+
+    @Override
+    public int getNumNondefaultElements() {
+      return size();
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+      return new StridedIterator(false);
+    }
+
+    @Override
+    public Iterator<Element> iterateNonZero() {
+      return new StridedIterator(true);
+    }
+
+    private final class StridedIterator extends AbstractIterator<Element> {
+
+      private final boolean skipZeros;
+      private final StridedElement element = new StridedElement();
+
+      private StridedIterator(boolean skipZeros) {
+        this.skipZeros = skipZeros;
+        element.index = -1;
+      }
+
+      @Override
+      protected Element computeNext() {
+        int index = element.index + 1;
+        while (skipZeros && index < size() && getQuick(index) == 0.0) {
+          index++;
+        }
+        if (index >= size()) {
+          return endOfData();
+        }
+        element.index = index;
+        return element;
+      }
+    }
+
+    private final class StridedElement implements Element {
+
+      private int index;
+
+      @Override
+      public double get() {
+        return getQuick(index);
+      }
+
+      @Override
+      public int index() {
+        return index;
+      }
+
+      @Override
+      public void set(double value) {
+        setQuick(index, value);
+      }
+    }
+  }
+}
@@ -18,10 +18,12 @@
 package org.apache.mahout.math;
 
 import com.google.common.collect.AbstractIterator;
-import com.google.common.primitives.Doubles;
+import org.apache.mahout.math.function.DoubleDoubleFunction;
 import org.apache.mahout.math.function.Functions;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Iterator;
 
 /**
@@ -78,27 +80,23 @@ public class SequentialAccessSparseVector extends AbstractVector {
       // the number of elements is large as this Vector tries to stay
       // in order as items are added, so it's better to sort the other
       // Vector's elements by index and then add them to this
-      copySortedRandomAccessSparseVector(other);
+      values = sortedNonZeros(other);
     }    
   }
 
-  // Sorts a RandomAccessSparseVectors Elements before adding them to this
-  private int copySortedRandomAccessSparseVector(Vector other) {
+  // Sorts the non-zero elements of a vector by index
+  private static OrderedIntDoubleMapping sortedNonZeros(Vector other) {
     int elementCount = other.getNumNondefaultElements();
-    OrderedElement[] sortableElements = new OrderedElement[elementCount];
+    int[] indices = new int[elementCount];
+    double[] values = new double[elementCount];
     Iterator<Element> it = other.iterateNonZero();
-    Element e;
     int s = 0;
-    while (it.hasNext() && (e = it.next()) != null) {
-      sortableElements[s++] = new OrderedElement(e.index(), e.get());
-    }
-    Arrays.sort(sortableElements);
-    for (int i = 0; i < sortableElements.length; i++) {
-      values.getIndices()[i] = sortableElements[i].index;
-      values.getValues()[i] = sortableElements[i].value;
+    while (it.hasNext() && s < elementCount) {
+      Element e = it.next();
+      indices[s] = e.index();
+      values[s++] = e.get();
     }
-    values = new OrderedIntDoubleMapping(values.getIndices(), values.getValues(), elementCount);
-    return elementCount;
+    return OrderedIntDoubleMapping.fromUnordered(indices, values, s, null);
   }
 
   public SequentialAccessSparseVector(SequentialAccessSparseVector other, boolean shallowCopy) {
@@ -145,6 +143,39 @@ public class SequentialAccessSparseVector extends AbstractVector {
     return this;
   }
 
+  /**
+   * Functions that leave an element unchanged when the other element is zero, like {@link Functions#PLUS} and
+   * {@link Functions#plusMult(double)}, are applied by merging the sorted non-zero elements of the other vector
+   * into this one in a single pass.
+   */
+  @Override
+  public Vector assign(Vector other, DoubleDoubleFunction function) {
+    if (size() != other.size()) {
+      throw new CardinalityException(size(), other.size());
+    }
+    if (other.isDense() || !function.isRightZeroIdentity()) {
+      return super.assign(other, function);
+    }
+    OrderedIntDoubleMapping otherValues = other instanceof SequentialAccessSparseVector
+        ? ((SequentialAccessSparseVector) other).values
+        : sortedNonZeros(other);
+    values.merge(otherValues.getIndices(), otherValues.getValues(), otherValues.getNumMappings(), function);
+    lengthSquared = -1;
+    return this;
+  }
+
+  @Override
+  public Vector plus(Vector x) {
+    if (x instanceof SequentialAccessSparseVector) {
+      if (size() != x.size()) {
+        throw new CardinalityException(size(), x.size());
+      }
+      return new SequentialAccessSparseVector(size(),
+          OrderedIntDoubleMapping.merge(values, ((SequentialAccessSparseVector) x).values, Functions.PLUS));
+    }
+    return super.plus(x);
+  }
+
   @Override
   public String toString() {
     StringBuilder result = new StringBuilder();
@@ -205,6 +236,34 @@ public class SequentialAccessSparseVector extends AbstractVector {
     return new NonDefaultIterator();
   }
 
+  @Override
+  public boolean forEachNonZero(IntDoubleProcedure procedure) {
+    int[] indices = values.getIndices();
+    double[] mappedValues = values.getValues();
+    int numMappings = values.getNumMappings();
+    for (int i = 0; i < numMappings; i++) {
+      if (mappedValues[i] != 0.0 && !procedure.apply(indices[i], mappedValues[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int getNonZeros(int[] indices, double[] values) {
+    int[] mappedIndices = this.values.getIndices();
+    double[] mappedValues = this.values.getValues();
+    int numMappings = this.values.getNumMappings();
+    int numNonZeros = 0;
+    for (int i = 0; i < numMappings; i++) {
+      if (mappedValues[i] != 0.0) {
+        indices[numNonZeros] = mappedIndices[i];
+        values[numNonZeros++] = mappedValues[i];
+      }
+    }
+    return numNonZeros;
+  }
+
   @Override
   public Iterator<Element> iterator() {
     return new AllIterator();
@@ -331,37 +390,78 @@ public class SequentialAccessSparseVector extends AbstractVector {
     }
   }
 
-  // Comparable Element for sorting Elements by index
-  private static final class OrderedElement implements Comparable<OrderedElement> {
-    private final int index;
-    private final double value;
-    
-    OrderedElement(int index, double value) {
-      this.index = index;
-      this.value = value;
+  /**
+   * <p>Collects index/value pairs in any order and sorts them once when the vector is built, which avoids the
+   * shifting of elements that out-of-order calls to {@link #setQuick(int, double)} cause.</p>
+   *
+   * <p>Pairs passed to {@link #set(int, double)} replace earlier pairs with the same index, pairs passed to
+   * {@link #add(int, double)} are added to them.</p>
+   */
+  public static final class Builder {
+
+    private final int cardinality;
+    private int[] indices;
+    private double[] values;
+    private final BitSet accumulate = new BitSet();
+    private int numPairs;
+
+    public Builder(int cardinality) {
+      this(cardinality, 16);
     }
 
-    @Override
-    public int compareTo(OrderedElement that) {
-      // both indexes are positive, and neither can be Integer.MAX_VALUE (otherwise there would be
-      // an array somewhere with Integer.MAX_VALUE + 1 elements)
-      return this.index - that.index;
+    public Builder(int cardinality, int expectedNumPairs) {
+      this.cardinality = cardinality;
+      indices = new int[Math.max(expectedNumPairs, 1)];
+      values = new double[indices.length];
     }
 
-    @Override
-    public int hashCode() {
-      return index ^ Doubles.hashCode(value);
+    public Builder set(int index, double value) {
+      append(index, value);
+      return this;
     }
 
-    @Override
-    public boolean equals(Object o) {
-      if (!(o instanceof OrderedElement)) {
-        return false;
+    public Builder add(int index, double value) {
+      accumulate.set(numPairs);
+      append(index, value);
+      return this;
+    }
+
+    /** sets all non-zero elements of the given vector */
+    public Builder set(Vector vector) {
+      Iterator<Element> it = vector.iterateNonZero();
+      while (it.hasNext()) {
+        Element e = it.next();
+        set(e.index(), e.get());
+      }
+      return this;
+    }
+
+    /** adds all non-zero elements of the given vector */
+    public Builder add(Vector vector) {
+      Iterator<Element> it = vector.iterateNonZero();
+      while (it.hasNext()) {
+        Element e = it.next();
+        add(e.index(), e.get());
       }
-      OrderedElement other = (OrderedElement) o;
-      return index == other.index && value == other.value;
+      return this;
     }
 
+    private void append(int index, double value) {
+      if (index < 0 || index >= cardinality) {
+        throw new IndexException(index, cardinality);
+      }
+      if (numPairs == indices.length) {
+        indices = Arrays.copyOf(indices, 2 * numPairs);
+        values = Arrays.copyOf(values, 2 * numPairs);
+      }
+      indices[numPairs] = index;
+      values[numPairs++] = value;
+    }
+
+    public SequentialAccessSparseVector build() {
+      return new SequentialAccessSparseVector(cardinality,
+          OrderedIntDoubleMapping.fromUnordered(indices, values, numPairs, accumulate));
+    }
   }
-  
+
 }
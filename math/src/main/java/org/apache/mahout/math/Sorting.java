@@ -556,7 +556,7 @@ public final class Sorting {
     quickSort0(start, end, array, comp);
   }
   
-  private static void checkBounds(int arrLength, int start, int end) {
+  static void checkBounds(int arrLength, int start, int end) {
     if (start > end) {
       // K0033=Start index ({0}) is greater than end index ({1})
       throw new IllegalArgumentException("Start index " + start
@@ -2697,4 +2697,246 @@ public final class Sorting {
     return first;
   }
 
+  /**
+   * Sorts the specified range of the array into ascending numerical order, as {@link java.util.Arrays#sort(int[], int,
+   * int)} does. Large ranges are split into runs that are sorted concurrently, on the threads that
+   * {@link Matrix#times(Matrix)} uses, and merged back together concurrently.
+   *
+   * @param array
+   *          the {@code int} array to be sorted.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to > array.length}.
+   */
+  public static void parallelSort(int[] array, int from, int to) {
+    IntParallelSorting.parallelSort(array, null, from, to);
+  }
+
+  /**
+   * Sorts the specified range of the keys into ascending numerical order and moves the elements of the payload
+   * along with their keys, for example to sort an index permutation or the ids of scored items. The sort is not
+   * stable. Large ranges are sorted concurrently, as by {@link #parallelSort(int[], int, int)}.
+   *
+   * @param keys
+   *          the {@code int} keys to be sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void parallelSort(int[] keys, int[] payload, int from, int to) {
+    IntParallelSorting.parallelSort(keys, payload, from, to);
+  }
+
+  /**
+   * Rearranges the specified range of the keys so that the key at index k is the one that would be there if the range
+   * was sorted, no key before it is greater and no key after it is less, in expected linear time. The elements of the
+   * payload are moved along with their keys.
+   *
+   * @param keys
+   *          the {@code int} keys to be partially sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index of the range, inclusive.
+   * @param to
+   *          the last index of the range, exclusive.
+   * @param k
+   *          the index to select the key of.
+   * @throws IllegalArgumentException
+   *           if {@code from > to} or {@code k} is not in the range.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void select(int[] keys, int[] payload, int from, int to, int k) {
+    IntParallelSorting.select(keys, payload, from, to, k);
+  }
+
+  /**
+   * Returns the indexes of the k largest values of the array, in descending order of their values, in time linear in
+   * the length of the array plus k log k. The order of indexes of equal values is undefined.
+   *
+   * @param values
+   *          the {@code int} values.
+   * @param k
+   *          the number of indexes to return.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or larger than the length of the array.
+   */
+  public static int[] topK(int[] values, int k) {
+    return IntParallelSorting.topK(values, k);
+  }
+
+  /**
+   * Sorts the specified range of the array into ascending numerical order, as {@link java.util.Arrays#sort(long[], int,
+   * int)} does. Large ranges are split into runs that are sorted concurrently, on the threads that
+   * {@link Matrix#times(Matrix)} uses, and merged back together concurrently.
+   *
+   * @param array
+   *          the {@code long} array to be sorted.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to > array.length}.
+   */
+  public static void parallelSort(long[] array, int from, int to) {
+    LongParallelSorting.parallelSort(array, null, from, to);
+  }
+
+  /**
+   * Sorts the specified range of the keys into ascending numerical order and moves the elements of the payload
+   * along with their keys, for example to sort an index permutation or the ids of scored items. The sort is not
+   * stable. Large ranges are sorted concurrently, as by {@link #parallelSort(long[], int, int)}.
+   *
+   * @param keys
+   *          the {@code long} keys to be sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void parallelSort(long[] keys, int[] payload, int from, int to) {
+    LongParallelSorting.parallelSort(keys, payload, from, to);
+  }
+
+  /**
+   * Rearranges the specified range of the keys so that the key at index k is the one that would be there if the range
+   * was sorted, no key before it is greater and no key after it is less, in expected linear time. The elements of the
+   * payload are moved along with their keys.
+   *
+   * @param keys
+   *          the {@code long} keys to be partially sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index of the range, inclusive.
+   * @param to
+   *          the last index of the range, exclusive.
+   * @param k
+   *          the index to select the key of.
+   * @throws IllegalArgumentException
+   *           if {@code from > to} or {@code k} is not in the range.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void select(long[] keys, int[] payload, int from, int to, int k) {
+    LongParallelSorting.select(keys, payload, from, to, k);
+  }
+
+  /**
+   * Returns the indexes of the k largest values of the array, in descending order of their values, in time linear in
+   * the length of the array plus k log k. The order of indexes of equal values is undefined.
+   *
+   * @param values
+   *          the {@code long} values.
+   * @param k
+   *          the number of indexes to return.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or larger than the length of the array.
+   */
+  public static int[] topK(long[] values, int k) {
+    return LongParallelSorting.topK(values, k);
+  }
+
+  /**
+   * Sorts the specified range of the array into ascending numerical order, as
+   * {@link java.util.Arrays#sort(double[], int, int)} does. Large ranges are split into runs that are sorted
+   * concurrently, on the threads that {@link Matrix#times(Matrix)} uses, and merged back together concurrently.
+   *
+   * @param array
+   *          the {@code double} array to be sorted.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to > array.length}.
+   */
+  public static void parallelSort(double[] array, int from, int to) {
+    DoubleParallelSorting.parallelSort(array, null, from, to);
+  }
+
+  /**
+   * Sorts the specified range of the keys into ascending numerical order and moves the elements of the payload
+   * along with their keys, for example to sort an index permutation or the ids of scored items. The sort is not
+   * stable. Large ranges are sorted concurrently, as by {@link #parallelSort(double[], int, int)}.
+   *
+   * @param keys
+   *          the {@code double} keys to be sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index to sort, inclusive.
+   * @param to
+   *          the last index to sort, exclusive.
+   * @throws IllegalArgumentException
+   *           if {@code from > to}.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void parallelSort(double[] keys, int[] payload, int from, int to) {
+    DoubleParallelSorting.parallelSort(keys, payload, from, to);
+  }
+
+  /**
+   * Rearranges the specified range of the keys so that the key at index k is the one that would be there if the range
+   * was sorted, no key before it is greater and no key after it is less, in expected linear time. The elements of the
+   * payload are moved along with their keys.
+   *
+   * @param keys
+   *          the {@code double} keys to be partially sorted.
+   * @param payload
+   *          the payload to be reordered along with the keys, or {@code null}.
+   * @param from
+   *          the first index of the range, inclusive.
+   * @param to
+   *          the last index of the range, exclusive.
+   * @param k
+   *          the index to select the key of.
+   * @throws IllegalArgumentException
+   *           if {@code from > to} or {@code k} is not in the range.
+   * @throws ArrayIndexOutOfBoundsException
+   *           if {@code from < 0} or {@code to} exceeds the length of the keys or of the payload.
+   */
+  public static void select(double[] keys, int[] payload, int from, int to, int k) {
+    DoubleParallelSorting.select(keys, payload, from, to, k);
+  }
+
+  /**
+   * Returns the indexes of the k largest values of the array, in descending order of their values, in time linear in
+   * the length of the array plus k log k. The order of indexes of equal values is undefined.
+   *
+   * @param values
+   *          the {@code double} values.
+   * @param k
+   *          the number of indexes to return.
+   * @throws IllegalArgumentException
+   *           if {@code k} is negative or larger than the length of the array.
+   */
+  public static int[] topK(double[] values, int k) {
+    return DoubleParallelSorting.topK(values, k);
+  }
 }
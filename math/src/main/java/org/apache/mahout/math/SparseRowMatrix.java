@@ -127,6 +127,19 @@ public class SparseRowMatrix extends AbstractMatrix {
     return new MatrixView(this, offset, size);
   }
 
+  @Override
+  public Matrix times(Matrix other) {
+    if (columnSize() != other.rowSize()) {
+      throw new CardinalityException(columnSize(), other.rowSize());
+    }
+    if (other instanceof DenseMatrix) {
+      Matrix result = like(rowSize(), other.columnSize());
+      MatrixMultiplication.sparseRowsTimesDense(this, ((DenseMatrix) other).rows(), result);
+      return result;
+    }
+    return super.times(other);
+  }
+
   @Override
   public Matrix assignColumn(int column, Vector other) {
     if (rowSize() != other.size()) {
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Iterator;
+
+import com.google.common.base.Preconditions;
+import org.apache.mahout.math.ssvd.EigenSolverWrapper;
+import org.apache.mahout.math.ssvd.OmegaMatrix;
+
+/**
+ * <p>In-core stochastic SVD: the k largest singular values and vectors of an m x n matrix A, computed the way the
+ * Hadoop SSVD solver computes them but in memory.</p>
+ *
+ * <p>A is projected on k + p random directions, Y = A &Omega;, and Q is an orthonormal basis of the range of Y. Each
+ * power iteration replaces Y by A B' with B' = A' Q, which sharpens the basis towards the leading singular vectors.
+ * The eigen-decomposition B B' = &Ucirc; &Lambda; &Ucirc;' of the small (k + p) x (k + p) matrix then gives the
+ * singular values &Sigma; = &Lambda;<sup>1/2</sup>, U = Q &Ucirc; and V = B' &Ucirc; &Sigma;<sup>-1</sup>.</p>
+ *
+ * <p>&Omega; has the values of {@link OmegaMatrix}, so that for the same seed, k, p and number of power iterations
+ * the results match those of the Hadoop solver with {@code SSVDSolver.setOmegaSeed}, up to round-off.</p>
+ *
+ * <p>A is only read by rows, a block of k + p columns at a time rather than one vector at a time as in Lanczos, and
+ * the rows are processed in blocks across the threads of {@link Matrix#times(Matrix)}. Sparse rows are iterated by
+ * their non-zero elements only. Computing B' needs a partial B' of n x (k + p) per thread.</p>
+ */
+public class StochasticSingularValueDecomposition {
+
+  private final int rows;
+  private final int columns;
+  private final int k;
+  private final int kp;
+  /** Q, m x (k + p) row-major */
+  private final double[] q;
+  /** B', n x (k + p) row-major */
+  private final double[] bt;
+  private final double[] singularValues;
+  /** the eigenvectors of B B' of the k largest eigenvalues, (k + p) x k row-major */
+  private final double[] uHat;
+
+  /**
+   * @param a the matrix to decompose
+   * @param k the number of singular values and vectors to compute
+   * @param p the oversampling, the number of additional random directions, in the order of 10
+   * @param powerIterations the number of power iterations, each reads A twice more, 0 to 2
+   * @param seed the seed of the random projection
+   */
+  public StochasticSingularValueDecomposition(Matrix a, int k, int p, int powerIterations, long seed) {
+    Preconditions.checkArgument(k > 0, "k must be positive: %s", k);
+    Preconditions.checkArgument(p >= 0, "p must not be negative: %s", p);
+    Preconditions.checkArgument(powerIterations >= 0, "Power iterations must not be negative: %s", powerIterations);
+    rows = a.rowSize();
+    columns = a.columnSize();
+    this.k = k;
+    kp = k + p;
+    Preconditions.checkArgument(kp <= rows && kp <= columns, "k + p = %s exceeds the size of a %s x %s matrix", kp,
+        rows, columns);
+    Preconditions.checkArgument((long) Math.max(rows, columns) * kp <= Integer.MAX_VALUE,
+        "Matrix of %s x %s is too large for k + p = %s", rows, columns, kp);
+
+    // Y = A Omega, Q R = Y, B' = A' Q
+    double[] y = times(a, omega(seed));
+    double[] qValues = orthonormalize(y);
+    double[] btValues = transposeTimes(a, qValues);
+    for (int i = 0; i < powerIterations; i++) {
+      // Y = A B'
+      y = times(a, btValues);
+      qValues = orthonormalize(y);
+      btValues = transposeTimes(a, qValues);
+    }
+    q = qValues;
+    bt = btValues;
+
+    EigenSolverWrapper eigen = new EigenSolverWrapper(bbt());
+    double[] eigenvalues = eigen.getEigenValues();
+    double[][] eigenvectors = eigen.getUHat();
+    singularValues = new double[k];
+    uHat = new double[kp * k];
+    for (int j = 0; j < k; j++) {
+      singularValues[j] = Math.sqrt(Math.max(0, eigenvalues[j]));
+      for (int i = 0; i < kp; i++) {
+        uHat[i * k + j] = eigenvectors[i][j];
+      }
+    }
+  }
+
+  /**
+   * @return the k largest singular values, largest first
+   */
+  public Vector getSingularValues() {
+    return new DenseVector(singularValues);
+  }
+
+  /**
+   * @return the m x k left singular vectors, U = Q &Ucirc;
+   */
+  public Matrix getU() {
+    return new RowMajorDenseMatrix(rows, k, MatrixMultiplication.rowMajorTimesRowMajor(q, rows, kp, uHat, k), true);
+  }
+
+  /**
+   * @return the n x k right singular vectors, V = B' &Ucirc; &Sigma;<sup>-1</sup>
+   */
+  public Matrix getV() {
+    double[] scaled = uHat.clone();
+    for (int j = 0; j < k; j++) {
+      double inverse = singularValues[j] == 0.0 ? 0.0 : 1 / singularValues[j];
+      for (int i = 0; i < kp; i++) {
+        scaled[i * k + j] *= inverse;
+      }
+    }
+    return new RowMajorDenseMatrix(columns, k,
+        MatrixMultiplication.rowMajorTimesRowMajor(bt, columns, kp, scaled, k), true);
+  }
+
+  /** the n x (k + p) projection, row-major */
+  private double[] omega(final long seed) {
+    final double[] omega = new double[columns * kp];
+    ParallelBlocks.run(columns, (long) columns * kp, MatrixMultiplication.MATRIX_VECTOR_PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+              for (int column = 0; column < kp; column++) {
+                omega[row * kp + column] = OmegaMatrix.value(seed, row, column);
+              }
+            }
+          }
+        });
+    return omega;
+  }
+
+  /** A b for a row-major n x (k + p) matrix b, by blocks of rows of A */
+  private double[] times(final Matrix a, final double[] b) {
+    final double[] y = new double[rows * kp];
+    ParallelBlocks.run(rows, (long) rows * columns * kp, MatrixMultiplication.PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromRow, int toRow) {
+            for (int row = fromRow; row < toRow; row++) {
+              int yi = row * kp;
+              Iterator<Vector.Element> nonZeros = a.viewRow(row).iterateNonZero();
+              while (nonZeros.hasNext()) {
+                Vector.Element element = nonZeros.next();
+                double aij = element.get();
+                int bj = element.index() * kp;
+                for (int column = 0; column < kp; column++) {
+                  y[yi + column] += aij * b[bj + column];
+                }
+              }
+            }
+          }
+        });
+    return y;
+  }
+
+  /**
+   * A' q for a row-major m x (k + p) matrix q. The rows of A are split in one block per thread, each adding up the
+   * outer products of its rows into its own partial result.
+   */
+  private double[] transposeTimes(final Matrix a, final double[] q) {
+    int blocks = Math.min(rows, ParallelBlocks.NUM_THREADS);
+    final int rowsPerBlock = (rows + blocks - 1) / blocks;
+    final double[][] partialResults = new double[blocks][];
+    ParallelBlocks.run(blocks, (long) rows * columns * kp, MatrixMultiplication.PARALLELISM_THRESHOLD,
+        new ParallelBlocks.BlockKernel() {
+          @Override
+          public void compute(int fromBlock, int toBlock) {
+            for (int block = fromBlock; block < toBlock; block++) {
+              double[] bt = new double[columns * kp];
+              int toRow = Math.min(rows, (block + 1) * rowsPerBlock);
+              for (int row = block * rowsPerBlock; row < toRow; row++) {
+                int qi = row * kp;
+                Iterator<Vector.Element> nonZeros = a.viewRow(row).iterateNonZero();
+                while (nonZeros.hasNext()) {
+                  Vector.Element element = nonZeros.next();
+                  double aij = element.get();
+                  int btj = element.index() * kp;
+                  for (int column = 0; column < kp; column++) {
+                    bt[btj + column] += aij * q[qi + column];
+                  }
+                }
+              }
+              partialResults[block] = bt;
+            }
+          }
+        });
+    return MatrixMultiplication.sumPartialResults(partialResults, columns * kp);
+  }
+
+  /** the Q of the QR decomposition of a row-major m x (k + p) matrix, row-major */
+  private double[] orthonormalize(double[] y) {
+    Matrix basis = new BlockedQRDecomposition(new RowMajorDenseMatrix(rows, kp, y, true)).getQ();
+    double[] q = new double[rows * kp];
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < kp; column++) {
+        q[row * kp + column] = basis.getQuick(row, column);
+      }
+    }
+    return q;
+  }
+
+  /** B B', summing the outer products of the rows of B' */
+  private double[][] bbt() {
+    double[][] bbt = new double[kp][kp];
+    for (int row = 0; row < columns; row++) {
+      int offset = row * kp;
+      for (int i = 0; i < kp; i++) {
+        double bti = bt[offset + i];
+        if (bti != 0.0) {
+          double[] bbtRow = bbt[i];
+          for (int j = i; j < kp; j++) {
+            bbtRow[j] += bti * bt[offset + j];
+          }
+        }
+      }
+    }
+    for (int i = 0; i < kp; i++) {
+      for (int j = 0; j < i; j++) {
+        bbt[i][j] = bbt[j][i];
+      }
+    }
+    return bbt;
+  }
+}
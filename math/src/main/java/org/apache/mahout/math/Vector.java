@@ -20,6 +20,7 @@ package org.apache.mahout.math;
 
 import org.apache.mahout.math.function.DoubleDoubleFunction;
 import org.apache.mahout.math.function.DoubleFunction;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 
 import java.util.Iterator;
 
@@ -130,6 +131,26 @@ public interface Vector extends Cloneable, Iterable<Vector.Element> {
    */
   Iterator<Element> iterateNonZero();
 
+  /**
+   * Applies the procedure to the index and value of every non-zero element, without creating an {@link Element} per
+   * element. Elements are visited in index order if this vector is sequential access. The vector must not be changed
+   * by the procedure.
+   *
+   * @param procedure called with the index and the value of each element, returns false to stop the iteration
+   * @return false if the procedure stopped the iteration, true otherwise
+   */
+  boolean forEachNonZero(IntDoubleProcedure procedure);
+
+  /**
+   * Copies the indices and values of all non-zero elements into the given arrays, in index order if this vector is
+   * sequential access.
+   *
+   * @param indices receives the indices, must hold at least {@link #getNumNondefaultElements()} elements
+   * @param values receives the values, must hold at least {@link #getNumNondefaultElements()} elements
+   * @return the number of non-zero elements copied
+   */
+  int getNonZeros(int[] indices, double[] values);
+
   /**
    * Return an object of Vector.Element representing an element of this Vector. Useful when designing new iterator
    * types.
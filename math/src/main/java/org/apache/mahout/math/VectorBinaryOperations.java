@@ -0,0 +1,229 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Iterator;
+
+import org.apache.mahout.math.function.DoubleDoubleFunction;
+
+/**
+ * <p>Chooses how {@link AbstractVector#assign(Vector, DoubleDoubleFunction)} and
+ * {@link AbstractVector#aggregate(Vector, DoubleDoubleFunction, DoubleDoubleFunction)} traverse their operands.</p>
+ *
+ * <p>The choice is made on the properties that the functions declare, see {@link DoubleDoubleFunction}. When both
+ * operands are sparse and the function is zero preserving, only the indices where at least one operand is non-zero
+ * can contribute. Those are visited by merging the non-zero elements of two sequential access vectors or by probing
+ * the other operand for every non-zero element of one of them. Functions that are zero annihilating or have zero as
+ * their right identity restrict this further to the non-zero elements of one or both operands. All other cases loop
+ * over every index.</p>
+ */
+final class VectorBinaryOperations {
+
+  private VectorBinaryOperations() {
+  }
+
+  private static boolean isSparse(Vector vector) {
+    return !vector.isDense();
+  }
+
+  static void assign(Vector x, Vector y, DoubleDoubleFunction function) {
+    if (function.isRightZeroIdentity()) {
+      Iterator<Vector.Element> nonZeroElements = y.iterateNonZero();
+      while (nonZeroElements.hasNext()) {
+        Vector.Element e = nonZeroElements.next();
+        x.setQuick(e.index(), function.apply(x.getQuick(e.index()), e.get()));
+      }
+    } else if (isSparse(x) && isSparse(y) && function.isZeroPreserving()) {
+      assignSparse(x, y, function);
+    } else {
+      for (int i = 0; i < x.size(); i++) {
+        x.setQuick(i, function.apply(x.getQuick(i), y.getQuick(i)));
+      }
+    }
+  }
+
+  /* values are collected first, as setting elements of a sparse vector while iterating over it is not safe */
+  private static void assignSparse(Vector x, Vector y, DoubleDoubleFunction function) {
+    NonZeros xNonZeros = new NonZeros(x);
+    double[] xResults = new double[xNonZeros.size];
+    for (int n = 0; n < xNonZeros.size; n++) {
+      xResults[n] = function.apply(xNonZeros.values[n], y.getQuick(xNonZeros.indices[n]));
+    }
+
+    if (!function.isZeroAnnihilating()) {
+      NonZeros yNonZeros = new NonZeros(y);
+      int numYResults = 0;
+      int[] yResultIndices = new int[yNonZeros.size];
+      double[] yResults = new double[yNonZeros.size];
+      for (int n = 0; n < yNonZeros.size; n++) {
+        int index = yNonZeros.indices[n];
+        if (x.getQuick(index) == 0.0) {
+          yResultIndices[numYResults] = index;
+          yResults[numYResults++] = function.apply(0.0, yNonZeros.values[n]);
+        }
+      }
+      for (int n = 0; n < numYResults; n++) {
+        x.setQuick(yResultIndices[n], yResults[n]);
+      }
+    }
+
+    for (int n = 0; n < xNonZeros.size; n++) {
+      x.setQuick(xNonZeros.indices[n], xResults[n]);
+    }
+  }
+
+  static double aggregate(Vector x, Vector y, DoubleDoubleFunction aggregator, DoubleDoubleFunction combiner) {
+    if (aggregator.isAssociativeAndCommutative() && isSparse(x) && isSparse(y) && combiner.isZeroPreserving()) {
+      Aggregation aggregation = new Aggregation(aggregator);
+      if (x.isSequentialAccess() && y.isSequentialAccess()) {
+        merge(x, y, combiner, combiner.isZeroAnnihilating(), aggregation);
+      } else if (combiner.isZeroAnnihilating()) {
+        boolean probeY = x.getNumNondefaultElements() <= y.getNumNondefaultElements();
+        probe(probeY ? x : y, probeY ? y : x, combiner, !probeY, aggregation);
+      } else {
+        probe(x, y, combiner, false, aggregation);
+        probeMissing(y, x, combiner, aggregation);
+      }
+      return aggregation.result(x.size());
+    }
+
+    double result = combiner.apply(x.getQuick(0), y.getQuick(0));
+    for (int i = 1; i < x.size(); i++) {
+      result = aggregator.apply(result, combiner.apply(x.getQuick(i), y.getQuick(i)));
+    }
+    return result;
+  }
+
+  /** aggregates the combination of every non-zero element of a with the element of b at the same index */
+  private static void probe(Vector a, Vector b, DoubleDoubleFunction combiner, boolean swapArguments,
+      Aggregation aggregation) {
+    Iterator<Vector.Element> nonZeroElements = a.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      Vector.Element e = nonZeroElements.next();
+      double other = b.getQuick(e.index());
+      aggregation.add(swapArguments ? combiner.apply(other, e.get()) : combiner.apply(e.get(), other));
+    }
+  }
+
+  /** aggregates the combination of zero with every non-zero element of b where a is zero */
+  private static void probeMissing(Vector b, Vector a, DoubleDoubleFunction combiner, Aggregation aggregation) {
+    Iterator<Vector.Element> nonZeroElements = b.iterateNonZero();
+    while (nonZeroElements.hasNext()) {
+      Vector.Element e = nonZeroElements.next();
+      if (a.getQuick(e.index()) == 0.0) {
+        aggregation.add(combiner.apply(0.0, e.get()));
+      }
+    }
+  }
+
+  /** walks the non-zero elements of two sequential access vectors in index order */
+  private static void merge(Vector x, Vector y, DoubleDoubleFunction combiner, boolean intersectionOnly,
+      Aggregation aggregation) {
+    Iterator<Vector.Element> xElements = x.iterateNonZero();
+    Iterator<Vector.Element> yElements = y.iterateNonZero();
+    int xIndex = Integer.MAX_VALUE;
+    double xValue = 0;
+    int yIndex = Integer.MAX_VALUE;
+    double yValue = 0;
+    if (xElements.hasNext()) {
+      Vector.Element e = xElements.next();
+      xIndex = e.index();
+      xValue = e.get();
+    }
+    if (yElements.hasNext()) {
+      Vector.Element e = yElements.next();
+      yIndex = e.index();
+      yValue = e.get();
+    }
+    while (xIndex != Integer.MAX_VALUE || yIndex != Integer.MAX_VALUE) {
+      boolean advanceX = xIndex <= yIndex;
+      boolean advanceY = yIndex <= xIndex;
+      if (advanceX && advanceY) {
+        aggregation.add(combiner.apply(xValue, yValue));
+      } else if (intersectionOnly) {
+        if (advanceX && yIndex == Integer.MAX_VALUE || advanceY && xIndex == Integer.MAX_VALUE) {
+          return;
+        }
+      } else if (advanceX) {
+        aggregation.add(combiner.apply(xValue, 0.0));
+      } else {
+        aggregation.add(combiner.apply(0.0, yValue));
+      }
+      if (advanceX) {
+        xIndex = Integer.MAX_VALUE;
+        if (xElements.hasNext()) {
+          Vector.Element e = xElements.next();
+          xIndex = e.index();
+          xValue = e.get();
+        }
+      }
+      if (advanceY) {
+        yIndex = Integer.MAX_VALUE;
+        if (yElements.hasNext()) {
+          Vector.Element e = yElements.next();
+          yIndex = e.index();
+          yValue = e.get();
+        }
+      }
+    }
+  }
+
+  /** aggregates the visited values, the remaining indices contribute zeros */
+  private static final class Aggregation {
+
+    private final DoubleDoubleFunction aggregator;
+    private double result;
+    private int count;
+
+    Aggregation(DoubleDoubleFunction aggregator) {
+      this.aggregator = aggregator;
+    }
+
+    void add(double value) {
+      result = count == 0 ? value : aggregator.apply(result, value);
+      count++;
+    }
+
+    double result(int size) {
+      if (count == 0) {
+        return 0.0;
+      }
+      return count < size ? aggregator.apply(result, 0.0) : result;
+    }
+  }
+
+  /** a copy of the non-zero elements of a vector */
+  private static final class NonZeros {
+
+    private final int[] indices;
+    private final double[] values;
+    private int size;
+
+    NonZeros(Vector vector) {
+      int numNonDefaultElements = vector.getNumNondefaultElements();
+      indices = new int[numNonDefaultElements];
+      values = new double[numNonDefaultElements];
+      Iterator<Vector.Element> nonZeroElements = vector.iterateNonZero();
+      while (nonZeroElements.hasNext() && size < numNonDefaultElements) {
+        Vector.Element e = nonZeroElements.next();
+        indices[size] = e.index();
+        values[size++] = e.get();
+      }
+    }
+  }
+}
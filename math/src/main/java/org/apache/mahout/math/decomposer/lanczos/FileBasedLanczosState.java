@@ -0,0 +1,207 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.decomposer.lanczos;
+
+import com.google.common.collect.AbstractIterator;
+import org.apache.mahout.math.AbstractVector;
+import org.apache.mahout.math.DenseMatrix;
+import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.FileBasedMatrix;
+import org.apache.mahout.math.Matrix;
+import org.apache.mahout.math.Vector;
+import org.apache.mahout.math.VectorIterable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * {@link LanczosState} that keeps the basis and the singular vectors in memory-mapped files instead of on the heap,
+ * as rows of two {@link FileBasedMatrix}es in the given directory.  The operating system pages them in and out, so
+ * that a few hundred vectors of tens of millions of elements fit on one machine.  Vectors are returned as read only
+ * views of the mapped rows, so reorthogonalization and the computation of the singular vectors read the basis from
+ * the file without copying it onto the heap.
+ */
+public class FileBasedLanczosState extends LanczosState {
+
+  public static final String BASIS_FILE = "basis";
+  public static final String SINGULAR_FILE = "singular";
+
+  private final FileBasedMatrix basisVectors;
+  private final FileBasedMatrix singularVectorRows;
+  private final BitSet storedBasisVectors = new BitSet();
+  private final BitSet storedSingularVectors = new BitSet();
+
+  public FileBasedLanczosState(VectorIterable corpus, int desiredRank, Vector initialVector, File dir)
+    throws IOException {
+    super(corpus, desiredRank, initialVector);
+    if (!dir.isDirectory() && !dir.mkdirs()) {
+      throw new IOException("Unable to create: " + dir);
+    }
+    int dimension = initialVector.size();
+    basisVectors = FileBasedMatrix.create(new File(dir, BASIS_FILE), desiredRank, dimension);
+    singularVectorRows = FileBasedMatrix.create(new File(dir, SINGULAR_FILE), desiredRank, dimension);
+    // the constructor of LanczosState put the initial vector on the heap
+    for (Map.Entry<Integer, Vector> entry : basis.entrySet()) {
+      setBasisVector(entry.getKey(), entry.getValue());
+    }
+    basis.clear();
+  }
+
+  @Override
+  public Vector getBasisVector(int i) {
+    return i >= 0 && storedBasisVectors.get(i) ? new MappedRow(basisVectors, i) : null;
+  }
+
+  @Override
+  public int getBasisSize() {
+    return storedBasisVectors.cardinality();
+  }
+
+  @Override
+  public void setBasisVector(int i, Vector basisVector) {
+    if (basisVectors == null) {
+      super.setBasisVector(i, basisVector);
+    } else {
+      basisVectors.assignRow(i, basisVector);
+      storedBasisVectors.set(i);
+    }
+  }
+
+  @Override
+  public Vector getRightSingularVector(int i) {
+    return i >= 0 && storedSingularVectors.get(i) ? new MappedRow(singularVectorRows, i) : null;
+  }
+
+  @Override
+  public void setRightSingularVector(int i, Vector vector) {
+    singularVectorRows.assignRow(i, vector);
+    storedSingularVectors.set(i);
+  }
+
+  /**
+   * A read only view of a row of a {@link FileBasedMatrix}
+   */
+  private static final class MappedRow extends AbstractVector {
+
+    private final FileBasedMatrix matrix;
+    private final int row;
+
+    private MappedRow(FileBasedMatrix matrix, int row) {
+      super(matrix.columnSize());
+      this.matrix = matrix;
+      this.row = row;
+    }
+
+    @Override
+    protected Matrix matrixLike(int rows, int columns) {
+      return new DenseMatrix(rows, columns);
+    }
+
+    /** the clone is a copy on the heap */
+    @Override
+    public Vector clone() {
+      return new DenseVector(this);
+    }
+
+    @Override
+    public boolean isDense() {
+      return true;
+    }
+
+    @Override
+    public boolean isSequentialAccess() {
+      return true;
+    }
+
+    @Override
+    public double getQuick(int index) {
+      return matrix.getQuick(row, index);
+    }
+
+    @Override
+    public void setQuick(int index, double value) {
+      throw new UnsupportedOperationException("Can't set a value in a read only row");
+    }
+
+    @Override
+    public Vector like() {
+      return new DenseVector(size());
+    }
+
+    @Override
+    public int getNumNondefaultElements() {
+      return size();
+    }
+
+    @Override
+    public Iterator<Element> iterator() {
+      return new RowIterator(false);
+    }
+
+    @Override
+    public Iterator<Element> iterateNonZero() {
+      return new RowIterator(true);
+    }
+
+    private final class RowIterator extends AbstractIterator<Element> {
+
+      private final boolean skipZeros;
+      private final RowElement element = new RowElement();
+
+      private RowIterator(boolean skipZeros) {
+        this.skipZeros = skipZeros;
+      }
+
+      @Override
+      protected Element computeNext() {
+        do {
+          element.index++;
+          if (element.index >= size()) {
+            return endOfData();
+          }
+          element.value = getQuick(element.index);
+        } while (skipZeros && element.value == 0.0);
+        return element;
+      }
+    }
+
+    private static final class RowElement implements Element {
+
+      private int index = -1;
+      private double value;
+
+      @Override
+      public double get() {
+        return value;
+      }
+
+      @Override
+      public int index() {
+        return index;
+      }
+
+      @Override
+      public void set(double value) {
+        throw new UnsupportedOperationException("Can't set a value in a read only row");
+      }
+    }
+  }
+}
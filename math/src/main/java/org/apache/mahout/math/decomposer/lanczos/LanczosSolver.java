@@ -51,8 +51,14 @@ import java.util.Map;
  * <p>This implementation uses {@link EigenDecomposition} to do the
  * eigenvalue extraction from the small (desiredRank x desiredRank) tridiagonal matrix.  Numerical stability is
  * achieved via brute-force: re-orthogonalization against all previous eigenvectors is computed after every pass.
- * This can be made smarter if (when!) this proves to be a major bottleneck.  Of course, this step can be parallelized
- * as well.
+ * </p>
+ * <p>
+ * With partial reorthogonalization, the loss of orthogonality is instead estimated from the tridiagonal matrix by
+ * {@link OrthogonalityEstimate}, and a new basis vector is only orthogonalized against the previous ones when the
+ * estimate calls for it.  For a basis of hundreds of vectors, kept in a {@link FileBasedLanczosState} say, this saves
+ * most of the passes over the basis.  The products with the corpus run in parallel for the in-memory
+ * {@link org.apache.mahout.math.CompressedSparseRowMatrix} and the memory-mapped
+ * {@link org.apache.mahout.math.FileBasedMatrix} and {@link org.apache.mahout.math.FileBasedSparseMatrix}.
  * </p>
  */
 public class LanczosSolver {
@@ -65,6 +71,9 @@ public class LanczosSolver {
     ITERATE, ORTHOGANLIZE, TRIDIAG_DECOMP, FINAL_EIGEN_CREATE
   }
 
+  private final boolean partialReorthogonalization;
+  private int reorthogonalizations;
+
   private final Map<TimingSection, Long> startTimes = new EnumMap<TimingSection, Long>(TimingSection.class);
   private final Map<TimingSection, Long> times = new EnumMap<TimingSection, Long>(TimingSection.class);
 
@@ -81,6 +90,18 @@ public class LanczosSolver {
     }
   }
 
+  public LanczosSolver() {
+    this(false);
+  }
+
+  /**
+   * @param partialReorthogonalization whether to orthogonalize new basis vectors against the previous ones only when
+   *                                   the estimated loss of orthogonality calls for it, rather than every time
+   */
+  public LanczosSolver(boolean partialReorthogonalization) {
+    this.partialReorthogonalization = partialReorthogonalization;
+  }
+
   public void solve(LanczosState state,
                     int desiredRank) {
     solve(state, desiredRank, false);
@@ -97,6 +118,9 @@ public class LanczosSolver {
     Vector previousVector = state.getBasisVector(i - 2);
     double beta = 0;
     Matrix triDiag = state.getDiagonalMatrix();
+    reorthogonalizations = 0;
+    OrthogonalityEstimate orthogonality =
+        partialReorthogonalization ? new OrthogonalityEstimate(triDiag, i - 1) : null;
     while (i < desiredRank) {
       startTime(TimingSection.ITERATE);
       Vector nextVector = isSymmetric ? corpus.times(currentVector) : corpus.timesSquared(currentVector);
@@ -113,7 +137,10 @@ public class LanczosSolver {
       nextVector.assign(currentVector, new PlusMult(-alpha));
       endTime(TimingSection.ITERATE);
       startTime(TimingSection.ORTHOGANLIZE);
-      orthoganalizeAgainstAllButLast(nextVector, state);
+      if (orthogonality == null || orthogonality.update(i - 1, alpha, nextVector.norm(2))) {
+        orthoganalizeAgainstAllButLast(nextVector, state);
+        reorthogonalizations++;
+      }
       endTime(TimingSection.ORTHOGANLIZE);
       // and normalize
       beta = nextVector.norm(2);
@@ -134,6 +161,9 @@ public class LanczosSolver {
       }
       state.setIterationNumber(++i);
     }
+    if (orthogonality != null) {
+      log.info("Reorthogonalized {} basis vectors", reorthogonalizations);
+    }
     startTime(TimingSection.TRIDIAG_DECOMP);
 
     log.info("Lanczos iteration complete - now to diagonalize the tri-diagonal auxiliary matrix.");
@@ -170,6 +200,14 @@ public class LanczosSolver {
     endTime(TimingSection.FINAL_EIGEN_CREATE);
   }
 
+  /**
+   * @return the number of basis vectors that were orthogonalized against all previous ones in the last call of
+   *         {@link #solve}, one per iteration unless partial reorthogonalization is enabled
+   */
+  public int getReorthogonalizations() {
+    return reorthogonalizations;
+  }
+
   protected static double calculateScaleFactor(Vector nextVector) {
     return nextVector.norm(2);
   }
@@ -0,0 +1,112 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.decomposer.lanczos;
+
+import org.apache.mahout.math.Matrix;
+
+/**
+ * Estimates the loss of orthogonality of the Lanczos basis without computing any inner products, by the
+ * ω-recurrence of Simon, "The Lanczos algorithm with partial reorthogonalization", Math. Comp. 42 (1984).  ω(j,k)
+ * bounds the inner product of basis vectors j and k and follows from the entries of the tridiagonal matrix and a
+ * model of round-off.  Once it exceeds the square root of the machine precision, the next basis vector and the one
+ * after it are orthogonalized against all previous ones, which keeps the basis semi-orthogonal and the Ritz values as
+ * accurate as full reorthogonalization does.
+ */
+final class OrthogonalityEstimate {
+
+  private static final double EPSILON = Math.ulp(1.0);
+  private static final double SQRT_EPSILON = Math.sqrt(EPSILON);
+
+  private final double[] alphas;
+  private final double[] betas;
+  /* omega[k] estimates the inner product of basis vectors j and k, previousOmega of j - 1 and k */
+  private double[] omega;
+  private double[] previousOmega;
+  private double[] nextOmega;
+  private double normEstimate;
+  private boolean reorthogonalizeNext;
+
+  /**
+   * @param triDiagonal the tridiagonal matrix of the solver, holding the entries of the basis vectors so far
+   * @param lastVector  the number of the last basis vector so far; earlier vectors are assumed to have been
+   *                    orthogonalized, and when there are any, the next vector is orthogonalized against them.
+   */
+  OrthogonalityEstimate(Matrix triDiagonal, int lastVector) {
+    int size = triDiagonal.rowSize() + 1;
+    alphas = new double[size];
+    betas = new double[size];
+    omega = new double[size];
+    previousOmega = new double[size];
+    nextOmega = new double[size];
+    for (int k = 0; k < lastVector; k++) {
+      alphas[k] = triDiagonal.get(k, k);
+      betas[k] = k + 1 < triDiagonal.columnSize() ? triDiagonal.get(k, k + 1) : 0;
+      omega[k] = EPSILON;
+      previousOmega[k] = EPSILON;
+    }
+    omega[lastVector] = 1;
+    if (lastVector > 0) {
+      previousOmega[lastVector - 1] = 1;
+    }
+    reorthogonalizeNext = lastVector > 0;
+  }
+
+  /**
+   * Advances the recurrence by basis vector j + 1, whose residual has been computed from basis vector j.
+   *
+   * @param j     the number of the last basis vector
+   * @param alpha the diagonal entry of the tridiagonal matrix for basis vector j
+   * @param beta  the norm of the residual, the off-diagonal entry between basis vectors j and j + 1
+   * @return whether the residual needs to be orthogonalized against all previous basis vectors
+   */
+  boolean update(int j, double alpha, double beta) {
+    alphas[j] = alpha;
+    betas[j] = beta;
+    normEstimate = Math.max(normEstimate, Math.abs(alpha) + beta + (j > 0 ? betas[j - 1] : 0));
+    if (beta == 0) {
+      return false;
+    }
+    double largest = 0;
+    for (int k = 0; k < j; k++) {
+      double sum = betas[k] * omega[k + 1] + (alphas[k] - alpha) * omega[k] - betas[j - 1] * previousOmega[k];
+      if (k > 0) {
+        sum += betas[k - 1] * omega[k - 1];
+      }
+      // round-off of the step, with the sign that increases the estimate
+      nextOmega[k] = (sum + Math.copySign(2 * EPSILON * normEstimate, sum)) / beta;
+      largest = Math.max(largest, Math.abs(nextOmega[k]));
+    }
+    nextOmega[j] = EPSILON;
+    nextOmega[j + 1] = 1;
+
+    boolean reorthogonalize = reorthogonalizeNext || largest > SQRT_EPSILON;
+    // the vector after a reorthogonalized one is reorthogonalized as well, as it inherits the loss of orthogonality
+    reorthogonalizeNext = reorthogonalize && !reorthogonalizeNext;
+    if (reorthogonalize) {
+      for (int k = 0; k <= j; k++) {
+        nextOmega[k] = EPSILON;
+      }
+    }
+
+    double[] oldest = previousOmega;
+    previousOmega = omega;
+    omega = nextOmega;
+    nextOmega = oldest;
+    return reorthogonalize;
+  }
+}
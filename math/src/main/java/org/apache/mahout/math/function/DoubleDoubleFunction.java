@@ -27,9 +27,13 @@ It is provided "as is" without expressed or implied warranty.
 package org.apache.mahout.math.function;
 
 /**
- * Interface that represents a function object: a function that takes two arguments and returns a single value.
+ * A function object: a function that takes two arguments and returns a single value. The properties that
+ * {@link org.apache.mahout.math.Vector#assign(org.apache.mahout.math.Vector, DoubleDoubleFunction)} and
+ * {@link org.apache.mahout.math.Vector#aggregate(org.apache.mahout.math.Vector, DoubleDoubleFunction,
+ * DoubleDoubleFunction)} use to skip zeros are declared by overriding the {@code is...} methods, which all return
+ * false by default.
  **/
-public interface DoubleDoubleFunction {
+public abstract class DoubleDoubleFunction {
 
   /**
    * Apply the function to the arguments and return the result
@@ -38,5 +42,28 @@ public interface DoubleDoubleFunction {
    * @param arg2 a double for the second argument
    * @return the result of applying the function
    */
-  double apply(double arg1, double arg2);
+  public abstract double apply(double arg1, double arg2);
+
+  /** @return true if f(x, 0) == x for every x, so that zeros in the second argument leave the first unchanged */
+  public boolean isRightZeroIdentity() {
+    return false;
+  }
+
+  /** @return true if f(x, 0) == f(0, y) == 0 for all finite x and y */
+  public boolean isZeroAnnihilating() {
+    return false;
+  }
+
+  /** @return true if f(0, 0) == 0, so that the result is zero wherever both arguments are */
+  public boolean isZeroPreserving() {
+    return false;
+  }
+
+  /**
+   * @return true if f is associative and commutative and f(f(x, 0), 0) == f(x, 0), so that values can be aggregated
+   *         in any order and any number of zeros can be aggregated as a single one
+   */
+  public boolean isAssociativeAndCommutative() {
+    return false;
+  }
 }
@@ -409,6 +409,16 @@ public final class Functions {
     public double apply(double a, double b) {
       return Math.max(a, b);
     }
+
+    @Override
+    public boolean isZeroPreserving() {
+      return true;
+    }
+
+    @Override
+    public boolean isAssociativeAndCommutative() {
+      return true;
+    }
   };
 
   /** Function that returns <tt>Math.min(a,b)</tt>. */
@@ -418,6 +428,16 @@ public final class Functions {
     public double apply(double a, double b) {
       return Math.min(a, b);
     }
+
+    @Override
+    public boolean isZeroPreserving() {
+      return true;
+    }
+
+    @Override
+    public boolean isAssociativeAndCommutative() {
+      return true;
+    }
   };
 
   /** Function that returns <tt>a - b</tt>. */
@@ -444,6 +464,21 @@ public final class Functions {
     public double apply(double a, double b) {
       return a * b;
     }
+
+    @Override
+    public boolean isZeroAnnihilating() {
+      return true;
+    }
+
+    @Override
+    public boolean isZeroPreserving() {
+      return true;
+    }
+
+    @Override
+    public boolean isAssociativeAndCommutative() {
+      return true;
+    }
   };
   
   /** Function that returns <tt>a + b</tt>. */
@@ -453,6 +488,21 @@ public final class Functions {
     public double apply(double a, double b) {
       return a + b;
     }
+
+    @Override
+    public boolean isRightZeroIdentity() {
+      return true;
+    }
+
+    @Override
+    public boolean isZeroPreserving() {
+      return true;
+    }
+
+    @Override
+    public boolean isAssociativeAndCommutative() {
+      return true;
+    }
   };
 
   /** Function that returns <tt>Math.abs(a) + Math.abs(b)</tt>. */
@@ -462,6 +512,11 @@ public final class Functions {
     public double apply(double a, double b) {
       return Math.abs(a) + Math.abs(b);
     }
+
+    @Override
+    public boolean isZeroPreserving() {
+      return true;
+    }
   };
 
   /** Function that returns <tt>Math.pow(a,b)</tt>. */
@@ -854,6 +909,21 @@ public final class Functions {
       public double apply(double a, double b) {
         return function.apply(b, a);
       }
+
+      @Override
+      public boolean isZeroAnnihilating() {
+        return function.isZeroAnnihilating();
+      }
+
+      @Override
+      public boolean isZeroPreserving() {
+        return function.isZeroPreserving();
+      }
+
+      @Override
+      public boolean isAssociativeAndCommutative() {
+        return function.isAssociativeAndCommutative();
+      }
     };
   }
 }
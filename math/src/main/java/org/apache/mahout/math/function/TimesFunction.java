@@ -16,7 +16,7 @@
  */
 package org.apache.mahout.math.function;
 
-public final class TimesFunction implements DoubleDoubleFunction {
+public final class TimesFunction extends DoubleDoubleFunction {
 
   /**
    * Computes the product of two numbers.
@@ -29,4 +29,19 @@ public final class TimesFunction implements DoubleDoubleFunction {
   public double apply(double x, double y) {
     return x * y;
   }
+
+  @Override
+  public boolean isZeroAnnihilating() {
+    return true;
+  }
+
+  @Override
+  public boolean isZeroPreserving() {
+    return true;
+  }
+
+  @Override
+  public boolean isAssociativeAndCommutative() {
+    return true;
+  }
 }
@@ -0,0 +1,200 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.mahout.math.jet.random.engine;
+
+import java.util.Random;
+
+/**
+ * Fast, splittable uniform pseudo-random number generator: the xoroshiro128+ generator of Blackman and Vigna, with
+ * its 128 bits of state seeded through SplitMix64.  It has a period of 2<sup>128</sup>-1, passes BigCrush but for the
+ * lowest bits of {@link #nextLong()}, which the other methods discard, and draws a <tt>double</tt> several times
+ * faster than a {@link java.util.Random} or a synchronized Mersenne Twister.
+ * <p>
+ * As a {@link Random} it can be passed to every distribution of this package and to other callers of
+ * {@link org.apache.mahout.common.RandomUtils#getRandom()}.  Unlike {@link Random} it is <b>not synchronized</b>:
+ * each thread should draw from its own generator, obtained with {@link #split()} or
+ * {@link #Xoroshiro128PlusRandom(long, long)}, or use {@link org.apache.mahout.common.RandomUtils#getThreadRandom()}.
+ * <p>
+ * Arrays of uniform and gaussian samples can be filled at once with {@link #nextDoubles(double[], int, int)} and
+ * {@link #nextGaussians(double[], int, int)}.
+ * <p>
+ * See
+ * <p>
+ * http://xoroshiro.di.unimi.it/
+ */
+public final class Xoroshiro128PlusRandom extends Random {
+
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+  private static final double DOUBLE_UNIT = 1.0 / (1L << 53);
+
+  private long s0;
+  private long s1;
+
+  private double nextNextGaussian;
+  private boolean haveNextNextGaussian;
+
+  /**
+   * Constructs a generator with the given seed. Generators with the same seed produce the same sequence.
+   */
+  public Xoroshiro128PlusRandom(long seed) {
+    super(0L);
+    setSeed(seed);
+  }
+
+  /**
+   * Constructs the generator of one of several streams derived from the same seed, for instance of a task among the
+   * tasks of a job. Generators with the same seed and stream produce the same sequence, whatever the order in which
+   * they are created, and the streams of different numbers are independent.
+   */
+  public Xoroshiro128PlusRandom(long seed, long stream) {
+    this(mix64(seed + mix64(stream * GOLDEN_GAMMA)));
+  }
+
+  /** the finalizer of SplitMix64 */
+  private static long mix64(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    // called by the constructor of Random, before the state is initialized
+    s0 = mix64(seed + GOLDEN_GAMMA);
+    s1 = mix64(seed + 2 * GOLDEN_GAMMA);
+    if (s0 == 0 && s1 == 0) {
+      s1 = GOLDEN_GAMMA;
+    }
+    haveNextNextGaussian = false;
+  }
+
+  /**
+   * Returns a new generator seeded from this one, which advances this one by a draw. The sequences of the two
+   * generators are statistically independent.
+   */
+  public Xoroshiro128PlusRandom split() {
+    return new Xoroshiro128PlusRandom(nextLong());
+  }
+
+  @Override
+  public long nextLong() {
+    long a = s0;
+    long b = s1;
+    long result = a + b;
+    b ^= a;
+    s0 = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+    s1 = Long.rotateLeft(b, 37);
+    return result;
+  }
+
+  @Override
+  protected int next(int bits) {
+    return (int) (nextLong() >>> (64 - bits));
+  }
+
+  @Override
+  public int nextInt() {
+    return (int) (nextLong() >>> 32);
+  }
+
+  /**
+   * @return a uniformly distributed <tt>double</tt> in <tt>[0.0, 1.0)</tt>, a multiple of 2<sup>-53</sup>.
+   */
+  @Override
+  public double nextDouble() {
+    return (nextLong() >>> 11) * DOUBLE_UNIT;
+  }
+
+  /**
+   * Unlike {@link Random#nextGaussian()} this is not synchronized.
+   */
+  @Override
+  public double nextGaussian() {
+    if (haveNextNextGaussian) {
+      haveNextNextGaussian = false;
+      return nextNextGaussian;
+    }
+    double v1;
+    double v2;
+    double s;
+    do {
+      v1 = 2 * nextDouble() - 1;
+      v2 = 2 * nextDouble() - 1;
+      s = v1 * v1 + v2 * v2;
+    } while (s >= 1 || s == 0);
+    double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+    nextNextGaussian = v2 * multiplier;
+    haveNextNextGaussian = true;
+    return v1 * multiplier;
+  }
+
+  public void nextDoubles(double[] values) {
+    nextDoubles(values, 0, values.length);
+  }
+
+  /**
+   * Fills a range of an array with uniformly distributed values in <tt>[0.0, 1.0)</tt>, the values
+   * {@link #nextDouble()} would return.
+   */
+  public void nextDoubles(double[] values, int from, int to) {
+    long a = s0;
+    long b = s1;
+    for (int i = from; i < to; i++) {
+      values[i] = ((a + b) >>> 11) * DOUBLE_UNIT;
+      b ^= a;
+      a = Long.rotateLeft(a, 24) ^ b ^ (b << 16);
+      b = Long.rotateLeft(b, 37);
+    }
+    s0 = a;
+    s1 = b;
+  }
+
+  public void nextGaussians(double[] values) {
+    nextGaussians(values, 0, values.length);
+  }
+
+  /**
+   * Fills a range of an array with standard normal values, two at a time by the polar method.
+   */
+  public void nextGaussians(double[] values, int from, int to) {
+    int i = from;
+    if (i < to && haveNextNextGaussian) {
+      haveNextNextGaussian = false;
+      values[i++] = nextNextGaussian;
+    }
+    while (i < to) {
+      double v1;
+      double v2;
+      double s;
+      do {
+        v1 = 2 * nextDouble() - 1;
+        v2 = 2 * nextDouble() - 1;
+        s = v1 * v1 + v2 * v2;
+      } while (s >= 1 || s == 0);
+      double multiplier = Math.sqrt(-2 * Math.log(s) / s);
+      values[i++] = v1 * multiplier;
+      if (i < to) {
+        values[i++] = v2 * multiplier;
+      } else {
+        nextNextGaussian = v2 * multiplier;
+        haveNextNextGaussian = true;
+      }
+    }
+  }
+}
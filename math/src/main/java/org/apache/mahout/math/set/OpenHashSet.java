@@ -80,7 +80,7 @@ public class OpenHashSet<T> extends AbstractSet implements Set<T>  {
   /** Removes all values associations from the receiver. Implicitly calls <tt>trimToSize()</tt>. */
   @Override
   public void clear() {
-    Arrays.fill(this.state, 0, state.length - 1, FREE);
+    Arrays.fill(this.state, FREE);
     distinct = 0;
     freeEntries = table.length; // delta
     trimToSize();
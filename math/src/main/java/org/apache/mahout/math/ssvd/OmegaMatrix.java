@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.ssvd;
+
+/**
+ * Values of the random projection matrix &Omega; of stochastic SVD.  Each value is uniformly distributed within
+ * [-0.5, 0.5) and is a murmur hash of its coordinates and a seed, so that the same seed gives the same matrix wherever
+ * it is computed: the mappers of the Hadoop SSVD solver and
+ * {@link org.apache.mahout.math.StochasticSingularValueDecomposition} use the same values.
+ */
+public final class OmegaMatrix {
+
+  private static final double UNIFORM_DIVISOR = Math.pow(2.0, 64);
+
+  private OmegaMatrix() {
+  }
+
+  /**
+   * Returns the value at (row, column) of every projection matrix with the given seed.
+   */
+  public static double value(long seed, int row, int column) {
+    long hash = murmur64((long) row << Integer.SIZE | column, 8, seed);
+    return hash / UNIFORM_DIVISOR;
+  }
+
+  /**
+   * Shortened version of the 64 bit murmur hash for data of less than 8 bytes packed into the {@code len} lowest bytes
+   * of {@code val}.
+   */
+  public static long murmur64(long val, int len, long seed) {
+    long m = 0xc6a4a7935bd1e995L;
+    long h = seed ^ len * m;
+
+    long k = val;
+
+    k *= m;
+    int r = 47;
+    k ^= k >>> r;
+    k *= m;
+
+    h ^= k;
+    h *= m;
+
+    h ^= h >>> r;
+    h *= m;
+    h ^= h >>> r;
+    return h;
+  }
+}
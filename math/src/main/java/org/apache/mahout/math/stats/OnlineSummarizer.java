@@ -17,36 +17,38 @@
 
 package org.apache.mahout.math.stats;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 import org.apache.mahout.math.list.DoubleArrayList;
 
 /**
- * Computes on-line estimates of mean, variance and all five quartiles (notably including the
- * median).  Since this is done in a completely incremental fashion (that is what is meant by
- * on-line) estimates are available at any time and the amount of memory used is constant.  Somewhat
- * surprisingly, the quantile estimates are about as good as you would get if you actually kept all
- * of the samples.
+ * Computes on-line estimates of mean, variance, all five quartiles (notably including the median)
+ * and any other quantile.  Since this is done in a completely incremental fashion (that is what is
+ * meant by on-line) estimates are available at any time and the amount of memory used is bounded.
+ * Summarizers of separate parts of the data, on separate threads or in separate mappers, can be
+ * combined with {@link #add(OnlineSummarizer)} and serialized with {@link #write(DataOutput)}.
  * <p/>
- * The method used for mean and variance is Welford's method.  See
+ * The method used for mean and variance is Welford's method, with the parallel form of Chan et al.
+ * for merging.  See
  * <p/>
  * http://en.wikipedia.org/wiki/Algorithms_for_calculating_variance#On-line_algorithm
  * <p/>
- * The method used for computing the quartiles is a simplified form of the stochastic approximation
- * method described in the article "Incremental Quantile Estimation for Massive Tracking" by Chen,
- * Lambert and Pinheiro
- * <p/>
- * See
- * <p/>
- * http://citeseerx.ist.psu.edu/viewdoc/summary?doi=10.1.1.105.1580
+ * The first 100 samples are kept and give exact quantiles.  Beyond that, quantiles are estimated by
+ * a {@link TDigest}, which is accurate for skewed distributions as well and nearly exact in the tails.
  */
 public class OnlineSummarizer {
 
+  private static final int STARTER_SIZE = 100;
+
   private boolean sorted = true;
 
-  // the first several samples are kept so we can boot-strap our estimates cleanly
-  private DoubleArrayList starter = new DoubleArrayList(100);
+  // the first several samples are kept so small samples get exact quantiles
+  private DoubleArrayList starter = new DoubleArrayList(STARTER_SIZE);
 
-  // quartile estimates
-  private final double[] q = new double[5];
+  // quantile estimates
+  private final TDigest digest;
 
   // mean and variance estimates
   private double mean;
@@ -55,6 +57,21 @@ public class OnlineSummarizer {
   // number of samples seen so far
   private int n;
 
+  public OnlineSummarizer() {
+    this(TDigest.DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * @param compression the compression of the {@link TDigest} estimating the quantiles.
+   */
+  public OnlineSummarizer(double compression) {
+    this(new TDigest(compression));
+  }
+
+  private OnlineSummarizer(TDigest digest) {
+    this.digest = digest;
+  }
+
   public void add(double sample) {
     sorted = false;
 
@@ -64,34 +81,39 @@ public class OnlineSummarizer {
     double diff = (sample - mean) * (sample - oldMean);
     variance += (diff - variance) / n;
 
-    if (n < 100) {
-      starter.add(sample);
-    } else if (n == 100 && starter != null) {
-      // when we first reach 100 elements, we switch to incremental operation
-      starter.add(sample);
-      for (int i = 0; i <= 4; i++) {
-        q[i] = getQuartile(i);
-      }
-      // this signals any invocations of getQuartile at exactly 100 elements that we have
-      // already switched to incremental operation
-      starter = null;
-    } else {
-      // n >= 100 && starter == null
-      q[0] = Math.min(sample, q[0]);
-      q[4] = Math.max(sample, q[4]);
-
-      double rate = 2 * (q[3] - q[1]) / n;
-      q[1] += (Math.signum(sample - q[1]) - 0.5) * rate;
-      q[2] += Math.signum(sample - q[2]) * rate;
-      q[3] += (Math.signum(sample - q[3]) + 0.5) * rate;
-
-      if (q[1] < q[0]) {
-        q[1] = q[0];
+    digest.add(sample);
+    if (starter != null) {
+      if (n <= STARTER_SIZE) {
+        starter.add(sample);
+      } else {
+        // past the first samples, switch to the digest
+        starter = null;
       }
+    }
+  }
 
-      if (q[3] > q[4]) {
-        q[3] = q[4];
-      }
+  /**
+   * Adds all samples summarized by another summarizer, leaving it unchanged.  The other summarizer may be this one,
+   * whose samples are then counted twice.
+   */
+  public void add(OnlineSummarizer other) {
+    if (other.n == 0) {
+      return;
+    }
+    // copied before the starter samples of this summarizer change, in case the other one is this one
+    DoubleArrayList otherStarter = other.starter == null ? null : other.starter.copy();
+    int total = n + other.n;
+    double delta = other.mean - mean;
+    variance = (variance * n + other.variance * other.n + delta * delta * n / total * other.n) / total;
+    mean += delta * other.n / total;
+    n = total;
+
+    digest.add(other.digest);
+    if (starter != null && otherStarter != null && n <= STARTER_SIZE) {
+      starter.addAllOf(otherStarter);
+      sorted = false;
+    } else {
+      starter = null;
     }
   }
 
@@ -123,39 +145,80 @@ public class OnlineSummarizer {
   }
 
   public double getQuartile(int i) {
-    if (n > 100 || starter == null) {
-      return q[i];
-    } else {
-      sort();
-      switch (i) {
-        case 0:
-          if (n == 0) {
-            throw new IllegalArgumentException("Must have at least one sample to estimate minimum value");
-          }
-          return starter.get(0);
-        case 1:
-        case 2:
-        case 3:
-          if (n >= 2) {
-            double x = i * (n - 1) / 4.0;
-            int k = (int) Math.floor(x);
-            double u = x - k;
-            return starter.get(k) * (1 - u) + starter.get(k + 1) * u;
-          } else {
-            throw new IllegalArgumentException("Must have at least two samples to estimate quartiles");
-          }
-        case 4:
-          if (n == 0) {
-            throw new IllegalArgumentException("Must have at least one sample to estimate maximum value");
-          }
-          return starter.get(starter.size() - 1);
-        default:
-          throw new IllegalArgumentException("Quartile number must be in the range [0..4] not " + i);
-      }
+    if (i < 0 || i > 4) {
+      throw new IllegalArgumentException("Quartile number must be in the range [0..4] not " + i);
+    }
+    return getQuantile(i / 4.0);
+  }
+
+  /**
+   * Returns an estimate of a quantile, exact while no more than 100 samples were added.
+   *
+   * @param q the quantile, 0 for the minimum and 1 for the maximum.
+   */
+  public double getQuantile(double q) {
+    if (q < 0 || q > 1) {
+      throw new IllegalArgumentException("Quantile must be in the range [0..1] not " + q);
+    }
+    if (n == 0) {
+      throw new IllegalArgumentException("Must have at least one sample to estimate quantiles");
+    }
+    if (q == 0) {
+      return digest.getMin();
+    }
+    if (q == 1) {
+      return digest.getMax();
+    }
+    if (n < 2) {
+      throw new IllegalArgumentException("Must have at least two samples to estimate quartiles");
     }
+    if (starter == null) {
+      return digest.quantile(q);
+    }
+    sort();
+    double x = q * (n - 1);
+    int k = (int) Math.floor(x);
+    double u = x - k;
+    return k + 1 < n ? starter.get(k) * (1 - u) + starter.get(k + 1) * u : starter.get(k);
   }
 
   public double getMedian() {
     return getQuartile(2);
   }
+
+  public void write(DataOutput out) throws IOException {
+    out.writeInt(n);
+    out.writeDouble(mean);
+    out.writeDouble(variance);
+    if (starter == null) {
+      out.writeInt(-1);
+    } else {
+      out.writeInt(starter.size());
+      for (int i = 0; i < starter.size(); i++) {
+        out.writeDouble(starter.getQuick(i));
+      }
+    }
+    digest.write(out);
+  }
+
+  public static OnlineSummarizer read(DataInput in) throws IOException {
+    int n = in.readInt();
+    double mean = in.readDouble();
+    double variance = in.readDouble();
+    int starterSize = in.readInt();
+    DoubleArrayList starter = null;
+    if (starterSize >= 0) {
+      starter = new DoubleArrayList(STARTER_SIZE);
+      for (int i = 0; i < starterSize; i++) {
+        starter.add(in.readDouble());
+      }
+    }
+    OnlineSummarizer summarizer = new OnlineSummarizer(TDigest.read(in));
+    summarizer.n = n;
+    summarizer.mean = mean;
+    summarizer.variance = variance;
+    summarizer.starter = starter;
+    summarizer.sorted = false;
+    return summarizer;
+  }
 }
@@ -0,0 +1,291 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.google.common.base.Preconditions;
+import org.apache.mahout.math.Sorting;
+import org.apache.mahout.math.Swapper;
+import org.apache.mahout.math.function.IntComparator;
+
+/**
+ * Mergeable sketch of a distribution that estimates any quantile in bounded memory, the merging variant of the
+ * t-digest described in "Computing Extremely Accurate Quantiles Using t-Digests" by Dunning and Ertl.
+ * <p/>
+ * Samples are summarized by a sorted list of centroids, a mean and a weight each.  Centroids near the median may
+ * absorb many samples while those near the tails stay small, so that the error of a quantile estimate is roughly
+ * proportional to q(1-q) and the extreme quantiles are nearly exact.  New samples are buffered and merged into the
+ * centroids in batches.  The number of centroids stays below about the compression, 100 by default, which bounds
+ * the memory used regardless of the number of samples.
+ * <p/>
+ * Sketches built on separate threads or mappers can be combined with {@link #add(TDigest)}, and written to and read
+ * from a stream with {@link #write(DataOutput)} and {@link #read(DataInput)}.
+ * <p/>
+ * See
+ * <p/>
+ * https://github.com/tdunning/t-digest
+ */
+public class TDigest {
+
+  public static final double DEFAULT_COMPRESSION = 100;
+
+  private final double compression;
+
+  // merged centroids, sorted by mean
+  private final double[] mean;
+  private final double[] weight;
+  private int centroids;
+  private double mergedWeight;
+
+  // samples and centroids not yet merged, with room to append the merged centroids when merging
+  private final double[] bufferMean;
+  private final double[] bufferWeight;
+  private int buffered;
+  private double bufferedWeight;
+
+  private double min = Double.POSITIVE_INFINITY;
+  private double max = Double.NEGATIVE_INFINITY;
+
+  public TDigest() {
+    this(DEFAULT_COMPRESSION);
+  }
+
+  /**
+   * @param compression bounds the number of centroids; larger values give more accurate quantiles at the cost of
+   *                    memory and time. Must be at least 10.
+   */
+  public TDigest(double compression) {
+    Preconditions.checkArgument(compression >= 10, "Compression must be at least 10: %s", compression);
+    this.compression = compression;
+    int capacity = 2 * (int) Math.ceil(compression) + 10;
+    mean = new double[capacity];
+    weight = new double[capacity];
+    bufferMean = new double[6 * capacity];
+    bufferWeight = new double[6 * capacity];
+  }
+
+  public double getCompression() {
+    return compression;
+  }
+
+  /**
+   * Adds a sample with unit weight.
+   */
+  public void add(double sample) {
+    add(sample, 1);
+  }
+
+  /**
+   * Adds a sample with the given weight, as if it was seen that many times.
+   */
+  public void add(double sample, double sampleWeight) {
+    Preconditions.checkArgument(!Double.isNaN(sample), "Cannot add NaN");
+    Preconditions.checkArgument(sampleWeight > 0, "Weight must be positive: %s", sampleWeight);
+    if (buffered == bufferMean.length - mean.length) {
+      merge();
+    }
+    bufferMean[buffered] = sample;
+    bufferWeight[buffered] = sampleWeight;
+    buffered++;
+    bufferedWeight += sampleWeight;
+    min = Math.min(min, sample);
+    max = Math.max(max, sample);
+  }
+
+  /**
+   * Adds all samples summarized by another sketch, leaving it unchanged.  The other sketch may have a different
+   * compression, and may be this sketch, whose samples are then counted twice.
+   */
+  public void add(TDigest other) {
+    other.merge();
+    // copied first, so that adding to this sketch cannot change them when the other sketch is this one
+    int count = other.centroids;
+    double[] means = Arrays.copyOf(other.mean, count);
+    double[] weights = Arrays.copyOf(other.weight, count);
+    double otherMin = other.min;
+    double otherMax = other.max;
+    for (int i = 0; i < count; i++) {
+      add(means[i], weights[i]);
+    }
+    min = Math.min(min, otherMin);
+    max = Math.max(max, otherMax);
+  }
+
+  /**
+   * Returns the total weight of the samples added, their number if all were added with unit weight.
+   */
+  public double size() {
+    return mergedWeight + bufferedWeight;
+  }
+
+  /**
+   * Returns the number of centroids summarizing the samples, merging any buffered samples first.
+   */
+  public int centroidCount() {
+    merge();
+    return centroids;
+  }
+
+  public double getMin() {
+    return min;
+  }
+
+  public double getMax() {
+    return max;
+  }
+
+  /**
+   * Estimates a quantile of the samples, interpolating between the centroids.
+   *
+   * @param q the quantile, 0 for the minimum and 1 for the maximum.
+   * @return the estimate, or NaN if no sample was added.
+   */
+  public double quantile(double q) {
+    Preconditions.checkArgument(q >= 0 && q <= 1, "Quantile must be in the range [0..1] not %s", q);
+    merge();
+    if (centroids == 0) {
+      return Double.NaN;
+    }
+    if (centroids == 1) {
+      return mean[0];
+    }
+
+    // the centroids are taken to be centered at their mean, the first and last ones are spread from min and to max
+    double index = q * mergedWeight;
+    if (index < weight[0] / 2) {
+      return min + index / (weight[0] / 2) * (mean[0] - min);
+    }
+    double weightSoFar = weight[0] / 2;
+    for (int i = 0; i < centroids - 1; i++) {
+      double delta = (weight[i] + weight[i + 1]) / 2;
+      if (weightSoFar + delta > index) {
+        return mean[i] + (index - weightSoFar) / delta * (mean[i + 1] - mean[i]);
+      }
+      weightSoFar += delta;
+    }
+    int last = centroids - 1;
+    double tail = weight[last] / 2;
+    return Math.min(max, mean[last] + Math.min(1, (index - weightSoFar) / tail) * (max - mean[last]));
+  }
+
+  /**
+   * Merges the buffered samples into the centroids: buffer and centroids are sorted together by mean, and neighbours
+   * are combined as long as the combined centroid spans at most one unit of the scale function.
+   */
+  private void merge() {
+    if (buffered == 0) {
+      return;
+    }
+    int n = buffered;
+    System.arraycopy(mean, 0, bufferMean, n, centroids);
+    System.arraycopy(weight, 0, bufferWeight, n, centroids);
+    n += centroids;
+
+    // the buffer holds too few values to be worth sorting in parallel
+    Sorting.quickSort(0, n, new IntComparator() {
+      @Override
+      public int compare(int a, int b) {
+        return Double.compare(bufferMean[a], bufferMean[b]);
+      }
+    }, new Swapper() {
+      @Override
+      public void swap(int a, int b) {
+        double t = bufferMean[a];
+        bufferMean[a] = bufferMean[b];
+        bufferMean[b] = t;
+        t = bufferWeight[a];
+        bufferWeight[a] = bufferWeight[b];
+        bufferWeight[b] = t;
+      }
+    });
+
+    double total = mergedWeight + bufferedWeight;
+    centroids = 0;
+    mean[0] = bufferMean[0];
+    weight[0] = bufferWeight[0];
+    double weightSoFar = 0;
+    double limit = total * limitAfter(0);
+    for (int i = 1; i < n; i++) {
+      double w = bufferWeight[i];
+      if (weightSoFar + weight[centroids] + w <= limit) {
+        weight[centroids] += w;
+        mean[centroids] += (bufferMean[i] - mean[centroids]) * w / weight[centroids];
+      } else {
+        weightSoFar += weight[centroids];
+        limit = total * limitAfter(weightSoFar / total);
+        centroids++;
+        mean[centroids] = bufferMean[i];
+        weight[centroids] = w;
+      }
+    }
+    centroids++;
+    mergedWeight = total;
+    buffered = 0;
+    bufferedWeight = 0;
+  }
+
+  /** the quantile one unit of the scale function k(q) = compression / 2 pi * asin(2q - 1) past the given one */
+  private double limitAfter(double q) {
+    double k = compression / (2 * Math.PI) * Math.asin(2 * q - 1) + 1;
+    if (k >= compression / 4) {
+      return 1;
+    }
+    return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+  }
+
+  public void write(DataOutput out) throws IOException {
+    merge();
+    out.writeDouble(compression);
+    out.writeDouble(min);
+    out.writeDouble(max);
+    out.writeInt(centroids);
+    for (int i = 0; i < centroids; i++) {
+      out.writeDouble(mean[i]);
+      out.writeDouble(weight[i]);
+    }
+  }
+
+  /**
+   * Reads a sketch written by {@link #write(DataOutput)}.
+   *
+   * @throws IOException if reading fails or the input does not hold a valid sketch
+   */
+  public static TDigest read(DataInput in) throws IOException {
+    double compression = in.readDouble();
+    if (!(compression >= 10)) {
+      throw new IOException("Invalid compression: " + compression);
+    }
+    TDigest digest = new TDigest(compression);
+    digest.min = in.readDouble();
+    digest.max = in.readDouble();
+    digest.centroids = in.readInt();
+    if (digest.centroids < 0 || digest.centroids > digest.mean.length) {
+      throw new IOException("Invalid number of centroids for compression " + compression + ": " + digest.centroids);
+    }
+    for (int i = 0; i < digest.centroids; i++) {
+      digest.mean[i] = in.readDouble();
+      digest.weight[i] = in.readDouble();
+      digest.mergedWeight += digest.weight[i];
+    }
+    return digest;
+  }
+}
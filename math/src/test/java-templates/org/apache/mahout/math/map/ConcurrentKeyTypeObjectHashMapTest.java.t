@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.mahout.math.map;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.collect.Lists;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Concurrent${keyTypeCap}ObjectHashMapTest extends Assert {
+
+  private static final int NUM_THREADS = 4;
+  private static final int NUM_KEYS = 50;
+
+  @Test
+  public void testBasicOperations() {
+    Concurrent${keyTypeCap}ObjectHashMap<String> map = new Concurrent${keyTypeCap}ObjectHashMap<String>(0, 4);
+    assertTrue(map.put((${keyType}) 11, "a"));
+    assertNull(map.putIfAbsent((${keyType}) 12, "b"));
+    assertEquals("b", map.putIfAbsent((${keyType}) 12, "c"));
+    assertFalse(map.replace((${keyType}) 12, "c", "d"));
+    assertTrue(map.replace((${keyType}) 12, new String("b"), "d"));
+    assertEquals("d", map.get((${keyType}) 12));
+    assertFalse(map.remove((${keyType}) 11, "b"));
+    assertTrue(map.remove((${keyType}) 11, "a"));
+    assertNull(map.get((${keyType}) 11));
+    assertEquals(1, map.size());
+    assertEquals(1, map.keys().size());
+  }
+
+  /** all threads create the value of each key, only the first one is kept */
+  @Test
+  public void testConcurrentPutIfAbsent() throws Exception {
+    final Concurrent${keyTypeCap}ObjectHashMap<AtomicInteger> map =
+        new Concurrent${keyTypeCap}ObjectHashMap<AtomicInteger>(0, 2);
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int t = 0; t < NUM_THREADS; t++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int i = 0; i < NUM_KEYS; i++) {
+              AtomicInteger counter = new AtomicInteger();
+              AtomicInteger existing = map.putIfAbsent((${keyType}) i, counter);
+              (existing == null ? counter : existing).incrementAndGet();
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(NUM_KEYS, map.size());
+    for (int i = 0; i < NUM_KEYS; i++) {
+      assertEquals(NUM_THREADS, map.get((${keyType}) i).get());
+    }
+  }
+}
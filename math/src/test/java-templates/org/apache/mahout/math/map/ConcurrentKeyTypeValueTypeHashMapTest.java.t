@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+#if (${keyTypeFloating} == 'true')
+#set ($keyEpsilon = ", (${keyType})0.000001")
+#else
+#set ($keyEpsilon = "")
+#end
+#if (${valueTypeFloating} == 'true')
+#set ($valueEpsilon = ", (${valueType})0.000001")
+#else
+#set ($valueEpsilon = "")
+#end
+
+package org.apache.mahout.math.map;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.google.common.collect.Lists;
+import org.apache.mahout.math.function.${keyTypeCap}${valueTypeCap}Procedure;
+import org.apache.mahout.math.list.${keyTypeCap}ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Concurrent${keyTypeCap}${valueTypeCap}HashMapTest extends Assert {
+
+  private static final int NUM_THREADS = 4;
+  private static final int NUM_KEYS = 10;
+  private static final int INCREMENTS = 25;
+
+  @Test
+  public void testBasicOperations() {
+    Concurrent${keyTypeCap}${valueTypeCap}HashMap map = new Concurrent${keyTypeCap}${valueTypeCap}HashMap(0, 4);
+    assertTrue(map.isEmpty());
+    assertTrue(map.put((${keyType}) 11, (${valueType}) 22));
+    assertFalse(map.put((${keyType}) 11, (${valueType}) 23));
+    assertTrue(map.put((${keyType}) 0, (${valueType}) 24));
+    assertEquals(2, map.size());
+    assertTrue(map.containsKey((${keyType}) 11));
+    assertEquals(23, map.get((${keyType}) 11) ${valueEpsilon});
+    assertEquals(0, map.get((${keyType}) 12) ${valueEpsilon});
+
+    assertFalse(map.putIfAbsent((${keyType}) 11, (${valueType}) 30));
+    assertTrue(map.putIfAbsent((${keyType}) 12, (${valueType}) 30));
+    assertFalse(map.replace((${keyType}) 12, (${valueType}) 31, (${valueType}) 32));
+    assertTrue(map.replace((${keyType}) 12, (${valueType}) 30, (${valueType}) 32));
+    assertFalse(map.replace((${keyType}) 13, (${valueType}) 0, (${valueType}) 32));
+    assertEquals(32, map.get((${keyType}) 12) ${valueEpsilon});
+    assertEquals(33, map.adjustOrPutValue((${keyType}) 12, (${valueType}) 1, (${valueType}) 1) ${valueEpsilon});
+
+    ${keyTypeCap}ArrayList keys = map.keys();
+    keys.sort();
+    assertEquals(3, keys.size());
+    assertEquals(0, keys.get(0) ${keyEpsilon});
+    assertEquals(12, keys.get(2) ${keyEpsilon});
+
+    assertTrue(map.removeKey((${keyType}) 0));
+    assertFalse(map.removeKey((${keyType}) 0));
+    assertEquals(2, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testForEachPairMayUpdate() {
+    final Concurrent${keyTypeCap}${valueTypeCap}HashMap map = new Concurrent${keyTypeCap}${valueTypeCap}HashMap();
+    for (int i = 1; i <= NUM_KEYS; i++) {
+      map.put((${keyType}) i, (${valueType}) i);
+    }
+    assertTrue(map.forEachPair(new ${keyTypeCap}${valueTypeCap}Procedure() {
+      @Override
+      public boolean apply(${keyType} key, ${valueType} value) {
+        map.removeKey(key);
+        return true;
+      }
+    }));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void testConcurrentUpdates() throws Exception {
+    final Concurrent${keyTypeCap}${valueTypeCap}HashMap map = new Concurrent${keyTypeCap}${valueTypeCap}HashMap(0, 2);
+    ExecutorService executor = Executors.newFixedThreadPool(NUM_THREADS);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int t = 0; t < NUM_THREADS; t++) {
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override
+          public Void call() {
+            for (int n = 0; n < INCREMENTS; n++) {
+              for (int i = 0; i < NUM_KEYS; i++) {
+                map.adjustOrPutValue((${keyType}) i, (${valueType}) 1, (${valueType}) 1);
+                // an increment by compare and set
+                ${valueType} value;
+                do {
+                  value = map.get((${keyType}) (NUM_KEYS + i));
+                } while (!map.putIfAbsent((${keyType}) (NUM_KEYS + i), (${valueType}) 1)
+                    && !map.replace((${keyType}) (NUM_KEYS + i), value, (${valueType}) (value + 1)));
+              }
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+
+    assertEquals(2 * NUM_KEYS, map.size());
+    for (int i = 0; i < 2 * NUM_KEYS; i++) {
+      assertEquals(NUM_THREADS * INCREMENTS, map.get((${keyType}) i) ${valueEpsilon});
+    }
+  }
+}
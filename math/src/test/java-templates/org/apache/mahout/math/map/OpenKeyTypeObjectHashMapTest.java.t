@@ -150,6 +150,17 @@ public class Open${keyTypeCap}ObjectHashMapTest extends Assert {
     assertEquals(0, map.size());
     assertSame(null, map.get((${keyType}) 11));
   }
+
+  @Test
+  public void testClearFreesEverySlot() {
+    // one key at a time, so that the last slot of the table is taken as well
+    for (int key = 0; key < 277; key++) {
+      Open${keyTypeCap}ObjectHashMap<TestClass> map = new Open${keyTypeCap}ObjectHashMap<TestClass>();
+      map.put((${keyType}) key, item);
+      map.clear();
+      assertTrue(map.keys().isEmpty());
+    }
+  }
   
   @Test
   public void testClone() {
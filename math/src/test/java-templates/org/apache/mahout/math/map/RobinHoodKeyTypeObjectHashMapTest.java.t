@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.mahout.math.map;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.${keyTypeCap}ObjectProcedure;
+import org.apache.mahout.math.list.${keyTypeCap}ArrayList;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RobinHood${keyTypeCap}ObjectHashMapTest extends Assert {
+
+  @Test
+  public void testClearAndClone() {
+    RobinHood${keyTypeCap}ObjectHashMap<String> map = new RobinHood${keyTypeCap}ObjectHashMap<String>();
+    map.put((${keyType}) 11, "11");
+    map.put((${keyType}) 0, "0");
+    RobinHood${keyTypeCap}ObjectHashMap<String> map2 = map.clone();
+    map.clear();
+    assertEquals(0, map.size());
+    assertNull(map.get((${keyType}) 11));
+    assertNull(map.get((${keyType}) 0));
+    assertEquals(2, map2.size());
+    assertEquals("11", map2.get((${keyType}) 11));
+    assertEquals("0", map2.get((${keyType}) 0));
+  }
+
+  @Test
+  public void testFreeKey() {
+    RobinHood${keyTypeCap}ObjectHashMap<String> map = new RobinHood${keyTypeCap}ObjectHashMap<String>();
+    assertTrue(map.put((${keyType}) 0, "a"));
+    assertFalse(map.put((${keyType}) 0, "b"));
+    assertTrue(map.containsKey((${keyType}) 0));
+    assertTrue(map.containsValue("b"));
+    List<String> values = new ArrayList<String>();
+    map.values(values);
+    assertEquals(1, values.size());
+    assertEquals("b", values.get(0));
+    assertTrue(map.removeKey((${keyType}) 0));
+    assertFalse(map.containsKey((${keyType}) 0));
+    assertNull(map.get((${keyType}) 0));
+  }
+
+  @Test
+  public void testPairsMatching() {
+    RobinHood${keyTypeCap}ObjectHashMap<String> map = new RobinHood${keyTypeCap}ObjectHashMap<String>();
+    for (int i = 11; i < 15; i++) {
+      map.put((${keyType}) i, String.valueOf(i));
+    }
+    map.removeKey((${keyType}) 13);
+    ${keyTypeCap}ArrayList keys = new ${keyTypeCap}ArrayList();
+    List<String> values = new ArrayList<String>();
+    map.pairsMatching(new ${keyTypeCap}ObjectProcedure<String>() {
+      @Override
+      public boolean apply(${keyType} first, String second) {
+        return (first % 2) == 0;
+      }
+    }, keys, values);
+    keys.sort();
+    assertEquals(2, keys.size());
+    assertEquals(2, values.size());
+    assertTrue(values.contains("12"));
+    assertTrue(values.contains("14"));
+  }
+
+  /** random puts and removes in a small key range, so that long clusters are displaced and shifted back */
+  @Test
+  public void testAgainstOpenHashMap() {
+    Random random = RandomUtils.getRandom();
+    RobinHood${keyTypeCap}ObjectHashMap<Integer> map = new RobinHood${keyTypeCap}ObjectHashMap<Integer>(0, 0.2, 0.9);
+    Open${keyTypeCap}ObjectHashMap<Integer> expected = new Open${keyTypeCap}ObjectHashMap<Integer>();
+    for (int n = 0; n < 20000; n++) {
+      ${keyType} key = (${keyType}) random.nextInt(n < 10000 ? 120 : 30);
+      Integer value = random.nextInt(100);
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.removeKey(key), map.removeKey(key));
+      } else {
+        assertEquals(expected.put(key, value), map.put(key, value));
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.get(key), map.get(key));
+    }
+    assertEquals(expected, map);
+    assertEquals(map, expected);
+  }
+}
@@ -0,0 +1,194 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements. See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership. The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+#if (${keyTypeFloating} == 'true')
+#set ($keyEpsilon = ", (${keyType})0.000001")
+#else
+#set ($keyEpsilon = "")
+#end
+#if (${valueTypeFloating} == 'true')
+#set ($valueEpsilon = ", (${valueType})0.000001")
+#else
+#set ($valueEpsilon = "")
+#end
+
+package org.apache.mahout.math.map;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.${keyTypeCap}${valueTypeCap}Procedure;
+import org.apache.mahout.math.list.${keyTypeCap}ArrayList;
+#if (${keyType} != ${valueType})
+import org.apache.mahout.math.list.${valueTypeCap}ArrayList;
+#end
+import org.apache.mahout.math.set.AbstractSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RobinHood${keyTypeCap}${valueTypeCap}HashMapTest extends Assert {
+
+  @Test
+  public void testConstructors() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    int[] capacity = new int[1];
+    double[] minLoadFactor = new double[1];
+    double[] maxLoadFactor = new double[1];
+
+    map.getInternalFactors(capacity, minLoadFactor, maxLoadFactor);
+    // the smallest power of two that holds the default capacity below the default maximum load
+    assertEquals(1024, capacity[0]);
+    assertEquals(AbstractSet.defaultMaxLoadFactor, maxLoadFactor[0], 0.001);
+    assertEquals(AbstractSet.defaultMinLoadFactor, minLoadFactor[0], 0.001);
+
+    map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap(100, 0.4, 0.8);
+    map.getInternalFactors(capacity, minLoadFactor, maxLoadFactor);
+    assertEquals(128, capacity[0]);
+    assertEquals(0.4, minLoadFactor[0], 0.001);
+    assertEquals(0.8, maxLoadFactor[0], 0.001);
+  }
+
+  @Test
+  public void testEnsureCapacity() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap(0);
+    map.ensureCapacity(1000);
+    int[] capacity = new int[1];
+    double[] minLoadFactor = new double[1];
+    double[] maxLoadFactor = new double[1];
+
+    map.getInternalFactors(capacity, minLoadFactor, maxLoadFactor);
+    assertEquals(2048, capacity[0]);
+  }
+
+  @Test
+  public void testClear() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    map.put((${keyType}) 11, (${valueType}) 22);
+    map.put((${keyType}) 0, (${valueType}) 23);
+    assertEquals(2, map.size());
+    map.clear();
+    assertEquals(0, map.size());
+    assertEquals(0, map.get((${keyType}) 11) ${valueEpsilon});
+    assertFalse(map.containsKey((${keyType}) 0));
+  }
+
+  @Test
+  public void testClone() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    map.put((${keyType}) 11, (${valueType}) 22);
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map2 = (RobinHood${keyTypeCap}${valueTypeCap}HashMap) map.clone();
+    map.clear();
+    assertEquals(1, map2.size());
+    assertEquals(22, map2.get((${keyType}) 11) ${valueEpsilon});
+  }
+
+  @Test
+  public void testFreeKey() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    assertFalse(map.containsKey((${keyType}) 0));
+    assertTrue(map.put((${keyType}) 0, (${valueType}) 22));
+    assertFalse(map.put((${keyType}) 0, (${valueType}) 23));
+    assertEquals(1, map.size());
+    assertTrue(map.containsKey((${keyType}) 0));
+    assertTrue(map.containsValue((${valueType}) 23));
+    assertEquals(23, map.get((${keyType}) 0) ${valueEpsilon});
+    assertEquals(24, map.adjustOrPutValue((${keyType}) 0, (${valueType}) 1, (${valueType}) 1) ${valueEpsilon});
+
+    ${keyTypeCap}ArrayList keys = new ${keyTypeCap}ArrayList();
+    ${valueTypeCap}ArrayList values = new ${valueTypeCap}ArrayList();
+    map.pairsMatching(new ${keyTypeCap}${valueTypeCap}Procedure() {
+      @Override
+      public boolean apply(${keyType} first, ${valueType} second) {
+        return true;
+      }
+    }, keys, values);
+    assertEquals(1, keys.size());
+    assertEquals(0, keys.get(0) ${keyEpsilon});
+    assertEquals(24, values.get(0) ${valueEpsilon});
+
+    assertTrue(map.removeKey((${keyType}) 0));
+    assertFalse(map.removeKey((${keyType}) 0));
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.get((${keyType}) 0) ${valueEpsilon});
+  }
+
+  @Test
+  public void testAdjustOrPutValue() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    map.put((${keyType}) 11, (${valueType}) 22);
+    map.put((${keyType}) 12, (${valueType}) 23);
+    map.adjustOrPutValue((${keyType}) 11, (${valueType}) 1, (${valueType}) 3);
+    assertEquals(25, map.get((${keyType}) 11) ${valueEpsilon});
+    map.adjustOrPutValue((${keyType}) 15, (${valueType}) 1, (${valueType}) 3);
+    assertEquals(1, map.get((${keyType}) 15) ${valueEpsilon});
+  }
+
+  @Test
+  public void testEquals() {
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap();
+    Open${keyTypeCap}${valueTypeCap}HashMap open = new Open${keyTypeCap}${valueTypeCap}HashMap();
+    for (int i = 0; i < 5; i++) {
+      map.put((${keyType}) (11 + i), (${valueType}) (22 + i));
+      open.put((${keyType}) (11 + i), (${valueType}) (22 + i));
+    }
+    map.removeKey((${keyType}) 13);
+    open.removeKey((${keyType}) 13);
+    assertEquals(map, open);
+    assertEquals(open, map);
+    assertEquals(map, map.copy());
+    map.removeKey((${keyType}) 11);
+    assertFalse(map.equals(open));
+  }
+
+  /** random puts and removes in a small key range, so that long clusters are displaced and shifted back */
+  @Test
+  public void testAgainstOpenHashMap() {
+    Random random = RandomUtils.getRandom();
+    RobinHood${keyTypeCap}${valueTypeCap}HashMap map = new RobinHood${keyTypeCap}${valueTypeCap}HashMap(0, 0.2, 0.9);
+    Open${keyTypeCap}${valueTypeCap}HashMap expected = new Open${keyTypeCap}${valueTypeCap}HashMap();
+    for (int n = 0; n < 20000; n++) {
+      ${keyType} key = (${keyType}) random.nextInt(n < 10000 ? 120 : 30);
+      ${valueType} value = (${valueType}) random.nextInt(100);
+      switch (random.nextInt(4)) {
+        case 0:
+          assertEquals(expected.removeKey(key), map.removeKey(key));
+          break;
+        case 1:
+          assertEquals(expected.adjustOrPutValue(key, value, (${valueType}) 1),
+              map.adjustOrPutValue(key, value, (${valueType}) 1) ${valueEpsilon});
+          break;
+        default:
+          assertEquals(expected.put(key, value), map.put(key, value));
+          break;
+      }
+      assertEquals(expected.size(), map.size());
+      assertEquals(expected.containsKey(key), map.containsKey(key));
+      assertEquals(expected.get(key), map.get(key) ${valueEpsilon});
+    }
+    assertEquals(expected, map);
+
+    ${keyTypeCap}ArrayList keys = map.keys();
+    ${valueTypeCap}ArrayList values = map.values();
+    assertEquals(map.size(), keys.size());
+    for (int i = 0; i < keys.size(); i++) {
+      assertEquals(expected.get(keys.get(i)), values.get(i) ${valueEpsilon});
+    }
+  }
+}
@@ -85,6 +85,17 @@ public class Open${keyTypeCap}HashSetTest extends Assert {
     map.clear();
     assertEquals(0, map.size());
   }
+
+  @Test
+  public void testClearFreesEverySlot() {
+    // one key at a time, so that the last slot of the table is taken as well
+    for (int key = 0; key < 277; key++) {
+      Open${keyTypeCap}HashSet map = new Open${keyTypeCap}HashSet();
+      map.add((${keyType}) key);
+      map.clear();
+      assertTrue(map.keys().isEmpty());
+    }
+  }
   
   @Test
   public void testClone() {
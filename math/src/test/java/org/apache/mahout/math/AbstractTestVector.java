@@ -18,6 +18,7 @@
 package org.apache.mahout.math;
 
 import org.apache.mahout.math.function.Functions;
+import org.apache.mahout.math.function.IntDoubleProcedure;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -89,6 +90,51 @@ public abstract class AbstractTestVector extends MahoutTestCase {
     }
   }
 
+  @Test
+  public void testForEachNonZero() {
+    final double[] visited = new double[test.size()];
+    final int[] lastIndex = {-1};
+    assertTrue(test.forEachNonZero(new IntDoubleProcedure() {
+      @Override
+      public boolean apply(int index, double value) {
+        assertEquals(0.0, visited[index], 0.0);
+        if (test.isSequentialAccess()) {
+          assertTrue(index > lastIndex[0]);
+          lastIndex[0] = index;
+        }
+        visited[index] = value;
+        return true;
+      }
+    }));
+    for (int i = 0; i < gold.length; i++) {
+      assertEquals(gold[i], visited[i], 0.0);
+    }
+
+    final int[] numVisited = {0};
+    assertFalse(test.forEachNonZero(new IntDoubleProcedure() {
+      @Override
+      public boolean apply(int index, double value) {
+        numVisited[0]++;
+        return false;
+      }
+    }));
+    assertEquals(1, numVisited[0]);
+  }
+
+  @Test
+  public void testGetNonZeros() {
+    int[] indices = new int[test.getNumNondefaultElements()];
+    double[] nonZeros = new double[test.getNumNondefaultElements()];
+    assertEquals(values.length, test.getNonZeros(indices, nonZeros));
+    double[] copied = new double[test.size()];
+    for (int k = 0; k < values.length; k++) {
+      copied[indices[k]] = nonZeros[k];
+    }
+    for (int i = 0; i < gold.length; i++) {
+      assertEquals(gold[i], copied[i], 0.0);
+    }
+  }
+
   @Test
   public void testIteratorSet() {
     Vector clone = test.clone();
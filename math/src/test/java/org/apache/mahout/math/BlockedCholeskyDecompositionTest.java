@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.DoubleFunction;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class BlockedCholeskyDecompositionTest extends MahoutTestCase {
+
+  @Test
+  public void testAgainstCholeskyDecomposition() {
+    Matrix z = randomMatrix(150, 150);
+    Matrix a = z.times(z.transpose());
+
+    BlockedCholeskyDecomposition blocked = new BlockedCholeskyDecomposition(a);
+    CholeskyDecomposition reference = new CholeskyDecomposition(a, false);
+    assertTrue(blocked.isPositiveDefinite());
+    assertEquals(0, blocked.getL().minus(reference.getL()).aggregate(Functions.MAX, Functions.ABS), 1.0e-8);
+    assertEquals(0, blocked.getL().viewPart(0, 1, 1, 149).aggregate(Functions.MAX, Functions.ABS), 0);
+
+    Matrix l = blocked.getL();
+    assertEquals(0, a.minus(l.times(l.transpose())).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+
+    Matrix b = randomMatrix(150, 7);
+    assertEquals(0, blocked.solveLeft(b).minus(reference.solveLeft(b)).aggregate(Functions.MAX, Functions.ABS),
+        1.0e-6);
+    assertEquals(0, blocked.solveRight(b.transpose()).minus(reference.solveRight(b.transpose()))
+        .aggregate(Functions.MAX, Functions.ABS), 1.0e-6);
+    assertEquals(0, a.times(blocked.solve(b)).minus(b).aggregate(Functions.MAX, Functions.ABS), 1.0e-6);
+  }
+
+  @Test
+  public void testRankDeficient() {
+    Matrix z = randomMatrix(100, 100);
+    z.viewRow(10).assign(0);
+    z.viewRow(70).assign(0);
+    Matrix a = z.times(z.transpose());
+
+    BlockedCholeskyDecomposition blocked = new BlockedCholeskyDecomposition(a);
+    assertFalse(blocked.isPositiveDefinite());
+    Matrix l = blocked.getL();
+    assertEquals(0, l.viewColumn(70).norm(1), 0);
+    assertEquals(0, l.minus(new CholeskyDecomposition(a, false).getL()).aggregate(Functions.MAX, Functions.ABS),
+        1.0e-8);
+    assertEquals(0, a.minus(l.times(l.transpose())).aggregate(Functions.MAX, Functions.ABS), 1.0e-8);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNotSquare() {
+    new BlockedCholeskyDecomposition(new DenseMatrix(3, 4));
+  }
+
+  private static Matrix randomMatrix(int rows, int columns) {
+    final Random random = RandomUtils.getRandom();
+    return new DenseMatrix(rows, columns).assign(new DoubleFunction() {
+      @Override
+      public double apply(double arg1) {
+        return random.nextDouble();
+      }
+    });
+  }
+}
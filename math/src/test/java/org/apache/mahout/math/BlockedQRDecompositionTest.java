@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.DoubleFunction;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class BlockedQRDecompositionTest extends MahoutTestCase {
+
+  @Test
+  public void testAgainstQRDecomposition() {
+    Matrix a = randomMatrix(150, 100);
+
+    BlockedQRDecomposition blocked = new BlockedQRDecomposition(a);
+    QRDecomposition reference = new QRDecomposition(a);
+    assertTrue(blocked.hasFullRank());
+    assertEquals(0, blocked.getR().minus(reference.getR()).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+    assertEquals(0, blocked.getQ().minus(reference.getQ()).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+
+    Matrix q = blocked.getQ();
+    assertEquals(0, a.minus(q.times(blocked.getR())).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+    Matrix id = q.transpose().times(q);
+    assertEquals(0, id.minus(new DiagonalMatrix(1, 100)).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+
+    Matrix b = randomMatrix(150, 7);
+    assertEquals(0, blocked.solve(b).minus(reference.solve(b)).aggregate(Functions.MAX, Functions.ABS), 1.0e-8);
+  }
+
+  @Test
+  public void testRankDeficient() {
+    Matrix x = new DenseMatrix(3, 3);
+    x.viewRow(0).assign(new double[]{1, 2, 3});
+    x.viewRow(1).assign(new double[]{2, 4, 6});
+    x.viewRow(2).assign(new double[]{3, 6, 9});
+
+    BlockedQRDecomposition blocked = new BlockedQRDecomposition(x);
+    assertFalse(blocked.hasFullRank());
+    assertEquals(0, blocked.getR().minus(new QRDecomposition(x).getR()).aggregate(Functions.MAX, Functions.ABS),
+        1.0e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWide() {
+    new BlockedQRDecomposition(new DenseMatrix(3, 4));
+  }
+
+  private static Matrix randomMatrix(int rows, int columns) {
+    final Random random = RandomUtils.getRandom();
+    return new DenseMatrix(rows, columns).assign(new DoubleFunction() {
+      @Override
+      public double apply(double arg1) {
+        return random.nextDouble();
+      }
+    });
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.junit.Test;
+
+public final class SortingTest extends MahoutTestCase {
+
+  @Test
+  public void testParallelSortDoubles() {
+    Random random = RandomUtils.getRandom();
+    double[] values = new double[100000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(1000) - 500.5;
+    }
+    values[7] = Double.NaN;
+    values[8] = -0.0;
+    values[9] = 0.0;
+    values[10] = Double.NEGATIVE_INFINITY;
+
+    double[] sorted = values.clone();
+    Sorting.parallelSort(sorted, 0, sorted.length);
+    double[] expected = values.clone();
+    Arrays.sort(expected);
+    assertTrue(Arrays.equals(expected, sorted));
+
+    // a range only
+    sorted = values.clone();
+    Sorting.parallelSort(sorted, 1000, 60000);
+    expected = values.clone();
+    Arrays.sort(expected, 1000, 60000);
+    assertTrue(Arrays.equals(expected, sorted));
+  }
+
+  @Test
+  public void testParallelSortWithPayload() {
+    Random random = RandomUtils.getRandom();
+    long[] values = new long[50000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextLong() % 10000;
+    }
+    long[] keys = values.clone();
+    int[] payload = identity(keys.length);
+    Sorting.parallelSort(keys, payload, 0, keys.length);
+
+    long[] expected = values.clone();
+    Arrays.sort(expected);
+    assertTrue(Arrays.equals(expected, keys));
+    boolean[] seen = new boolean[payload.length];
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(values[payload[i]], keys[i]);
+      assertFalse(seen[payload[i]]);
+      seen[payload[i]] = true;
+    }
+  }
+
+  @Test
+  public void testParallelSortInts() {
+    Random random = RandomUtils.getRandom();
+    int[] values = new int[20000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt();
+    }
+    int[] keys = values.clone();
+    int[] payload = identity(keys.length);
+    Sorting.parallelSort(keys, payload, 10, 19990);
+    for (int i = 0; i < keys.length; i++) {
+      assertEquals(values[payload[i]], keys[i]);
+      if (i < 10 || i >= 19990) {
+        assertEquals(i, payload[i]);
+      } else if (i > 10) {
+        assertTrue(keys[i - 1] <= keys[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testSelect() {
+    Random random = RandomUtils.getRandom();
+    for (int n = 1; n < 200; n += 7) {
+      double[] values = new double[n];
+      for (int i = 0; i < n; i++) {
+        values[i] = random.nextInt(20);
+      }
+      double[] expected = values.clone();
+      Arrays.sort(expected);
+      int k = random.nextInt(n);
+
+      double[] keys = values.clone();
+      int[] payload = identity(n);
+      Sorting.select(keys, payload, 0, n, k);
+      assertEquals(expected[k], keys[k], 0.0);
+      for (int i = 0; i < n; i++) {
+        assertEquals(values[payload[i]], keys[i], 0.0);
+        if (i < k) {
+          assertTrue(keys[i] <= keys[k]);
+        } else {
+          assertTrue(keys[i] >= keys[k]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testTopK() {
+    double[] values = {0.3, 2.0, -1.0, 5.0, 0.7, 4.0};
+    assertTrue(Arrays.equals(new int[] {3, 5, 1}, Sorting.topK(values, 3)));
+    assertTrue(Arrays.equals(new int[] {3, 5, 1, 4, 0, 2}, Sorting.topK(values, values.length)));
+    assertEquals(0, Sorting.topK(values, 0).length);
+
+    Random random = RandomUtils.getRandom();
+    int[] counts = new int[10000];
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] = random.nextInt(1000000);
+    }
+    int[] top = Sorting.topK(counts, 100);
+    int[] sorted = counts.clone();
+    Arrays.sort(sorted);
+    for (int i = 0; i < top.length; i++) {
+      assertEquals(sorted[sorted.length - 1 - i], counts[top[i]]);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTopKTooMany() {
+    Sorting.topK(new long[3], 4);
+  }
+
+  private static int[] identity(int n) {
+    int[] indexes = new int[n];
+    for (int i = 0; i < n; i++) {
+      indexes[i] = i;
+    }
+    return indexes;
+  }
+}
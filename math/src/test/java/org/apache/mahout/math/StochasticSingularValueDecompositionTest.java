@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class StochasticSingularValueDecompositionTest extends MahoutTestCase {
+
+  @Test
+  public void testLowRank() {
+    Matrix a = lowRankMatrix(300, 200, new double[] {50, 20, 10, 5, 1});
+    StochasticSingularValueDecomposition svd = new StochasticSingularValueDecomposition(a, 5, 5, 0, 1234L);
+    Vector reference = new DenseVector(new SingularValueDecomposition(a).getSingularValues()).viewPart(0, 5);
+    assertEquals(0, reference.minus(svd.getSingularValues()).norm(Double.POSITIVE_INFINITY), 1.0e-9);
+
+    Matrix u = svd.getU();
+    Matrix v = svd.getV();
+    assertEquals(300, u.rowSize());
+    assertEquals(200, v.rowSize());
+    assertOrthonormal(u);
+    assertOrthonormal(v);
+    Matrix reconstructed = u.times(new DiagonalMatrix(svd.getSingularValues())).times(v.transpose());
+    assertEquals(0, reconstructed.minus(a).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+  }
+
+  @Test
+  public void testPowerIterations() {
+    Random random = RandomUtils.getRandom();
+    Matrix a = lowRankMatrix(400, 150, new double[] {40, 30, 20, 10});
+    for (int row = 0; row < a.rowSize(); row++) {
+      for (int column = 0; column < a.columnSize(); column++) {
+        a.setQuick(row, column, a.getQuick(row, column) + 0.05 * random.nextGaussian());
+      }
+    }
+    double[] reference = new SingularValueDecomposition(a).getSingularValues();
+
+    double error = maxRelativeError(reference, new StochasticSingularValueDecomposition(a, 4, 2, 0, 7L));
+    double powerError = maxRelativeError(reference, new StochasticSingularValueDecomposition(a, 4, 2, 2, 7L));
+    assertTrue(powerError < 1.0e-6);
+    assertTrue(powerError <= error);
+  }
+
+  @Test
+  public void testSparseRowsMatchDense() {
+    Random random = RandomUtils.getRandom();
+    Matrix sparse = new SparseRowMatrix(500, 300);
+    for (int n = 0; n < 5000; n++) {
+      sparse.setQuick(random.nextInt(500), random.nextInt(300), random.nextGaussian());
+    }
+    Matrix dense = new DenseMatrix(500, 300).assign(sparse);
+
+    StochasticSingularValueDecomposition fromSparse = new StochasticSingularValueDecomposition(sparse, 10, 10, 1, 42L);
+    StochasticSingularValueDecomposition fromDense = new StochasticSingularValueDecomposition(dense, 10, 10, 1, 42L);
+    assertEquals(0, fromSparse.getSingularValues().minus(fromDense.getSingularValues()).norm(1), 1.0e-9);
+    assertEquals(0, fromSparse.getU().minus(fromDense.getU()).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+
+    // another seed projects on other directions
+    StochasticSingularValueDecomposition otherSeed = new StochasticSingularValueDecomposition(dense, 10, 10, 1, 43L);
+    assertTrue(otherSeed.getSingularValues().minus(fromDense.getSingularValues()).norm(1) > 1.0e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyDirections() {
+    new StochasticSingularValueDecomposition(new DenseMatrix(20, 10), 5, 6, 0, 1L);
+  }
+
+  private static Matrix lowRankMatrix(int rows, int columns, double[] singularValues) {
+    Matrix u = new BlockedQRDecomposition(randomMatrix(rows, singularValues.length)).getQ();
+    Matrix v = new BlockedQRDecomposition(randomMatrix(columns, singularValues.length)).getQ();
+    return u.times(new DiagonalMatrix(singularValues)).times(v.transpose());
+  }
+
+  private static Matrix randomMatrix(int rows, int columns) {
+    Random random = RandomUtils.getRandom();
+    Matrix m = new DenseMatrix(rows, columns);
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        m.setQuick(row, column, random.nextGaussian());
+      }
+    }
+    return m;
+  }
+
+  private static double maxRelativeError(double[] reference, StochasticSingularValueDecomposition svd) {
+    Vector singularValues = svd.getSingularValues();
+    double error = 0;
+    for (int i = 0; i < singularValues.size(); i++) {
+      error = Math.max(error, Math.abs(singularValues.get(i) - reference[i]) / reference[i]);
+    }
+    return error;
+  }
+
+  private static void assertOrthonormal(Matrix m) {
+    Matrix identity = m.transpose().times(m);
+    for (int i = 0; i < identity.rowSize(); i++) {
+      identity.setQuick(i, i, identity.getQuick(i, i) - 1);
+    }
+    assertEquals(0, identity.aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+  }
+}
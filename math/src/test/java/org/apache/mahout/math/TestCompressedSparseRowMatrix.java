@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.junit.Test;
+
+public final class TestCompressedSparseRowMatrix extends MahoutTestCase {
+
+  private static Matrix randomSparseMatrix(int rows, int columns, int entriesPerRow) {
+    Random random = RandomUtils.getRandom();
+    Matrix m = new SparseRowMatrix(rows, columns);
+    for (int row = 0; row < rows; row++) {
+      /* leave some rows empty */
+      if (row % 7 != 3) {
+        for (int k = 0; k < entriesPerRow; k++) {
+          m.setQuick(row, random.nextInt(columns), random.nextGaussian());
+        }
+      }
+    }
+    return m;
+  }
+
+  private static void assertMatrixEquals(Matrix expected, Matrix actual) {
+    assertEquals(expected.rowSize(), actual.rowSize());
+    assertEquals(expected.columnSize(), actual.columnSize());
+    for (int row = 0; row < expected.rowSize(); row++) {
+      for (int column = 0; column < expected.columnSize(); column++) {
+        assertEquals(expected.getQuick(row, column), actual.getQuick(row, column), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testCopy() {
+    Matrix m = randomSparseMatrix(40, 30, 5);
+    Matrix csr = new CompressedSparseRowMatrix(m);
+    assertMatrixEquals(m, csr);
+    assertMatrixEquals(m, new CompressedSparseRowMatrix(new DenseMatrix(40, 30).assign(m)));
+
+    Matrix clone = csr.clone();
+    assertTrue(clone instanceof CompressedSparseRowMatrix);
+    csr.setQuick(0, csr.viewRow(0).iterateNonZero().next().index(), 100.0);
+    assertMatrixEquals(m, clone);
+  }
+
+  @Test
+  public void testLayout() {
+    Matrix csr = new CompressedSparseRowMatrix(2, 4, new int[] { 0, 2, 3 }, new int[] { 1, 3, 0 },
+        new double[] { 1.0, 2.0, 3.0 });
+    assertEquals(1.0, csr.getQuick(0, 1), 0.0);
+    assertEquals(2.0, csr.getQuick(0, 3), 0.0);
+    assertEquals(0.0, csr.getQuick(0, 2), 0.0);
+    assertEquals(3.0, csr.getQuick(1, 0), 0.0);
+    assertEquals(2, csr.getNumNondefaultElements()[1]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLayout() {
+    new CompressedSparseRowMatrix(2, 4, new int[] { 0, 2, 4 }, new int[] { 1, 3, 0 }, new double[] { 1, 2, 3 });
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetZeroElement() {
+    Matrix csr = new CompressedSparseRowMatrix(2, 4, new int[] { 0, 2, 3 }, new int[] { 1, 3, 0 },
+        new double[] { 1.0, 2.0, 3.0 });
+    csr.setQuick(1, 1, 1.0);
+  }
+
+  @Test
+  public void testRowViews() {
+    Matrix m = randomSparseMatrix(10, 20, 4);
+    Matrix csr = new CompressedSparseRowMatrix(m);
+    Vector x = new DenseVector(20).assign(2.0);
+    for (int row = 0; row < m.rowSize(); row++) {
+      Vector expected = m.viewRow(row);
+      Vector actual = csr.viewRow(row);
+      assertEquals(expected.getNumNondefaultElements(), actual.getNumNondefaultElements());
+      assertEquals(expected.dot(x), actual.dot(x), EPSILON);
+      assertEquals(expected.zSum(), actual.zSum(), EPSILON);
+      int lastIndex = -1;
+      Iterator<Vector.Element> nonZeroElements = actual.iterateNonZero();
+      while (nonZeroElements.hasNext()) {
+        Vector.Element element = nonZeroElements.next();
+        assertTrue(element.index() > lastIndex);
+        assertEquals(expected.getQuick(element.index()), element.get(), 0.0);
+        lastIndex = element.index();
+      }
+    }
+
+    Vector row = csr.viewRow(0);
+    Vector.Element first = row.iterateNonZero().next();
+    first.set(-5.0);
+    assertEquals(-5.0, csr.getQuick(0, first.index()), 0.0);
+  }
+
+  @Test
+  public void testTimes() {
+    Matrix m = randomSparseMatrix(300, 200, 10);
+    Matrix csr = new CompressedSparseRowMatrix(m);
+    Vector x = new DenseVector(200);
+    Random random = RandomUtils.getRandom();
+    for (int i = 0; i < x.size(); i++) {
+      x.setQuick(i, random.nextGaussian());
+    }
+    assertEquals(0.0, m.times(x).minus(csr.times(x)).norm(1), EPSILON);
+    assertEquals(0.0, m.timesSquared(x).minus(csr.timesSquared(x)).norm(1), EPSILON);
+
+    Vector sparseX = new RandomAccessSparseVector(200);
+    sparseX.setQuick(17, 3.0);
+    assertEquals(0.0, m.times(sparseX).minus(csr.times(sparseX)).norm(1), EPSILON);
+    assertEquals(0.0, m.timesSquared(sparseX).minus(csr.timesSquared(sparseX)).norm(1), EPSILON);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class TestDenseFloatMatrix extends MahoutTestCase {
+
+  private static final double[][] VALUES = { { 1.1, 2.2 }, { 3.3, 4.4 }, { 5.5, 6.6 } };
+
+  private static Matrix floatMatrix(double[][] values) {
+    Matrix matrix = new DenseFloatMatrix(values.length, values[0].length);
+    for (int row = 0; row < values.length; row++) {
+      for (int column = 0; column < values[row].length; column++) {
+        matrix.setQuick(row, column, values[row][column]);
+      }
+    }
+    return matrix;
+  }
+
+  @Test
+  public void testValuesAreRoundedToFloat() {
+    Matrix matrix = floatMatrix(VALUES);
+    for (int row = 0; row < VALUES.length; row++) {
+      for (int column = 0; column < VALUES[row].length; column++) {
+        assertEquals((float) VALUES[row][column], matrix.getQuick(row, column), 0.0);
+      }
+    }
+    Matrix fromFloats = new DenseFloatMatrix(new float[][] { { 1.1f, 2.2f }, { 3.3f, 4.4f }, { 5.5f, 6.6f } });
+    assertEquals(0.0, matrix.minus(fromFloats).aggregate(Functions.PLUS, Functions.ABS), 0.0);
+  }
+
+  @Test
+  public void testRowViewSharesStorage() {
+    Matrix matrix = floatMatrix(VALUES);
+    Vector row = matrix.viewRow(1);
+    assertTrue(row instanceof DenseFloatVector);
+    row.setQuick(0, 7.0);
+    assertEquals(7.0, matrix.getQuick(1, 0), 0.0);
+    matrix.assignRow(2, new DenseVector(new double[] { 8.0, 9.0 }));
+    assertEquals(9.0, matrix.viewRow(2).getQuick(1), 0.0);
+  }
+
+  @Test
+  public void testProductsMatchDoublePrecision() {
+    Matrix matrix = floatMatrix(VALUES);
+    Matrix reference = new DenseMatrix(VALUES);
+    Vector x = new DenseVector(new double[] { 0.5, -1.5 });
+    assertEquals(0.0, matrix.times(x).minus(reference.times(x)).norm(1), 1.0e-5);
+
+    Matrix product = matrix.times(matrix.transpose());
+    Matrix expected = reference.times(reference.transpose());
+    for (int row = 0; row < expected.rowSize(); row++) {
+      for (int column = 0; column < expected.columnSize(); column++) {
+        assertEquals(expected.getQuick(row, column), product.getQuick(row, column), 1.0e-5);
+      }
+    }
+    assertTrue(matrix.like() instanceof DenseFloatMatrix);
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Iterator;
+
+import org.junit.Test;
+
+public final class TestDenseFloatVector extends MahoutTestCase {
+
+  @Test
+  public void testValuesAreRoundedToFloat() {
+    Vector vector = new DenseFloatVector(3);
+    vector.setQuick(0, 1.1);
+    vector.set(2, 3.3);
+    assertEquals((float) 1.1, vector.getQuick(0), 0.0);
+    assertEquals(0.0, vector.getQuick(1), 0.0);
+    assertEquals((float) 3.3, vector.get(2), 0.0);
+
+    Vector copy = new DenseFloatVector(new DenseVector(new double[] { 1.1, 0.0, 3.3 }));
+    assertEquals(vector, copy);
+  }
+
+  @Test
+  public void testDotAndLength() {
+    Vector a = new DenseFloatVector(new float[] { 1.5f, 0.0f, -2.25f, 4.0f });
+    Vector b = new DenseFloatVector(new float[] { 2.0f, 3.0f, 0.5f, -1.0f });
+    Vector denseB = new DenseVector(new double[] { 2.0, 3.0, 0.5, -1.0 });
+    assertEquals(3.0 - 1.125 - 4.0, a.dot(b), EPSILON);
+    assertEquals(a.dot(b), a.dot(denseB), EPSILON);
+    assertEquals(2.25 + 5.0625 + 16.0, a.getLengthSquared(), EPSILON);
+
+    a.setQuick(3, 0.0);
+    assertEquals(2.25 + 5.0625, a.getLengthSquared(), EPSILON);
+  }
+
+  @Test
+  public void testIterators() {
+    Vector vector = new DenseFloatVector(new float[] { 0.0f, 1.0f, 0.0f, 2.0f });
+    Iterator<Vector.Element> nonZeroElements = vector.iterateNonZero();
+    assertEquals(1, nonZeroElements.next().index());
+    Vector.Element element = nonZeroElements.next();
+    assertEquals(3, element.index());
+    element.set(5.0);
+    assertFalse(nonZeroElements.hasNext());
+    assertEquals(6.0, vector.zSum(), EPSILON);
+
+    int numElements = 0;
+    for (Vector.Element e : vector) {
+      assertEquals(numElements++, e.index());
+    }
+    assertEquals(4, numElements);
+  }
+
+  @Test
+  public void testCloneAndLike() {
+    float[] values = { 1.0f, 2.0f };
+    DenseFloatVector vector = new DenseFloatVector(values, true);
+    Vector clone = vector.clone();
+    vector.setQuick(0, 3.0);
+    assertEquals(3.0f, values[0], 0.0f);
+    assertEquals(1.0, clone.getQuick(0), 0.0);
+    assertTrue(vector.like() instanceof DenseFloatVector);
+    assertTrue(vector.cross(vector) instanceof DenseFloatMatrix);
+  }
+}
@@ -17,6 +17,11 @@
 
 package org.apache.mahout.math;
 
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.junit.Test;
+
 public final class TestDenseMatrix extends MatrixTest {
 
   @Override
@@ -24,4 +29,57 @@ public final class TestDenseMatrix extends MatrixTest {
     return new DenseMatrix(values);
   }
 
+  /**
+   * products large enough to span several blocks and to be computed concurrently must match the generic product
+   */
+  @Test
+  public void testTimesLargeMatrices() {
+    Random random = RandomUtils.getRandom();
+    Matrix dense = fill(new DenseMatrix(263, 257), random, 1.0);
+    Matrix otherDense = fill(new DenseMatrix(257, 259), random, 1.0);
+    Matrix sparse = fill(new SparseRowMatrix(257, 259), random, 0.1);
+    Matrix otherSparse = fill(new SparseRowMatrix(263, 257), random, 0.1);
+
+    assertProduct(dense, otherDense);
+    assertProduct(dense, sparse);
+    assertProduct(otherSparse, otherDense);
+    assertProduct(new DenseMatrix(7, 5), new DenseMatrix(5, 3));
+
+    // the product has the type of the left operand
+    assertTrue(otherSparse.times(otherDense) instanceof SparseRowMatrix);
+  }
+
+  @Test
+  public void testShallowCopyOfNoRows() {
+    Matrix matrix = new DenseMatrix(new double[0][], true);
+    assertEquals(0, matrix.rowSize());
+    assertEquals(0, matrix.columnSize());
+  }
+
+  private static Matrix fill(Matrix matrix, Random random, double density) {
+    for (int row = 0; row < matrix.rowSize(); row++) {
+      for (int column = 0; column < matrix.columnSize(); column++) {
+        if (random.nextDouble() < density) {
+          matrix.setQuick(row, column, random.nextGaussian());
+        }
+      }
+    }
+    return matrix;
+  }
+
+  private static void assertProduct(Matrix a, Matrix b) {
+    Matrix product = a.times(b);
+    assertEquals(a.rowSize(), product.rowSize());
+    assertEquals(b.columnSize(), product.columnSize());
+    for (int row = 0; row < a.rowSize(); row++) {
+      for (int column = 0; column < b.columnSize(); column++) {
+        double expected = 0;
+        for (int k = 0; k < a.columnSize(); k++) {
+          expected += a.getQuick(row, k) * b.getQuick(k, column);
+        }
+        assertEquals(expected, product.getQuick(row, column), 1.0e-9);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class TestFileBasedMatrix extends MatrixTest {
+
+  @Override
+  public Matrix matrixFactory(double[][] values) {
+    try {
+      File file = getTestTempFile("matrix-" + System.nanoTime());
+      FileBasedMatrix.writeMatrix(file, new DenseMatrix(values));
+      return new FileBasedMatrix(file, true);
+    } catch (IOException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /* copies and new matrices are created on the heap */
+
+  @Test
+  @Override
+  public void testCopy() {
+    Matrix copy = matrixFactory(new double[][] {{1.0, 2.0}}).clone();
+    assertSame("wrong class", DenseMatrix.class, copy.getClass());
+    assertEquals(2.0, copy.getQuick(0, 1), 0.0);
+  }
+
+  @Test
+  @Override
+  public void testLike() {
+    Matrix like = matrixFactory(new double[][] {{1.0, 2.0}}).like();
+    assertSame("type", DenseMatrix.class, like.getClass());
+    assertEquals("rows", 1, like.rowSize());
+    assertEquals("columns", 2, like.columnSize());
+  }
+
+  @Test
+  @Override
+  public void testLikeIntInt() {
+    Matrix like = matrixFactory(new double[][] {{1.0, 2.0}}).like(4, 4);
+    assertSame("type", DenseMatrix.class, like.getClass());
+    assertEquals("rows", 4, like.rowSize());
+    assertEquals("columns", 4, like.columnSize());
+  }
+
+  @Test
+  public void testSegments() throws IOException {
+    Matrix m = new DenseMatrix(7, 5);
+    for (int row = 0; row < m.rowSize(); row++) {
+      for (int column = 0; column < m.columnSize(); column++) {
+        m.setQuick(row, column, row * 10 + column);
+      }
+    }
+    File file = getTestTempFile("segments");
+    FileBasedMatrix.writeMatrix(file, m);
+    /* segments of 16 bytes, two values each */
+    Matrix mapped = new FileBasedMatrix(file, true, 4);
+    for (int row = 0; row < m.rowSize(); row++) {
+      for (int column = 0; column < m.columnSize(); column++) {
+        assertEquals(m.getQuick(row, column), mapped.getQuick(row, column), 0.0);
+      }
+    }
+    Vector x = new DenseVector(new double[] { 1, -2, 3, 0, 0.5 });
+    assertEquals(0.0, m.times(x).minus(mapped.times(x)).norm(1), EPSILON);
+    assertEquals(0.0, m.timesSquared(x).minus(mapped.timesSquared(x)).norm(1), EPSILON);
+
+    mapped.setQuick(6, 4, -1.0);
+    assertEquals(-1.0, new FileBasedMatrix(file).getQuick(6, 4), 0.0);
+  }
+
+  @Test
+  public void testCreate() throws IOException {
+    File file = getTestTempFile("created");
+    Matrix created = FileBasedMatrix.create(file, 3, 4);
+    assertEquals(0.0, created.zSum(), 0.0);
+    created.assignRow(1, new DenseVector(new double[] { 1, 2, 3, 4 }));
+    Matrix mapped = new FileBasedMatrix(file);
+    assertEquals(3, mapped.rowSize());
+    assertEquals(4, mapped.columnSize());
+    assertEquals(10.0, mapped.viewRow(1).zSum(), 0.0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testNotAMatrix() throws IOException {
+    File file = getTestTempFile("sparse");
+    FileBasedSparseMatrix.writeMatrix(file, new SparseRowMatrix(2, 2));
+    new FileBasedMatrix(file);
+  }
+
+  @Test
+  public void testParallelTimes() throws IOException {
+    // enough multiply-adds to split the products into blocks of rows
+    Matrix m = new DenseMatrix(1000, 300).assign(Functions.random());
+    File file = getTestTempFile("parallel");
+    FileBasedMatrix.writeMatrix(file, m);
+    Matrix mapped = new FileBasedMatrix(file);
+    Vector x = new DenseVector(m.columnSize()).assign(Functions.random());
+    assertEquals(0.0, m.times(x).minus(mapped.times(x)).norm(1), 1.0e-9);
+    assertEquals(0.0, m.timesSquared(x).minus(mapped.timesSquared(x)).norm(1), 1.0e-6);
+  }
+}
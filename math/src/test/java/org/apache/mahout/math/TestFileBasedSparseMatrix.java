@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class TestFileBasedSparseMatrix extends MahoutTestCase {
+
+  private static Matrix sparseMatrix() {
+    Matrix m = new SparseRowMatrix(6, 8);
+    m.setQuick(0, 3, 1.5);
+    m.setQuick(0, 7, -2.0);
+    m.setQuick(2, 0, 4.0);
+    m.setQuick(2, 5, 3.0);
+    m.setQuick(2, 6, 0.25);
+    m.setQuick(5, 1, 7.0);
+    return m;
+  }
+
+  private static void assertMatrixEquals(Matrix expected, Matrix actual) {
+    assertEquals(expected.rowSize(), actual.rowSize());
+    assertEquals(expected.columnSize(), actual.columnSize());
+    for (int row = 0; row < expected.rowSize(); row++) {
+      for (int column = 0; column < expected.columnSize(); column++) {
+        assertEquals(expected.getQuick(row, column), actual.getQuick(row, column), 0.0);
+      }
+    }
+  }
+
+  @Test
+  public void testWriteAndMap() throws IOException {
+    Matrix m = sparseMatrix();
+    File file = getTestTempFile("matrix");
+    FileBasedSparseMatrix.writeMatrix(file, m);
+    assertMatrixEquals(m, new FileBasedSparseMatrix(file));
+    /* segments of 8 bytes, one value each */
+    Matrix mapped = new FileBasedSparseMatrix(file, false, 3);
+    assertMatrixEquals(m, mapped);
+    assertMatrixEquals(m, mapped.clone());
+    assertFalse(new File(file.getPath() + ".values").exists());
+  }
+
+  @Test
+  public void testWriterSkipsRows() throws IOException {
+    File file = getTestTempFile("skipped");
+    FileBasedSparseMatrix.Writer writer = new FileBasedSparseMatrix.Writer(file, 4, 3);
+    Vector row = new RandomAccessSparseVector(3);
+    row.setQuick(2, 1.0);
+    row.setQuick(0, 2.0);
+    writer.append(1, row);
+    writer.append(3, new DenseVector(new double[] { 0.0, 5.0, 0.0 }));
+    writer.close();
+
+    Matrix mapped = new FileBasedSparseMatrix(file);
+    assertEquals(0, mapped.viewRow(0).getNumNondefaultElements());
+    assertEquals(2, mapped.viewRow(1).getNumNondefaultElements());
+    assertEquals(2.0, mapped.getQuick(1, 0), 0.0);
+    assertEquals(1.0, mapped.getQuick(1, 2), 0.0);
+    assertEquals(0, mapped.viewRow(2).getNumNondefaultElements());
+    assertEquals(5.0, mapped.getQuick(3, 1), 0.0);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWriterRejectsRowsOutOfOrder() throws IOException {
+    FileBasedSparseMatrix.Writer writer = new FileBasedSparseMatrix.Writer(getTestTempFile("unordered"), 4, 3);
+    try {
+      writer.append(2, new DenseVector(3));
+      writer.append(1, new DenseVector(3));
+    } finally {
+      writer.close();
+    }
+  }
+
+  @Test
+  public void testRowViews() throws IOException {
+    File file = getTestTempFile("rows");
+    FileBasedSparseMatrix.writeMatrix(file, sparseMatrix());
+    Matrix mapped = new FileBasedSparseMatrix(file, true);
+
+    Vector row = mapped.viewRow(2);
+    assertFalse(row.isDense());
+    assertTrue(row.isSequentialAccess());
+    Iterator<Vector.Element> nonZeroElements = row.iterateNonZero();
+    assertEquals(0, nonZeroElements.next().index());
+    assertEquals(5, nonZeroElements.next().index());
+    Vector.Element element = nonZeroElements.next();
+    assertEquals(6, element.index());
+    element.set(0.5);
+    assertFalse(nonZeroElements.hasNext());
+    assertEquals(0.5, mapped.getQuick(2, 6), 0.0);
+    assertEquals(7.5, row.zSum(), 0.0);
+
+    int numElements = 0;
+    for (Vector.Element e : row) {
+      assertEquals(numElements, e.index());
+      assertEquals(mapped.getQuick(2, numElements), e.get(), 0.0);
+      numElements++;
+    }
+    assertEquals(8, numElements);
+
+    mapped.setQuick(0, 3, 3.0);
+    assertEquals(3.0, new FileBasedSparseMatrix(file).getQuick(0, 3), 0.0);
+  }
+
+  @Test(expected = UnsupportedOperationException.class)
+  public void testSetZeroElement() throws IOException {
+    File file = getTestTempFile("zero");
+    FileBasedSparseMatrix.writeMatrix(file, sparseMatrix());
+    new FileBasedSparseMatrix(file, true).setQuick(1, 1, 1.0);
+  }
+
+  @Test
+  public void testTimes() throws IOException {
+    Matrix m = sparseMatrix();
+    File file = getTestTempFile("times");
+    FileBasedSparseMatrix.writeMatrix(file, m);
+    Matrix mapped = new FileBasedSparseMatrix(file);
+    Vector x = new DenseVector(new double[] { 1, -1, 2, 0.5, 3, -2, 4, 1 });
+    assertEquals(0.0, m.times(x).minus(mapped.times(x)).norm(1), EPSILON);
+    assertEquals(0.0, m.timesSquared(x).minus(mapped.timesSquared(x)).norm(1), EPSILON);
+  }
+
+  @Test
+  public void testParallelTimes() throws IOException {
+    // enough nonzeros to split the products into blocks of rows
+    Random random = RandomUtils.getRandom();
+    Matrix m = new SparseRowMatrix(3000, 400);
+    for (int row = 0; row < m.rowSize(); row++) {
+      for (int n = 0; n < 100; n++) {
+        m.setQuick(row, random.nextInt(m.columnSize()), random.nextGaussian());
+      }
+    }
+    File file = getTestTempFile("parallel");
+    FileBasedSparseMatrix.writeMatrix(file, m);
+    Matrix mapped = new FileBasedSparseMatrix(file);
+    Vector x = new DenseVector(m.columnSize()).assign(Functions.random());
+    assertEquals(0.0, m.times(x).minus(mapped.times(x)).norm(1), 1.0e-9);
+    assertEquals(0.0, m.timesSquared(x).minus(mapped.timesSquared(x)).norm(1), 1.0e-6);
+  }
+}
@@ -17,6 +17,9 @@
 
 package org.apache.mahout.math;
 
+import java.util.BitSet;
+
+import org.apache.mahout.math.function.Functions;
 import org.junit.Test;
 
 public final class TestOrderedIntDoubleMapping extends MahoutTestCase {
@@ -68,4 +71,45 @@ public final class TestOrderedIntDoubleMapping extends MahoutTestCase {
     assertEquals(0.0, clone.get(6), EPSILON);
   }
 
+  @Test
+  public void testFromUnordered() {
+    int[] indices = { 7, 3, 7, 1, 3, 9, 9 };
+    double[] values = { 1.0, 2.0, 5.0, 4.0, 3.0, 6.0, -6.0 };
+    BitSet accumulate = new BitSet();
+    accumulate.set(4);
+    accumulate.set(6);
+    OrderedIntDoubleMapping mapping = OrderedIntDoubleMapping.fromUnordered(indices, values, indices.length,
+        accumulate);
+    assertEquals(3, mapping.getNumMappings());
+    assertEquals(4.0, mapping.get(1), EPSILON);
+    assertEquals(5.0, mapping.get(3), EPSILON);
+    assertEquals(5.0, mapping.get(7), EPSILON);
+    assertEquals(0.0, mapping.get(9), EPSILON);
+  }
+
+  @Test
+  public void testMerge() {
+    OrderedIntDoubleMapping mapping = new OrderedIntDoubleMapping(1);
+    mapping.set(2, 1.0);
+    mapping.set(4, 2.0);
+    mapping.set(8, 3.0);
+    mapping.merge(new int[] { 0, 4, 8, 9 }, new double[] { 1.5, 2.5, -3.0, 4.0 }, 4, Functions.PLUS);
+    assertEquals(4, mapping.getNumMappings());
+    assertEquals(1.5, mapping.get(0), EPSILON);
+    assertEquals(1.0, mapping.get(2), EPSILON);
+    assertEquals(4.5, mapping.get(4), EPSILON);
+    assertEquals(0.0, mapping.get(8), EPSILON);
+    assertEquals(4.0, mapping.get(9), EPSILON);
+    assertEquals(9, mapping.getIndices()[3]);
+
+    OrderedIntDoubleMapping other = new OrderedIntDoubleMapping(1);
+    other.set(2, 1.0);
+    other.set(3, 1.0);
+    OrderedIntDoubleMapping merged = OrderedIntDoubleMapping.merge(mapping, other, Functions.MINUS);
+    assertEquals(4, merged.getNumMappings());
+    assertEquals(-1.0, merged.get(3), EPSILON);
+    assertEquals(0.0, merged.get(2), EPSILON);
+    assertEquals(1.5, merged.get(0), EPSILON);
+  }
+
 }
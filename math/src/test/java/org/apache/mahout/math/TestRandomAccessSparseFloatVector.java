@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import org.junit.Test;
+
+public final class TestRandomAccessSparseFloatVector extends MahoutTestCase {
+
+  @Test
+  public void testValuesAreRoundedToFloat() {
+    Vector vector = new RandomAccessSparseFloatVector(10);
+    vector.setQuick(2, 1.1);
+    vector.setQuick(7, 1.0e-50);
+    assertEquals((float) 1.1, vector.getQuick(2), 0.0);
+    assertEquals(0.0, vector.getQuick(7), 0.0);
+    assertEquals(1, vector.getNumNondefaultElements());
+
+    vector.setQuick(2, 0.0);
+    assertEquals(0, vector.getNumNondefaultElements());
+  }
+
+  @Test
+  public void testArithmetic() {
+    Vector a = new RandomAccessSparseFloatVector(100);
+    a.setQuick(3, 1.5);
+    a.setQuick(50, -2.0);
+    Vector b = new RandomAccessSparseVector(100);
+    b.setQuick(50, 4.0);
+    b.setQuick(99, 1.0);
+
+    assertEquals(-8.0, a.dot(b), EPSILON);
+    Vector sum = a.plus(b);
+    assertEquals(3, sum.getNumNondefaultElements());
+    assertEquals(2.0, sum.getQuick(50), EPSILON);
+    assertEquals(1.5 * 1.5 + 4.0, a.getLengthSquared(), EPSILON);
+
+    Vector copy = new RandomAccessSparseFloatVector(b);
+    assertEquals(b, copy);
+    assertTrue(copy.like() instanceof RandomAccessSparseFloatVector);
+  }
+}
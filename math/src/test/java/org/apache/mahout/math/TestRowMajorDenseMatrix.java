@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.mahout.math;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+public final class TestRowMajorDenseMatrix extends MatrixTest {
+
+  @Override
+  public Matrix matrixFactory(double[][] values) {
+    return new RowMajorDenseMatrix(values);
+  }
+
+  @Test
+  public void testViewsShareStorage() {
+    Matrix matrix = new RowMajorDenseMatrix(3, 4);
+    matrix.viewRow(1).assign(2.0);
+    matrix.viewColumn(2).assign(3.0);
+    matrix.viewDiagonal().assign(5.0);
+    assertEquals(2.0, matrix.getQuick(1, 0), EPSILON);
+    assertEquals(3.0, matrix.getQuick(0, 2), EPSILON);
+    assertEquals(3.0, matrix.getQuick(1, 2), EPSILON);
+    assertEquals(5.0, matrix.getQuick(1, 1), EPSILON);
+    assertEquals(5.0, matrix.getQuick(2, 2), EPSILON);
+
+    Vector column = matrix.viewColumn(2).clone();
+    column.assign(7.0);
+    assertEquals(3.0, matrix.getQuick(0, 2), EPSILON);
+  }
+
+  @Test
+  public void testCopyOfNoRows() {
+    Matrix matrix = new RowMajorDenseMatrix(new double[0][]);
+    assertEquals(0, matrix.rowSize());
+    assertEquals(0, matrix.columnSize());
+  }
+
+  @Test
+  public void testTimesLargeMatrices() {
+    Random random = RandomUtils.getRandom();
+    Matrix a = new RowMajorDenseMatrix(263, 257);
+    Matrix b = new DenseMatrix(257, 259);
+    for (int row = 0; row < a.rowSize(); row++) {
+      for (int column = 0; column < a.columnSize(); column++) {
+        a.setQuick(row, column, random.nextGaussian());
+      }
+    }
+    for (int row = 0; row < b.rowSize(); row++) {
+      for (int column = 0; column < b.columnSize(); column++) {
+        b.setQuick(row, column, random.nextGaussian());
+      }
+    }
+    Matrix expected = new DenseMatrix(a.rowSize(), a.columnSize()).assign(a).times(b);
+    assertEquals(0.0, expected.minus(a.times(b)).aggregate(Functions.MAX, Functions.ABS), 1.0e-9);
+    assertEquals(0.0, expected.minus(a.times(new RowMajorDenseMatrix(b))).aggregate(Functions.MAX, Functions.ABS),
+        1.0e-9);
+  }
+
+}
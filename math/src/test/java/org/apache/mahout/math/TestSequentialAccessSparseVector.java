@@ -17,6 +17,10 @@
 
 package org.apache.mahout.math;
 
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.Functions;
 import org.junit.Test;
 
 public final class TestSequentialAccessSparseVector extends AbstractTestVector {
@@ -39,4 +43,38 @@ public final class TestSequentialAccessSparseVector extends AbstractTestVector {
 
     assertEquals("dot2", -0.666666667, v.dot(w), EPSILON);
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testBuilder() {
+    Vector v = new SequentialAccessSparseVector.Builder(10)
+        .set(7, 1.0).set(2, 3.0).add(7, 2.0).set(2, 4.0).add(5, 1.0).add(5, -1.0).build();
+    assertEquals(2, v.getNumNondefaultElements());
+    assertEquals(4.0, v.get(2), EPSILON);
+    assertEquals(3.0, v.get(7), EPSILON);
+    assertEquals(0.0, v.get(5), EPSILON);
+  }
+
+  @Test
+  public void testMergingAssignAndPlus() {
+    Random random = RandomUtils.getRandom();
+    for (int trial = 0; trial < 20; trial++) {
+      Vector x = new RandomAccessSparseVector(1000);
+      Vector y = new RandomAccessSparseVector(1000);
+      for (int n = 0; n < 100; n++) {
+        x.setQuick(random.nextInt(1000), random.nextGaussian());
+        y.setQuick(random.nextInt(1000), random.nextGaussian());
+      }
+      Vector sequentialX = new SequentialAccessSparseVector(x);
+      Vector sequentialY = new SequentialAccessSparseVector(y);
+
+      assertEquals(0.0, x.plus(y).getDistanceSquared(sequentialX.plus(sequentialY)), EPSILON);
+      assertEquals(0.0, x.clone().assign(y, Functions.MINUS)
+          .getDistanceSquared(sequentialX.clone().assign(sequentialY, Functions.MINUS)), EPSILON);
+      assertEquals(0.0, x.clone().assign(y, Functions.plusMult(2))
+          .getDistanceSquared(sequentialX.clone().assign(y, Functions.plusMult(2))), EPSILON);
+      assertEquals(0.0, x.times(2).getDistanceSquared(sequentialX.clone().assign(sequentialX, Functions.PLUS)),
+          EPSILON);
+      assertEquals(0, sequentialX.clone().assign(sequentialX, Functions.MINUS).getNumNondefaultElements());
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math;
+
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.function.DoubleDoubleFunction;
+import org.apache.mahout.math.function.Functions;
+import org.junit.Test;
+
+/**
+ * every combination of operand types and functions must yield the result of the plain loop over all indices
+ */
+public final class VectorBinaryOperationsTest extends MahoutTestCase {
+
+  private static final int SIZE = 100;
+
+  private static final DoubleDoubleFunction[] FUNCTIONS = {
+      Functions.PLUS, Functions.MINUS, Functions.plusMult(2.5), Functions.MULT, Functions.PLUS_ABS,
+      Functions.MAX, Functions.MIN, Functions.chain(Functions.ABS, Functions.MINUS),
+      Functions.chain(Functions.SQUARE, Functions.MINUS), Functions.chain(Functions.plus(1), Functions.MULT),
+      Functions.swapArgs(Functions.MINUS), Functions.swapArgs(Functions.MULT)
+  };
+
+  private static final DoubleDoubleFunction[] AGGREGATORS = {
+      Functions.PLUS, Functions.MAX, Functions.MIN, Functions.MULT
+  };
+
+  @Test
+  public void testAssign() {
+    Random random = RandomUtils.getRandom();
+    for (int trial = 0; trial < 5; trial++) {
+      for (DoubleDoubleFunction function : FUNCTIONS) {
+        for (Vector x : vectors(random)) {
+          for (Vector y : vectors(random)) {
+            double[] expected = new double[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+              expected[i] = function.apply(x.getQuick(i), y.getQuick(i));
+            }
+            Vector result = x.clone().assign(y, function);
+            for (int i = 0; i < SIZE; i++) {
+              assertEquals(expected[i], result.getQuick(i), EPSILON);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAggregate() {
+    Random random = RandomUtils.getRandom();
+    for (int trial = 0; trial < 5; trial++) {
+      for (DoubleDoubleFunction aggregator : AGGREGATORS) {
+        for (DoubleDoubleFunction combiner : FUNCTIONS) {
+          for (Vector x : vectors(random)) {
+            for (Vector y : vectors(random)) {
+              double expected = combiner.apply(x.getQuick(0), y.getQuick(0));
+              for (int i = 1; i < SIZE; i++) {
+                expected = aggregator.apply(expected, combiner.apply(x.getQuick(i), y.getQuick(i)));
+              }
+              assertEquals(expected, x.aggregate(y, aggregator, combiner), EPSILON);
+            }
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAggregateOfDisjointAndEmptyVectors() {
+    Vector x = new SequentialAccessSparseVector(SIZE);
+    Vector y = new RandomAccessSparseVector(SIZE);
+    assertEquals(0.0, x.aggregate(y, Functions.PLUS, Functions.MULT), EPSILON);
+    assertEquals(0.0, x.aggregate(y, Functions.MAX, Functions.MINUS), EPSILON);
+    x.setQuick(3, -2.0);
+    y.setQuick(7, -1.0);
+    assertEquals(0.0, x.aggregate(y, Functions.MIN, Functions.MULT), EPSILON);
+    assertEquals(-2.0, x.aggregate(y, Functions.MIN, Functions.MINUS), EPSILON);
+    assertEquals(1.0, x.aggregate(y, Functions.MAX, Functions.MINUS), EPSILON);
+  }
+
+  private static Vector[] vectors(Random random) {
+    Vector sparse = new RandomAccessSparseVector(SIZE);
+    for (int n = 0; n < SIZE / 10; n++) {
+      sparse.setQuick(random.nextInt(SIZE), random.nextGaussian());
+    }
+    Vector dense = new DenseVector(SIZE);
+    for (int i = 0; i < SIZE; i++) {
+      dense.setQuick(i, random.nextGaussian());
+    }
+    return new Vector[] {
+        dense, sparse, new SequentialAccessSparseVector(sparse), new NamedVector(sparse.clone(), "named")
+    };
+  }
+
+}
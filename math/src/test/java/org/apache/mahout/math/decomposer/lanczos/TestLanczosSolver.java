@@ -17,7 +17,9 @@
 
 package org.apache.mahout.math.decomposer.lanczos;
 
+import org.apache.mahout.math.CompressedSparseRowMatrix;
 import org.apache.mahout.math.DenseVector;
+import org.apache.mahout.math.FileBasedSparseMatrix;
 import org.apache.mahout.math.Matrix;
 import org.apache.mahout.math.Vector;
 import org.apache.mahout.math.decomposer.SolverTest;
@@ -26,6 +28,8 @@ import org.junit.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+
 public final class TestLanczosSolver extends SolverTest {
   private static final Logger log = LoggerFactory.getLogger(TestLanczosSolver.class);
 
@@ -94,6 +98,70 @@ public final class TestLanczosSolver extends SolverTest {
     //assertEigen(state, rank / 2, ERROR_TOLERANCE, true);
   }
 
+  @Test
+  public void testLanczosSolverCompressedSparseRows() throws Exception {
+    int numRows = 800;
+    int numColumns = 500;
+    Matrix corpus = new CompressedSparseRowMatrix(randomHierarchicalMatrix(numRows, numColumns, false));
+    Vector initialVector = new DenseVector(numColumns);
+    initialVector.assign(1.0 / Math.sqrt(numColumns));
+    int rank = 50;
+    LanczosState state = new LanczosState(corpus, rank, initialVector);
+    timeLanczos(corpus, state, rank, false);
+    assertOrthonormal(state);
+    for (int i = 0; i < rank / 2; i++) {
+      assertEigen(i, state.getRightSingularVector(i), corpus, ERROR_TOLERANCE, false);
+    }
+  }
+
+  @Test
+  public void testPartialReorthogonalization() throws Exception {
+    int numRows = 800;
+    int numColumns = 500;
+    Matrix corpus = randomHierarchicalMatrix(numRows, numColumns, false);
+    Vector initialVector = new DenseVector(numColumns);
+    initialVector.assign(1.0 / Math.sqrt(numColumns));
+    int rank = 50;
+    LanczosState state = new LanczosState(corpus, rank, initialVector);
+    LanczosSolver solver = new LanczosSolver(true);
+    solver.solve(state, rank, false);
+    // only some of the rank - 1 new basis vectors were orthogonalized against all previous ones
+    assertTrue(solver.getReorthogonalizations() > 0);
+    assertTrue(solver.getReorthogonalizations() < rank - 1);
+    // the basis stays semi-orthogonal
+    for (int i = 0; i < rank; i++) {
+      for (int j = 0; j < i; j++) {
+        assertEquals(0, state.getBasisVector(i).dot(state.getBasisVector(j)), 1.0e-6);
+      }
+    }
+    assertOrthonormal(state);
+    for (int i = 0; i < rank / 2; i++) {
+      assertEigen(i, state.getRightSingularVector(i), corpus, ERROR_TOLERANCE, false);
+    }
+  }
+
+  @Test
+  public void testFileBasedState() throws Exception {
+    int numRows = 800;
+    int numColumns = 500;
+    Matrix matrix = randomHierarchicalMatrix(numRows, numColumns, false);
+    File file = getTestTempFile("corpus");
+    FileBasedSparseMatrix.writeMatrix(file, matrix);
+    Matrix corpus = new FileBasedSparseMatrix(file);
+    Vector initialVector = new DenseVector(numColumns);
+    initialVector.assign(1.0 / Math.sqrt(numColumns));
+    int rank = 50;
+    LanczosState state = new FileBasedLanczosState(corpus, rank, initialVector, getTestTempDir("lanczos"));
+    assertEquals(1, state.getBasisSize());
+    assertEquals(initialVector, state.getBasisVector(0));
+    new LanczosSolver(true).solve(state, rank, false);
+    assertEquals(rank, state.getBasisSize());
+    assertOrthonormal(state);
+    for (int i = 0; i < rank / 2; i++) {
+      assertEigen(i, state.getRightSingularVector(i), matrix, ERROR_TOLERANCE, false);
+    }
+  }
+
   public static long timeLanczos(Matrix corpus, LanczosState state, int rank, boolean symmetric) {
     long start = System.currentTimeMillis();
 
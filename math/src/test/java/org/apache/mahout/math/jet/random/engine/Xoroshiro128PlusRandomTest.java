@@ -0,0 +1,127 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.jet.random.engine;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.MahoutTestCase;
+import org.apache.mahout.math.jet.random.Gamma;
+import org.junit.Test;
+
+public final class Xoroshiro128PlusRandomTest extends MahoutTestCase {
+
+  @Test
+  public void testReproducible() {
+    Random a = new Xoroshiro128PlusRandom(42);
+    Random b = RandomUtils.getFastRandom(42);
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(a.nextLong(), b.nextLong());
+    }
+    a.setSeed(7);
+    b.setSeed(7);
+    assertEquals(a.nextGaussian(), b.nextGaussian(), 0);
+    assertEquals(a.nextInt(1000), b.nextInt(1000));
+    assertFalse(new Xoroshiro128PlusRandom(1).nextLong() == new Xoroshiro128PlusRandom(2).nextLong());
+  }
+
+  @Test
+  public void testStreamsAndSplits() {
+    Xoroshiro128PlusRandom random = new Xoroshiro128PlusRandom(42);
+    Xoroshiro128PlusRandom[] generators = {
+        random, random.split(), random.split(), RandomUtils.getFastRandom(42, 0), RandomUtils.getFastRandom(42, 1)};
+    long[] first = new long[generators.length];
+    for (int i = 0; i < generators.length; i++) {
+      first[i] = generators[i].nextLong();
+    }
+    Arrays.sort(first);
+    for (int i = 1; i < first.length; i++) {
+      assertTrue(first[i - 1] != first[i]);
+    }
+    assertEquals(RandomUtils.getFastRandom(42, 1).nextLong(), new Xoroshiro128PlusRandom(42, 1).nextLong());
+  }
+
+  @Test
+  public void testUniform() {
+    Xoroshiro128PlusRandom random = new Xoroshiro128PlusRandom(1);
+    int[] counts = new int[10];
+    for (int i = 0; i < 100000; i++) {
+      double x = random.nextDouble();
+      assertTrue(x >= 0 && x < 1);
+      counts[(int) (10 * x)]++;
+    }
+    for (int count : counts) {
+      assertEquals(10000, count, 500);
+    }
+  }
+
+  @Test
+  public void testBulkFills() {
+    Xoroshiro128PlusRandom a = new Xoroshiro128PlusRandom(3);
+    Xoroshiro128PlusRandom b = new Xoroshiro128PlusRandom(3);
+    double[] values = new double[1001];
+    a.nextDoubles(values, 1, values.length);
+    assertEquals(0, values[0], 0);
+    for (int i = 1; i < values.length; i++) {
+      assertEquals(b.nextDouble(), values[i], 0);
+    }
+    assertEquals(b.nextLong(), a.nextLong());
+
+    // an odd length leaves a gaussian for the next call
+    double[] gaussians = new double[100001];
+    a.nextGaussians(gaussians);
+    b.nextGaussians(gaussians, 0, 100000);
+    assertEquals(b.nextGaussian(), gaussians[100000], 0);
+    assertEquals(a.nextGaussian(), b.nextGaussian(), 0);
+
+    double sum = 0;
+    double sumOfSquares = 0;
+    for (double x : gaussians) {
+      sum += x;
+      sumOfSquares += x * x;
+    }
+    assertEquals(0, sum / gaussians.length, 0.02);
+    assertEquals(1, sumOfSquares / gaussians.length, 0.02);
+  }
+
+  @Test
+  public void testDrivesDistributions() {
+    Gamma gamma = new Gamma(2, 1, new Xoroshiro128PlusRandom(5));
+    double sum = 0;
+    for (int i = 0; i < 100000; i++) {
+      sum += gamma.nextDouble();
+    }
+    assertEquals(2, sum / 100000, 0.02);
+  }
+
+  @Test
+  public void testThreadRandom() throws InterruptedException {
+    final Xoroshiro128PlusRandom[] other = new Xoroshiro128PlusRandom[1];
+    Thread thread = new Thread() {
+      @Override
+      public void run() {
+        other[0] = RandomUtils.getThreadRandom();
+      }
+    };
+    thread.start();
+    thread.join();
+    assertSame(RandomUtils.getThreadRandom(), RandomUtils.getThreadRandom());
+    assertNotSame(other[0], RandomUtils.getThreadRandom());
+  }
+}
@@ -17,9 +17,15 @@
 
 package org.apache.mahout.math.stats;
 
+import org.apache.mahout.common.RandomUtils;
 import org.apache.mahout.math.MahoutTestCase;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.util.Random;
 
 public final class OnlineSummarizerTest extends MahoutTestCase {
@@ -77,6 +83,82 @@ public final class OnlineSummarizerTest extends MahoutTestCase {
 //            8.10277696526878, 12.1426255901507);              // standard dev
   }
 
+  @Test
+  public void testSmallSamplesAreExact() {
+    OnlineSummarizer x = new OnlineSummarizer();
+    for (int i = 100; i > 0; i--) {
+      x.add(i);
+    }
+    assertEquals(1, x.getMin(), 0);
+    assertEquals(25.75, x.getQuartile(1), 0);
+    assertEquals(50.5, x.getMedian(), 0);
+    assertEquals(90.1, x.getQuantile(0.9), 1.0e-9);
+    assertEquals(100, x.getMax(), 0);
+  }
+
+  @Test
+  public void testMerge() throws IOException {
+    // summarize the halves of a sample separately, then merge them
+    Random gen = RandomUtils.getRandom();
+    OnlineSummarizer all = new OnlineSummarizer();
+    OnlineSummarizer even = new OnlineSummarizer();
+    OnlineSummarizer odd = new OnlineSummarizer();
+    for (int i = 0; i < 10000; i++) {
+      double sample = -Math.log1p(-gen.nextDouble());
+      all.add(sample);
+      (i % 2 == 0 ? even : odd).add(sample);
+    }
+    OnlineSummarizer merged = roundTrip(even);
+    merged.add(roundTrip(odd));
+
+    assertEquals(all.getCount(), merged.getCount());
+    assertEquals(all.getMean(), merged.getMean(), 1.0e-9);
+    assertEquals(all.getSD(), merged.getSD(), 1.0e-9);
+    assertEquals(all.getMin(), merged.getMin(), 0);
+    assertEquals(all.getMax(), merged.getMax(), 0);
+    for (int i = 1; i < 4; i++) {
+      assertEquals(all.getQuartile(i), merged.getQuartile(i), 0.02);
+    }
+    assertEquals(all.getQuantile(0.99), merged.getQuantile(0.99), 0.1);
+  }
+
+  @Test
+  public void testMergeSmall() {
+    OnlineSummarizer x = new OnlineSummarizer();
+    OnlineSummarizer y = new OnlineSummarizer();
+    for (int i = 1; i <= 5; i++) {
+      x.add(i);
+      y.add(10 - i);
+    }
+    x.add(y);
+    x.add(new OnlineSummarizer());
+    assertEquals(10, x.getCount());
+    assertEquals(5, x.getMean(), 1.0e-12);
+    assertEquals(5, x.getMedian(), 0);
+    assertEquals(1, x.getMin(), 0);
+    assertEquals(9, x.getMax(), 0);
+  }
+
+  @Test
+  public void testMergeWithItself() {
+    OnlineSummarizer x = new OnlineSummarizer();
+    for (int i = 1; i <= 5; i++) {
+      x.add(i);
+    }
+    x.add(x);
+    assertEquals(10, x.getCount());
+    assertEquals(3, x.getMean(), 1.0e-12);
+    assertEquals(3, x.getMedian(), 0);
+    assertEquals(1, x.getQuantile(0.1), 0);
+    assertEquals(5, x.getMax(), 0);
+  }
+
+  private static OnlineSummarizer roundTrip(OnlineSummarizer x) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    x.write(new DataOutputStream(bytes));
+    return OnlineSummarizer.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
   private static void check(OnlineSummarizer x, double... values) {
     for (int i = 0; i < 5; i++) {
       checkRange("quartile " + i, x.getQuartile(i), values[2 * i], values[2 * i + 1]);
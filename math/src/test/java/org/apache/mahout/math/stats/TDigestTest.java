@@ -0,0 +1,181 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.mahout.math.stats;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.apache.mahout.common.RandomUtils;
+import org.apache.mahout.math.MahoutTestCase;
+import org.junit.Test;
+
+public final class TDigestTest extends MahoutTestCase {
+
+  private static final double[] QUANTILES = {0.001, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999};
+
+  @Test
+  public void testUniform() {
+    Random gen = RandomUtils.getRandom();
+    double[] samples = new double[100000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = gen.nextDouble();
+    }
+    checkQuantiles(samples, digestOf(samples));
+  }
+
+  @Test
+  public void testSkewed() {
+    // log-normal with a long right tail, where mean and median are far apart
+    Random gen = RandomUtils.getRandom();
+    double[] samples = new double[100000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = Math.exp(3 * gen.nextGaussian());
+    }
+    checkQuantiles(samples, digestOf(samples));
+  }
+
+  @Test
+  public void testSmall() {
+    TDigest digest = new TDigest();
+    assertTrue(Double.isNaN(digest.quantile(0.5)));
+    digest.add(3);
+    assertEquals(3, digest.quantile(0.5), 0);
+    digest.add(1);
+    digest.add(2);
+    assertEquals(1, digest.quantile(0), 0);
+    assertEquals(3, digest.quantile(1), 0);
+    assertEquals(2, digest.quantile(0.5), 0);
+    assertEquals(3, digest.size(), 0);
+  }
+
+  @Test
+  public void testBoundedSize() {
+    TDigest digest = new TDigest(50);
+    Random gen = RandomUtils.getRandom();
+    for (int i = 0; i < 1000000; i++) {
+      digest.add(gen.nextGaussian());
+    }
+    assertTrue(digest.centroidCount() <= 50);
+    assertEquals(1000000, digest.size(), 0);
+  }
+
+  @Test
+  public void testMerge() {
+    Random gen = RandomUtils.getRandom();
+    double[] samples = new double[100000];
+    TDigest[] parts = new TDigest[10];
+    for (int p = 0; p < parts.length; p++) {
+      parts[p] = new TDigest();
+    }
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = -Math.log1p(-gen.nextDouble());
+      parts[i % parts.length].add(samples[i]);
+    }
+    TDigest merged = new TDigest();
+    for (TDigest part : parts) {
+      merged.add(part);
+    }
+    assertEquals(samples.length, merged.size(), 0);
+    checkQuantiles(samples, merged);
+  }
+
+  @Test
+  public void testMergeWithItself() {
+    Random gen = RandomUtils.getRandom();
+    double[] samples = new double[10000];
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = gen.nextGaussian();
+    }
+    TDigest digest = digestOf(samples);
+    double[] quantiles = new double[QUANTILES.length];
+    for (int i = 0; i < QUANTILES.length; i++) {
+      quantiles[i] = digest.quantile(QUANTILES[i]);
+    }
+    digest.add(digest);
+    assertEquals(2 * samples.length, digest.size(), 0);
+    for (int i = 0; i < QUANTILES.length; i++) {
+      assertEquals(quantiles[i], digest.quantile(QUANTILES[i]), 0.05);
+    }
+  }
+
+  @Test
+  public void testSerialization() throws IOException {
+    Random gen = RandomUtils.getRandom();
+    TDigest digest = new TDigest();
+    for (int i = 0; i < 10000; i++) {
+      digest.add(gen.nextGaussian());
+    }
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    digest.write(new DataOutputStream(bytes));
+    TDigest copy = TDigest.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertEquals(digest.size(), copy.size(), 0);
+    assertEquals(digest.centroidCount(), copy.centroidCount());
+    for (double q : QUANTILES) {
+      assertEquals(digest.quantile(q), copy.quantile(q), 0);
+    }
+    assertEquals(digest.getMin(), copy.quantile(0), 0);
+    assertEquals(digest.getMax(), copy.quantile(1), 0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadTooManyCentroids() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeDouble(TDigest.DEFAULT_COMPRESSION);
+    out.writeDouble(0);
+    out.writeDouble(1);
+    out.writeInt(1000000);
+    TDigest.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNaN() {
+    new TDigest().add(Double.NaN);
+  }
+
+  private static TDigest digestOf(double[] samples) {
+    TDigest digest = new TDigest();
+    for (double sample : samples) {
+      digest.add(sample);
+    }
+    return digest;
+  }
+
+  /** the estimates must be within half a percent in rank, much less in the tails */
+  private static void checkQuantiles(double[] samples, TDigest digest) {
+    double[] sorted = samples.clone();
+    Arrays.sort(sorted);
+    assertEquals(sorted[0], digest.quantile(0), 0);
+    assertEquals(sorted[sorted.length - 1], digest.quantile(1), 0);
+    for (double q : QUANTILES) {
+      double estimate = digest.quantile(q);
+      int rank = Arrays.binarySearch(sorted, estimate);
+      if (rank < 0) {
+        rank = -rank - 1;
+      }
+      double error = Math.abs((double) rank / sorted.length - q);
+      assertTrue("quantile " + q + " has rank error " + error, error < 0.005 * Math.sqrt(4 * q * (1 - q)) + 0.0002);
+    }
+  }
+}